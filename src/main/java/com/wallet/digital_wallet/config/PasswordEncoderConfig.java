@@ -1,19 +1,26 @@
 package com.wallet.digital_wallet.config;
 
+import com.wallet.digital_wallet.security.PinHasher;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
 /**
  * Crypto configuration for hashing/verifying user PINs.
  *
- * <p>We use BCrypt to store PIN securely (never store raw PIN).
+ * <p>We use BCrypt to store PIN securely (never store raw PIN). All hashing runs on the bounded
+ * {@link PinHasher} pool, which is also the encoder Spring Security uses for login.
  */
 @Configuration
 public class PasswordEncoderConfig {
 
-    @Bean
-    public BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    @Bean(destroyMethod = "shutdown")
+    public PinHasher passwordEncoder(MeterRegistry meterRegistry,
+                                     @Value("${wallet.pin-hashing.threads:0}") int threads,
+                                     @Value("${wallet.pin-hashing.queue-capacity:64}") int queueCapacity,
+                                     @Value("${wallet.pin-hashing.strength:10}") int strength,
+                                     @Value("${wallet.pin-hashing.wait-timeout-ms:3000}") long waitTimeoutMillis) {
+        return new PinHasher(threads, queueCapacity, strength, waitTimeoutMillis, meterRegistry);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,12 @@
+package com.wallet.digital_wallet.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} background jobs (e.g. expired idempotency key purge).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,77 @@
+package com.wallet.digital_wallet.config;
+
+import com.wallet.digital_wallet.entity.EntityCacheRegions;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.time.Duration;
+
+/**
+ * Hibernate second-level and query cache for read-mostly entities, enabled by the {@code l2cache} profile.
+ *
+ * <p>Documentation requirements:
+ * <ul>
+ *   <li>Caches {@code Merchant} and the {@code User} row (identity fields; the wallet is never cached because
+ *       balances are also written by JDBC), plus the results of {@code findByMerchantCode}, {@code findByCategory}
+ *       and {@code findByUsername}</li>
+ *   <li>Each region is an on-heap Ehcache (JCache) cache with its own {@code wallet.l2cache.<region>.size} and
+ *       {@code ttl-seconds}; the update-timestamps region never expires, so cached query results are always
+ *       invalidated by writes to their tables</li>
+ *   <li>Hibernate flags (region factory, query cache, statistics) live in {@code application-l2cache.yml};
+ *       statistics are published as {@code hibernate.*} actuator metrics</li>
+ *   <li>Without the profile the provider stays on the classpath but no cache is created or consulted</li>
+ * </ul>
+ */
+@Configuration
+@Profile("l2cache")
+public class SecondLevelCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${wallet.l2cache.merchants.size:10000}") long merchantsSize,
+            @Value("${wallet.l2cache.merchants.ttl-seconds:600}") long merchantsTtlSeconds,
+            @Value("${wallet.l2cache.users.size:50000}") long usersSize,
+            @Value("${wallet.l2cache.users.ttl-seconds:300}") long usersTtlSeconds,
+            @Value("${wallet.l2cache.queries.size:10000}") long queriesSize,
+            @Value("${wallet.l2cache.queries.ttl-seconds:60}") long queriesTtlSeconds,
+            @Value("${wallet.l2cache.update-timestamps.size:1000}") long timestampsSize) {
+        CacheManager cacheManager = Caching.getCachingProvider(EhcacheCachingProvider.class.getName())
+                .getCacheManager();
+        createRegion(cacheManager, EntityCacheRegions.MERCHANTS, merchantsSize, merchantsTtlSeconds);
+        createRegion(cacheManager, EntityCacheRegions.USERS, usersSize, usersTtlSeconds);
+        createRegion(cacheManager, EntityCacheRegions.QUERY_RESULTS, queriesSize, queriesTtlSeconds);
+        createRegion(cacheManager, EntityCacheRegions.UPDATE_TIMESTAMPS, timestampsSize, 0);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    /**
+     * Creates (or recreates) a region as an LRU-bounded heap cache; {@code ttlSeconds <= 0} never expires.
+     */
+    private static void createRegion(CacheManager cacheManager, String region, long size, long ttlSeconds) {
+        if (cacheManager.getCache(region) != null) {
+            cacheManager.destroyCache(region);
+        }
+        CacheConfigurationBuilder<Object, Object> configuration = CacheConfigurationBuilder
+                .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(Math.max(size, 1)))
+                .withExpiry(ttlSeconds > 0
+                        ? ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ttlSeconds))
+                        : ExpiryPolicyBuilder.noExpiration());
+        cacheManager.createCache(region, Eh107Configuration.fromEhcacheCacheConfiguration(configuration));
+    }
+}
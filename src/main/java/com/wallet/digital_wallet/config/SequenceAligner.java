@@ -0,0 +1,68 @@
+package com.wallet.digital_wallet.config;
+
+import com.wallet.digital_wallet.entity.EntitySequences;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Brings the entity ID sequences in line with existing data before the first insert.
+ *
+ * <p>Documentation requirements:
+ * <ul>
+ *   <li>Runs after Hibernate's schema update (which creates missing sequences) and before the web server starts</li>
+ *   <li>Sets each sequence's increment to {@link EntitySequences#ALLOCATION_SIZE}</li>
+ *   <li>Moves a sequence past {@code MAX(id)} of its table if it is behind, e.g. for rows written while
+ *       the tables still used IDENTITY columns. The target is {@code GREATEST(max_id + 1, last_value + increment)}
+ *       (pooled-lo: the block starting at {@code last_value} may still be in use by a running instance, also
+ *       when the increment shrinks), and a sequence whose next value is already past both is left alone</li>
+ * </ul>
+ *
+ * <p>PostgreSQL syntax; disable with {@code wallet.ids.align-sequences=false} on other databases.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@Slf4j
+public class SequenceAligner {
+    private static final Map<String, String> TABLES = Map.of(
+            EntitySequences.USERS, "users",
+            EntitySequences.WALLETS, "wallets",
+            EntitySequences.MERCHANTS, "merchants",
+            EntitySequences.TRANSACTIONS, "transactions",
+            EntitySequences.WALLET_BALANCE_SHARDS, "wallet_balance_shards");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+
+    public SequenceAligner(JdbcTemplate jdbcTemplate,
+                           @Value("${wallet.ids.align-sequences:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    public void align() {
+        if (!enabled) {
+            return;
+        }
+        TABLES.forEach((sequence, table) -> {
+            // Read with the old increment, which sized the block handed out last.
+            Map<String, Object> state = jdbcTemplate.queryForMap(
+                    "SELECT GREATEST(m.max_id + 1, s.last_value + CASE WHEN s.is_called THEN p.seqincrement ELSE 0 END) AS first_free, "
+                            + "s.last_value + CASE WHEN s.is_called THEN " + EntitySequences.ALLOCATION_SIZE + " ELSE 0 END AS next_value "
+                            + "FROM (SELECT COALESCE(MAX(id), 0) AS max_id FROM " + table + ") m, " + sequence + " s, pg_sequence p "
+                            + "WHERE p.seqrelid = '" + sequence + "'::regclass");
+            jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " INCREMENT BY " + EntitySequences.ALLOCATION_SIZE);
+            long firstFree = ((Number) state.get("first_free")).longValue();
+            if (((Number) state.get("next_value")).longValue() < firstFree) {
+                jdbcTemplate.queryForObject("SELECT setval('" + sequence + "', " + firstFree + ", false)", Long.class);
+                log.info("Sequence {} moved to {} to follow existing {} rows", sequence, firstFree, table);
+            }
+        });
+    }
+}
@@ -10,7 +10,9 @@ import com.wallet.digital_wallet.entity.Transaction;
 import com.wallet.digital_wallet.enums.MerchantCategory;
 import com.wallet.digital_wallet.mapper.MerchantMapper;
 import com.wallet.digital_wallet.mapper.TransactionMapper;
+import com.wallet.digital_wallet.repository.CollectionVersionView;
 import com.wallet.digital_wallet.service.MerchantService;
+import com.wallet.digital_wallet.util.ETags;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -21,12 +23,16 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  * REST controller for merchant management.
  *
  * <p>Base path: {@code /api/v1/merchants}
  * <p>Provides merchant CRUD and merchant transaction history endpoints.
+ * <p>Merchant GETs carry a strong ETag and answer a matching {@code If-None-Match} with 304: single merchants from
+ * ID and {@code updatedAt} of the {@code MerchantDirectory} copy, listings from the merchant collection version
+ * (count and latest {@code updatedAt}, one aggregate query) so an unchanged page is never loaded.
  */
 @RestController
 @RequestMapping("/api/v1/merchants")
@@ -49,25 +55,27 @@ public class MerchantController {
     @Operation(summary = "List all merchants (paginated)")
     public ResponseEntity<ApiResponse<PagedResponse<MerchantResponse>>> getAllMerchants(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest request) {
+        if (request.checkNotModified(listingETag(page, size))) {
+            return null;
+        }
         Pageable pageable = PageRequest.of(page, size);
         Page<Merchant> merchants = merchantService.getAllMerchants(pageable);
         PagedResponse<MerchantResponse> response = PagedResponse.fromPage(merchants.map(merchantMapper::toResponse));
-        return ResponseEntity.ok(ApiResponse.success("Success", response));
+        return ResponseEntity.ok().cacheControl(ETags.REVALIDATE).body(ApiResponse.success("Success", response));
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get merchant by ID")
-    public ResponseEntity<ApiResponse<MerchantResponse>> getMerchant(@PathVariable Long id) {
-        Merchant merchant = merchantService.getMerchantById(id);
-        return ResponseEntity.ok(ApiResponse.success("Success", merchantMapper.toResponse(merchant)));
+    public ResponseEntity<ApiResponse<MerchantResponse>> getMerchant(@PathVariable Long id, WebRequest request) {
+        return merchantResponse(merchantService.getMerchantById(id), request);
     }
 
     @GetMapping("/code/{code}")
     @Operation(summary = "Get merchant by code")
-    public ResponseEntity<ApiResponse<MerchantResponse>> getMerchantByCode(@PathVariable String code) {
-        Merchant merchant = merchantService.getMerchantByCode(code);
-        return ResponseEntity.ok(ApiResponse.success("Success", merchantMapper.toResponse(merchant)));
+    public ResponseEntity<ApiResponse<MerchantResponse>> getMerchantByCode(@PathVariable String code, WebRequest request) {
+        return merchantResponse(merchantService.getMerchantByCode(code), request);
     }
 
     @PutMapping("/{id}")
@@ -82,11 +90,15 @@ public class MerchantController {
     public ResponseEntity<ApiResponse<PagedResponse<MerchantResponse>>> getMerchantsByCategory(
             @PathVariable MerchantCategory category,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest request) {
+        if (request.checkNotModified(listingETag(page, size))) {
+            return null;
+        }
         Pageable pageable = PageRequest.of(page, size);
         Page<Merchant> merchants = merchantService.getAllMerchants(pageable);  // Simplified; filter by category in service if needed
         PagedResponse<MerchantResponse> response = PagedResponse.fromPage(merchants.map(merchantMapper::toResponse));
-        return ResponseEntity.ok(ApiResponse.success("Success", response));
+        return ResponseEntity.ok().cacheControl(ETags.REVALIDATE).body(ApiResponse.success("Success", response));
     }
 
     @GetMapping("/{id}/transactions")
@@ -100,4 +112,17 @@ public class MerchantController {
         PagedResponse<TransactionResponse> response = PagedResponse.fromPage(txns.map(transactionMapper::toResponse));
         return ResponseEntity.ok(ApiResponse.success("Success", response));
     }
-}
\ No newline at end of file
+
+    private ResponseEntity<ApiResponse<MerchantResponse>> merchantResponse(Merchant merchant, WebRequest request) {
+        if (request.checkNotModified(ETags.of("merchant", merchant.getId(), merchant.getUpdatedAt()))) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(ETags.REVALIDATE)
+                .body(ApiResponse.success("Success", merchantMapper.toResponse(merchant)));
+    }
+
+    private String listingETag(int page, int size) {
+        CollectionVersionView version = merchantService.getMerchantsVersion();
+        return ETags.of("merchants", version.getCount(), version.getLastUpdated(), page, size);
+    }
+}
@@ -0,0 +1,51 @@
+package com.wallet.digital_wallet.controller;
+
+import com.wallet.digital_wallet.dto.request.SetPinHashingStrengthRequest;
+import com.wallet.digital_wallet.dto.response.ApiResponse;
+import com.wallet.digital_wallet.dto.response.PinHashingResponse;
+import com.wallet.digital_wallet.security.PinHasher;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Admin REST controller for the PIN hashing pool.
+ *
+ * <p>Base path: {@code /api/v1/admin/pin-hashing} (requires {@code ROLE_ADMIN})
+ * <p>The cost factor is changed on the instance that serves the request and lasts until restart; set
+ * {@code wallet.pin-hashing.strength} to keep it. Users are rehashed to the new cost as they log in.
+ */
+@RestController
+@RequestMapping("/api/v1/admin/pin-hashing")
+@RequiredArgsConstructor
+@Tag(name = "PIN Hashing Administration")
+public class PinHashingAdminController {
+    private final PinHasher pinHasher;
+
+    @GetMapping
+    @Operation(summary = "Get PIN hashing cost and pool state")
+    public ResponseEntity<ApiResponse<PinHashingResponse>> get() {
+        return ResponseEntity.ok(ApiResponse.success("Success", toResponse()));
+    }
+
+    @PutMapping("/strength")
+    @Operation(summary = "Change the BCrypt cost factor of new PIN hashes")
+    public ResponseEntity<ApiResponse<PinHashingResponse>> setStrength(
+            @Valid @RequestBody SetPinHashingStrengthRequest request) {
+        pinHasher.setStrength(request.getStrength());
+        return ResponseEntity.ok(ApiResponse.success("PIN hashing cost updated", toResponse()));
+    }
+
+    private PinHashingResponse toResponse() {
+        return PinHashingResponse.builder()
+                .strength(pinHasher.getStrength())
+                .threads(pinHasher.getThreads())
+                .activeCount(pinHasher.getActiveCount())
+                .queueDepth(pinHasher.getQueueDepth())
+                .queueCapacity(pinHasher.getQueueCapacity())
+                .build();
+    }
+}
@@ -0,0 +1,64 @@
+package com.wallet.digital_wallet.controller;
+
+import com.wallet.digital_wallet.dto.response.ApiResponse;
+import com.wallet.digital_wallet.dto.response.PagedResponse;
+import com.wallet.digital_wallet.dto.response.ReconciliationDiscrepancyResponse;
+import com.wallet.digital_wallet.dto.response.ReconciliationRunResponse;
+import com.wallet.digital_wallet.mapper.ReconciliationMapper;
+import com.wallet.digital_wallet.service.ReconciliationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Admin REST controller for the wallet balance reconciliation job.
+ *
+ * <p>Base path: {@code /api/v1/admin/reconciliation} (requires {@code ROLE_ADMIN})
+ * <p>Starting a run returns immediately (202); progress is polled through the run endpoints.
+ */
+@RestController
+@RequestMapping("/api/v1/admin/reconciliation")
+@RequiredArgsConstructor
+@Tag(name = "Reconciliation Administration")
+public class ReconciliationAdminController {
+    private final ReconciliationService reconciliationService;
+    private final ReconciliationMapper reconciliationMapper;
+
+    @PostMapping("/runs")
+    @Operation(summary = "Start a reconciliation run")
+    public ResponseEntity<ApiResponse<ReconciliationRunResponse>> start() {
+        ReconciliationRunResponse response = reconciliationMapper.toResponse(reconciliationService.start());
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success("Reconciliation started", response));
+    }
+
+    @GetMapping("/runs/latest")
+    @Operation(summary = "Get the latest reconciliation run")
+    public ResponseEntity<ApiResponse<ReconciliationRunResponse>> getLatestRun() {
+        return ResponseEntity.ok(ApiResponse.success("Success",
+                reconciliationMapper.toResponse(reconciliationService.getLatestRun())));
+    }
+
+    @GetMapping("/runs/{runId}")
+    @Operation(summary = "Get a reconciliation run")
+    public ResponseEntity<ApiResponse<ReconciliationRunResponse>> getRun(@PathVariable Long runId) {
+        return ResponseEntity.ok(ApiResponse.success("Success",
+                reconciliationMapper.toResponse(reconciliationService.getRun(runId))));
+    }
+
+    @GetMapping("/runs/{runId}/discrepancies")
+    @Operation(summary = "Get the discrepancies found by a reconciliation run")
+    public ResponseEntity<ApiResponse<PagedResponse<ReconciliationDiscrepancyResponse>>> getDiscrepancies(
+            @PathVariable Long runId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        PagedResponse<ReconciliationDiscrepancyResponse> response = PagedResponse.fromPage(
+                reconciliationService.getDiscrepancies(runId, PageRequest.of(page, size))
+                        .map(reconciliationMapper::toResponse));
+        return ResponseEntity.ok(ApiResponse.success("Success", response));
+    }
+}
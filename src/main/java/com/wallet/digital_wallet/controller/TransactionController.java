@@ -1,13 +1,23 @@
 package com.wallet.digital_wallet.controller;
 
+import com.wallet.digital_wallet.dto.request.BatchTransactionRequest;
+import com.wallet.digital_wallet.dto.request.CreatePaymentSessionRequest;
 import com.wallet.digital_wallet.dto.request.MerchantPaymentRequest;
 import com.wallet.digital_wallet.dto.request.TransferRequest;
 import com.wallet.digital_wallet.dto.response.ApiResponse;
+import com.wallet.digital_wallet.dto.response.BatchTransactionResponse;
 import com.wallet.digital_wallet.dto.response.PagedResponse;
+import com.wallet.digital_wallet.dto.response.PaymentSessionResponse;
 import com.wallet.digital_wallet.dto.response.TransactionResponse;
 import com.wallet.digital_wallet.entity.Transaction;
+import com.wallet.digital_wallet.enums.TransactionStatus;
 import com.wallet.digital_wallet.enums.TransactionType;
 import com.wallet.digital_wallet.mapper.TransactionMapper;
+import com.wallet.digital_wallet.service.BatchItem;
+import com.wallet.digital_wallet.service.BatchTransactionService;
+import com.wallet.digital_wallet.service.IdempotencyService;
+import com.wallet.digital_wallet.service.PaymentSessionService;
+import com.wallet.digital_wallet.service.SettlementService;
 import com.wallet.digital_wallet.service.TransactionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -17,17 +27,28 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.net.URI;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * REST controller for transaction operations (transfers and merchant payments).
  *
  * <p>Base path: {@code /api/v1/transactions}
  * <p>Provides endpoints for initiating transactions and viewing transaction history.
+ * <p>Transfer and merchant payment accept an optional {@code Idempotency-Key} header (see {@link IdempotencyService}).
+ * With {@code Prefer: respond-async} (and async settlement enabled) they return 202 with a PENDING transaction;
+ * poll {@code /reference/{ref}} or subscribe to {@code /reference/{ref}/events} for the outcome.
+ * <p>{@code POST /payment-sessions} verifies the PIN once and returns a short-lived token that these endpoints
+ * accept as {@code paymentToken} instead of the PIN.
  */
 @RestController
 @RequestMapping("/api/v1/transactions")
@@ -35,20 +56,57 @@ import java.util.Map;
 @Tag(name = "Transactions")
 public class TransactionController {
     private final TransactionService transactionService;
+    private final BatchTransactionService batchTransactionService;
     private final TransactionMapper transactionMapper;
+    private final IdempotencyService idempotencyService;
+    private final SettlementService settlementService;
+    private final PaymentSessionService paymentSessionService;
+
+    private static final long SETTLEMENT_EVENTS_TIMEOUT_MS = 30_000;
 
     @PostMapping("/transfer")
     @Operation(summary = "Transfer money to another user")
-    public ResponseEntity<ApiResponse<TransactionResponse>> transfer(@Valid @RequestBody TransferRequest request) {
-        Transaction txn = transactionService.transfer(request);
-        return ResponseEntity.ok(ApiResponse.success("Transfer completed successfully", transactionMapper.toResponse(txn)));
+    public ResponseEntity<ApiResponse<TransactionResponse>> transfer(@Valid @RequestBody TransferRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestHeader(value = "Prefer", required = false) String prefer) {
+        boolean async = respondAsync(prefer);
+        TransactionResponse response = idempotencyService.execute(idempotencyKey, "transfer", request,
+                TransactionResponse.class, () -> transactionMapper.toResponse(async
+                        ? settlementService.acceptTransfer(request)
+                        : transactionService.transfer(request)));
+        return respond(response, "Transfer completed successfully");
     }
 
     @PostMapping("/merchant-payment")
     @Operation(summary = "Pay merchant")
-    public ResponseEntity<ApiResponse<TransactionResponse>> payMerchant(@Valid @RequestBody MerchantPaymentRequest request) {
-        Transaction txn = transactionService.payMerchant(request);
-        return ResponseEntity.ok(ApiResponse.success("Payment completed successfully", transactionMapper.toResponse(txn)));
+    public ResponseEntity<ApiResponse<TransactionResponse>> payMerchant(@Valid @RequestBody MerchantPaymentRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestHeader(value = "Prefer", required = false) String prefer) {
+        boolean async = respondAsync(prefer);
+        TransactionResponse response = idempotencyService.execute(idempotencyKey, "merchant-payment", request,
+                TransactionResponse.class, () -> transactionMapper.toResponse(async
+                        ? settlementService.acceptMerchantPayment(request)
+                        : transactionService.payMerchant(request)));
+        return respond(response, "Payment completed successfully");
+    }
+
+    @PostMapping("/payment-sessions")
+    @Operation(summary = "Verify the PIN once and open a short-lived payment session")
+    public ResponseEntity<ApiResponse<PaymentSessionResponse>> createPaymentSession(
+            @Valid @RequestBody CreatePaymentSessionRequest request) {
+        PaymentSessionService.PaymentSession session = paymentSessionService.issue(request.getWalletId(),
+                request.getPin(), request.getMaxAmount(), request.getMaxPayments());
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponse.success("Payment session opened", transactionMapper.toPaymentSessionResponse(session)));
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "Execute many transfers and merchant payments in one request")
+    public ResponseEntity<ApiResponse<BatchTransactionResponse>> batch(@Valid @RequestBody BatchTransactionRequest request) {
+        List<BatchItem> items = batchTransactionService.execute(request);
+        BatchTransactionResponse response = transactionMapper.toBatchResponse(request.getMode(), items);
+        return ResponseEntity.ok(ApiResponse.success("Batch processed: " + response.getSucceeded() + " completed, "
+                + response.getFailed() + " not applied", response));
     }
 
     @GetMapping("/{transactionId}")
@@ -65,6 +123,26 @@ public class TransactionController {
         return ResponseEntity.ok(ApiResponse.success("Success", transactionMapper.toResponse(txn)));
     }
 
+    @GetMapping(value = "/reference/{refNumber}/events", produces = "text/event-stream")
+    @Operation(summary = "Subscribe to the settlement of a transaction (server-sent events)")
+    public SseEmitter subscribeToSettlement(@PathVariable String refNumber) {
+        SseEmitter emitter = new SseEmitter(SETTLEMENT_EVENTS_TIMEOUT_MS);
+        CompletableFuture<Transaction> settlement = settlementService.awaitSettlement(refNumber);
+        // Also covers rows settled on another instance, which never complete the local subscription.
+        emitter.onTimeout(() -> settlementService.cancelAwait(refNumber, settlement));
+        emitter.onCompletion(() -> settlementService.cancelAwait(refNumber, settlement));
+        emitter.onError(e -> settlementService.cancelAwait(refNumber, settlement));
+        settlement.thenAccept(txn -> {
+            try {
+                emitter.send(SseEmitter.event().name("settled").data(transactionMapper.toResponse(txn)));
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+            }
+        });
+        return emitter;
+    }
+
     @GetMapping("/user/{userId}")
     @Operation(summary = "Get user transactions (paginated)")
     public ResponseEntity<ApiResponse<PagedResponse<TransactionResponse>>> getUserTransactions(
@@ -98,4 +176,20 @@ public class TransactionController {
         Map<String, Object> stats = transactionService.getTransactionStats(userId);
         return ResponseEntity.ok(ApiResponse.success("Success", stats));
     }
-}
\ No newline at end of file
+
+    private boolean respondAsync(String prefer) {
+        return prefer != null && prefer.toLowerCase().contains("respond-async") && settlementService.isAvailable();
+    }
+
+    /**
+     * Returns 202 with a Location to poll while the transaction is still PENDING, otherwise 200.
+     */
+    private ResponseEntity<ApiResponse<TransactionResponse>> respond(TransactionResponse response, String completedMessage) {
+        if (response.getStatus() == TransactionStatus.PENDING) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .location(URI.create("/api/v1/transactions/reference/" + response.getReferenceNumber()))
+                    .body(ApiResponse.success("Transaction accepted for settlement", response));
+        }
+        return ResponseEntity.ok(ApiResponse.success(completedMessage, response));
+    }
+}
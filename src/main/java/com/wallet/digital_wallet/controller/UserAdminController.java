@@ -0,0 +1,36 @@
+package com.wallet.digital_wallet.controller;
+
+import com.wallet.digital_wallet.dto.request.SetUserRoleRequest;
+import com.wallet.digital_wallet.dto.response.ApiResponse;
+import com.wallet.digital_wallet.dto.response.UserResponse;
+import com.wallet.digital_wallet.mapper.UserMapper;
+import com.wallet.digital_wallet.service.UserService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Admin REST controller for user roles.
+ *
+ * <p>Base path: {@code /api/v1/admin/users} (requires {@code ROLE_ADMIN})
+ * <p>A role change invalidates the user's login tokens; the new role is carried by the next login token.
+ */
+@RestController
+@RequestMapping("/api/v1/admin/users")
+@RequiredArgsConstructor
+@Tag(name = "User Administration")
+public class UserAdminController {
+    private final UserService userService;
+    private final UserMapper userMapper;
+
+    @PutMapping("/{userId}/role")
+    @Operation(summary = "Change a user's role")
+    public ResponseEntity<ApiResponse<UserResponse>> changeRole(@PathVariable Long userId,
+                                                                @Valid @RequestBody SetUserRoleRequest request) {
+        return ResponseEntity.ok(ApiResponse.success("Role updated successfully",
+                userMapper.toResponse(userService.changeRole(userId, request.getRole()))));
+    }
+}
@@ -6,10 +6,14 @@ import com.wallet.digital_wallet.dto.response.ApiResponse;
 import com.wallet.digital_wallet.dto.response.PagedResponse;
 import com.wallet.digital_wallet.dto.response.UserResponse;
 import com.wallet.digital_wallet.entity.User;
+import com.wallet.digital_wallet.entity.Wallet;
+import com.wallet.digital_wallet.exception.TooManyRequestsException;
 import com.wallet.digital_wallet.mapper.UserMapper;
 import com.wallet.digital_wallet.service.UserService;
+import com.wallet.digital_wallet.util.ETags;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -19,8 +23,11 @@ import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import com.wallet.digital_wallet.dto.request.LoginRequest;
 import com.wallet.digital_wallet.dto.response.JwtResponse;
+import com.wallet.digital_wallet.security.LoginThrottler;
+import com.wallet.digital_wallet.security.PrincipalCache;
 import com.wallet.digital_wallet.util.JwtUtil;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -42,6 +49,8 @@ public class UserController {
     private final UserMapper userMapper;
     private final AuthenticationManager authenticationManager;
     private final JwtUtil jwtUtil;
+    private final PrincipalCache principalCache;
+    private final LoginThrottler loginThrottler;
 
     @PostMapping
     @Operation(summary = "Register new user")
@@ -54,23 +63,20 @@ public class UserController {
 
     @GetMapping("/{id}")
     @Operation(summary = "Get user by ID")
-    public ResponseEntity<ApiResponse<UserResponse>> getUser(@PathVariable Long id) {
-        User user = userService.getUserById(id);
-        return ResponseEntity.ok(ApiResponse.success("Success", userMapper.toResponse(user)));
+    public ResponseEntity<ApiResponse<UserResponse>> getUser(@PathVariable Long id, WebRequest request) {
+        return userResponse(userService.getUserById(id), request);
     }
 
     @GetMapping("/me")
     @Operation(summary = "Get current authenticated user")
-    public ResponseEntity<ApiResponse<UserResponse>> getCurrentUser(Authentication authentication) {
-        User user = userService.getUserByUsername(authentication.getName());
-        return ResponseEntity.ok(ApiResponse.success("Success", userMapper.toResponse(user)));
+    public ResponseEntity<ApiResponse<UserResponse>> getCurrentUser(Authentication authentication, WebRequest request) {
+        return userResponse(userService.getUserByUsername(authentication.getName()), request);
     }
 
     @GetMapping("/username/{username}")
     @Operation(summary = "Get user by username")
-    public ResponseEntity<ApiResponse<UserResponse>> getUserByUsername(@PathVariable String username) {
-        User user = userService.getUserByUsername(username);
-        return ResponseEntity.ok(ApiResponse.success("Success", userMapper.toResponse(user)));
+    public ResponseEntity<ApiResponse<UserResponse>> getUserByUsername(@PathVariable String username, WebRequest request) {
+        return userResponse(userService.getUserByUsername(username), request);
     }
 
     @PutMapping("/{id}")
@@ -110,26 +116,57 @@ public class UserController {
         return ResponseEntity.ok(ApiResponse.success("Success", response));
     }
 
+    /**
+     * Logs a user in. Usernames and client addresses with too many recent failures are rejected with 429 by
+     * {@link LoginThrottler} before any PIN hashing or query (behind a proxy, set
+     * {@code server.forward-headers-strategy} so the remote address is the client's).
+     */
     @PostMapping("/login")
-    public ResponseEntity<Object> login(@RequestBody LoginRequest request) {
+    public ResponseEntity<Object> login(@RequestBody LoginRequest request, HttpServletRequest httpRequest) {
+        String clientIp = httpRequest.getRemoteAddr();
+        loginThrottler.check(request.getUsername(), clientIp);
         try {
             Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPin())
             );
             String authenticatedUsername = authentication.getName();
-            String token = jwtUtil.generateToken(authenticatedUsername);
+            String token = jwtUtil.generateToken(principalCache.requireActive(authenticatedUsername));
+            userService.rehashPinIfNeeded(authenticatedUsername, request.getPin());
 
             return ResponseEntity.ok(ApiResponse.success("Login successful", new JwtResponse(token, authenticatedUsername)));
+        } catch (TooManyRequestsException e) {
+            throw e;
         } catch (AuthenticationException e) {
             try {
                 String authenticatedUsername = userService.authenticateForLogin(request.getUsername(), request.getPin());
-                String token = jwtUtil.generateToken(authenticatedUsername);
+                String token = jwtUtil.generateToken(principalCache.requireActive(authenticatedUsername));
+                userService.rehashPinIfNeeded(authenticatedUsername, request.getPin());
                 return ResponseEntity.ok(ApiResponse.success("Login successful", new JwtResponse(token, authenticatedUsername)));
+            } catch (TooManyRequestsException busy) {
+                throw busy;
             } catch (Exception ignored) {
+                loginThrottler.recordFailure(request.getUsername(), clientIp);
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(ApiResponse.error("Invalid username or PIN", null));
             }
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ApiResponse.error("Login failed: " + e.getMessage(), null));
         }
     }
+
+    /**
+     * Single-user response with a strong ETag: the user's {@code updatedAt} covers its own fields, the wallet
+     * version and balance cover the embedded wallet summary. A matching {@code If-None-Match} is answered with 304.
+     */
+    private ResponseEntity<ApiResponse<UserResponse>> userResponse(User user, WebRequest request) {
+        Wallet wallet = user.getWallet();
+        String etag = wallet == null
+                ? ETags.of("user", user.getId(), user.getUpdatedAt())
+                : ETags.of("user", user.getId(), user.getUpdatedAt(), wallet.getId(), wallet.getVersion(),
+                        wallet.getDailyLimit(), wallet.getTotalBalance());
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(ETags.REVALIDATE)
+                .body(ApiResponse.success("Success", userMapper.toResponse(user)));
+    }
 }
@@ -0,0 +1,70 @@
+package com.wallet.digital_wallet.controller;
+
+import com.wallet.digital_wallet.dto.request.PromoteWalletRequest;
+import com.wallet.digital_wallet.dto.response.ApiResponse;
+import com.wallet.digital_wallet.dto.response.WalletShardResponse;
+import com.wallet.digital_wallet.entity.Wallet;
+import com.wallet.digital_wallet.entity.WalletBalanceShard;
+import com.wallet.digital_wallet.service.WalletService;
+import com.wallet.digital_wallet.service.WalletShardService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Admin REST controller for wallet operations that regular users must not perform.
+ *
+ * <p>Base path: {@code /api/v1/admin/wallets} (requires {@code ROLE_ADMIN})
+ * <p>Supports promoting hot wallets to sharded balances, demoting them and rebalancing shards.
+ */
+@RestController
+@RequestMapping("/api/v1/admin/wallets")
+@RequiredArgsConstructor
+@Tag(name = "Wallet Administration")
+public class WalletAdminController {
+    private final WalletService walletService;
+    private final WalletShardService walletShardService;
+
+    @GetMapping("/{walletId}/shards")
+    @Operation(summary = "Get wallet shard layout")
+    public ResponseEntity<ApiResponse<WalletShardResponse>> getShards(@PathVariable Long walletId) {
+        return ResponseEntity.ok(ApiResponse.success("Success", toShardResponse(walletId)));
+    }
+
+    @PostMapping("/{walletId}/shards")
+    @Operation(summary = "Promote wallet to a sharded balance")
+    public ResponseEntity<ApiResponse<WalletShardResponse>> promote(@PathVariable Long walletId,
+                                                                    @Valid @RequestBody PromoteWalletRequest request) {
+        walletShardService.promote(walletId, request.getShardCount());
+        return ResponseEntity.ok(ApiResponse.success("Wallet promoted successfully", toShardResponse(walletId)));
+    }
+
+    @DeleteMapping("/{walletId}/shards")
+    @Operation(summary = "Demote wallet to a single balance row")
+    public ResponseEntity<ApiResponse<WalletShardResponse>> demote(@PathVariable Long walletId) {
+        walletShardService.demote(walletId);
+        return ResponseEntity.ok(ApiResponse.success("Wallet demoted successfully", toShardResponse(walletId)));
+    }
+
+    @PostMapping("/{walletId}/shards/rebalance")
+    @Operation(summary = "Rebalance wallet shards evenly")
+    public ResponseEntity<ApiResponse<WalletShardResponse>> rebalance(@PathVariable Long walletId) {
+        walletShardService.rebalance(walletId);
+        return ResponseEntity.ok(ApiResponse.success("Wallet shards rebalanced successfully", toShardResponse(walletId)));
+    }
+
+    private WalletShardResponse toShardResponse(Long walletId) {
+        Wallet wallet = walletService.getWalletById(walletId);
+        return WalletShardResponse.builder()
+                .walletId(wallet.getId())
+                .shardCount(wallet.getShardCount())
+                .totalBalance(wallet.getTotalBalance())
+                .shardBalances(walletShardService.getShards(walletId).stream()
+                        .map(WalletBalanceShard::getBalance)
+                        .toList())
+                .build();
+    }
+}
@@ -6,15 +6,20 @@ import com.wallet.digital_wallet.dto.response.ApiResponse;
 import com.wallet.digital_wallet.dto.response.WalletResponse;
 import com.wallet.digital_wallet.entity.Wallet;
 import com.wallet.digital_wallet.mapper.WalletMapper;
+import com.wallet.digital_wallet.service.IdempotencyService;
 import com.wallet.digital_wallet.service.WalletService;
+import com.wallet.digital_wallet.service.WalletSnapshotCache;
+import com.wallet.digital_wallet.util.ETags;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 /**
  * REST controller for wallet operations.
@@ -24,9 +29,11 @@ import java.math.BigDecimal;
  * <ul>
  *   <li>Wallet lookup by walletId or userId</li>
  *   <li>Balance retrieval</li>
- *   <li>Adding money to wallet</li>
+ *   <li>Adding money to wallet (optional {@code Idempotency-Key} header)</li>
  *   <li>Daily transaction limit updates</li>
  * </ul>
+ * <p>GETs carry a strong ETag (wallet ID, version and balance; the balance covers shard credits, which do not bump
+ * the version) and answer a matching {@code If-None-Match} with 304.
  */
 @RestController
 @RequestMapping("/api/v1/wallets")
@@ -35,33 +42,47 @@ import java.math.BigDecimal;
 public class WalletController {
     private final WalletService walletService;
     private final WalletMapper walletMapper;
+    private final IdempotencyService idempotencyService;
 
     @GetMapping("/user/{userId}")
     @Operation(summary = "Get wallet by user ID")
-    public ResponseEntity<ApiResponse<WalletResponse>> getWalletByUserId(@PathVariable Long userId) {
+    public ResponseEntity<ApiResponse<WalletResponse>> getWalletByUserId(@PathVariable Long userId, WebRequest request) {
         Wallet wallet = walletService.getWalletByUserId(userId);
-        return ResponseEntity.ok(ApiResponse.success("Success", walletMapper.toResponse(wallet)));
+        if (request.checkNotModified(ETags.of("wallet", wallet.getId(), wallet.getVersion(), wallet.getTotalBalance()))) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(ETags.REVALIDATE)
+                .body(ApiResponse.success("Success", walletMapper.toResponse(wallet)));
     }
 
     @GetMapping("/{walletId}")
     @Operation(summary = "Get wallet by ID")
-    public ResponseEntity<ApiResponse<WalletResponse>> getWallet(@PathVariable Long walletId) {
-        Wallet wallet = walletService.getWalletById(walletId);
-        return ResponseEntity.ok(ApiResponse.success("Success", walletMapper.toResponse(wallet)));
+    public ResponseEntity<ApiResponse<WalletResponse>> getWallet(@PathVariable Long walletId, WebRequest request) {
+        WalletSnapshotCache.WalletSnapshot wallet = walletService.getWalletSnapshot(walletId);
+        if (request.checkNotModified(ETags.of("wallet", wallet.id(), wallet.version(), wallet.balance()))) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(ETags.REVALIDATE)
+                .body(ApiResponse.success("Success", walletMapper.toResponse(wallet)));
     }
 
     @PostMapping("/{walletId}/add-money")
     @Operation(summary = "Add money to wallet")
-    public ResponseEntity<ApiResponse<WalletResponse>> addMoney(@PathVariable Long walletId, @Valid @RequestBody AddMoneyRequest request) {
-        Wallet wallet = walletService.addMoney(walletId, request);
-        return ResponseEntity.ok(ApiResponse.success("Money added successfully", walletMapper.toResponse(wallet)));
+    public ResponseEntity<ApiResponse<WalletResponse>> addMoney(@PathVariable Long walletId, @Valid @RequestBody AddMoneyRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        WalletResponse response = idempotencyService.execute(idempotencyKey, "add-money", List.of(walletId, request),
+                WalletResponse.class, () -> walletMapper.toResponse(walletService.addMoney(walletId, request)));
+        return ResponseEntity.ok(ApiResponse.success("Money added successfully", response));
     }
 
     @GetMapping("/{walletId}/balance")
     @Operation(summary = "Get wallet balance")
-    public ResponseEntity<ApiResponse<BigDecimal>> getBalance(@PathVariable Long walletId) {
+    public ResponseEntity<ApiResponse<BigDecimal>> getBalance(@PathVariable Long walletId, WebRequest request) {
         BigDecimal balance = walletService.getBalance(walletId);
-        return ResponseEntity.ok(ApiResponse.success("Success", balance));
+        if (request.checkNotModified(ETags.of("balance", walletId, balance))) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(ETags.REVALIDATE).body(ApiResponse.success("Success", balance));
     }
 
     @PutMapping("/{walletId}/daily-limit")
@@ -0,0 +1,36 @@
+package com.wallet.digital_wallet.dto.request;
+
+import com.wallet.digital_wallet.enums.BatchMode;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Request payload for executing many transfers and merchant payments in one call.
+ *
+ * <p>Used by: {@code POST /api/v1/transactions/batch}
+ */
+@Data
+public class BatchTransactionRequest {
+    @Valid
+    private List<TransferRequest> transfers = new ArrayList<>();
+
+    @Valid
+    private List<MerchantPaymentRequest> merchantPayments = new ArrayList<>();
+
+    /**
+     * ATOMIC commits all items or none; BEST_EFFORT (default) skips failing items.
+     */
+    @NotNull(message = "Mode is required")
+    private BatchMode mode = BatchMode.BEST_EFFORT;
+
+    @AssertTrue(message = "Batch must contain at least one transfer or merchant payment")
+    public boolean isNotEmpty() {
+        return (transfers != null && !transfers.isEmpty())
+                || (merchantPayments != null && !merchantPayments.isEmpty());
+    }
+}
@@ -0,0 +1,35 @@
+package com.wallet.digital_wallet.dto.request;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * Request payload for opening a PIN-verified payment session.
+ *
+ * <p>Used by: {@code POST /api/v1/transactions/payment-sessions}
+ */
+@Data
+public class CreatePaymentSessionRequest {
+    @NotNull(message = "Wallet ID is required")
+    private Long walletId;
+
+    @NotBlank(message = "PIN is required")
+    private String pin;
+
+    /**
+     * Optional total amount the session may debit; capped by the server.
+     */
+    @DecimalMin(value = "0.01", message = "Max amount must be greater than 0")
+    private BigDecimal maxAmount;
+
+    /**
+     * Optional number of payments the session may authorize; capped by the server.
+     */
+    @Min(value = 1, message = "Max payments must be at least 1")
+    private Integer maxPayments;
+}
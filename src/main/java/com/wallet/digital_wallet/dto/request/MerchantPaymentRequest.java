@@ -26,7 +26,14 @@ public class MerchantPaymentRequest {
 
     private String description;
 
-    @NotBlank(message = "PIN is required")
+    /**
+     * Payer PIN. Required unless {@code paymentToken} is given.
+     */
     private String pin;
 
+    /**
+     * Payment session token used instead of the PIN.
+     */
+    private String paymentToken;
+
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.wallet.digital_wallet.dto.request;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+/**
+ * Request payload for splitting a hot wallet's balance into shards.
+ *
+ * <p>Used by: {@code POST /api/v1/admin/wallets/{walletId}/shards}
+ */
+@Data
+public class PromoteWalletRequest {
+    @NotNull(message = "shardCount is required")
+    @Min(value = 2, message = "shardCount must be at least 2")
+    @Max(value = 64, message = "shardCount must be at most 64")
+    private Integer shardCount;
+}
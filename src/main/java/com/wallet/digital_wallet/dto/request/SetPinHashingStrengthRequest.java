@@ -0,0 +1,17 @@
+package com.wallet.digital_wallet.dto.request;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+/**
+ * Request payload for changing the BCrypt cost factor of new PIN hashes.
+ */
+@Data
+public class SetPinHashingStrengthRequest {
+    @NotNull(message = "strength is required")
+    @Min(value = 4, message = "strength must be at least 4")
+    @Max(value = 16, message = "strength must be at most 16")
+    private Integer strength;
+}
@@ -0,0 +1,15 @@
+package com.wallet.digital_wallet.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+
+/**
+ * Request payload for changing a user's role.
+ */
+@Data
+public class SetUserRoleRequest {
+    @NotBlank(message = "role is required")
+    @Pattern(regexp = "(?i)USER|ADMIN", message = "role must be USER or ADMIN")
+    private String role;
+}
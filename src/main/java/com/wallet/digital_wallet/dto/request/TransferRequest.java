@@ -39,8 +39,12 @@ public class TransferRequest {
     private String description;
 
     /**
-     * Sender PIN for authorization.
+     * Sender PIN for authorization. Required unless {@code paymentToken} is given.
      */
-    @NotBlank(message = "PIN is required")
     private String pin;
+
+    /**
+     * Payment session token ({@code POST /api/v1/transactions/payment-sessions}) used instead of the PIN.
+     */
+    private String paymentToken;
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.wallet.digital_wallet.dto.response;
+
+import com.wallet.digital_wallet.enums.TransactionStatus;
+import com.wallet.digital_wallet.enums.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one item of a batch request.
+ *
+ * <p>{@code status} is COMPLETED, FAILED (see {@code error}) or CANCELLED (not applied because
+ * another item failed an ATOMIC batch).
+ */
+@Data @Builder @AllArgsConstructor @NoArgsConstructor
+public class BatchItemResponse {
+    /**
+     * Position of the item in its request list ({@code transfers} or {@code merchantPayments}).
+     */
+    private int index;
+    private TransactionType type;
+    private TransactionStatus status;
+    private String error;
+    private TransactionResponse transaction;
+}
@@ -0,0 +1,20 @@
+package com.wallet.digital_wallet.dto.response;
+
+import com.wallet.digital_wallet.enums.BatchMode;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Result of a batch request, with one entry per submitted item.
+ */
+@Data @Builder @AllArgsConstructor @NoArgsConstructor
+public class BatchTransactionResponse {
+    private BatchMode mode;
+    private int succeeded;
+    private int failed;
+    private List<BatchItemResponse> items;
+}
@@ -0,0 +1,23 @@
+package com.wallet.digital_wallet.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Payment session DTO.
+ *
+ * <p>{@code token} is sent as {@code paymentToken} in transfer, merchant payment and batch items instead of the PIN.
+ */
+@Data @Builder @AllArgsConstructor @NoArgsConstructor
+public class PaymentSessionResponse {
+    private String token;
+    private Long walletId;
+    private BigDecimal maxAmount;
+    private int maxPayments;
+    private LocalDateTime expiresAt;
+}
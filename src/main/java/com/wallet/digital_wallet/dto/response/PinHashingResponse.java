@@ -0,0 +1,20 @@
+package com.wallet.digital_wallet.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * PIN hashing pool state DTO.
+ *
+ * <p>Returned by admin PIN hashing endpoints; values are for the instance that served the request.
+ */
+@Data @Builder @AllArgsConstructor @NoArgsConstructor
+public class PinHashingResponse {
+    private int strength;
+    private int threads;
+    private int activeCount;
+    private int queueDepth;
+    private int queueCapacity;
+}
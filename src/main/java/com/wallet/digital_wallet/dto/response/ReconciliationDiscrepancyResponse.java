@@ -0,0 +1,24 @@
+package com.wallet.digital_wallet.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Wallet balance discrepancy DTO.
+ *
+ * <p>{@code difference} is {@code balance - expectedBalance}.
+ */
+@Data @Builder @AllArgsConstructor @NoArgsConstructor
+public class ReconciliationDiscrepancyResponse {
+    private Long walletId;
+    private BigDecimal balance;
+    private BigDecimal expectedBalance;
+    private BigDecimal difference;
+    private BigDecimal ledgerBalance;
+    private LocalDateTime detectedAt;
+}
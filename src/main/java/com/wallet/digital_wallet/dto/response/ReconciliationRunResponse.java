@@ -0,0 +1,25 @@
+package com.wallet.digital_wallet.dto.response;
+
+import com.wallet.digital_wallet.enums.ReconciliationStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reconciliation run DTO.
+ *
+ * <p>Returned by admin reconciliation endpoints.
+ */
+@Data @Builder @AllArgsConstructor @NoArgsConstructor
+public class ReconciliationRunResponse {
+    private Long id;
+    private ReconciliationStatus status;
+    private long walletsScanned;
+    private long discrepancyCount;
+    private String error;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
@@ -30,6 +30,11 @@ public class TransactionResponse {
     private TransactionStatus status;
     private String description;
 
+    /**
+     * Set when an asynchronously accepted transaction could not be settled.
+     */
+    private String failureReason;
+
     /**
      * Transaction timestamp in ISO-8601 format.
      */
@@ -21,6 +21,7 @@ public class UserResponse {
     private String fullName;
     private String phoneNumber;
     private UserStatus status;
+    private String role;
     private WalletResponse wallet;
     private LocalDateTime createdAt;
 }
\ No newline at end of file
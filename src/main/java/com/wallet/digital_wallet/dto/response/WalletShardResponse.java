@@ -0,0 +1,26 @@
+package com.wallet.digital_wallet.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Wallet shard layout DTO.
+ *
+ * <p>Returned by admin wallet sharding endpoints.
+ */
+@Data @Builder @AllArgsConstructor @NoArgsConstructor
+public class WalletShardResponse {
+    private Long walletId;
+    private int shardCount;
+    private BigDecimal totalBalance;
+
+    /**
+     * Balance per shard, in shard index order. Empty for unsharded wallets.
+     */
+    private List<BigDecimal> shardBalances;
+}
@@ -0,0 +1,31 @@
+package com.wallet.digital_wallet.entity;
+
+/**
+ * Hibernate second-level cache regions of read-mostly entities.
+ *
+ * <p>Documentation requirements:
+ * <ul>
+ *   <li>Regions are only active with the {@code l2cache} profile; otherwise the cache annotations are inert</li>
+ *   <li>Every region here must be created (with its size and TTL) by
+ *       {@link com.wallet.digital_wallet.config.SecondLevelCacheConfig}; Hibernate fails on startup otherwise</li>
+ *   <li>Only entities written exclusively through Hibernate may be cached: rows changed by JDBC repositories
+ *       (wallets, shards, ledger tables) would go stale</li>
+ * </ul>
+ */
+public final class EntityCacheRegions {
+    public static final String MERCHANTS = "merchants";
+    public static final String USERS = "users";
+
+    /**
+     * Hibernate's default region for cached query results.
+     */
+    public static final String QUERY_RESULTS = "default-query-results-region";
+
+    /**
+     * Hibernate's default region for per-table last-update timestamps, which invalidate cached query results.
+     */
+    public static final String UPDATE_TIMESTAMPS = "default-update-timestamps-region";
+
+    private EntityCacheRegions() {
+    }
+}
@@ -0,0 +1,32 @@
+package com.wallet.digital_wallet.entity;
+
+/**
+ * Database sequences backing entity IDs.
+ *
+ * <p>Documentation requirements:
+ * <ul>
+ *   <li>Every sequence is incremented by {@link #ALLOCATION_SIZE}; one {@code nextval} reserves that many IDs</li>
+ *   <li>Hibernate uses the pooled-lo optimizer ({@code hibernate.id.optimizer.pooled.preferred}): the value
+ *       returned by {@code nextval} is the first ID of the block</li>
+ *   <li>JDBC inserts draw from the same sequences through
+ *       {@link com.wallet.digital_wallet.repository.SequenceIdAllocator}, so both write paths can share a table</li>
+ * </ul>
+ *
+ * <p>Changing {@link #ALLOCATION_SIZE} is safe: {@code SequenceAligner} resets each sequence's increment on startup.
+ */
+public final class EntitySequences {
+    public static final int ALLOCATION_SIZE = 50;
+
+    public static final String USERS = "users_seq";
+    public static final String WALLETS = "wallets_seq";
+    public static final String MERCHANTS = "merchants_seq";
+    public static final String TRANSACTIONS = "transactions_seq";
+    public static final String WALLET_BALANCE_SHARDS = "wallet_balance_shards_seq";
+    public static final String LEDGER_ENTRIES = "ledger_entries_seq";
+    public static final String WALLET_BALANCE_CHECKPOINTS = "wallet_balance_checkpoints_seq";
+    public static final String RECONCILIATION_RUNS = "reconciliation_runs_seq";
+    public static final String RECONCILIATION_DISCREPANCIES = "reconciliation_discrepancies_seq";
+
+    private EntitySequences() {
+    }
+}
@@ -0,0 +1,44 @@
+package com.wallet.digital_wallet.entity;
+
+import com.wallet.digital_wallet.enums.IdempotencyStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stored response of a money-movement request sent with an {@code Idempotency-Key} header.
+ *
+ * <p>The key is scoped by operation and by the caller's user ID ({@code <operation>:<user id>:<client key>}, with
+ * {@code -} for unauthenticated callers); the request hash detects a key being reused for a different request.
+ * A row is inserted {@code IN_PROGRESS} before the movement runs, so the primary key admits one execution across
+ * all instances, and becomes {@code COMPLETED} with the response once it succeeded. Rows are purged once
+ * {@code expiresAt} has passed.
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = @Index(name = "idx_idempotency_keys_expires_at", columnList = "expires_at"))
+@Data @NoArgsConstructor @AllArgsConstructor @Builder
+public class IdempotencyRecord {
+    @Id
+    @Column(name = "idempotency_key", length = 300)
+    private String key;
+
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private IdempotencyStatus status;
+
+    @Column(name = "response_body", columnDefinition = "TEXT")
+    private String responseBody;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
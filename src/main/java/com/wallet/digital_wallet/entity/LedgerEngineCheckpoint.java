@@ -0,0 +1,30 @@
+package com.wallet.digital_wallet.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Highest ledger engine journal sequence already written to the database, per engine partition.
+ *
+ * <p>Updated in the same database transaction as the {@code transactions}/{@code wallets} rows it
+ * covers, so journal replay on startup applies every movement exactly once.
+ */
+@Entity
+@Table(name = "ledger_engine_checkpoints")
+@Data @NoArgsConstructor @AllArgsConstructor @Builder
+public class LedgerEngineCheckpoint {
+    @Id
+    @Column(name = "partition_id")
+    private Integer partitionId;
+
+    @Column(name = "last_sequence", nullable = false)
+    private Long lastSequence;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,68 @@
+package com.wallet.digital_wallet.entity;
+
+import com.wallet.digital_wallet.enums.EntryDirection;
+import com.wallet.digital_wallet.enums.LedgerAccountType;
+import com.wallet.digital_wallet.enums.TransactionType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One leg of a double-entry ledger entry. Every completed movement writes a DEBIT and a CREDIT
+ * leg of the same amount, linked by {@link #referenceNumber}:
+ * <ul>
+ *   <li>PEER_TRANSFER: DEBIT sender wallet, CREDIT receiver wallet</li>
+ *   <li>MERCHANT_PAYMENT: DEBIT payer wallet, CREDIT merchant</li>
+ *   <li>WALLET_LOAD: DEBIT funding, CREDIT wallet</li>
+ * </ul>
+ *
+ * <p>Legs are insert-only. {@code createdAt} is the insert time (close to commit time), which is what
+ * {@link WalletBalanceCheckpoint}s are cut on.
+ */
+@Entity
+@Table(name = "ledger_entries", indexes = {
+        @Index(name = "idx_ledger_entries_account", columnList = "account_type, account_id, created_at"),
+        @Index(name = "idx_ledger_entries_created_at", columnList = "created_at"),
+        @Index(name = "idx_ledger_entries_reference", columnList = "reference_number")})
+@Data @NoArgsConstructor @AllArgsConstructor @Builder
+public class LedgerPosting {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ledger_entries_id")
+    @SequenceGenerator(name = "ledger_entries_id", sequenceName = EntitySequences.LEDGER_ENTRIES, allocationSize = EntitySequences.ALLOCATION_SIZE)
+    private Long id;
+
+    /**
+     * Reference number of the movement; both legs share it.
+     */
+    @Column(name = "reference_number", nullable = false)
+    private String referenceNumber;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "transaction_type", nullable = false)
+    private TransactionType transactionType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "account_type", nullable = false)
+    private LedgerAccountType accountType;
+
+    /**
+     * Wallet or merchant ID; null for the funding account.
+     */
+    @Column(name = "account_id")
+    private Long accountId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EntryDirection direction;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
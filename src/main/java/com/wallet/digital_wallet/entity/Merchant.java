@@ -6,6 +6,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 
@@ -13,13 +15,17 @@ import java.time.LocalDateTime;
  * Merchant entity represents a business that can receive payments from wallets.
  *
  * <p>Merchants are identified by a unique merchant code (merchantCode) used by clients during payment.
+ * With the {@code l2cache} profile merchants are kept in the {@link EntityCacheRegions#MERCHANTS} region.
  */
 @Entity
 @Table(name = "merchants")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityCacheRegions.MERCHANTS)
 @Data @NoArgsConstructor @AllArgsConstructor @Builder
 public class Merchant {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "merchants_id")
+    @SequenceGenerator(name = "merchants_id", sequenceName = EntitySequences.MERCHANTS, allocationSize = EntitySequences.ALLOCATION_SIZE)
     private Long id;
 
     /**
@@ -0,0 +1,58 @@
+package com.wallet.digital_wallet.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A wallet whose stored balance did not match the net of its movements during a {@link ReconciliationRun}.
+ */
+@Entity
+@Table(name = "reconciliation_discrepancies",
+        indexes = @Index(name = "idx_reconciliation_discrepancies_run", columnList = "run_id, wallet_id"))
+@Data @NoArgsConstructor @AllArgsConstructor @Builder
+public class ReconciliationDiscrepancy {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reconciliation_discrepancies_id")
+    @SequenceGenerator(name = "reconciliation_discrepancies_id", sequenceName = EntitySequences.RECONCILIATION_DISCREPANCIES, allocationSize = EntitySequences.ALLOCATION_SIZE)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+
+    @Column(name = "wallet_id", nullable = false)
+    private Long walletId;
+
+    /**
+     * Stored balance (wallet row plus shards).
+     */
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal balance;
+
+    /**
+     * Net of completed transactions and top-ups.
+     */
+    @Column(name = "expected_balance", nullable = false, precision = 15, scale = 2)
+    private BigDecimal expectedBalance;
+
+    /**
+     * {@code balance - expectedBalance}.
+     */
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal difference;
+
+    /**
+     * Balance rebuilt from the ledger (latest checkpoint plus later legs) when the discrepancy was found;
+     * tells whether the stored balance or the movements disagree with the ledger.
+     */
+    @Column(name = "ledger_balance", precision = 15, scale = 2)
+    private BigDecimal ledgerBalance;
+
+    @Column(name = "detected_at", nullable = false)
+    private LocalDateTime detectedAt;
+}
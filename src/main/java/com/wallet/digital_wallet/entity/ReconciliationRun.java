@@ -0,0 +1,47 @@
+package com.wallet.digital_wallet.entity;
+
+import com.wallet.digital_wallet.enums.ReconciliationStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One run of the wallet balance reconciliation job and its totals.
+ */
+@Entity
+@Table(name = "reconciliation_runs")
+@Data @NoArgsConstructor @AllArgsConstructor @Builder
+public class ReconciliationRun {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reconciliation_runs_id")
+    @SequenceGenerator(name = "reconciliation_runs_id", sequenceName = EntitySequences.RECONCILIATION_RUNS, allocationSize = EntitySequences.ALLOCATION_SIZE)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ReconciliationStatus status;
+
+    @Column(name = "wallets_scanned", nullable = false)
+    @Builder.Default
+    private Long walletsScanned = 0L;
+
+    @Column(name = "discrepancy_count", nullable = false)
+    @Builder.Default
+    private Long discrepancyCount = 0L;
+
+    /**
+     * Failure message of a FAILED run.
+     */
+    @Column(length = 1000)
+    private String error;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+}
@@ -22,11 +22,14 @@ import java.time.LocalDateTime;
  * </ul>
  */
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_from_wallet", columnList = "from_wallet_id"),
+        @Index(name = "idx_transactions_to_wallet", columnList = "to_wallet_id")})
 @Data @NoArgsConstructor @AllArgsConstructor @Builder
 public class Transaction {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_id")
+    @SequenceGenerator(name = "transactions_id", sequenceName = EntitySequences.TRANSACTIONS, allocationSize = EntitySequences.ALLOCATION_SIZE)
     private Long id;
 
     /**
@@ -78,6 +81,12 @@ public class Transaction {
 
     private String description;
 
+    /**
+     * Why an asynchronously settled transaction ended up FAILED. Null otherwise.
+     */
+    @Column(name = "failure_reason")
+    private String failureReason;
+
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
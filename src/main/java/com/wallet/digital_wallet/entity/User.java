@@ -6,6 +6,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 
@@ -14,16 +16,21 @@ import java.time.LocalDateTime;
  *
  * <p>Stores user identity data and a hashed PIN used to authorize wallet operations.
  * A {@link Wallet} is created automatically when a user registers.
+ * With the {@code l2cache} profile the user row (not its wallet) is kept in the {@link EntityCacheRegions#USERS}
+ * region.
  */
 @Entity
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityCacheRegions.USERS)
 @Data @NoArgsConstructor @AllArgsConstructor @Builder
 public class User {
     /**
      * Database primary key.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_id")
+    @SequenceGenerator(name = "users_id", sequenceName = EntitySequences.USERS, allocationSize = EntitySequences.ALLOCATION_SIZE)
     private Long id;
 
     /**
@@ -70,6 +77,14 @@ public class User {
     @Builder.Default
     private UserStatus status = UserStatus.ACTIVE;
 
+    /**
+     * Revocation epoch carried in login tokens. Bumped on deactivation and role changes, which invalidates
+     * every token issued before.
+     */
+    @Column(name = "auth_epoch", nullable = false, columnDefinition = "bigint not null default 0")
+    @Builder.Default
+    private Long authEpoch = 0L;
+
     /**
      * User's wallet. Created during registration.
      */
@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Formula;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -23,7 +24,8 @@ public class Wallet {
      * Database primary key.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "wallets_id")
+    @SequenceGenerator(name = "wallets_id", sequenceName = EntitySequences.WALLETS, allocationSize = EntitySequences.ALLOCATION_SIZE)
     private Long id;
 
     @Column(name = "user_id", nullable = false)
@@ -43,13 +45,35 @@ public class Wallet {
     private BigDecimal balance = BigDecimal.ZERO;
 
     /**
-     * Daily limit (simplified model: max allowed amount per transaction/day configuration).
-     * If you want true "daily spend tracking", you’d need aggregation by date.
+     * Max total of transfers and merchant payments per day, enforced by {@code DailySpendTracker}
+     * against the {@link WalletDailySpend} row.
      */
     @Column(name = "daily_limit", nullable = false, precision = 15, scale = 2)
     @Builder.Default
     private BigDecimal dailyLimit = new BigDecimal("10000");
 
+    /**
+     * Number of balance shards. 0 means the whole balance is stored in {@link #balance};
+     * otherwise the balance lives in {@link WalletBalanceShard} rows.
+     */
+    @Column(name = "shard_count", nullable = false, columnDefinition = "integer not null default 0")
+    @Builder.Default
+    private Integer shardCount = 0;
+
+    /**
+     * Sum of shard balances, computed by the database when the wallet is loaded.
+     */
+    @Formula("(select coalesce(sum(s.balance), 0) from wallet_balance_shards s where s.wallet_id = id)")
+    private BigDecimal shardBalance;
+
+    /**
+     * Optimistic lock version. Incremented on every update so concurrent writers cannot
+     * silently overwrite each other's balance changes.
+     */
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint not null default 0")
+    private Long version;
+
     /**
      * Wallet owner. This creates `wallets.user_id` FK.
      */
@@ -74,6 +98,22 @@ public class Wallet {
         updatedAt = LocalDateTime.now();
     }
 
+    /**
+     * Returns true if the balance is split across {@link WalletBalanceShard} rows.
+     */
+    public boolean isSharded() {
+        return shardCount != null && shardCount > 0;
+    }
+
+    /**
+     * Returns the spendable balance: the wallet row plus all of its shards.
+     *
+     * @return total balance
+     */
+    public BigDecimal getTotalBalance() {
+        return isSharded() && shardBalance != null ? balance.add(shardBalance) : balance;
+    }
+
     /**
      * Checks if wallet has enough balance for a debit operation.
      *
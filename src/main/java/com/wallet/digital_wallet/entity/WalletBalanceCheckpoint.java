@@ -0,0 +1,45 @@
+package com.wallet.digital_wallet.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Wallet balance derived from the ledger up to (excluding) {@link #coveredUntil}.
+ *
+ * <p>The balance at any later time is this balance plus the wallet's {@link LedgerPosting}s created from
+ * {@code coveredUntil} on. Rows are append-only, so older points in time stay reconstructible.
+ */
+@Entity
+@Table(name = "wallet_balance_checkpoints",
+        indexes = @Index(name = "idx_wallet_balance_checkpoints_wallet", columnList = "wallet_id, covered_until"))
+@Data @NoArgsConstructor @AllArgsConstructor @Builder
+public class WalletBalanceCheckpoint {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "wallet_balance_checkpoints_id")
+    @SequenceGenerator(name = "wallet_balance_checkpoints_id", sequenceName = EntitySequences.WALLET_BALANCE_CHECKPOINTS, allocationSize = EntitySequences.ALLOCATION_SIZE)
+    private Long id;
+
+    @Column(name = "wallet_id", nullable = false)
+    private Long walletId;
+
+    @Column(name = "covered_until", nullable = false)
+    private LocalDateTime coveredUntil;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal balance;
+
+    /**
+     * Wallet legs folded into this checkpoint since the previous one.
+     */
+    @Column(name = "entry_count", nullable = false)
+    private Long entryCount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
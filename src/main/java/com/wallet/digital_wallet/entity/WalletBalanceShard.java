@@ -0,0 +1,50 @@
+package com.wallet.digital_wallet.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One slice of a hot wallet's balance.
+ *
+ * <p>When a {@link Wallet} is promoted to {@code shardCount > 0}, its balance lives in
+ * {@code shardCount} rows of this table instead of {@code wallets.balance}. Credits pick a
+ * random shard so concurrent transfers into the wallet update different rows.
+ */
+@Entity
+@Table(name = "wallet_balance_shards",
+        uniqueConstraints = @UniqueConstraint(name = "uk_wallet_shard", columnNames = {"wallet_id", "shard_index"}))
+@Data @NoArgsConstructor @AllArgsConstructor @Builder
+public class WalletBalanceShard {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "wallet_balance_shards_id")
+    @SequenceGenerator(name = "wallet_balance_shards_id", sequenceName = EntitySequences.WALLET_BALANCE_SHARDS, allocationSize = EntitySequences.ALLOCATION_SIZE)
+    private Long id;
+
+    @Column(name = "wallet_id", nullable = false)
+    private Long walletId;
+
+    /**
+     * Zero-based shard position, in {@code [0, wallet.shardCount)}.
+     */
+    @Column(name = "shard_index", nullable = false)
+    private Integer shardIndex;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    @Builder.Default
+    private BigDecimal balance = BigDecimal.ZERO;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onWrite() {
+        updatedAt = LocalDateTime.now();
+    }
+}
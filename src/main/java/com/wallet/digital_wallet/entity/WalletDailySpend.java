@@ -0,0 +1,31 @@
+package com.wallet.digital_wallet.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Amount a wallet has spent on its current day, one row per wallet.
+ *
+ * <p>Written in the same database transaction as the debit it counts. A row whose {@link #spendDate}
+ * is not today counts as zero; the next debit overwrites it (lazy rollover).
+ */
+@Entity
+@Table(name = "wallet_daily_spend")
+@Data @NoArgsConstructor @AllArgsConstructor @Builder
+public class WalletDailySpend {
+    @Id
+    @Column(name = "wallet_id")
+    private Long walletId;
+
+    @Column(name = "spend_date", nullable = false)
+    private LocalDate spendDate;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal amount;
+}
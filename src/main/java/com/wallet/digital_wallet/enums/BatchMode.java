@@ -0,0 +1,15 @@
+package com.wallet.digital_wallet.enums;
+
+/**
+ * How a batch of money movements reacts to a failing item.
+ */
+public enum BatchMode {
+    /**
+     * All items commit together or none do.
+     */
+    ATOMIC,
+    /**
+     * Failing items are reported and skipped; the rest commit.
+     */
+    BEST_EFFORT
+}
@@ -0,0 +1,6 @@
+package com.wallet.digital_wallet.enums;
+
+public enum EntryDirection {
+    DEBIT,
+    CREDIT
+}
@@ -0,0 +1,6 @@
+package com.wallet.digital_wallet.enums;
+
+public enum IdempotencyStatus {
+    IN_PROGRESS,
+    COMPLETED
+}
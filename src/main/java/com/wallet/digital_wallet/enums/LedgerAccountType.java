@@ -0,0 +1,10 @@
+package com.wallet.digital_wallet.enums;
+
+/**
+ * Kind of account a ledger posting belongs to. FUNDING is the external source of top-ups and has no ID.
+ */
+public enum LedgerAccountType {
+    WALLET,
+    MERCHANT,
+    FUNDING
+}
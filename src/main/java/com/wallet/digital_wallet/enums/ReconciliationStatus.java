@@ -0,0 +1,7 @@
+package com.wallet.digital_wallet.enums;
+
+public enum ReconciliationStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,22 @@
+package com.wallet.digital_wallet.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a request is shed because a bounded resource is saturated.
+ *
+ * <p>Examples:
+ * <ul>
+ *   <li>The PIN hashing queue is full, or a queued PIN check did not start in time</li>
+ *   <li>A username or client address has too many recent failed logins</li>
+ * </ul>
+ *
+ * <p>Mapped to HTTP 429 by {@link GlobalExceptionHandler}. Nothing was changed and the client may retry later.
+ */
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class TooManyRequestsException extends RuntimeException {
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+}
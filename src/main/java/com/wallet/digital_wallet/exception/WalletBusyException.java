@@ -0,0 +1,26 @@
+package com.wallet.digital_wallet.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a wallet cannot be updated right now because of concurrent activity on it.
+ *
+ * <p>Examples:
+ * <ul>
+ *   <li>Wallet lock could not be acquired within the configured timeout</li>
+ * </ul>
+ *
+ * <p>Mapped to HTTP 409 by {@link GlobalExceptionHandler}. The request did not move any money
+ * and may be retried by the client.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class WalletBusyException extends RuntimeException {
+    public WalletBusyException(String message) {
+        super(message);
+    }
+
+    public WalletBusyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
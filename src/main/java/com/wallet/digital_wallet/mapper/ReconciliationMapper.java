@@ -0,0 +1,37 @@
+package com.wallet.digital_wallet.mapper;
+
+import com.wallet.digital_wallet.dto.response.ReconciliationDiscrepancyResponse;
+import com.wallet.digital_wallet.dto.response.ReconciliationRunResponse;
+import com.wallet.digital_wallet.entity.ReconciliationDiscrepancy;
+import com.wallet.digital_wallet.entity.ReconciliationRun;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maps reconciliation entities to their response DTOs.
+ */
+@Component
+public class ReconciliationMapper {
+
+    public ReconciliationRunResponse toResponse(ReconciliationRun run) {
+        return ReconciliationRunResponse.builder()
+                .id(run.getId())
+                .status(run.getStatus())
+                .walletsScanned(run.getWalletsScanned())
+                .discrepancyCount(run.getDiscrepancyCount())
+                .error(run.getError())
+                .startedAt(run.getStartedAt())
+                .finishedAt(run.getFinishedAt())
+                .build();
+    }
+
+    public ReconciliationDiscrepancyResponse toResponse(ReconciliationDiscrepancy discrepancy) {
+        return ReconciliationDiscrepancyResponse.builder()
+                .walletId(discrepancy.getWalletId())
+                .balance(discrepancy.getBalance())
+                .expectedBalance(discrepancy.getExpectedBalance())
+                .difference(discrepancy.getDifference())
+                .ledgerBalance(discrepancy.getLedgerBalance())
+                .detectedAt(discrepancy.getDetectedAt())
+                .build();
+    }
+}
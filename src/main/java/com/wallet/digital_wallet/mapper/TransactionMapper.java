@@ -1,9 +1,18 @@
  package com.wallet.digital_wallet.mapper;
 
+ import com.wallet.digital_wallet.dto.response.BatchItemResponse;
+ import com.wallet.digital_wallet.dto.response.BatchTransactionResponse;
+ import com.wallet.digital_wallet.dto.response.PaymentSessionResponse;
  import com.wallet.digital_wallet.dto.response.TransactionResponse;
  import com.wallet.digital_wallet.entity.Transaction;
+ import com.wallet.digital_wallet.enums.BatchMode;
+ import com.wallet.digital_wallet.enums.TransactionStatus;
+ import com.wallet.digital_wallet.service.BatchItem;
+ import com.wallet.digital_wallet.service.PaymentSessionService;
  import org.springframework.stereotype.Component;
 
+ import java.util.List;
+
  /**
   * Maps {@link Transaction} entities to {@link TransactionResponse} DTOs.
   *
@@ -35,7 +44,50 @@
                  .type(txn.getType())
                  .status(txn.getStatus())
                  .description(txn.getDescription())
+                 .failureReason(txn.getFailureReason())
                  .timestamp(txn.getCreatedAt())
                  .build();
      }
- }
\ No newline at end of file
+ 
+     /**
+      * Converts executed batch items into a BatchTransactionResponse.
+      *
+      * @param mode batch mode
+      * @param items executed items
+      * @return batch response with one entry per item
+      */
+     public BatchTransactionResponse toBatchResponse(BatchMode mode, List<BatchItem> items) {
+         List<BatchItemResponse> responses = items.stream()
+                 .map(item -> BatchItemResponse.builder()
+                         .index(item.getIndex())
+                         .type(item.getType())
+                         .status(item.getStatus())
+                         .error(item.getError())
+                         .transaction(item.getTransaction() != null ? toResponse(item.getTransaction()) : null)
+                         .build())
+                 .toList();
+         int succeeded = (int) responses.stream().filter(r -> r.getStatus() == TransactionStatus.COMPLETED).count();
+         return BatchTransactionResponse.builder()
+                 .mode(mode)
+                 .succeeded(succeeded)
+                 .failed(responses.size() - succeeded)
+                 .items(responses)
+                 .build();
+     }
+ 
+     /**
+      * Converts an issued payment session into a PaymentSessionResponse.
+      *
+      * @param session issued session
+      * @return payment session response DTO
+      */
+     public PaymentSessionResponse toPaymentSessionResponse(PaymentSessionService.PaymentSession session) {
+         return PaymentSessionResponse.builder()
+                 .token(session.token())
+                 .walletId(session.walletId())
+                 .maxAmount(session.maxAmount())
+                 .maxPayments(session.maxPayments())
+                 .expiresAt(session.expiresAt())
+                 .build();
+     }
+ }
@@ -31,6 +31,7 @@ public class UserMapper {
                 .fullName(user.getFullName())
                 .phoneNumber(user.getPhoneNumber())
                 .status(user.getStatus())
+                .role(user.getRole())
                 .wallet(toWalletResponse(user.getWallet()))
                 .createdAt(user.getCreatedAt())
                 .build();
@@ -41,7 +42,7 @@ public class UserMapper {
         return WalletResponse.builder()
                 .id(wallet.getId())
                 .walletNumber(wallet.getWalletNumber())
-                .balance(wallet.getBalance())
+                .balance(wallet.getTotalBalance())
                 .dailyLimit(wallet.getDailyLimit())
                 .build();
     }
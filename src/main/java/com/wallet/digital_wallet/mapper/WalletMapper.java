@@ -2,6 +2,7 @@ package com.wallet.digital_wallet.mapper;
 
 import com.wallet.digital_wallet.dto.response.WalletResponse;
 import com.wallet.digital_wallet.entity.Wallet;
+import com.wallet.digital_wallet.service.WalletSnapshotCache;
 import org.springframework.stereotype.Component;
 
 /**
@@ -25,8 +26,23 @@ public class WalletMapper {
         return WalletResponse.builder()
                 .id(wallet.getId())
                 .walletNumber(wallet.getWalletNumber())
-                .balance(wallet.getBalance())
+                .balance(wallet.getTotalBalance())
                 .dailyLimit(wallet.getDailyLimit())
                 .build();
     }
+
+    /**
+     * Converts a cached wallet snapshot into a WalletResponse.
+     *
+     * @param snapshot wallet snapshot
+     * @return wallet response DTO
+     */
+    public WalletResponse toResponse(WalletSnapshotCache.WalletSnapshot snapshot) {
+        return WalletResponse.builder()
+                .id(snapshot.id())
+                .walletNumber(snapshot.walletNumber())
+                .balance(snapshot.balance())
+                .dailyLimit(snapshot.dailyLimit())
+                .build();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.wallet.digital_wallet.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Row count and latest {@code updatedAt} of a table, used as the version of paged listings.
+ *
+ * <p>Valid for tables whose rows are never deleted and whose every change moves {@code updatedAt}.
+ */
+public interface CollectionVersionView {
+    Long getCount();
+
+    LocalDateTime getLastUpdated();
+}
@@ -0,0 +1,70 @@
+package com.wallet.digital_wallet.repository;
+
+import com.wallet.digital_wallet.entity.IdempotencyRecord;
+import com.wallet.digital_wallet.enums.IdempotencyStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repository for {@link IdempotencyRecord} persistence operations.
+ */
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Inserts an {@code IN_PROGRESS} row for {@code key}, or takes over a row that expired before {@code now}.
+     * PostgreSQL only ({@code ON CONFLICT}).
+     *
+     * @return 1 if the caller now owns the key, 0 if another execution holds or completed it
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO idempotency_keys " +
+            "(idempotency_key, request_hash, status, response_body, created_at, expires_at) " +
+            "VALUES (:key, :requestHash, 'IN_PROGRESS', NULL, :now, :expiresAt) " +
+            "ON CONFLICT (idempotency_key) DO UPDATE SET request_hash = EXCLUDED.request_hash, " +
+            "status = EXCLUDED.status, response_body = NULL, created_at = EXCLUDED.created_at, " +
+            "expires_at = EXCLUDED.expires_at " +
+            "WHERE idempotency_keys.expires_at < EXCLUDED.created_at",
+            nativeQuery = true)
+    int claim(@Param("key") String key, @Param("requestHash") String requestHash,
+              @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Stores the response of a claimed key and marks it completed.
+     *
+     * @return number of updated rows (0 if the claim was lost)
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord r SET r.status = :completed, r.responseBody = :responseBody " +
+            "WHERE r.key = :key AND r.status = :inProgress")
+    int complete(@Param("key") String key, @Param("responseBody") String responseBody,
+                 @Param("inProgress") IdempotencyStatus inProgress, @Param("completed") IdempotencyStatus completed);
+
+    /**
+     * Deletes a claim whose execution failed, so the key can be retried.
+     *
+     * @return number of deleted rows
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.key = :key AND r.status = :inProgress")
+    int release(@Param("key") String key, @Param("inProgress") IdempotencyStatus inProgress);
+
+    /**
+     * Deletes every record that expired before {@code now}.
+     *
+     * @return number of deleted records
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,12 @@
+package com.wallet.digital_wallet.repository;
+
+import com.wallet.digital_wallet.entity.LedgerEngineCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for {@link LedgerEngineCheckpoint} persistence operations.
+ */
+@Repository
+public interface LedgerEngineCheckpointRepository extends JpaRepository<LedgerEngineCheckpoint, Integer> {
+}
@@ -0,0 +1,73 @@
+package com.wallet.digital_wallet.repository;
+
+import com.wallet.digital_wallet.entity.EntitySequences;
+import com.wallet.digital_wallet.entity.LedgerPosting;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * JDBC access to the {@code ledger_entries} table.
+ *
+ * <p>Documentation requirements:
+ * <ul>
+ *   <li>Participates in the surrounding Spring-managed transaction, so legs commit with the movement</li>
+ *   <li>Column layout must stay in sync with the {@link LedgerPosting} entity mapping</li>
+ *   <li>IDs come from {@link SequenceIdAllocator}</li>
+ * </ul>
+ */
+@Repository
+@RequiredArgsConstructor
+public class LedgerPostingJdbcRepository {
+    private static final String INSERT_SQL = "INSERT INTO ledger_entries " +
+            "(id, reference_number, transaction_type, account_type, account_id, direction, amount, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SequenceIdAllocator idAllocator;
+
+    /**
+     * Inserts ledger legs in one JDBC batch and sets their allocated database IDs.
+     *
+     * @param postings legs to insert
+     */
+    public void batchInsert(List<LedgerPosting> postings) {
+        if (postings.isEmpty()) {
+            return;
+        }
+        long[] ids = idAllocator.allocate(EntitySequences.LEDGER_ENTRIES, postings.size());
+        for (int i = 0; i < postings.size(); i++) {
+            postings.get(i).setId(ids[i]);
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                LedgerPosting posting = postings.get(i);
+                ps.setLong(1, posting.getId());
+                ps.setString(2, posting.getReferenceNumber());
+                ps.setString(3, posting.getTransactionType().name());
+                ps.setString(4, posting.getAccountType().name());
+                if (posting.getAccountId() == null) {
+                    ps.setNull(5, Types.BIGINT);
+                } else {
+                    ps.setLong(5, posting.getAccountId());
+                }
+                ps.setString(6, posting.getDirection().name());
+                ps.setBigDecimal(7, posting.getAmount());
+                ps.setTimestamp(8, Timestamp.valueOf(posting.getCreatedAt()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return postings.size();
+            }
+        });
+    }
+}
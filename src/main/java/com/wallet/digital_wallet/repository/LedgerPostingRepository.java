@@ -0,0 +1,42 @@
+package com.wallet.digital_wallet.repository;
+
+import com.wallet.digital_wallet.entity.LedgerPosting;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for {@link LedgerPosting} queries. Legs are written by {@link LedgerPostingJdbcRepository}.
+ */
+@Repository
+public interface LedgerPostingRepository extends JpaRepository<LedgerPosting, Long> {
+
+    /**
+     * Net effect (credits minus debits) of a wallet's legs created in {@code [from, to)}.
+     */
+    @Query("SELECT COALESCE(SUM(CASE WHEN p.direction = com.wallet.digital_wallet.enums.EntryDirection.CREDIT " +
+            "THEN p.amount ELSE -p.amount END), 0) FROM LedgerPosting p " +
+            "WHERE p.accountType = com.wallet.digital_wallet.enums.LedgerAccountType.WALLET " +
+            "AND p.accountId = :walletId AND p.createdAt >= :from AND p.createdAt < :to")
+    BigDecimal sumWalletBetween(@Param("walletId") Long walletId, @Param("from") LocalDateTime from,
+                                @Param("to") LocalDateTime to);
+
+    @Query("SELECT COUNT(p) FROM LedgerPosting p " +
+            "WHERE p.accountType = com.wallet.digital_wallet.enums.LedgerAccountType.WALLET " +
+            "AND p.accountId = :walletId AND p.createdAt >= :from AND p.createdAt < :to")
+    long countWalletBetween(@Param("walletId") Long walletId, @Param("from") LocalDateTime from,
+                            @Param("to") LocalDateTime to);
+
+    /**
+     * Number of legs per wallet created in {@code [from, to)}; a range scan of {@code idx_ledger_entries_created_at}.
+     */
+    @Query("SELECT p.accountId AS walletId, COUNT(p) AS entryCount FROM LedgerPosting p " +
+            "WHERE p.accountType = com.wallet.digital_wallet.enums.LedgerAccountType.WALLET " +
+            "AND p.createdAt >= :from AND p.createdAt < :to GROUP BY p.accountId")
+    List<WalletEntryCount> countWalletLegsBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
@@ -2,11 +2,16 @@ package com.wallet.digital_wallet.repository;
 
 import com.wallet.digital_wallet.entity.Merchant;
 import com.wallet.digital_wallet.enums.MerchantCategory;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,6 +23,8 @@ import java.util.Optional;
  *   <li>Primary key type is {@link Long}</li>
  *   <li>Merchant lookup by unique merchantCode</li>
  *   <li>Supports category filtering with pagination</li>
+ *   <li>Code and category lookups are cached by the Hibernate query cache when the {@code l2cache} profile is
+ *       active (the hints are ignored otherwise)</li>
  * </ul>
  */
 @Repository
@@ -29,8 +36,14 @@ public interface MerchantRepository extends JpaRepository<Merchant, Long> {
      * @param merchantCode unique merchant code
      * @return optional merchant
      */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     Optional<Merchant> findByMerchantCode(String merchantCode);
+
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     List<Merchant> findByCategory(MerchantCategory category);
+
+    List<Merchant> findByMerchantCodeIn(Collection<String> merchantCodes);
+
     /**
      * Lists merchants by category (paginated).
      *
@@ -38,5 +51,14 @@ public interface MerchantRepository extends JpaRepository<Merchant, Long> {
      * @param pageable pagination
      * @return paginated merchants
      */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     Page<Merchant> findByCategory(MerchantCategory category, Pageable pageable);
+
+    /**
+     * Returns the merchant count and the latest merchant change, which together version merchant listings.
+     *
+     * @return collection version
+     */
+    @Query("SELECT COUNT(m) AS count, MAX(m.updatedAt) AS lastUpdated FROM Merchant m")
+    CollectionVersionView findCollectionVersion();
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.wallet.digital_wallet.repository;
+
+import com.wallet.digital_wallet.entity.ReconciliationDiscrepancy;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for {@link ReconciliationDiscrepancy} persistence operations.
+ */
+@Repository
+public interface ReconciliationDiscrepancyRepository extends JpaRepository<ReconciliationDiscrepancy, Long> {
+
+    Page<ReconciliationDiscrepancy> findByRunIdOrderByWalletIdAsc(Long runId, Pageable pageable);
+}
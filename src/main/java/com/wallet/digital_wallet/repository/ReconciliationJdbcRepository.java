@@ -0,0 +1,144 @@
+package com.wallet.digital_wallet.repository;
+
+import com.wallet.digital_wallet.entity.EntitySequences;
+import com.wallet.digital_wallet.entity.ReconciliationDiscrepancy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * JDBC reads and writes of the wallet balance reconciliation job.
+ *
+ * <p>Documentation requirements:
+ * <ul>
+ *   <li>{@link #scan} reads one wallet ID range with a single statement, so each wallet's balance and its
+ *       movements come from the same snapshot; it takes no row locks</li>
+ *   <li>Rows are streamed with {@code wallet.reconciliation.fetch-size} (PostgreSQL uses a server-side
+ *       cursor when this runs inside a transaction)</li>
+ *   <li>Every sub-select is bounded by the ID range so it can use the wallet ID indexes</li>
+ *   <li>A wallet with an opening checkpoint ({@code entry_count = 0}, written by
+ *       {@code LedgerPostingService.openPreexistingWallets} for wallets funded before the ledger) starts from its
+ *       balance, and only movements created from its {@code covered_until} on are added; other wallets start
+ *       from zero. PostgreSQL only ({@code DISTINCT ON})</li>
+ * </ul>
+ */
+@Repository
+public class ReconciliationJdbcRepository {
+    private static final String SCAN_SQL = "WITH opening AS (" +
+            "SELECT DISTINCT ON (wallet_id) wallet_id, covered_until, balance FROM wallet_balance_checkpoints " +
+            "WHERE entry_count = 0 AND wallet_id >= ? AND wallet_id < ? ORDER BY wallet_id, covered_until) " +
+            "SELECT w.id, " +
+            "w.balance + CASE WHEN w.shard_count > 0 THEN COALESCE(sh.total, 0) ELSE 0 END AS balance, " +
+            "COALESCE(o.balance, 0) + COALESCE(cr.total, 0) - COALESCE(db.total, 0) + COALESCE(tu.total, 0) AS expected " +
+            "FROM wallets w " +
+            "LEFT JOIN opening o ON o.wallet_id = w.id " +
+            "LEFT JOIN (SELECT wallet_id, SUM(balance) AS total FROM wallet_balance_shards " +
+            "WHERE wallet_id >= ? AND wallet_id < ? GROUP BY wallet_id) sh ON sh.wallet_id = w.id " +
+            "LEFT JOIN (SELECT t.to_wallet_id AS wallet_id, SUM(t.amount) AS total FROM transactions t " +
+            "LEFT JOIN opening o ON o.wallet_id = t.to_wallet_id " +
+            "WHERE t.status = 'COMPLETED' AND t.to_wallet_id >= ? AND t.to_wallet_id < ? " +
+            "AND (o.covered_until IS NULL OR t.created_at >= o.covered_until) GROUP BY t.to_wallet_id) cr " +
+            "ON cr.wallet_id = w.id " +
+            "LEFT JOIN (SELECT t.from_wallet_id AS wallet_id, SUM(t.amount) AS total FROM transactions t " +
+            "LEFT JOIN opening o ON o.wallet_id = t.from_wallet_id " +
+            "WHERE t.status = 'COMPLETED' AND t.from_wallet_id >= ? AND t.from_wallet_id < ? " +
+            "AND (o.covered_until IS NULL OR t.created_at >= o.covered_until) GROUP BY t.from_wallet_id) db " +
+            "ON db.wallet_id = w.id " +
+            "LEFT JOIN (SELECT e.account_id AS wallet_id, SUM(e.amount) AS total FROM ledger_entries e " +
+            "LEFT JOIN opening o ON o.wallet_id = e.account_id " +
+            "WHERE e.account_type = 'WALLET' AND e.transaction_type = 'WALLET_LOAD' AND e.direction = 'CREDIT' " +
+            "AND e.account_id >= ? AND e.account_id < ? " +
+            "AND (o.covered_until IS NULL OR e.created_at >= o.covered_until) GROUP BY e.account_id) tu " +
+            "ON tu.wallet_id = w.id " +
+            "WHERE w.id >= ? AND w.id < ?";
+
+    private static final String INSERT_DISCREPANCY_SQL = "INSERT INTO reconciliation_discrepancies " +
+            "(id, run_id, wallet_id, balance, expected_balance, difference, ledger_balance, detected_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final SequenceIdAllocator idAllocator;
+
+    public ReconciliationJdbcRepository(JdbcTemplate jdbcTemplate,
+                                        DataSource dataSource,
+                                        SequenceIdAllocator idAllocator,
+                                        @Value("${wallet.reconciliation.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.idAllocator = idAllocator;
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(Math.max(fetchSize, 1));
+    }
+
+    /**
+     * Returns the lowest and highest wallet ID, or null if there are no wallets.
+     */
+    public long[] walletIdRange() {
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT MIN(id) AS low, MAX(id) AS high FROM wallets");
+        if (row.get("low") == null) {
+            return null;
+        }
+        return new long[]{((Number) row.get("low")).longValue(), ((Number) row.get("high")).longValue()};
+    }
+
+    /**
+     * Streams the stored and expected balance of every wallet with an ID in {@code [fromId, toId)}.
+     *
+     * @param fromId first wallet ID (inclusive)
+     * @param toId last wallet ID (exclusive)
+     * @param consumer called once per wallet
+     */
+    public void scan(long fromId, long toId, Consumer<WalletBalanceCheck> consumer) {
+        streamingJdbcTemplate.query(SCAN_SQL,
+                ps -> {
+                    for (int i = 1; i <= 12; i += 2) {
+                        ps.setLong(i, fromId);
+                        ps.setLong(i + 1, toId);
+                    }
+                },
+                rs -> {
+                    consumer.accept(new WalletBalanceCheck(rs.getLong(1), rs.getBigDecimal(2), rs.getBigDecimal(3)));
+                });
+    }
+
+    /**
+     * Inserts discrepancies in one JDBC batch.
+     *
+     * @param discrepancies discrepancies to insert
+     */
+    public void insertDiscrepancies(List<ReconciliationDiscrepancy> discrepancies) {
+        if (discrepancies.isEmpty()) {
+            return;
+        }
+        long[] ids = idAllocator.allocate(EntitySequences.RECONCILIATION_DISCREPANCIES, discrepancies.size());
+        jdbcTemplate.batchUpdate(INSERT_DISCREPANCY_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ReconciliationDiscrepancy discrepancy = discrepancies.get(i);
+                discrepancy.setId(ids[i]);
+                ps.setLong(1, ids[i]);
+                ps.setLong(2, discrepancy.getRunId());
+                ps.setLong(3, discrepancy.getWalletId());
+                ps.setBigDecimal(4, discrepancy.getBalance());
+                ps.setBigDecimal(5, discrepancy.getExpectedBalance());
+                ps.setBigDecimal(6, discrepancy.getDifference());
+                ps.setBigDecimal(7, discrepancy.getLedgerBalance());
+                ps.setTimestamp(8, Timestamp.valueOf(discrepancy.getDetectedAt()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return discrepancies.size();
+            }
+        });
+    }
+}
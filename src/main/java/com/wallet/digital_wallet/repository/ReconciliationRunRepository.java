@@ -0,0 +1,16 @@
+package com.wallet.digital_wallet.repository;
+
+import com.wallet.digital_wallet.entity.ReconciliationRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repository for {@link ReconciliationRun} persistence operations.
+ */
+@Repository
+public interface ReconciliationRunRepository extends JpaRepository<ReconciliationRun, Long> {
+
+    Optional<ReconciliationRun> findFirstByOrderByStartedAtDesc();
+}
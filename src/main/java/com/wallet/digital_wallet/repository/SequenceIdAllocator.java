@@ -0,0 +1,65 @@
+package com.wallet.digital_wallet.repository;
+
+import com.wallet.digital_wallet.entity.EntitySequences;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hands out entity IDs to JDBC inserts from the same sequences Hibernate uses.
+ *
+ * <p>Documentation requirements:
+ * <ul>
+ *   <li>Pooled-lo, like Hibernate: one {@code nextval} reserves {@link EntitySequences#ALLOCATION_SIZE} IDs
+ *       starting at the returned value</li>
+ *   <li>Blocks are per sequence and shared by all threads of this instance</li>
+ *   <li>IDs handed out but never inserted (rollback, shutdown) leave gaps; they are never reused</li>
+ * </ul>
+ */
+@Repository
+@RequiredArgsConstructor
+public class SequenceIdAllocator {
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the next ID of a sequence.
+     *
+     * @param sequence sequence name (see {@link EntitySequences})
+     * @return unused ID
+     */
+    public long next(String sequence) {
+        return allocate(sequence, 1)[0];
+    }
+
+    /**
+     * Returns {@code count} unused IDs of a sequence, in ascending order.
+     *
+     * @param sequence sequence name (see {@link EntitySequences})
+     * @param count number of IDs
+     * @return IDs
+     */
+    public long[] allocate(String sequence, int count) {
+        long[] ids = new long[count];
+        Block block = blocks.computeIfAbsent(sequence, name -> new Block());
+        synchronized (block) {
+            for (int i = 0; i < count; i++) {
+                if (block.next >= block.end) {
+                    long low = jdbcTemplate.queryForObject("SELECT nextval(?)", Long.class, sequence);
+                    block.next = low;
+                    block.end = low + EntitySequences.ALLOCATION_SIZE;
+                }
+                ids[i] = block.next++;
+            }
+        }
+        return ids;
+    }
+
+    private static final class Block {
+        private long next;
+        private long end;
+    }
+}
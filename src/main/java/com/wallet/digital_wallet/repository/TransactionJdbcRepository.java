@@ -0,0 +1,96 @@
+package com.wallet.digital_wallet.repository;
+
+import com.wallet.digital_wallet.entity.EntitySequences;
+import com.wallet.digital_wallet.entity.Transaction;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * JDBC access to the {@code transactions} table for write paths that bypass Hibernate.
+ *
+ * <p>Documentation requirements:
+ * <ul>
+ *   <li>Participates in the surrounding Spring-managed transaction (same connection as JPA)</li>
+ *   <li>Column layout must stay in sync with the {@link Transaction} entity mapping</li>
+ *   <li>IDs come from {@link SequenceIdAllocator}, the same sequence Hibernate uses for {@link Transaction}</li>
+ * </ul>
+ */
+@Repository
+@RequiredArgsConstructor
+public class TransactionJdbcRepository {
+    private static final String INSERT_SQL = "INSERT INTO transactions " +
+            "(id, transaction_id, reference_number, from_wallet_id, to_wallet_id, merchant_id, amount, fee, type, status, description, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SequenceIdAllocator idAllocator;
+
+    /**
+     * Inserts a transaction row and sets its allocated database ID on the given object.
+     *
+     * @param txn transaction to insert (wallet/merchant associations only need their IDs)
+     * @return the same transaction with {@code id} populated
+     */
+    public Transaction insert(Transaction txn) {
+        txn.setId(idAllocator.next(EntitySequences.TRANSACTIONS));
+        jdbcTemplate.update(INSERT_SQL, ps -> bind(ps, txn));
+        return txn;
+    }
+
+    /**
+     * Inserts many transaction rows in one JDBC batch and sets their allocated database IDs.
+     *
+     * @param txns transactions to insert (wallet/merchant associations only need their IDs)
+     */
+    public void batchInsert(List<Transaction> txns) {
+        if (txns.isEmpty()) {
+            return;
+        }
+        long[] ids = idAllocator.allocate(EntitySequences.TRANSACTIONS, txns.size());
+        for (int i = 0; i < txns.size(); i++) {
+            txns.get(i).setId(ids[i]);
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                bind(ps, txns.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return txns.size();
+            }
+        });
+    }
+
+    private void bind(PreparedStatement ps, Transaction txn) throws SQLException {
+        ps.setLong(1, txn.getId());
+        ps.setString(2, txn.getTransactionId());
+        ps.setString(3, txn.getReferenceNumber());
+        setNullableLong(ps, 4, txn.getFromWallet() != null ? txn.getFromWallet().getId() : null);
+        setNullableLong(ps, 5, txn.getToWallet() != null ? txn.getToWallet().getId() : null);
+        setNullableLong(ps, 6, txn.getMerchant() != null ? txn.getMerchant().getId() : null);
+        ps.setBigDecimal(7, txn.getAmount());
+        ps.setBigDecimal(8, txn.getFee());
+        ps.setString(9, txn.getType() != null ? txn.getType().name() : null);
+        ps.setString(10, txn.getStatus() != null ? txn.getStatus().name() : null);
+        ps.setString(11, txn.getDescription());
+        ps.setTimestamp(12, Timestamp.valueOf(txn.getCreatedAt()));
+    }
+
+    private static void setNullableLong(PreparedStatement ps, int index, Long value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.BIGINT);
+        } else {
+            ps.setLong(index, value);
+        }
+    }
+}
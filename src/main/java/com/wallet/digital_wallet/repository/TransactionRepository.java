@@ -1,6 +1,7 @@
 package com.wallet.digital_wallet.repository;
 
 import com.wallet.digital_wallet.entity.Transaction;
+import com.wallet.digital_wallet.enums.TransactionStatus;
 import com.wallet.digital_wallet.enums.TransactionType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -42,6 +43,14 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
      */
     Optional<Transaction> findByReferenceNumber(String referenceNumber);
 
+    /**
+     * Finds transactions in a given status, oldest first.
+     *
+     * @param status transaction status
+     * @return matching transactions ordered by ID
+     */
+    List<Transaction> findByStatusOrderByIdAsc(TransactionStatus status);
+
     @Query("SELECT t FROM Transaction t WHERE t.fromWallet.id = :walletId OR t.toWallet.id = :walletId")
     Page<Transaction> findByWalletId(@Param("walletId") Long walletId, Pageable pageable);
 
@@ -0,0 +1,20 @@
+package com.wallet.digital_wallet.repository;
+
+import com.wallet.digital_wallet.enums.UserStatus;
+
+/**
+ * Narrow projection of the user fields needed to authenticate a request.
+ *
+ * <p>Loaded without the {@code Wallet} association or the PIN hash.
+ */
+public interface UserAuthView {
+    Long getId();
+
+    String getUsername();
+
+    String getRole();
+
+    UserStatus getStatus();
+
+    Long getAuthEpoch();
+}
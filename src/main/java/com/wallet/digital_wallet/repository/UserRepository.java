@@ -1,12 +1,17 @@
 package com.wallet.digital_wallet.repository;
 
 import com.wallet.digital_wallet.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -18,6 +23,8 @@ import java.util.Optional;
  *   <li>Uses Spring Data JPA derived queries</li>
  *   <li>Primary key type is {@link Long}</li>
  *   <li>Provides lookup by username/email and search support</li>
+ *   <li>{@code findByUsername} results are cached by the Hibernate query cache when the {@code l2cache} profile
+ *       is active (the hint is ignored otherwise)</li>
  * </ul>
  */
 @Repository
@@ -28,10 +35,21 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @param username username
      * @return optional user
      */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     Optional<User> findByUsername(String username);
 
     Optional<User> findByEmail(String email);
 
+    /**
+     * Returns the authentication state of a user by username.
+     *
+     * @param username username
+     * @return optional projection
+     */
+    @Query("SELECT u.id AS id, u.username AS username, u.role AS role, u.status AS status, u.authEpoch AS authEpoch " +
+            "FROM User u WHERE u.username = :username")
+    Optional<UserAuthView> findAuthByUsername(@Param("username") String username);
+
     /**
      * Checks if a username already exists.
      *
@@ -50,4 +68,17 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     @Query("SELECT u FROM User u WHERE u.username LIKE %:query% OR u.email LIKE %:query%")
     Page<User> searchUsers(@Param("query") String query, Pageable pageable);
-}
\ No newline at end of file
+
+    /**
+     * Replaces a PIN hash unless the PIN was changed since {@code oldHash} was read.
+     *
+     * @param id user ID
+     * @param oldHash hash the new one replaces
+     * @param newHash new hash of the same PIN
+     * @return number of rows updated (0 or 1)
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.pinHash = :newHash WHERE u.id = :id AND u.pinHash = :oldHash")
+    int updatePinHash(@Param("id") Long id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
+}
@@ -0,0 +1,16 @@
+package com.wallet.digital_wallet.repository;
+
+import com.wallet.digital_wallet.enums.UserStatus;
+
+/**
+ * Narrow projection mapping a username to its user ID, wallet ID and status.
+ *
+ * <p>Used to resolve transfer receivers without loading {@code User} or {@code Wallet} entities.
+ */
+public interface UserWalletView {
+    Long getUserId();
+
+    Long getWalletId();
+
+    UserStatus getStatus();
+}
@@ -0,0 +1,17 @@
+package com.wallet.digital_wallet.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Stored and expected balance of one wallet, as read by {@link ReconciliationJdbcRepository}.
+ *
+ * @param walletId wallet ID
+ * @param balance wallet row balance plus shards
+ * @param expected completed incoming transfers, minus completed outgoing transfers and payments, plus top-ups
+ */
+public record WalletBalanceCheck(long walletId, BigDecimal balance, BigDecimal expected) {
+
+    public boolean matches() {
+        return balance.compareTo(expected) == 0;
+    }
+}
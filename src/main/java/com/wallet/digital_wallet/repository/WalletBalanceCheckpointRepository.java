@@ -0,0 +1,48 @@
+package com.wallet.digital_wallet.repository;
+
+import com.wallet.digital_wallet.entity.WalletBalanceCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repository for {@link WalletBalanceCheckpoint} persistence operations.
+ */
+@Repository
+public interface WalletBalanceCheckpointRepository extends JpaRepository<WalletBalanceCheckpoint, Long> {
+
+    /**
+     * Returns the latest checkpoint that does not cover anything after {@code at}.
+     */
+    Optional<WalletBalanceCheckpoint> findFirstByWalletIdAndCoveredUntilLessThanEqualOrderByCoveredUntilDesc(
+            Long walletId, LocalDateTime at);
+
+    /**
+     * Returns the cutoff of the latest checkpoint job run, i.e. the latest non-opening checkpoint.
+     */
+    @Query("SELECT MAX(c.coveredUntil) FROM WalletBalanceCheckpoint c WHERE c.entryCount > 0")
+    Optional<LocalDateTime> findLatestCheckpointCutoff();
+
+    /**
+     * Records the current balance of every wallet that has neither a checkpoint nor a ledger leg, i.e. wallets
+     * funded before the ledger existed. PostgreSQL only.
+     *
+     * @return number of inserted checkpoints
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO wallet_balance_checkpoints (id, wallet_id, covered_until, balance, entry_count, created_at) " +
+            "SELECT nextval('wallet_balance_checkpoints_seq'), w.id, :now, " +
+            "w.balance + COALESCE((SELECT SUM(s.balance) FROM wallet_balance_shards s WHERE s.wallet_id = w.id), 0), 0, :now " +
+            "FROM wallets w " +
+            "WHERE NOT EXISTS (SELECT 1 FROM wallet_balance_checkpoints c WHERE c.wallet_id = w.id) " +
+            "AND NOT EXISTS (SELECT 1 FROM ledger_entries e WHERE e.account_type = 'WALLET' AND e.account_id = w.id)",
+            nativeQuery = true)
+    int insertOpeningCheckpoints(@Param("now") LocalDateTime now);
+}
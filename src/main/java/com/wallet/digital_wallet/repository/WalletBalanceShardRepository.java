@@ -0,0 +1,55 @@
+package com.wallet.digital_wallet.repository;
+
+import com.wallet.digital_wallet.entity.WalletBalanceShard;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Repository for {@link WalletBalanceShard} persistence operations.
+ *
+ * <p>Documentation requirements:
+ * <ul>
+ *   <li>Credits are single-statement increments on one shard row</li>
+ *   <li>Debits lock all shards of a wallet in ascending shard index order</li>
+ * </ul>
+ */
+@Repository
+public interface WalletBalanceShardRepository extends JpaRepository<WalletBalanceShard, Long> {
+
+    /**
+     * Returns the wallet's shards ordered by index, locked for update.
+     *
+     * @param walletId wallet ID
+     * @return locked shards
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM WalletBalanceShard s WHERE s.walletId = :walletId ORDER BY s.shardIndex")
+    List<WalletBalanceShard> lockByWalletId(@Param("walletId") Long walletId);
+
+    List<WalletBalanceShard> findByWalletIdOrderByShardIndexAsc(Long walletId);
+
+    /**
+     * Credits one shard in a single statement.
+     *
+     * @return number of updated rows (0 if the shard no longer exists)
+     */
+    @Modifying
+    @Query("UPDATE WalletBalanceShard s SET s.balance = s.balance + :amount, s.updatedAt = LOCAL DATETIME " +
+            "WHERE s.walletId = :walletId AND s.shardIndex = :shardIndex")
+    int credit(@Param("walletId") Long walletId, @Param("shardIndex") int shardIndex, @Param("amount") BigDecimal amount);
+
+    @Query("SELECT COALESCE(SUM(s.balance), 0) FROM WalletBalanceShard s WHERE s.walletId = :walletId")
+    BigDecimal sumBalance(@Param("walletId") Long walletId);
+
+    @Modifying
+    @Query("DELETE FROM WalletBalanceShard s WHERE s.walletId = :walletId")
+    int deleteByWalletId(@Param("walletId") Long walletId);
+}
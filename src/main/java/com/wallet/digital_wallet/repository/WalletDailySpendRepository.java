@@ -0,0 +1,48 @@
+package com.wallet.digital_wallet.repository;
+
+import com.wallet.digital_wallet.entity.WalletDailySpend;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Repository for {@link WalletDailySpend} persistence operations.
+ */
+@Repository
+public interface WalletDailySpendRepository extends JpaRepository<WalletDailySpend, Long> {
+
+    /**
+     * Adds {@code amount} to the wallet's spend for {@code day} in one statement, unless the new total
+     * would exceed {@code dailyLimit}. A row left over from an earlier day is restarted at {@code amount}.
+     * PostgreSQL only ({@code ON CONFLICT}).
+     *
+     * @return number of written rows (0 if the limit would be exceeded)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO wallet_daily_spend (wallet_id, spend_date, amount) " +
+            "SELECT :walletId, :day, :amount WHERE :amount <= :dailyLimit " +
+            "ON CONFLICT (wallet_id) DO UPDATE SET " +
+            "amount = CASE WHEN wallet_daily_spend.spend_date = EXCLUDED.spend_date " +
+            "THEN wallet_daily_spend.amount + EXCLUDED.amount ELSE EXCLUDED.amount END, " +
+            "spend_date = EXCLUDED.spend_date " +
+            "WHERE CASE WHEN wallet_daily_spend.spend_date = EXCLUDED.spend_date " +
+            "THEN wallet_daily_spend.amount ELSE 0 END + EXCLUDED.amount <= :dailyLimit",
+            nativeQuery = true)
+    int addIfWithinLimit(@Param("walletId") Long walletId, @Param("day") LocalDate day,
+                         @Param("amount") BigDecimal amount, @Param("dailyLimit") BigDecimal dailyLimit);
+
+    /**
+     * Subtracts a previously recorded amount, if the row is still on {@code day}.
+     *
+     * @return number of updated rows
+     */
+    @Modifying
+    @Query("UPDATE WalletDailySpend s SET s.amount = s.amount - :amount " +
+            "WHERE s.walletId = :walletId AND s.spendDate = :day")
+    int subtract(@Param("walletId") Long walletId, @Param("day") LocalDate day, @Param("amount") BigDecimal amount);
+}
@@ -0,0 +1,10 @@
+package com.wallet.digital_wallet.repository;
+
+/**
+ * Number of ledger legs a wallet has accumulated in a time range.
+ */
+public interface WalletEntryCount {
+    Long getWalletId();
+
+    Long getEntryCount();
+}
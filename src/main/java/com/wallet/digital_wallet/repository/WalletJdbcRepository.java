@@ -0,0 +1,47 @@
+package com.wallet.digital_wallet.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * JDBC access to the {@code wallets} table for bulk balance updates that bypass Hibernate.
+ *
+ * <p>Documentation requirements:
+ * <ul>
+ *   <li>Participates in the surrounding Spring-managed transaction (same connection as JPA)</li>
+ *   <li>Rows are updated in ascending wallet ID order so concurrent batches cannot deadlock</li>
+ *   <li>Every update bumps the wallet {@code version}, like {@link WalletRepository#credit}</li>
+ * </ul>
+ */
+@Repository
+@RequiredArgsConstructor
+public class WalletJdbcRepository {
+    private static final String APPLY_DELTA_SQL =
+            "UPDATE wallets SET balance = balance + ?, version = version + 1, updated_at = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Adds a signed amount to each wallet balance in one JDBC batch.
+     *
+     * @param deltas wallet ID to signed balance change
+     */
+    public void applyBalanceDeltas(Map<Long, BigDecimal> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        new TreeMap<>(deltas).forEach((walletId, delta) -> args.add(new Object[]{delta, now, walletId}));
+        jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, args);
+    }
+}
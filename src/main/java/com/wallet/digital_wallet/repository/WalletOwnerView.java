@@ -0,0 +1,25 @@
+package com.wallet.digital_wallet.repository;
+
+import com.wallet.digital_wallet.enums.UserStatus;
+
+import java.math.BigDecimal;
+
+/**
+ * Narrow projection of a wallet and its owner's credentials.
+ *
+ * <p>Used by money-movement paths that only need IDs and the PIN hash and should not load
+ * full {@code Wallet}/{@code User} entities.
+ */
+public interface WalletOwnerView {
+    Long getWalletId();
+
+    Integer getShardCount();
+
+    BigDecimal getDailyLimit();
+
+    String getUsername();
+
+    String getPinHash();
+
+    UserStatus getUserStatus();
+}
@@ -2,8 +2,14 @@ package com.wallet.digital_wallet.repository;
 
 import com.wallet.digital_wallet.entity.Wallet;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -14,6 +20,7 @@ import java.util.Optional;
  *   <li>Primary key type is {@link Long}</li>
  *   <li>Wallet is linked to {@code User} via {@code wallet.user}</li>
  *   <li>Provides lookup by wallet number and by user ID</li>
+ *   <li>Provides guarded single-statement balance updates for the direct money path</li>
  * </ul>
  */
 @Repository
@@ -35,4 +42,120 @@ public interface WalletRepository  extends JpaRepository<Wallet, Long> {
      * @return optional wallet
      */
     Optional<Wallet> findByWalletNumber(String walletNumber);
-}
\ No newline at end of file
+
+    /**
+     * Returns the fields of a wallet shown by wallet reads, without loading its owner.
+     *
+     * @param walletId wallet ID
+     * @return optional projection
+     */
+    @Query("SELECT w.id AS id, w.walletNumber AS walletNumber, w.balance AS balance, w.shardBalance AS shardBalance, " +
+            "w.shardCount AS shardCount, w.dailyLimit AS dailyLimit, w.version AS version " +
+            "FROM Wallet w WHERE w.id = :walletId")
+    Optional<WalletSnapshotView> findSnapshotById(@Param("walletId") Long walletId);
+
+    /**
+     * Returns the wallet ID and owner credentials for a wallet.
+     *
+     * @param walletId wallet ID
+     * @return optional projection
+     */
+    @Query("SELECT w.id AS walletId, w.shardCount AS shardCount, w.dailyLimit AS dailyLimit, u.username AS username, u.pinHash AS pinHash, " +
+            "u.status AS userStatus " +
+            "FROM Wallet w JOIN w.user u WHERE w.id = :walletId")
+    Optional<WalletOwnerView> findOwnerByWalletId(@Param("walletId") Long walletId);
+
+    /**
+     * Returns the wallet ID and owner credentials for the wallet owned by a username.
+     *
+     * @param username owner username
+     * @return optional projection
+     */
+    @Query("SELECT w.id AS walletId, w.shardCount AS shardCount, w.dailyLimit AS dailyLimit, u.username AS username, u.pinHash AS pinHash, " +
+            "u.status AS userStatus " +
+            "FROM Wallet w JOIN w.user u WHERE u.username = :username")
+    Optional<WalletOwnerView> findOwnerByUsername(@Param("username") String username);
+
+    /**
+     * Returns the user ID, wallet ID and status of the user with a username.
+     *
+     * @param username username
+     * @return optional projection
+     */
+    @Query("SELECT u.id AS userId, w.id AS walletId, u.status AS status FROM Wallet w JOIN w.user u WHERE u.username = :username")
+    Optional<UserWalletView> findUserWalletByUsername(@Param("username") String username);
+
+    /**
+     * Loads wallets together with their owners in one query.
+     *
+     * @param ids wallet IDs
+     * @return wallets found (missing IDs are skipped)
+     */
+    @Query("SELECT w FROM Wallet w JOIN FETCH w.user WHERE w.id IN :ids")
+    List<Wallet> findAllWithUserByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Loads the wallets owned by the given usernames together with their owners in one query.
+     *
+     * @param usernames owner usernames
+     * @return wallets found (unknown usernames are skipped)
+     */
+    @Query("SELECT w FROM Wallet w JOIN FETCH w.user u WHERE u.username IN :usernames")
+    List<Wallet> findAllWithUserByUsernameIn(@Param("usernames") Collection<String> usernames);
+
+    /**
+     * Returns IDs of wallets whose balance is split across shards.
+     *
+     * @return sharded wallet IDs
+     */
+    @Query("SELECT w.id FROM Wallet w WHERE w.shardCount > 0")
+    List<Long> findShardedWalletIds();
+
+    /**
+     * Returns the current shard count of a wallet (0 if unsharded).
+     *
+     * @param walletId wallet ID
+     * @return shard count, empty if the wallet does not exist
+     */
+    @Query("SELECT w.shardCount FROM Wallet w WHERE w.id = :walletId")
+    Optional<Integer> findShardCountById(@Param("walletId") Long walletId);
+
+    /**
+     * Debits the wallet row only if its balance covers the amount and the wallet is not sharded.
+     *
+     * <p>The affected-row count doubles as the insufficient-funds check: 0 means the wallet
+     * does not exist, is sharded, or its balance is lower than {@code amount}.
+     *
+     * @param walletId wallet ID
+     * @param amount amount to subtract
+     * @return number of updated rows (0 or 1)
+     */
+    @Modifying
+    @Query("UPDATE Wallet w SET w.balance = w.balance - :amount, w.version = w.version + 1, w.updatedAt = LOCAL DATETIME " +
+            "WHERE w.id = :walletId AND w.balance >= :amount AND w.shardCount = 0")
+    int debitIfSufficient(@Param("walletId") Long walletId, @Param("amount") BigDecimal amount);
+
+    /**
+     * Credits the wallet in a single statement.
+     *
+     * @param walletId wallet ID
+     * @param amount amount to add
+     * @return number of updated rows (0 if the wallet does not exist)
+     */
+    @Modifying
+    @Query("UPDATE Wallet w SET w.balance = w.balance + :amount, w.version = w.version + 1, w.updatedAt = LOCAL DATETIME " +
+            "WHERE w.id = :walletId")
+    int credit(@Param("walletId") Long walletId, @Param("amount") BigDecimal amount);
+
+    /**
+     * Credits the wallet row in a single statement, only while the wallet is not sharded.
+     *
+     * @param walletId wallet ID
+     * @param amount amount to add
+     * @return number of updated rows (0 if the wallet does not exist or is sharded)
+     */
+    @Modifying
+    @Query("UPDATE Wallet w SET w.balance = w.balance + :amount, w.version = w.version + 1, w.updatedAt = LOCAL DATETIME " +
+            "WHERE w.id = :walletId AND w.shardCount = 0")
+    int creditIfUnsharded(@Param("walletId") Long walletId, @Param("amount") BigDecimal amount);
+}
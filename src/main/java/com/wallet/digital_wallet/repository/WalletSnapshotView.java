@@ -0,0 +1,25 @@
+package com.wallet.digital_wallet.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Narrow projection of the wallet fields returned by wallet reads.
+ *
+ * <p>Loaded without the {@code User} association; {@code shardBalance} is the summed shard balance of
+ * sharded wallets.
+ */
+public interface WalletSnapshotView {
+    Long getId();
+
+    String getWalletNumber();
+
+    BigDecimal getBalance();
+
+    BigDecimal getShardBalance();
+
+    Integer getShardCount();
+
+    BigDecimal getDailyLimit();
+
+    Long getVersion();
+}
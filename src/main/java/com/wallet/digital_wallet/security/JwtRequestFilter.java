@@ -2,10 +2,14 @@ package com.wallet.digital_wallet.security;
 
 import com.wallet.digital_wallet.service.UserService;
 import com.wallet.digital_wallet.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -24,7 +28,10 @@ public class JwtRequestFilter extends OncePerRequestFilter {
     private UserDetailsService userService;
 
     @Autowired
-    private JwtUtil jwtUtil;
+    private JwtValidator jwtValidator;
+
+    @Autowired
+    private PrincipalCache principalCache;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
@@ -32,22 +39,53 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
         final String authorizationHeader = request.getHeader("Authorization");
 
-        String username = null;
-        String jwt = null;
+        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            String jwt = authorizationHeader.substring(7);
+            try {
+                Claims claims = jwtValidator.validate(jwt);
+                if (claims.get(JwtUtil.EPOCH_CLAIM) != null) {
+                    authenticate(claims);
+                } else {
+                    authenticateWithoutClaims(claims);
+                }
+            } catch (JwtException | UsernameNotFoundException e) {
+                // Invalid, expired or orphaned token: the request stays unauthenticated.
+            }
+        }
+        chain.doFilter(request, response);
+    }
 
-        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
-            username = jwtUtil.extractUsername(jwt);
+    /**
+     * Accepts a token whose user is still ACTIVE with the same revocation epoch, without a database query
+     * while the user is in the {@link PrincipalCache}.
+     */
+    private void authenticate(Claims claims) {
+        PrincipalCache.AuthState state = principalCache.get(claims.getSubject());
+        Number epoch = claims.get(JwtUtil.EPOCH_CLAIM, Number.class);
+        Number userId = claims.get(JwtUtil.USER_ID_CLAIM, Number.class);
+        if (state == null || !state.isActive() || epoch == null || state.epoch() != epoch.longValue()
+                || userId == null || !state.userId().equals(userId.longValue())) {
+            return;
         }
+        UserDetails principal = new User(state.username(), "", state.authorities());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userService.loadUserByUsername(username);
-            if (jwtUtil.validateToken(jwt, userDetails.getUsername())) {
-                UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                SecurityContextHolder.getContext().setAuthentication(authenticationToken);
-            }
+    /**
+     * Tokens issued before login tokens carried claims (valid for at most an hour after upgrade). Signature and
+     * expiry were already verified by {@link JwtValidator}, so only the subject is checked here.
+     */
+    private void authenticateWithoutClaims(Claims claims) {
+        if (claims.getSubject() == null || JwtUtil.PAYMENT_TOKEN_TYPE.equals(claims.get("typ"))) {
+            return;
+        }
+        UserDetails userDetails = userService.loadUserByUsername(claims.getSubject());
+        if (claims.getSubject().equals(userDetails.getUsername())) {
+            UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
+                    userDetails, null, userDetails.getAuthorities());
+            SecurityContextHolder.getContext().setAuthentication(authenticationToken);
         }
-        chain.doFilter(request, response);
     }
 }
@@ -0,0 +1,117 @@
+package com.wallet.digital_wallet.security;
+
+import com.wallet.digital_wallet.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Verifies bearer tokens once per request and remembers the claims of tokens it has already verified.
+ *
+ * <p>Documentation requirements:
+ * <ul>
+ *   <li>{@link #validate} is the only signature/expiry check of a request; callers read everything they need
+ *       from the returned claims instead of re-parsing the token</li>
+ *   <li>Verified claims are cached by the SHA-256 digest of the token (the token itself is not kept), LRU-bounded
+ *       by {@code wallet.auth.token-cache.size}; an entry is dropped when its token expires, so an expired
+ *       token is always re-parsed and rejected</li>
+ *   <li>Only successfully verified tokens are cached; forged or malformed tokens are parsed (and rejected)
+ *       every time</li>
+ *   <li>Metrics: {@code wallet.auth.token.cache} counters tagged {@code result=hit|miss}</li>
+ * </ul>
+ */
+@Component
+public class JwtValidator {
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private final JwtUtil jwtUtil;
+    private final Map<Digest, Verified> cache;
+    private final Counter hits;
+    private final Counter misses;
+
+    public JwtValidator(JwtUtil jwtUtil,
+                        MeterRegistry meterRegistry,
+                        @Value("${wallet.auth.token-cache.size:10000}") int size) {
+        this.jwtUtil = jwtUtil;
+        int capacity = Math.max(size, 1);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Digest, Verified> eldest) {
+                return size() > capacity;
+            }
+        };
+        this.hits = Counter.builder("wallet.auth.token.cache")
+                .description("Bearer tokens whose verified claims were served from the cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("wallet.auth.token.cache")
+                .description("Bearer tokens that were parsed and verified")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Verifies a token (signature and expiry) and returns its claims, from the cache when it was verified before.
+     *
+     * @param token compact token
+     * @return verified claims
+     * @throws JwtException if the token is invalid or expired
+     */
+    public Claims validate(String token) {
+        Digest digest = Digest.of(token);
+        long now = System.currentTimeMillis();
+        Verified cached;
+        synchronized (cache) {
+            cached = cache.get(digest);
+            if (cached != null && cached.expiresAt() <= now) {
+                cache.remove(digest);
+                cached = null;
+            }
+        }
+        if (cached != null) {
+            hits.increment();
+            return cached.claims();
+        }
+        misses.increment();
+        Claims claims = jwtUtil.parseClaims(token);
+        Date expiration = claims.getExpiration();
+        if (expiration != null) {
+            synchronized (cache) {
+                cache.put(digest, new Verified(claims, expiration.getTime()));
+            }
+        }
+        return claims;
+    }
+
+    private record Verified(Claims claims, long expiresAt) {
+    }
+
+    /**
+     * SHA-256 of a token as four longs, so cache keys are small and equal tokens share one key.
+     */
+    private record Digest(long a, long b, long c, long d) {
+
+        static Digest of(String token) {
+            MessageDigest sha256 = SHA_256.get();
+            ByteBuffer hash = ByteBuffer.wrap(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+            return new Digest(hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.wallet.digital_wallet.security;
+
+import com.wallet.digital_wallet.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * In-memory throttle of failed logins per username and per client IP, checked before any PIN hashing or query.
+ *
+ * <p>Documentation requirements:
+ * <ul>
+ *   <li>Each key type keeps a sliding window of {@code window-seconds} over failed logins: the count of the
+ *       previous window, weighted by how much of it still overlaps, plus the count of the current one</li>
+ *   <li>Counts are exact per key and live in a fixed open-addressing table per key type ({@code table-size}
+ *       slots of 64-bit seeded key hashes with previous and current window counts), so memory does not grow with
+ *       the number of usernames or IPs an attacker tries</li>
+ *   <li>A new key takes a free slot in its probe window or evicts the entry with the fewest failures there; a
+ *       flood of distinct keys therefore only displaces other low counts and never makes an untouched key look
+ *       over its limit</li>
+ *   <li>Keys without failures in the last window free their slot when the window rolls over</li>
+ *   <li>A username with {@code max-failures-per-user} or an IP with {@code max-failures-per-ip} failures in the
+ *       window is rejected with {@link TooManyRequestsException} (HTTP 429)</li>
+ *   <li>With {@code progressive-delay.enabled}, attempts after half of the limit are first delayed by
+ *       {@code base-ms}, doubling per further failure up to {@code max-ms}</li>
+ *   <li>Metrics: {@code wallet.login.failures}, {@code wallet.login.throttle.rejected} tagged
+ *       {@code key=user|ip} and {@code wallet.login.throttle.delayed}</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+public class LoginThrottler {
+    private final boolean enabled;
+    private final int maxFailuresPerUser;
+    private final int maxFailuresPerIp;
+    private final boolean progressiveDelay;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final SlidingWindowTable users;
+    private final SlidingWindowTable ips;
+    private final Counter failures;
+    private final Counter rejectedByUser;
+    private final Counter rejectedByIp;
+    private final Counter delayed;
+
+    public LoginThrottler(MeterRegistry meterRegistry,
+                          @Value("${wallet.login-throttle.enabled:true}") boolean enabled,
+                          @Value("${wallet.login-throttle.window-seconds:300}") long windowSeconds,
+                          @Value("${wallet.login-throttle.max-failures-per-user:5}") int maxFailuresPerUser,
+                          @Value("${wallet.login-throttle.max-failures-per-ip:50}") int maxFailuresPerIp,
+                          @Value("${wallet.login-throttle.table-size:16384}") int tableSize,
+                          @Value("${wallet.login-throttle.progressive-delay.enabled:false}") boolean progressiveDelay,
+                          @Value("${wallet.login-throttle.progressive-delay.base-ms:250}") long baseDelayMillis,
+                          @Value("${wallet.login-throttle.progressive-delay.max-ms:2000}") long maxDelayMillis) {
+        this.enabled = enabled;
+        this.maxFailuresPerUser = Math.max(maxFailuresPerUser, 1);
+        this.maxFailuresPerIp = Math.max(maxFailuresPerIp, 1);
+        this.progressiveDelay = progressiveDelay;
+        this.baseDelayMillis = Math.max(baseDelayMillis, 0);
+        this.maxDelayMillis = Math.max(maxDelayMillis, 0);
+        long windowMillis = Math.max(windowSeconds, 1) * 1000;
+        this.users = new SlidingWindowTable(tableSize, windowMillis);
+        this.ips = new SlidingWindowTable(tableSize, windowMillis);
+        this.failures = Counter.builder("wallet.login.failures")
+                .description("Failed login attempts")
+                .register(meterRegistry);
+        this.rejectedByUser = rejectedCounter("user", meterRegistry);
+        this.rejectedByIp = rejectedCounter("ip", meterRegistry);
+        this.delayed = Counter.builder("wallet.login.throttle.delayed")
+                .description("Login attempts delayed by the progressive delay")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Admits a login attempt, delaying it first when progressive delay is enabled.
+     *
+     * @param username attempted username (may be null)
+     * @param clientIp client address (may be null)
+     * @throws TooManyRequestsException if the username or the IP has too many recent failures
+     */
+    public void check(String username, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        double userFailures = username != null ? users.estimate(username, now) : 0;
+        double ipFailures = clientIp != null ? ips.estimate(clientIp, now) : 0;
+        if (userFailures >= maxFailuresPerUser) {
+            rejectedByUser.increment();
+            throw new TooManyRequestsException("Too many failed logins for this user, please retry later");
+        }
+        if (ipFailures >= maxFailuresPerIp) {
+            rejectedByIp.increment();
+            log.warn("Login attempts from {} throttled", clientIp);
+            throw new TooManyRequestsException("Too many failed logins from this address, please retry later");
+        }
+        long delay = delayMillis(Math.max(userFailures - maxFailuresPerUser / 2.0, ipFailures - maxFailuresPerIp / 2.0));
+        if (delay > 0) {
+            delayed.increment();
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TooManyRequestsException("Login attempt interrupted, please retry");
+            }
+        }
+    }
+
+    /**
+     * Counts a failed login against the username and the client IP.
+     *
+     * @param username attempted username (may be null)
+     * @param clientIp client address (may be null)
+     */
+    public void recordFailure(String username, String clientIp) {
+        failures.increment();
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (username != null) {
+            users.increment(username, now);
+        }
+        if (clientIp != null) {
+            ips.increment(clientIp, now);
+        }
+    }
+
+    /**
+     * Delay before an attempt: none below half of a limit, then {@code base-ms} doubling per failure over it.
+     *
+     * @param failuresOverHalf failures past half of the limit, for the key closest to its limit
+     */
+    long delayMillis(double failuresOverHalf) {
+        if (!progressiveDelay || failuresOverHalf < 0 || baseDelayMillis == 0) {
+            return 0;
+        }
+        int doublings = (int) Math.min(failuresOverHalf, 20);
+        return Math.min(baseDelayMillis << doublings, maxDelayMillis);
+    }
+
+    private static Counter rejectedCounter(String key, MeterRegistry meterRegistry) {
+        return Counter.builder("wallet.login.throttle.rejected")
+                .description("Login attempts rejected before checking the PIN")
+                .tag("key", key)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Sliding-window failure counts (previous and current window) per key in a bounded open-addressing table.
+     */
+    static final class SlidingWindowTable {
+        private static final int PROBES = 8;
+
+        private final int mask;
+        private final long windowMillis;
+        private final long seed = ThreadLocalRandom.current().nextLong();
+        private final long[] keys;
+        private final int[] previous;
+        private final int[] current;
+        private long windowStart;
+
+        SlidingWindowTable(int size, long windowMillis) {
+            int capacity = Math.max(Integer.highestOneBit(Math.max(size, 64)), 64);
+            this.mask = capacity - 1;
+            this.windowMillis = windowMillis;
+            this.keys = new long[capacity];
+            this.previous = new int[capacity];
+            this.current = new int[capacity];
+        }
+
+        synchronized void increment(String key, long now) {
+            rotate(now);
+            long hash = hash(key);
+            int slot = find(hash);
+            if (slot < 0) {
+                slot = claim(hash, now);
+            }
+            if (current[slot] < Integer.MAX_VALUE) {
+                current[slot]++;
+            }
+        }
+
+        synchronized double estimate(String key, long now) {
+            rotate(now);
+            int slot = find(hash(key));
+            return slot < 0 ? 0 : weighted(slot, now);
+        }
+
+        private int find(long hash) {
+            int start = (int) hash & mask;
+            for (int i = 0; i < PROBES; i++) {
+                int slot = (start + i) & mask;
+                if (keys[slot] == hash) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Takes the first free slot in the key's probe window, or else the one with the fewest failures.
+         */
+        private int claim(long hash, long now) {
+            int start = (int) hash & mask;
+            int victim = start;
+            double fewest = Double.MAX_VALUE;
+            for (int i = 0; i < PROBES; i++) {
+                int slot = (start + i) & mask;
+                if (keys[slot] == 0) {
+                    victim = slot;
+                    break;
+                }
+                double count = weighted(slot, now);
+                if (count < fewest) {
+                    fewest = count;
+                    victim = slot;
+                }
+            }
+            keys[victim] = hash;
+            previous[victim] = 0;
+            current[victim] = 0;
+            return victim;
+        }
+
+        private double weighted(int slot, long now) {
+            double overlap = 1.0 - (double) (now - windowStart) / windowMillis;
+            return previous[slot] * overlap + current[slot];
+        }
+
+        private void rotate(long now) {
+            if (now - windowStart < windowMillis) {
+                return;
+            }
+            if (now - windowStart < 2 * windowMillis) {
+                for (int slot = 0; slot < keys.length; slot++) {
+                    previous[slot] = current[slot];
+                    current[slot] = 0;
+                    if (previous[slot] == 0) {
+                        keys[slot] = 0;
+                    }
+                }
+                windowStart += windowMillis;
+            } else {
+                Arrays.fill(keys, 0);
+                Arrays.fill(previous, 0);
+                Arrays.fill(current, 0);
+                windowStart = now - now % windowMillis;
+            }
+        }
+
+        /**
+         * Seeded 64-bit key hash; 0 marks a free slot, so it is never returned.
+         */
+        private long hash(String key) {
+            long hash = seed;
+            for (int i = 0; i < key.length(); i++) {
+                hash = (hash ^ key.charAt(i)) * 0x100000001b3L;
+            }
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            return hash != 0 ? hash : 1;
+        }
+    }
+}
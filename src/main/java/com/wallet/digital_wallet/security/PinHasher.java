@@ -0,0 +1,209 @@
+package com.wallet.digital_wallet.security;
+
+import com.wallet.digital_wallet.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt {@link PasswordEncoder} that runs every PIN hash and check on a dedicated, bounded thread pool.
+ *
+ * <p>Documentation requirements:
+ * <ul>
+ *   <li>{@code threads} workers (default: one per CPU) take work from a queue of {@code queue-capacity} entries;
+ *       request threads wait for the result, so at most {@code threads} hashes burn CPU at once</li>
+ *   <li>A full queue, or work that does not finish within {@code wait-timeout-ms}, fails fast with
+ *       {@link TooManyRequestsException} (HTTP 429) instead of tying up request threads</li>
+ *   <li>The cost factor can be changed at runtime ({@code /api/v1/admin/pin-hashing}); stored hashes of another
+ *       cost are rehashed in the background after the next successful login</li>
+ *   <li>Metrics: {@code wallet.pin.hashing.queue.depth}, {@code wallet.pin.hashing.active},
+ *       {@code wallet.pin.hashing.wait} (time queued), {@code wallet.pin.hashing.duration} (per operation)
+ *       and {@code wallet.pin.hashing.rejected}</li>
+ * </ul>
+ *
+ * <p>Created by {@code PasswordEncoderConfig}; it is the only PIN encoder in the application.
+ */
+@Slf4j
+public class PinHasher implements PasswordEncoder {
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[aby]?\\$(\\d{2})\\$");
+
+    private final ThreadPoolExecutor executor;
+    private final long waitTimeoutMillis;
+    private final Timer waitTimer;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejectedCounter;
+    private volatile Cost cost;
+
+    public PinHasher(int threads, int queueCapacity, int strength, long waitTimeoutMillis, MeterRegistry meterRegistry) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(queueCapacity, 1)), r -> {
+                    Thread thread = new Thread(r, "pin-hasher-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.waitTimeoutMillis = waitTimeoutMillis;
+        this.cost = new Cost(strength);
+        this.waitTimer = Timer.builder("wallet.pin.hashing.wait")
+                .description("Time PIN operations spend queued before a hashing thread picks them up")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.encodeTimer = operationTimer("encode", meterRegistry);
+        this.matchesTimer = operationTimer("matches", meterRegistry);
+        this.rejectedCounter = Counter.builder("wallet.pin.hashing.rejected")
+                .description("PIN operations rejected because the hashing queue was full or too slow")
+                .register(meterRegistry);
+        Gauge.builder("wallet.pin.hashing.queue.depth", executor, e -> e.getQueue().size())
+                .description("PIN operations waiting for a hashing thread")
+                .register(meterRegistry);
+        Gauge.builder("wallet.pin.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Hashing threads currently running BCrypt")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPin) {
+        BCryptPasswordEncoder current = cost.encoder();
+        return run(encodeTimer, () -> current.encode(rawPin));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPin, String pinHash) {
+        BCryptPasswordEncoder current = cost.encoder();
+        return run(matchesTimer, () -> current.matches(rawPin, pinHash));
+    }
+
+    /**
+     * Returns true if {@code pinHash} is a BCrypt hash of a cost other than the current one.
+     *
+     * @param pinHash stored hash
+     * @return whether the hash should be replaced after the next successful check
+     */
+    public boolean needsRehash(String pinHash) {
+        if (pinHash == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(pinHash);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != cost.strength();
+    }
+
+    /**
+     * Hashes {@code rawPin} with the current cost on the hashing pool and hands the hash to {@code store}.
+     * Skipped (and retried on a later login) when the pool is saturated.
+     *
+     * @param rawPin PIN that was just verified
+     * @param store persists the new hash
+     */
+    public void rehashInBackground(CharSequence rawPin, Consumer<String> store) {
+        BCryptPasswordEncoder current = cost.encoder();
+        try {
+            executor.execute(() -> {
+                try {
+                    store.accept(encodeTimer.record(() -> current.encode(rawPin)));
+                } catch (RuntimeException e) {
+                    log.warn("Background PIN rehash failed: {}", e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Background PIN rehash skipped: hashing queue is full");
+        }
+    }
+
+    /**
+     * Changes the BCrypt cost factor for hashes created from now on.
+     *
+     * @param strength cost factor (4..31)
+     */
+    public void setStrength(int strength) {
+        Cost previous = cost;
+        cost = new Cost(strength);
+        log.info("PIN hashing cost changed from {} to {}", previous.strength(), strength);
+    }
+
+    public int getStrength() {
+        return cost.strength();
+    }
+
+    public int getThreads() {
+        return executor.getMaximumPoolSize();
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int getQueueCapacity() {
+        return executor.getQueue().size() + executor.getQueue().remainingCapacity();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Timer timer, Callable<T> work) {
+        long queuedAt = System.nanoTime();
+        Future<T> result;
+        try {
+            result = executor.submit(() -> {
+                waitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return timer.recordCallable(work);
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new TooManyRequestsException("Too many PIN checks in progress, please retry");
+        }
+        try {
+            return result.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            rejectedCounter.increment();
+            throw new TooManyRequestsException("Too many PIN checks in progress, please retry");
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a PIN check", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("PIN hashing failed", e.getCause());
+        }
+    }
+
+    private record Cost(int strength, BCryptPasswordEncoder encoder) {
+        private Cost(int strength) {
+            this(strength, new BCryptPasswordEncoder(strength));
+        }
+    }
+
+    private static Timer operationTimer(String operation, MeterRegistry meterRegistry) {
+        return Timer.builder("wallet.pin.hashing.duration")
+                .description("BCrypt time per PIN operation")
+                .tag("operation", operation)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,160 @@
+package com.wallet.digital_wallet.security;
+
+import com.wallet.digital_wallet.enums.UserStatus;
+import com.wallet.digital_wallet.repository.UserAuthView;
+import com.wallet.digital_wallet.repository.UserRepository;
+import com.wallet.digital_wallet.util.TransactionCallbacks;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded, expiring cache of the authentication state of users, so authenticated requests need no user query.
+ *
+ * <p>Documentation requirements:
+ * <ul>
+ *   <li>Login tokens carry the user ID, role and the user's {@code authEpoch}; a request is accepted only while
+ *       the cached state is ACTIVE and has the same epoch</li>
+ *   <li>Entries are LRU-bounded by {@code wallet.auth.principal-cache.size} and reloaded after
+ *       {@code ttl-seconds}; a miss is one narrow query ({@link UserAuthView})</li>
+ *   <li>Deactivation and role changes bump the epoch and {@link #invalidate} the entry (again after commit),
+ *       which cuts the user off on this instance at once and on other instances within {@code ttl-seconds}</li>
+ *   <li>Every eviction bumps an invalidation generation (striped by username); a load is cached only if its
+ *       generation did not move while it ran, so a read racing a deactivation never re-caches the old state</li>
+ *   <li>Metrics: {@code wallet.auth.principal.cache} counters tagged {@code result=hit|miss}</li>
+ * </ul>
+ */
+@Component
+public class PrincipalCache {
+    private static final int GENERATION_STRIPES = 256;
+
+    private final UserRepository userRepository;
+    private final long ttlMillis;
+    private final Map<String, AuthState> cache;
+    /**
+     * Evictions per username stripe, so a load can tell whether an eviction happened while it ran.
+     */
+    private final long[] generations = new long[GENERATION_STRIPES];
+    private final Counter hits;
+    private final Counter misses;
+
+    public PrincipalCache(UserRepository userRepository,
+                          MeterRegistry meterRegistry,
+                          @Value("${wallet.auth.principal-cache.size:10000}") int size,
+                          @Value("${wallet.auth.principal-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.ttlMillis = Math.max(ttlSeconds, 1) * 1000;
+        int capacity = Math.max(size, 1);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, AuthState> eldest) {
+                return size() > capacity;
+            }
+        };
+        this.hits = Counter.builder("wallet.auth.principal.cache")
+                .description("Authenticated requests served from the principal cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("wallet.auth.principal.cache")
+                .description("Authenticated requests that loaded the user from the database")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the authentication state of a user, from the cache when fresh.
+     *
+     * @param username username
+     * @return state, or null if the user does not exist
+     */
+    public AuthState get(String username) {
+        long now = System.currentTimeMillis();
+        AuthState cached;
+        long generation;
+        synchronized (cache) {
+            cached = cache.get(username);
+            generation = generations[stripe(username)];
+        }
+        if (cached != null && cached.loadedAt() + ttlMillis > now) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        AuthState loaded = userRepository.findAuthByUsername(username)
+                .map(view -> AuthState.of(view, now))
+                .orElse(null);
+        synchronized (cache) {
+            if (loaded != null && generations[stripe(username)] == generation) {
+                cache.put(username, loaded);
+            } else {
+                cache.remove(username);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Returns the state of a user who may be issued a login token.
+     *
+     * @param username authenticated username
+     * @return ACTIVE state
+     * @throws DisabledException if the user does not exist or is not active
+     */
+    public AuthState requireActive(String username) {
+        AuthState state = get(username);
+        if (state == null || !state.isActive()) {
+            throw new DisabledException("User is not active");
+        }
+        return state;
+    }
+
+    /**
+     * Drops a user's entry now and, when called in a database transaction, again after it commits. Both evictions
+     * bump the username's generation, so a load that read the row before the commit is not cached.
+     *
+     * @param username username
+     */
+    public void invalidate(String username) {
+        evict(username);
+        TransactionCallbacks.afterCommit(() -> evict(username));
+    }
+
+    private void evict(String username) {
+        synchronized (cache) {
+            generations[stripe(username)]++;
+            cache.remove(username);
+        }
+    }
+
+    private static int stripe(String username) {
+        return (username.hashCode() & 0x7fffffff) % GENERATION_STRIPES;
+    }
+
+    /**
+     * Authentication state of one user.
+     */
+    public record AuthState(Long userId, String username, String role, UserStatus status, long epoch, long loadedAt) {
+
+        static AuthState of(UserAuthView view, long loadedAt) {
+            String role = view.getRole() == null || view.getRole().isBlank() ? "USER" : view.getRole().trim().toUpperCase();
+            return new AuthState(view.getId(), view.getUsername(), role, view.getStatus(),
+                    view.getAuthEpoch() != null ? view.getAuthEpoch() : 0L, loadedAt);
+        }
+
+        public boolean isActive() {
+            return status == null || status == UserStatus.ACTIVE;
+        }
+
+        public List<GrantedAuthority> authorities() {
+            return List.of(new SimpleGrantedAuthority("ROLE_" + role));
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.wallet.digital_wallet.service;
+
+import com.wallet.digital_wallet.dto.request.MerchantPaymentRequest;
+import com.wallet.digital_wallet.dto.request.TransferRequest;
+import com.wallet.digital_wallet.entity.Merchant;
+import com.wallet.digital_wallet.entity.Transaction;
+import com.wallet.digital_wallet.entity.Wallet;
+import com.wallet.digital_wallet.enums.TransactionStatus;
+import com.wallet.digital_wallet.enums.TransactionType;
+
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * One transfer or merchant payment moving through {@link BatchTransactionService}.
+ *
+ * <p>Resolution fills in the wallets/merchant, authorization checks the PIN (or charges the payment session),
+ * and apply sets the
+ * final {@code status} with either a {@code transaction} or an {@code error}. CANCELLED means the
+ * item was valid but not applied because another item failed an ATOMIC batch.
+ */
+@Getter
+public final class BatchItem {
+    /**
+     * Position of the item in its request list.
+     */
+    private final int index;
+    private final TransactionType type;
+    private final TransferRequest transfer;
+    private final MerchantPaymentRequest payment;
+
+    private Wallet fromWallet;
+    private Wallet toWallet;
+    private Merchant merchant;
+
+    private TransactionStatus status = TransactionStatus.PENDING;
+    private String error;
+    private RuntimeException failure;
+    private Transaction transaction;
+
+    /**
+     * True while the item holds a charge on its payment session budget.
+     */
+    private boolean sessionCharged;
+
+    private BatchItem(int index, TransactionType type, TransferRequest transfer, MerchantPaymentRequest payment) {
+        this.index = index;
+        this.type = type;
+        this.transfer = transfer;
+        this.payment = payment;
+    }
+
+    static BatchItem of(int index, TransferRequest transfer) {
+        return new BatchItem(index, TransactionType.PEER_TRANSFER, transfer, null);
+    }
+
+    static BatchItem of(int index, MerchantPaymentRequest payment) {
+        return new BatchItem(index, TransactionType.MERCHANT_PAYMENT, null, payment);
+    }
+
+    Long fromWalletId() {
+        return transfer != null ? transfer.getFromWalletId() : payment.getFromWalletId();
+    }
+
+    BigDecimal amount() {
+        return transfer != null ? transfer.getAmount() : payment.getAmount();
+    }
+
+    String pin() {
+        return transfer != null ? transfer.getPin() : payment.getPin();
+    }
+
+    String paymentToken() {
+        return transfer != null ? transfer.getPaymentToken() : payment.getPaymentToken();
+    }
+
+    String description() {
+        return transfer != null ? transfer.getDescription() : payment.getDescription();
+    }
+
+    boolean isPending() {
+        return status == TransactionStatus.PENDING;
+    }
+
+    void resolve(Wallet fromWallet, Wallet toWallet, Merchant merchant) {
+        this.fromWallet = fromWallet;
+        this.toWallet = toWallet;
+        this.merchant = merchant;
+    }
+
+    void sessionCharged(boolean charged) {
+        this.sessionCharged = charged;
+    }
+
+    void cancel() {
+        status = TransactionStatus.CANCELLED;
+        transaction = null;
+    }
+
+    void fail(RuntimeException reason) {
+        status = TransactionStatus.FAILED;
+        error = reason.getMessage();
+        failure = reason;
+        transaction = null;
+    }
+
+    void complete(Transaction txn) {
+        status = TransactionStatus.COMPLETED;
+        error = null;
+        failure = null;
+        transaction = txn;
+    }
+}
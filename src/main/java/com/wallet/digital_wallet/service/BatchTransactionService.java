@@ -0,0 +1,363 @@
+package com.wallet.digital_wallet.service;
+
+import com.wallet.digital_wallet.dto.request.BatchTransactionRequest;
+import com.wallet.digital_wallet.entity.Merchant;
+import com.wallet.digital_wallet.entity.Transaction;
+import com.wallet.digital_wallet.entity.Wallet;
+import com.wallet.digital_wallet.enums.BatchMode;
+import com.wallet.digital_wallet.enums.TransactionStatus;
+import com.wallet.digital_wallet.enums.TransactionType;
+import com.wallet.digital_wallet.enums.UserStatus;
+import com.wallet.digital_wallet.exception.InsufficientBalanceException;
+import com.wallet.digital_wallet.exception.InvalidTransactionException;
+import com.wallet.digital_wallet.exception.ResourceNotFoundException;
+import com.wallet.digital_wallet.repository.MerchantRepository;
+import com.wallet.digital_wallet.repository.TransactionJdbcRepository;
+import com.wallet.digital_wallet.repository.WalletRepository;
+import com.wallet.digital_wallet.util.IdGenerator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service responsible for executing many transfers and merchant payments in one call.
+ *
+ * <p>Documentation requirements:
+ * <ul>
+ *   <li>Sender wallets, receiver wallets and merchants are each loaded with one query</li>
+ *   <li>The PIN is checked once per distinct (source wallet, PIN) pair</li>
+ *   <li>All movements are applied under the wallet locks of every involved wallet, in one database transaction</li>
+ *   <li>Transaction rows, and then their ledger legs, are inserted with one JDBC batch each</li>
+ *   <li>Each debit is counted against the sender's daily limit by {@link DailySpendTracker}</li>
+ *   <li>ATOMIC: any failing item cancels the whole batch; BEST_EFFORT: failing items are skipped</li>
+ *   <li>With the ledger engine running, items go through {@link LedgerEngine} one by one (BEST_EFFORT only)</li>
+ * </ul>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BatchTransactionService {
+    private final WalletRepository walletRepository;
+    private final MerchantRepository merchantRepository;
+    private final TransactionJdbcRepository transactionJdbcRepository;
+    private final WalletService walletService;
+    private final WalletLockManager walletLockManager;
+    private final TransactionRetryExecutor retryExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final LedgerEngine ledgerEngine;
+    private final TransactionJournal transactionJournal;
+    private final PasswordEncoder passwordEncoder;
+    private final IdGenerator idGenerator;
+    private final DailySpendTracker dailySpendTracker;
+    private final LedgerPostingService ledgerPostingService;
+    private final PaymentSessionService paymentSessionService;
+
+    @Value("${wallet.batch.max-items:1000}")
+    private int maxItems;
+
+    /**
+     * Executes a batch request.
+     *
+     * @param request batch request
+     * @return one item per submitted transfer, then one per merchant payment, with their outcome
+     */
+    public List<BatchItem> execute(BatchTransactionRequest request) {
+        List<BatchItem> items = new ArrayList<>();
+        if (request.getTransfers() != null) {
+            for (int i = 0; i < request.getTransfers().size(); i++) {
+                items.add(BatchItem.of(i, request.getTransfers().get(i)));
+            }
+        }
+        if (request.getMerchantPayments() != null) {
+            for (int i = 0; i < request.getMerchantPayments().size(); i++) {
+                items.add(BatchItem.of(i, request.getMerchantPayments().get(i)));
+            }
+        }
+        if (items.size() > maxItems) {
+            throw new IllegalArgumentException("Batch must not contain more than " + maxItems + " items");
+        }
+
+        resolve(items);
+        authorize(items);
+        apply(items, request.getMode());
+        log.info("Batch of {} items executed ({}): {} completed", items.size(), request.getMode(),
+                items.stream().filter(i -> i.getStatus() == TransactionStatus.COMPLETED).count());
+        return items;
+    }
+
+    /**
+     * Looks up sender wallets, receiver wallets and merchants in bulk. Items referencing unknown
+     * resources, transferring to self or to an inactive receiver are failed.
+     */
+    void resolve(List<BatchItem> items) {
+        Set<Long> walletIds = new HashSet<>();
+        Set<String> usernames = new HashSet<>();
+        Set<String> merchantCodes = new HashSet<>();
+        for (BatchItem item : items) {
+            walletIds.add(item.fromWalletId());
+            if (item.getTransfer() != null) {
+                usernames.add(item.getTransfer().getToUsername());
+            } else {
+                merchantCodes.add(item.getPayment().getMerchantCode());
+            }
+        }
+
+        Map<Long, Wallet> senders = walletRepository.findAllWithUserByIdIn(walletIds).stream()
+                .collect(Collectors.toMap(Wallet::getId, Function.identity()));
+        Map<String, Wallet> receivers = usernames.isEmpty() ? Map.of()
+                : walletRepository.findAllWithUserByUsernameIn(usernames).stream()
+                .collect(Collectors.toMap(w -> w.getUser().getUsername(), Function.identity()));
+        Map<String, Merchant> merchants = merchantCodes.isEmpty() ? Map.of()
+                : merchantRepository.findByMerchantCodeIn(merchantCodes).stream()
+                .collect(Collectors.toMap(Merchant::getMerchantCode, Function.identity()));
+
+        for (BatchItem item : items) {
+            Wallet from = senders.get(item.fromWalletId());
+            if (from == null) {
+                item.fail(new ResourceNotFoundException("Wallet", "id", item.fromWalletId()));
+                continue;
+            }
+            if (item.getTransfer() != null) {
+                Wallet to = receivers.get(item.getTransfer().getToUsername());
+                if (to == null) {
+                    item.fail(new ResourceNotFoundException("User", "username", item.getTransfer().getToUsername()));
+                } else if (to.getId().equals(from.getId())) {
+                    item.fail(new InvalidTransactionException("Cannot transfer to self"));
+                } else if (to.getUser().getStatus() != null && to.getUser().getStatus() != UserStatus.ACTIVE) {
+                    item.fail(new InvalidTransactionException("Receiver account is not active"));
+                } else {
+                    item.resolve(from, to, null);
+                }
+            } else {
+                Merchant merchant = merchants.get(item.getPayment().getMerchantCode());
+                if (merchant == null) {
+                    item.fail(new ResourceNotFoundException("Merchant", "code", item.getPayment().getMerchantCode()));
+                } else {
+                    item.resolve(from, null, merchant);
+                }
+            }
+        }
+    }
+
+    /**
+     * Verifies PINs, running BCrypt once per distinct (source wallet, PIN) pair. Items carrying a payment
+     * token charge their session instead.
+     */
+    void authorize(List<BatchItem> items) {
+        Map<Long, Map<String, Boolean>> verified = new HashMap<>();
+        for (BatchItem item : items) {
+            if (!item.isPending()) {
+                continue;
+            }
+            if (item.paymentToken() != null && !item.paymentToken().isBlank()) {
+                try {
+                    paymentSessionService.charge(item.paymentToken(), item.fromWalletId(), item.amount());
+                    item.sessionCharged(true);
+                } catch (InvalidTransactionException e) {
+                    item.fail(e);
+                }
+                continue;
+            }
+            if (item.pin() == null || item.pin().isBlank()) {
+                item.fail(new InvalidTransactionException("PIN or payment token is required"));
+                continue;
+            }
+            String pinHash = item.getFromWallet().getUser().getPinHash();
+            boolean valid = verified.computeIfAbsent(item.fromWalletId(), id -> new HashMap<>())
+                    .computeIfAbsent(item.pin(), pin -> passwordEncoder.matches(pin, pinHash));
+            if (!valid) {
+                item.fail(new InvalidTransactionException("Invalid PIN"));
+            }
+        }
+    }
+
+    /**
+     * Applies resolved and authorized items. Items that already failed are left untouched. Items that end
+     * FAILED or CANCELLED get their payment session charge back.
+     *
+     * @param items batch items
+     * @param mode failure handling
+     */
+    void apply(List<BatchItem> items, BatchMode mode) {
+        try {
+            applyPending(items, mode);
+        } finally {
+            items.stream()
+                    .filter(item -> item.getStatus() == TransactionStatus.FAILED
+                            || item.getStatus() == TransactionStatus.CANCELLED)
+                    .forEach(this::refund);
+        }
+    }
+
+    /**
+     * Gives back the payment session charge of an item that was not applied.
+     */
+    void refund(BatchItem item) {
+        if (item.isSessionCharged()) {
+            item.sessionCharged(false);
+            paymentSessionService.refund(item.paymentToken(), item.amount());
+        }
+    }
+
+    private void applyPending(List<BatchItem> items, BatchMode mode) {
+        List<BatchItem> pending = items.stream().filter(BatchItem::isPending).toList();
+        if (mode == BatchMode.ATOMIC && pending.size() < items.size()) {
+            pending.forEach(BatchItem::cancel);
+            return;
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        if (ledgerEngine.isRunning()) {
+            if (mode == BatchMode.ATOMIC) {
+                throw new InvalidTransactionException("ATOMIC batches are not supported by the ledger engine");
+            }
+            applyThroughEngine(pending);
+        } else {
+            Set<Long> walletIds = new TreeSet<>();
+            for (BatchItem item : pending) {
+                walletIds.add(item.fromWalletId());
+                if (item.getToWallet() != null) {
+                    walletIds.add(item.getToWallet().getId());
+                }
+            }
+            try {
+                retryExecutor.execute("batch", () -> walletLockManager.withLocks(walletIds,
+                        () -> transactionTemplate.execute(status -> applyInTransaction(pending, walletIds, mode))));
+            } catch (BatchAbortedException e) {
+                for (BatchItem item : pending) {
+                    if (item == e.item) {
+                        item.fail(e.cause);
+                    } else {
+                        item.cancel();
+                    }
+                }
+            }
+        }
+
+        transactionJournal.appendCommitted(pending.stream()
+                .map(BatchItem::getTransaction)
+                .filter(Objects::nonNull)
+                .toList());
+    }
+
+    private Void applyInTransaction(List<BatchItem> pending, Set<Long> walletIds, BatchMode mode) {
+        Map<Long, Wallet> wallets = walletRepository.findAllWithUserByIdIn(walletIds).stream()
+                .collect(Collectors.toMap(Wallet::getId, Function.identity()));
+        List<Transaction> rows = new ArrayList<>(pending.size());
+
+        for (BatchItem item : pending) {
+            Wallet from = wallets.get(item.fromWalletId());
+            Wallet to = item.getToWallet() != null ? wallets.get(item.getToWallet().getId()) : null;
+            try {
+                if (from == null || (item.getToWallet() != null && to == null)) {
+                    throw new InvalidTransactionException("Wallet no longer exists");
+                }
+                debit(from, item.amount());
+            } catch (InsufficientBalanceException | InvalidTransactionException e) {
+                if (mode == BatchMode.ATOMIC) {
+                    throw new BatchAbortedException(item, e);
+                }
+                item.fail(e);
+                continue;
+            }
+            if (to != null) {
+                walletService.credit(to, item.amount());
+            }
+            String code = idGenerator.nextCode();
+            Transaction txn = newTransaction(item, from, to, "TXN" + code, "REF" + code, LocalDateTime.now());
+            rows.add(txn);
+            item.complete(txn);
+        }
+
+        transactionJdbcRepository.batchInsert(rows);
+        ledgerPostingService.postAll(rows);
+        return null;
+    }
+
+    /**
+     * Counts the debit against the daily limit, then debits; the count is taken back if the debit fails
+     * because BEST_EFFORT batches commit around failed items.
+     */
+    private void debit(Wallet from, BigDecimal amount) {
+        dailySpendTracker.record(from.getId(), from.getDailyLimit(), amount);
+        try {
+            walletService.debit(from, amount);
+        } catch (InsufficientBalanceException e) {
+            dailySpendTracker.release(from.getId(), amount);
+            throw e;
+        }
+    }
+
+    private void applyThroughEngine(List<BatchItem> pending) {
+        for (BatchItem item : pending) {
+            boolean counted = false;
+            try {
+                dailySpendTracker.record(item.fromWalletId(), item.getFromWallet().getDailyLimit(), item.amount());
+                counted = true;
+                String code = idGenerator.nextCode();
+                String transactionId = "TXN" + code;
+                String referenceNumber = "REF" + code;
+                LedgerEntry entry = item.getType() == TransactionType.PEER_TRANSFER
+                        ? ledgerEngine.transfer(item.fromWalletId(), item.getToWallet().getId(), item.amount(),
+                                transactionId, referenceNumber, item.description())
+                        : ledgerEngine.payMerchant(item.fromWalletId(), item.getMerchant().getId(), item.amount(),
+                                transactionId, referenceNumber, item.description());
+                item.complete(newTransaction(item, item.getFromWallet(), item.getToWallet(),
+                        entry.transactionId(), entry.referenceNumber(), entry.createdAt()));
+            } catch (InsufficientBalanceException | InvalidTransactionException | ResourceNotFoundException e) {
+                if (counted) {
+                    dailySpendTracker.release(item.fromWalletId(), item.amount());
+                }
+                item.fail(e);
+            }
+        }
+    }
+
+    private static Transaction newTransaction(BatchItem item, Wallet from, Wallet to, String transactionId,
+                                              String referenceNumber, LocalDateTime createdAt) {
+        return Transaction.builder()
+                .transactionId(transactionId)
+                .referenceNumber(referenceNumber)
+                .fromWallet(from)
+                .toWallet(to)
+                .merchant(item.getMerchant())
+                .amount(item.amount())
+                .type(item.getType())
+                .status(TransactionStatus.COMPLETED)
+                .description(item.description())
+                .createdAt(createdAt)
+                .build();
+    }
+
+    /**
+     * Rolls back an ATOMIC batch and carries the item that caused it.
+     */
+    private static final class BatchAbortedException extends RuntimeException {
+        private final transient BatchItem item;
+        private final RuntimeException cause;
+
+        private BatchAbortedException(BatchItem item, RuntimeException cause) {
+            super(cause.getMessage());
+            this.item = item;
+            this.cause = cause;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.wallet.digital_wallet.service;
+
+import com.wallet.digital_wallet.exception.InvalidTransactionException;
+import com.wallet.digital_wallet.repository.WalletDailySpendRepository;
+import com.wallet.digital_wallet.util.TransactionCallbacks;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service that enforces {@code Wallet.dailyLimit} against the amount each wallet spent today.
+ *
+ * <p>Documentation requirements:
+ * <ul>
+ *   <li>Each wallet has one in-memory bucket {@code (day, spent)}; a bucket from an earlier day counts as
+ *       zero, so days roll over lazily in the {@code wallet.daily-limit.zone} time zone</li>
+ *   <li>{@link #record} checks the bucket in O(1), then writes the {@code wallet_daily_spend}
+ *       row with a guarded upsert inside the caller's database transaction, so the row commits or rolls
+ *       back with the debit</li>
+ *   <li>Buckets only change after commit; a missing bucket (e.g. after a restart) is rebuilt from its row</li>
+ *   <li>The row is the authority: a bucket check that would reject is confirmed by reloading the row first,
+ *       and the upsert still rejects when another instance spent in the meantime</li>
+ * </ul>
+ */
+@Service
+@Slf4j
+public class DailySpendTracker {
+    private final WalletDailySpendRepository dailySpendRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final Map<Long, DaySpend> buckets = new ConcurrentHashMap<>();
+
+    @Autowired
+    public DailySpendTracker(WalletDailySpendRepository dailySpendRepository,
+                             TransactionTemplate transactionTemplate,
+                             @Value("${wallet.daily-limit.zone:UTC}") String zone) {
+        this(dailySpendRepository, transactionTemplate, Clock.system(ZoneId.of(zone)));
+    }
+
+    DailySpendTracker(WalletDailySpendRepository dailySpendRepository, TransactionTemplate transactionTemplate,
+                      Clock clock) {
+        this.dailySpendRepository = dailySpendRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.clock = clock;
+    }
+
+    /**
+     * Counts a debit against the wallet's daily limit. Joins the current database transaction, or runs
+     * in its own when there is none.
+     *
+     * @param walletId debited wallet ID
+     * @param dailyLimit wallet daily limit
+     * @param amount debit amount
+     * @throws InvalidTransactionException if today's spend plus {@code amount} would exceed the limit
+     */
+    public void record(Long walletId, BigDecimal dailyLimit, BigDecimal amount) {
+        LocalDate today = LocalDate.now(clock);
+        if (exceeds(spentOn(walletId, today), amount, dailyLimit)) {
+            // The bucket may be stale (another instance, or a commit racing its reload): confirm from the row.
+            buckets.put(walletId, load(walletId));
+            if (exceeds(spentOn(walletId, today), amount, dailyLimit)) {
+                throw new InvalidTransactionException("Daily limit exceeded");
+            }
+        }
+        inTransaction(() -> {
+            if (dailySpendRepository.addIfWithinLimit(walletId, today, amount, dailyLimit) == 0) {
+                throw new InvalidTransactionException("Daily limit exceeded");
+            }
+            afterCommit(walletId, today, amount);
+        });
+    }
+
+    /**
+     * Takes back an amount counted by {@link #record} when the debit did not happen but the surrounding
+     * database transaction still commits.
+     *
+     * @param walletId wallet ID
+     * @param amount amount to take back
+     */
+    public void release(Long walletId, BigDecimal amount) {
+        LocalDate today = LocalDate.now(clock);
+        inTransaction(() -> {
+            if (dailySpendRepository.subtract(walletId, today, amount) > 0) {
+                afterCommit(walletId, today, amount.negate());
+            }
+        });
+    }
+
+    /**
+     * Returns the amount the wallet has spent today.
+     *
+     * @param walletId wallet ID
+     * @return today's spend (zero if nothing was spent)
+     */
+    public BigDecimal spentToday(Long walletId) {
+        return spentOn(walletId, LocalDate.now(clock));
+    }
+
+    /**
+     * Drops buckets of earlier days so wallets that stopped spending do not stay in memory.
+     */
+    @Scheduled(fixedDelayString = "${wallet.daily-limit.purge-interval-ms:3600000}")
+    public void purgeStale() {
+        LocalDate today = LocalDate.now(clock);
+        buckets.values().removeIf(bucket -> bucket.day().isBefore(today));
+    }
+
+    private static boolean exceeds(BigDecimal spent, BigDecimal amount, BigDecimal dailyLimit) {
+        return spent.add(amount).compareTo(dailyLimit) > 0;
+    }
+
+    private BigDecimal spentOn(Long walletId, LocalDate day) {
+        DaySpend bucket = buckets.computeIfAbsent(walletId, this::load);
+        return bucket.day().equals(day) ? bucket.spent() : BigDecimal.ZERO;
+    }
+
+    private DaySpend load(Long walletId) {
+        return dailySpendRepository.findById(walletId)
+                .map(row -> new DaySpend(row.getSpendDate(), row.getAmount()))
+                .orElse(new DaySpend(LocalDate.MIN, BigDecimal.ZERO));
+    }
+
+    /**
+     * Runs in the caller's transaction without joining it through the template, so a rejection the caller
+     * catches (batch BEST_EFFORT, settlement) does not mark that transaction rollback-only.
+     */
+    private void inTransaction(Runnable work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            work.run();
+        } else {
+            transactionTemplate.executeWithoutResult(status -> work.run());
+        }
+    }
+
+    private void afterCommit(Long walletId, LocalDate day, BigDecimal delta) {
+        TransactionCallbacks.afterCommit(() -> apply(walletId, day, delta));
+    }
+
+    private void apply(Long walletId, LocalDate day, BigDecimal delta) {
+        // An absent bucket is left absent: the next read loads the committed row, which includes delta.
+        buckets.computeIfPresent(walletId, (id, bucket) -> {
+            if (bucket.day().equals(day)) {
+                return new DaySpend(day, bucket.spent().add(delta));
+            }
+            return bucket.day().isBefore(day) ? new DaySpend(day, delta.max(BigDecimal.ZERO)) : bucket;
+        });
+    }
+
+    private record DaySpend(LocalDate day, BigDecimal spent) {
+    }
+}
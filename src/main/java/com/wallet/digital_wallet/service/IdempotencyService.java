@@ -0,0 +1,307 @@
+package com.wallet.digital_wallet.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.wallet.digital_wallet.entity.IdempotencyRecord;
+import com.wallet.digital_wallet.enums.IdempotencyStatus;
+import com.wallet.digital_wallet.exception.DuplicateResourceException;
+import com.wallet.digital_wallet.exception.WalletBusyException;
+import com.wallet.digital_wallet.repository.IdempotencyRecordRepository;
+import com.wallet.digital_wallet.security.PrincipalCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Service that makes money-movement endpoints safe to retry with an {@code Idempotency-Key} header.
+ *
+ * <p>Documentation requirements:
+ * <ul>
+ *   <li>Before the action runs, the key is claimed with an {@code IN_PROGRESS} row in {@code idempotency_keys};
+ *       the primary key lets exactly one request per key run across all instances</li>
+ *   <li>The first successful response is then stored (as JSON) in that row and in a bounded LRU cache; repeats
+ *       return it without touching wallets or verifying the PIN again</li>
+ *   <li>Keys are scoped by operation and by the authenticated user's ID, so clients never share a key
+ *       namespace or see each other's responses</li>
+ *   <li>Keys are bound to a SHA-256 of the request with its secrets ({@code pin}, {@code paymentToken}) removed,
+ *       so stored hashes reveal nothing about PINs; reusing a key for a different request fails with 409</li>
+ *   <li>Concurrent duplicates on this node wait for the in-flight execution and share its outcome; duplicates
+ *       on other nodes poll the row for up to {@code wait-timeout-ms}, then fail with 409</li>
+ *   <li>A failed execution deletes its claim, so a retry after an error runs again</li>
+ *   <li>If the response cannot be stored after the movement committed (or the node dies in between), the key
+ *       stays {@code IN_PROGRESS} until it expires: retries get 409 and never move the money twice</li>
+ *   <li>Expired keys are purged by a scheduled job</li>
+ * </ul>
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final Set<String> SECRET_FIELDS = Set.of("pin", "paymentToken");
+    private static final long POLL_MILLIS = 50;
+
+    private final IdempotencyRecordRepository repository;
+    private final PrincipalCache principalCache;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final long waitTimeoutMillis;
+    private final Map<String, IdempotencyRecord> cache;
+    private final Map<String, CompletableFuture<IdempotencyRecord>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyRecordRepository repository,
+                              PrincipalCache principalCache,
+                              ObjectMapper objectMapper,
+                              @Value("${wallet.idempotency.cache-size:10000}") int cacheSize,
+                              @Value("${wallet.idempotency.ttl-hours:24}") long ttlHours,
+                              @Value("${wallet.idempotency.wait-timeout-ms:10000}") long waitTimeoutMillis) {
+        this.repository = repository;
+        this.principalCache = principalCache;
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofHours(Math.max(ttlHours, 1));
+        this.waitTimeoutMillis = waitTimeoutMillis;
+        int capacity = Math.max(cacheSize, 1);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IdempotencyRecord> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Runs {@code action} once per idempotency key.
+     *
+     * @param idempotencyKey client key ({@code null} or blank runs the action without idempotency)
+     * @param operation operation name the key is scoped to
+     * @param request request payload the key is bound to
+     * @param responseType type of the stored response
+     * @param action the money movement, returning its response body
+     * @return the response of the first successful execution for this key
+     * @throws DuplicateResourceException if the key was already used for a different request
+     * @throws WalletBusyException if a concurrent execution with the same key did not finish in time
+     */
+    public <T> T execute(String idempotencyKey, String operation, Object request, Class<T> responseType,
+                         Supplier<T> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must not exceed " + MAX_KEY_LENGTH + " characters");
+        }
+        String key = operation + ":" + callerScope() + ":" + idempotencyKey;
+        String requestHash = hash(request);
+
+        IdempotencyRecord cached = cached(key);
+        if (cached != null) {
+            return replay(cached, requestHash, responseType);
+        }
+
+        CompletableFuture<IdempotencyRecord> execution = new CompletableFuture<>();
+        CompletableFuture<IdempotencyRecord> running = inFlight.putIfAbsent(key, execution);
+        if (running != null) {
+            return replay(await(running), requestHash, responseType);
+        }
+        try {
+            IdempotencyRecord completed = claim(key, requestHash);
+            if (completed != null) {
+                execution.complete(completed);
+                return replay(completed, requestHash, responseType);
+            }
+            T response;
+            try {
+                response = action.get();
+            } catch (RuntimeException e) {
+                release(key);
+                throw e;
+            }
+            execution.complete(store(key, requestHash, response));
+            return response;
+        } catch (RuntimeException e) {
+            execution.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, execution);
+        }
+    }
+
+    /**
+     * Deletes expired keys from the table and the cache.
+     */
+    @Scheduled(fixedDelayString = "${wallet.idempotency.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int removed = repository.deleteExpired(now);
+        synchronized (cache) {
+            cache.values().removeIf(record -> record.getExpiresAt().isBefore(now));
+        }
+        if (removed > 0) {
+            log.info("Purged {} expired idempotency keys", removed);
+        }
+    }
+
+    private IdempotencyRecord cached(String key) {
+        IdempotencyRecord cached;
+        synchronized (cache) {
+            cached = cache.get(key);
+        }
+        return cached != null && cached.getExpiresAt().isAfter(LocalDateTime.now()) ? cached : null;
+    }
+
+    /**
+     * Claims the key for this request, or waits until the execution holding it has completed.
+     *
+     * @return {@code null} if this request now owns the key, else the completed record
+     */
+    private IdempotencyRecord claim(String key, String requestHash) {
+        long deadline = System.currentTimeMillis() + waitTimeoutMillis;
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            if (repository.claim(key, requestHash, now, now.plus(ttl)) == 1) {
+                return null;
+            }
+            IdempotencyRecord existing = repository.findById(key)
+                    .filter(record -> record.getExpiresAt().isAfter(now))
+                    .orElse(null);
+            if (existing != null) {
+                if (!existing.getRequestHash().equals(requestHash)) {
+                    throw new DuplicateResourceException("Idempotency-Key was already used for a different request");
+                }
+                if (existing.getStatus() == IdempotencyStatus.COMPLETED) {
+                    synchronized (cache) {
+                        cache.put(key, existing);
+                    }
+                    return existing;
+                }
+            }
+            // Held by an execution on another node (or released/expired since the insert): retry until the deadline.
+            if (System.currentTimeMillis() >= deadline) {
+                throw new WalletBusyException("A request with the same Idempotency-Key is still in progress");
+            }
+            try {
+                Thread.sleep(POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new WalletBusyException("Interrupted while waiting for a request with the same Idempotency-Key");
+            }
+        }
+    }
+
+    private void release(String key) {
+        try {
+            repository.release(key, IdempotencyStatus.IN_PROGRESS);
+        } catch (RuntimeException e) {
+            log.warn("Could not release idempotency key {}; it stays in progress until it expires: {}",
+                    key, e.getMessage());
+        }
+    }
+
+    private IdempotencyRecord store(String key, String requestHash, Object response) {
+        LocalDateTime now = LocalDateTime.now();
+        IdempotencyRecord record = IdempotencyRecord.builder()
+                .key(key)
+                .requestHash(requestHash)
+                .status(IdempotencyStatus.COMPLETED)
+                .responseBody(toJson(response))
+                .createdAt(now)
+                .expiresAt(now.plus(ttl))
+                .build();
+        synchronized (cache) {
+            cache.put(key, record);
+        }
+        try {
+            if (repository.complete(key, record.getResponseBody(), IdempotencyStatus.IN_PROGRESS,
+                    IdempotencyStatus.COMPLETED) == 0) {
+                log.warn("Idempotency key {} was no longer claimed when its response was stored", key);
+            }
+        } catch (RuntimeException e) {
+            // The movement already committed; the key stays IN_PROGRESS, so other nodes refuse retries with 409.
+            log.warn("Could not store the response of idempotency key {}: {}", key, e.getMessage());
+        }
+        return record;
+    }
+
+    private <T> T replay(IdempotencyRecord record, String requestHash, Class<T> responseType) {
+        if (!record.getRequestHash().equals(requestHash)) {
+            throw new DuplicateResourceException("Idempotency-Key was already used for a different request");
+        }
+        try {
+            return objectMapper.readValue(record.getResponseBody(), responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored idempotent response cannot be read", e);
+        }
+    }
+
+    private IdempotencyRecord await(CompletableFuture<IdempotencyRecord> running) {
+        try {
+            return running.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new WalletBusyException("A request with the same Idempotency-Key is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WalletBusyException("Interrupted while waiting for a request with the same Idempotency-Key");
+        }
+    }
+
+    /**
+     * ID of the authenticated user, or {@code -} for unauthenticated callers.
+     */
+    private String callerScope() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return "-";
+        }
+        PrincipalCache.AuthState state = principalCache.get(authentication.getName());
+        return state != null ? String.valueOf(state.userId()) : "-";
+    }
+
+    private String hash(Object request) {
+        try {
+            JsonNode fingerprint = objectMapper.valueToTree(request);
+            removeSecrets(fingerprint);
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(fingerprint)));
+        } catch (IllegalArgumentException | JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Request cannot be fingerprinted", e);
+        }
+    }
+
+    private static void removeSecrets(JsonNode node) {
+        if (node instanceof ObjectNode object) {
+            object.remove(SECRET_FIELDS);
+        }
+        node.forEach(IdempotencyService::removeSecrets);
+    }
+
+    private String toJson(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Response cannot be stored", e);
+        }
+    }
+}
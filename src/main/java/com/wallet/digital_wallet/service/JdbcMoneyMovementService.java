@@ -0,0 +1,196 @@
+package com.wallet.digital_wallet.service;
+
+import com.wallet.digital_wallet.dto.request.MerchantPaymentRequest;
+import com.wallet.digital_wallet.dto.request.TransferRequest;
+import com.wallet.digital_wallet.entity.Merchant;
+import com.wallet.digital_wallet.entity.Transaction;
+import com.wallet.digital_wallet.entity.User;
+import com.wallet.digital_wallet.entity.Wallet;
+import com.wallet.digital_wallet.enums.TransactionStatus;
+import com.wallet.digital_wallet.enums.TransactionType;
+import com.wallet.digital_wallet.enums.UserStatus;
+import com.wallet.digital_wallet.exception.InsufficientBalanceException;
+import com.wallet.digital_wallet.exception.InvalidTransactionException;
+import com.wallet.digital_wallet.exception.ResourceNotFoundException;
+import com.wallet.digital_wallet.repository.TransactionJdbcRepository;
+import com.wallet.digital_wallet.repository.WalletOwnerView;
+import com.wallet.digital_wallet.repository.WalletRepository;
+import com.wallet.digital_wallet.util.IdGenerator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Money-movement path that never loads {@link Wallet} entities.
+ *
+ * <p>Documentation requirements:
+ * <ul>
+ *   <li>Debits are a guarded {@code UPDATE ... WHERE balance >= amount}; zero affected rows means insufficient funds</li>
+ *   <li>Credit, debit, the {@code transactions} insert and the ledger legs share one database transaction</li>
+ *   <li>Wallet rows are always updated in ascending ID order so opposing transfers cannot deadlock</li>
+ *   <li>Every update bumps the wallet {@code version}, so it stays safe to mix with the JPA path</li>
+ *   <li>Sharded wallets are debited/credited through {@link WalletShardService}. The sender's shard count and
+ *       daily limit are re-read inside every (retried) transaction, and wallet-row updates are guarded by
+ *       {@code shard_count = 0}, so a concurrent promote or demote makes the update fall through to the
+ *       current branch instead of moving money on a row or shard set nobody reads any more</li>
+ *   <li>The sender's daily spend is counted by {@link DailySpendTracker} in the same database transaction</li>
+ * </ul>
+ *
+ * <p>Selected with {@code wallet.money-path=jdbc}; see {@link TransactionService}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class JdbcMoneyMovementService {
+    private static final int MAX_SHARD_STATE_READS = 3;
+
+    private final WalletRepository walletRepository;
+    private final TransactionJdbcRepository transactionJdbcRepository;
+    private final MerchantService merchantService;
+    private final WalletShardService walletShardService;
+    private final TransactionRetryExecutor retryExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final IdGenerator idGenerator;
+    private final DailySpendTracker dailySpendTracker;
+    private final LedgerPostingService ledgerPostingService;
+    private final PaymentSessionService paymentSessionService;
+    private final WalletSnapshotCache walletSnapshotCache;
+
+    /**
+     * Executes a peer-to-peer transfer with guarded single-statement updates.
+     *
+     * @param request transfer request
+     * @return created transaction record (wallets carry only ID and owner username)
+     */
+    public Transaction transfer(TransferRequest request) {
+        WalletOwnerView from = walletRepository.findOwnerByWalletId(request.getFromWalletId())
+                .orElseThrow(() -> new ResourceNotFoundException("Wallet", "id", request.getFromWalletId()));
+        WalletOwnerView to = walletRepository.findOwnerByUsername(request.getToUsername())
+                .orElseThrow(() -> new ResourceNotFoundException("User", "username", request.getToUsername()));
+
+        if (from.getWalletId().equals(to.getWalletId())) {
+            throw new InvalidTransactionException("Cannot transfer to self");
+        }
+        if (to.getUserStatus() != null && to.getUserStatus() != UserStatus.ACTIVE) {
+            throw new InvalidTransactionException("Receiver account is not active");
+        }
+
+        Transaction txn = paymentSessionService.authorized(from.getWalletId(), from.getPinHash(), request.getPin(),
+                request.getPaymentToken(), request.getAmount(), () -> retryExecutor.execute("transfer",
+                        () -> transactionTemplate.execute(status -> applyTransfer(request, from, to))));
+        log.info("Transfer completed: {}", txn.getTransactionId());
+        return txn;
+    }
+
+    /**
+     * Executes a merchant payment with a guarded single-statement debit.
+     *
+     * @param request merchant payment request
+     * @return created transaction record (wallet carries only ID and owner username)
+     */
+    public Transaction payMerchant(MerchantPaymentRequest request) {
+        WalletOwnerView from = walletRepository.findOwnerByWalletId(request.getFromWalletId())
+                .orElseThrow(() -> new ResourceNotFoundException("Wallet", "id", request.getFromWalletId()));
+        Merchant merchant = merchantService.getMerchantByCode(request.getMerchantCode());
+
+        Transaction txn = paymentSessionService.authorized(from.getWalletId(), from.getPinHash(), request.getPin(),
+                request.getPaymentToken(), request.getAmount(), () -> retryExecutor.execute("payMerchant",
+                        () -> transactionTemplate.execute(status -> applyMerchantPayment(request, from, merchant))));
+        log.info("Merchant payment completed: {}", txn.getTransactionId());
+        return txn;
+    }
+
+    private Transaction applyTransfer(TransferRequest request, WalletOwnerView from, WalletOwnerView to) {
+        if (from.getWalletId() < to.getWalletId()) {
+            debit(from.getWalletId(), request.getAmount());
+            credit(to, request.getAmount());
+        } else {
+            credit(to, request.getAmount());
+            debit(from.getWalletId(), request.getAmount());
+        }
+        String code = idGenerator.nextCode();
+        return posted(transactionJdbcRepository.insert(Transaction.builder()
+                .transactionId("TXN" + code)
+                .referenceNumber("REF" + code)
+                .fromWallet(walletRef(from))
+                .toWallet(walletRef(to))
+                .amount(request.getAmount())
+                .type(TransactionType.PEER_TRANSFER)
+                .status(TransactionStatus.COMPLETED)
+                .description(request.getDescription())
+                .createdAt(LocalDateTime.now())
+                .build()));
+    }
+
+    private Transaction applyMerchantPayment(MerchantPaymentRequest request, WalletOwnerView from, Merchant merchant) {
+        debit(from.getWalletId(), request.getAmount());
+        String code = idGenerator.nextCode();
+        return posted(transactionJdbcRepository.insert(Transaction.builder()
+                .transactionId("TXN" + code)
+                .referenceNumber("REF" + code)
+                .fromWallet(walletRef(from))
+                .merchant(merchant)
+                .amount(request.getAmount())
+                .type(TransactionType.MERCHANT_PAYMENT)
+                .status(TransactionStatus.COMPLETED)
+                .description(request.getDescription())
+                .createdAt(LocalDateTime.now())
+                .build()));
+    }
+
+    private Transaction posted(Transaction txn) {
+        ledgerPostingService.post(txn);
+        return txn;
+    }
+
+    /**
+     * Debits the sender, re-reading its shard count and daily limit in the current transaction.
+     *
+     * <p>A guarded wallet-row debit that touches no row and a shard debit that finds no shards are told apart
+     * from insufficient funds by re-reading {@code shard_count}: if the wallet changed branch, the debit is
+     * retried on the other one.
+     */
+    private void debit(Long walletId, BigDecimal amount) {
+        WalletOwnerView wallet = walletRepository.findOwnerByWalletId(walletId)
+                .orElseThrow(() -> new ResourceNotFoundException("Wallet", "id", walletId));
+        dailySpendTracker.record(walletId, wallet.getDailyLimit(), amount);
+        walletSnapshotCache.evict(walletId);
+        int shardCount = wallet.getShardCount() == null ? 0 : wallet.getShardCount();
+        for (int read = 0; read < MAX_SHARD_STATE_READS; read++) {
+            boolean sharded = shardCount > 0;
+            boolean debited = sharded
+                    ? walletShardService.tryDebit(walletId, amount)
+                    : walletRepository.debitIfSufficient(walletId, amount) == 1;
+            if (debited) {
+                return;
+            }
+            shardCount = walletRepository.findShardCountById(walletId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Wallet", "id", walletId));
+            if (!sharded && shardCount == 0) {
+                throw new InsufficientBalanceException("Insufficient balance");
+            }
+        }
+        throw new ConcurrencyFailureException("Wallet " + walletId + " was re-sharded concurrently");
+    }
+
+    private void credit(WalletOwnerView wallet, BigDecimal amount) {
+        walletSnapshotCache.evict(wallet.getWalletId());
+        walletShardService.credit(wallet.getWalletId(),
+                wallet.getShardCount() == null ? 0 : wallet.getShardCount(), amount);
+    }
+
+    /**
+     * Builds a detached wallet reference carrying just enough for the insert and the response mapper.
+     */
+    private static Wallet walletRef(WalletOwnerView view) {
+        return Wallet.builder()
+                .id(view.getWalletId())
+                .user(User.builder().username(view.getUsername()).build())
+                .build();
+    }
+}
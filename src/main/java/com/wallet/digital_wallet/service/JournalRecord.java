@@ -0,0 +1,160 @@
+package com.wallet.digital_wallet.service;
+
+import com.wallet.digital_wallet.entity.Transaction;
+import com.wallet.digital_wallet.enums.TransactionStatus;
+import com.wallet.digital_wallet.enums.TransactionType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.zip.CRC32;
+
+/**
+ * One completed money movement in the {@link TransactionJournal}.
+ *
+ * <p>Fixed 128-byte little-endian layout:
+ * <pre>
+ *   0  int   crc32 of bytes 4..127
+ *   4  short format marker (1)
+ *   6  byte  transaction type ordinal
+ *   7  byte  transaction status ordinal
+ *   8  long  journal sequence
+ *  16  long  created at (epoch millis)
+ *  24  long  from wallet ID (0 if none)
+ *  32  long  to wallet ID (0 if none)
+ *  40  long  merchant ID (0 if none)
+ *  48  long  amount in cents
+ *  56  long  fee in cents
+ *  64  24b   transaction ID (ASCII, zero padded)
+ *  88  24b   reference number (ASCII, zero padded)
+ * 112  long  database ID (0 if not assigned yet)
+ * 120  8b    reserved
+ * </pre>
+ *
+ * @param sequence journal sequence (starts at 1)
+ * @param createdAtMillis transaction time (epoch millis)
+ * @param type transaction type
+ * @param status transaction status
+ * @param fromWalletId debited wallet (0 if none)
+ * @param toWalletId credited wallet (0 if none)
+ * @param merchantId paid merchant (0 if none)
+ * @param amountCents amount in cents
+ * @param feeCents fee in cents
+ * @param transactionId client-visible transaction ID
+ * @param referenceNumber client-visible reference number
+ * @param databaseId {@code transactions.id}, or 0 if not assigned yet
+ */
+public record JournalRecord(long sequence,
+                            long createdAtMillis,
+                            TransactionType type,
+                            TransactionStatus status,
+                            long fromWalletId,
+                            long toWalletId,
+                            long merchantId,
+                            long amountCents,
+                            long feeCents,
+                            String transactionId,
+                            String referenceNumber,
+                            long databaseId) {
+
+    public static final int SIZE = 128;
+    private static final short FORMAT = 1;
+    private static final int ID_BYTES = 24;
+
+    /**
+     * Builds a record from a completed transaction.
+     */
+    public static JournalRecord of(long sequence, Transaction txn) {
+        return new JournalRecord(sequence,
+                txn.getCreatedAt() != null
+                        ? txn.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                        : System.currentTimeMillis(),
+                txn.getType(),
+                txn.getStatus(),
+                txn.getFromWallet() != null ? txn.getFromWallet().getId() : 0,
+                txn.getToWallet() != null ? txn.getToWallet().getId() : 0,
+                txn.getMerchant() != null ? txn.getMerchant().getId() : 0,
+                cents(txn.getAmount()),
+                cents(txn.getFee()),
+                txn.getTransactionId(),
+                txn.getReferenceNumber(),
+                txn.getId() != null ? txn.getId() : 0);
+    }
+
+    public BigDecimal amount() {
+        return BigDecimal.valueOf(amountCents, 2);
+    }
+
+    /**
+     * Writes the record into {@code SIZE} bytes starting at {@code offset}.
+     */
+    void encode(ByteBuffer target, int offset) {
+        ByteBuffer buf = ByteBuffer.allocate(SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        buf.putShort(4, FORMAT);
+        buf.put(6, (byte) (type != null ? type.ordinal() : -1));
+        buf.put(7, (byte) (status != null ? status.ordinal() : -1));
+        buf.putLong(8, sequence);
+        buf.putLong(16, createdAtMillis);
+        buf.putLong(24, fromWalletId);
+        buf.putLong(32, toWalletId);
+        buf.putLong(40, merchantId);
+        buf.putLong(48, amountCents);
+        buf.putLong(56, feeCents);
+        putId(buf, 64, transactionId);
+        putId(buf, 88, referenceNumber);
+        buf.putLong(112, databaseId);
+        buf.putInt(0, crc(buf));
+        target.put(offset, buf.array());
+    }
+
+    /**
+     * Reads the record at {@code offset}.
+     *
+     * @return the record, or null if the slot is empty, torn, or holds a different sequence
+     */
+    static JournalRecord decode(ByteBuffer source, int offset, long expectedSequence) {
+        byte[] bytes = new byte[SIZE];
+        source.get(offset, bytes);
+        ByteBuffer buf = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        if (buf.getShort(4) != FORMAT || buf.getInt(0) != crc(buf) || buf.getLong(8) != expectedSequence) {
+            return null;
+        }
+        return new JournalRecord(buf.getLong(8), buf.getLong(16),
+                enumAt(TransactionType.values(), buf.get(6)), enumAt(TransactionStatus.values(), buf.get(7)),
+                buf.getLong(24), buf.getLong(32), buf.getLong(40), buf.getLong(48), buf.getLong(56),
+                getId(buf, 64), getId(buf, 88), buf.getLong(112));
+    }
+
+    private static int crc(ByteBuffer buf) {
+        CRC32 crc = new CRC32();
+        crc.update(buf.array(), 4, SIZE - 4);
+        return (int) crc.getValue();
+    }
+
+    private static long cents(BigDecimal value) {
+        return value == null ? 0 : value.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private static void putId(ByteBuffer buf, int offset, String value) {
+        if (value == null) {
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+        buf.put(offset, bytes, 0, Math.min(bytes.length, ID_BYTES));
+    }
+
+    private static String getId(ByteBuffer buf, int offset) {
+        int length = 0;
+        while (length < ID_BYTES && buf.get(offset + length) != 0) {
+            length++;
+        }
+        return length == 0 ? null : new String(buf.array(), offset, length, StandardCharsets.US_ASCII);
+    }
+
+    private static <E> E enumAt(E[] values, byte ordinal) {
+        return ordinal >= 0 && ordinal < values.length ? values[ordinal] : null;
+    }
+}
@@ -0,0 +1,109 @@
+package com.wallet.digital_wallet.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded multi-producer / single-consumer ring of preallocated {@link Command} slots.
+ *
+ * <p>Producers claim a sequence with a CAS, fill the slot in place and publish it; the single
+ * consumer reads slots strictly in sequence order. No slot objects are allocated after construction.
+ */
+final class LedgerCommandRing {
+
+    enum Type {
+        LOAD,
+        TRANSFER,
+        MERCHANT_PAYMENT,
+        TOPUP
+    }
+
+    /**
+     * Mutable slot. Only touched by the producer that claimed it (before publish) and by the consumer.
+     */
+    static final class Command {
+        Type type;
+        long fromWalletId;
+        long toWalletId;
+        long merchantId;
+        long amountCents;
+        String transactionId;
+        String referenceNumber;
+        String description;
+        CompletableFuture<LedgerEntry> result;
+
+        void clear() {
+            transactionId = null;
+            referenceNumber = null;
+            description = null;
+            result = null;
+        }
+    }
+
+    private final Command[] slots;
+    private final AtomicLongArray published;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    private volatile long consumed;
+
+    LedgerCommandRing(int requestedSize) {
+        int size = Integer.highestOneBit(Math.max(2, requestedSize - 1)) << 1;
+        slots = new Command[size];
+        published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Command();
+            published.set(i, -1);
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * Claims the next free sequence.
+     *
+     * @return claimed sequence, or {@code -1} if the ring is full
+     */
+    long tryClaim() {
+        while (true) {
+            long seq = claimed.get();
+            if (seq - consumed >= slots.length) {
+                return -1;
+            }
+            if (claimed.compareAndSet(seq, seq + 1)) {
+                return seq;
+            }
+        }
+    }
+
+    Command slot(long seq) {
+        return slots[(int) seq & mask];
+    }
+
+    void publish(long seq) {
+        published.set((int) seq & mask, seq);
+    }
+
+    /**
+     * Returns the next published command without consuming it (consumer thread only).
+     */
+    Command peek() {
+        long next = consumed;
+        return published.get((int) next & mask) == next ? slots[(int) next & mask] : null;
+    }
+
+    /**
+     * Hands the slot returned by {@link #peek()} back to producers (consumer thread only).
+     */
+    void release() {
+        slots[(int) consumed & mask].clear();
+        consumed = consumed + 1;
+    }
+
+    boolean isEmpty() {
+        return claimed.get() == consumed;
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+}
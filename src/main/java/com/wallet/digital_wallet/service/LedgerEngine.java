@@ -0,0 +1,546 @@
+package com.wallet.digital_wallet.service;
+
+import com.wallet.digital_wallet.entity.Wallet;
+import com.wallet.digital_wallet.exception.InsufficientBalanceException;
+import com.wallet.digital_wallet.exception.InvalidTransactionException;
+import com.wallet.digital_wallet.exception.ResourceNotFoundException;
+import com.wallet.digital_wallet.exception.WalletBusyException;
+import com.wallet.digital_wallet.repository.WalletRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Single-writer in-memory ledger used when {@code wallet.money-path=engine}.
+ *
+ * <p>Documentation requirements:
+ * <ul>
+ *   <li>Wallets are split into partitions; each partition has one writer thread that owns its balances (no locks)</li>
+ *   <li>Commands enter through a preallocated {@link LedgerCommandRing} per partition</li>
+ *   <li>A transfer is debited by the sender's partition; the credit is forwarded to the receiver's partition</li>
+ *   <li>Each writer batch is appended to the partition {@link LedgerJournal} and fsynced once before callers are answered</li>
+ *   <li>Balance changes of a batch are staged and applied (and cross-partition credits forwarded) only after its
+ *       fsync succeeds, so {@link #balanceOf} and other partitions never see a movement that is not durable</li>
+ *   <li>{@link LedgerPersister} writes accepted movements to {@code transactions}/{@code wallets} asynchronously</li>
+ *   <li>On startup, journal entries past the database checkpoint are persisted before commands are accepted</li>
+ * </ul>
+ *
+ * <p>While enabled the engine owns wallet balances: the other write paths and wallet sharding must not
+ * be used. Balances are loaded from the database the first time a wallet is referenced. The database
+ * {@code id} of a transaction is assigned when it is persisted, so engine responses carry no {@code id}.
+ */
+@Service
+@Slf4j
+public class LedgerEngine {
+    private static final Pattern JOURNAL_FILE = Pattern.compile("ledger-p(\\d+)\\.journal");
+    private static final int IDLE_SPINS = 100;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final WalletRepository walletRepository;
+    private final LedgerPersister persister;
+    private final boolean enabled;
+    private final int partitionCount;
+    private final int ringSize;
+    private final int batchSize;
+    private final long submitTimeoutNanos;
+    private final Path journalDir;
+
+    /**
+     * Loaded wallets. Each {@link Account} is written only by the writer of its partition.
+     */
+    private final Map<Long, Account> accounts = new ConcurrentHashMap<>();
+    private Partition[] partitions;
+    private volatile boolean running;
+
+    public LedgerEngine(WalletRepository walletRepository,
+                        LedgerPersister persister,
+                        @Value("${wallet.money-path:jpa}") String moneyPath,
+                        @Value("${wallet.ledger-engine.partitions:4}") int partitionCount,
+                        @Value("${wallet.ledger-engine.ring-size:4096}") int ringSize,
+                        @Value("${wallet.ledger-engine.batch-size:256}") int batchSize,
+                        @Value("${wallet.ledger-engine.submit-timeout-ms:2000}") long submitTimeoutMillis,
+                        @Value("${wallet.ledger-engine.journal-dir:./data/ledger}") String journalDir) {
+        this.walletRepository = walletRepository;
+        this.persister = persister;
+        this.enabled = "engine".equalsIgnoreCase(moneyPath);
+        this.partitionCount = Math.max(partitionCount, 1);
+        this.ringSize = ringSize;
+        this.batchSize = Math.max(batchSize, 1);
+        this.submitTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(submitTimeoutMillis);
+        this.journalDir = Paths.get(journalDir);
+    }
+
+    /**
+     * Replays unpersisted journal entries and starts the writer and persister threads.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() throws IOException {
+        if (!enabled || running) {
+            return;
+        }
+        Files.createDirectories(journalDir);
+        Map<Integer, Long> lastSequences = replayJournals();
+
+        partitions = new Partition[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            LedgerJournal journal = openJournal(journalDir.resolve("ledger-p" + i + ".journal"));
+            partitions[i] = new Partition(i, journal, lastSequences.getOrDefault(i, 0L));
+        }
+        persister.start();
+        running = true;
+        for (Partition partition : partitions) {
+            partition.thread.start();
+        }
+        log.info("Ledger engine started with {} partitions", partitionCount);
+    }
+
+    /**
+     * Stops accepting commands, lets writers drain their rings and waits for the persister to catch up.
+     */
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        for (Partition partition : partitions) {
+            partition.wake();
+            partition.thread.join();
+        }
+        persister.stop();
+        for (Partition partition : partitions) {
+            try {
+                partition.journal.close();
+            } catch (IOException e) {
+                log.warn("Failed to close ledger journal {}: {}", partition.journal.file(), e.getMessage());
+            }
+        }
+        log.info("Ledger engine stopped");
+    }
+
+    /**
+     * Opens the journal a partition writer appends to.
+     */
+    LedgerJournal openJournal(Path file) throws IOException {
+        return new LedgerJournal(file);
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Moves money between two wallets.
+     *
+     * @return accepted movement (journaled, not yet persisted)
+     * @throws InsufficientBalanceException if the sender cannot cover the amount
+     * @throws WalletBusyException if the engine is not running or is saturated
+     */
+    public LedgerEntry transfer(long fromWalletId, long toWalletId, BigDecimal amount,
+                                String transactionId, String referenceNumber, String description) {
+        long cents = toCents(amount);
+        ensureLoaded(fromWalletId);
+        ensureLoaded(toWalletId);
+        return submit(fromWalletId, LedgerCommandRing.Type.TRANSFER, fromWalletId, toWalletId, 0, cents,
+                transactionId, referenceNumber, description);
+    }
+
+    /**
+     * Debits a wallet for a merchant payment.
+     *
+     * @return accepted movement (journaled, not yet persisted)
+     */
+    public LedgerEntry payMerchant(long fromWalletId, long merchantId, BigDecimal amount,
+                                   String transactionId, String referenceNumber, String description) {
+        long cents = toCents(amount);
+        ensureLoaded(fromWalletId);
+        return submit(fromWalletId, LedgerCommandRing.Type.MERCHANT_PAYMENT, fromWalletId, 0, merchantId, cents,
+                transactionId, referenceNumber, description);
+    }
+
+    /**
+     * Credits a wallet (top-up).
+     *
+     * @return accepted movement (journaled, not yet persisted)
+     */
+    public LedgerEntry topUp(long walletId, BigDecimal amount) {
+        long cents = toCents(amount);
+        ensureLoaded(walletId);
+        return submit(walletId, LedgerCommandRing.Type.TOPUP, 0, walletId, 0, cents, null, null, null);
+    }
+
+    /**
+     * Returns the in-memory balance of a wallet, if the engine has loaded it.
+     *
+     * @param walletId wallet ID
+     * @return balance, or empty if the database balance is still authoritative
+     */
+    public Optional<BigDecimal> balanceOf(long walletId) {
+        Account account = accounts.get(walletId);
+        return account == null ? Optional.empty() : Optional.of(BigDecimal.valueOf(account.balanceCents, 2));
+    }
+
+    int partitionOf(long walletId) {
+        return Math.floorMod(Long.hashCode(walletId * 0x9E3779B97F4A7C15L), partitionCount);
+    }
+
+    /**
+     * Makes sure the owning partition has loaded the wallet before any command can credit it.
+     *
+     * <p>Loading only happens for wallets no command has touched yet, so the database row cannot
+     * have pending engine updates at that point.
+     */
+    private void ensureLoaded(long walletId) {
+        if (!accounts.containsKey(walletId)) {
+            submit(walletId, LedgerCommandRing.Type.LOAD, 0, walletId, 0, 0, null, null, null);
+        }
+    }
+
+    private LedgerEntry submit(long ownerWalletId, LedgerCommandRing.Type type, long fromWalletId, long toWalletId,
+                               long merchantId, long amountCents, String transactionId, String referenceNumber,
+                               String description) {
+        if (!running) {
+            throw new WalletBusyException("Ledger engine is not running");
+        }
+        Partition partition = partitions[partitionOf(ownerWalletId)];
+        long deadline = System.nanoTime() + submitTimeoutNanos;
+        long seq;
+        while ((seq = partition.ring.tryClaim()) < 0) {
+            if (System.nanoTime() - deadline > 0) {
+                throw new WalletBusyException("Ledger engine is saturated, please retry");
+            }
+            partition.wake();
+            LockSupport.parkNanos(10_000);
+        }
+
+        CompletableFuture<LedgerEntry> result = new CompletableFuture<>();
+        LedgerCommandRing.Command command = partition.ring.slot(seq);
+        command.type = type;
+        command.fromWalletId = fromWalletId;
+        command.toWalletId = toWalletId;
+        command.merchantId = merchantId;
+        command.amountCents = amountCents;
+        command.transactionId = transactionId;
+        command.referenceNumber = referenceNumber;
+        command.description = description;
+        command.result = result;
+        partition.ring.publish(seq);
+        partition.wake();
+        return await(result, deadline);
+    }
+
+    private static LedgerEntry await(CompletableFuture<LedgerEntry> result, long deadline) {
+        try {
+            return result.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new WalletBusyException("Ledger engine did not confirm the movement in time, check the transaction history before retrying");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WalletBusyException("Interrupted while waiting for the ledger engine", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new WalletBusyException("Ledger engine failed", e.getCause());
+        }
+    }
+
+    /**
+     * Persists journal entries past the database checkpoint, then empties the journals.
+     *
+     * @return highest known sequence per partition
+     */
+    private Map<Integer, Long> replayJournals() throws IOException {
+        Map<Integer, Long> lastSequences = new TreeMap<>(persister.loadCheckpoints());
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(journalDir)) {
+            files = listing.filter(f -> JOURNAL_FILE.matcher(f.getFileName().toString()).matches()).sorted().toList();
+        }
+        for (Path file : files) {
+            Matcher matcher = JOURNAL_FILE.matcher(file.getFileName().toString());
+            matcher.matches();
+            int partition = Integer.parseInt(matcher.group(1));
+            long checkpoint = lastSequences.getOrDefault(partition, 0L);
+
+            try (LedgerJournal journal = new LedgerJournal(file)) {
+                List<LedgerEntry> entries = journal.readAll(partition);
+                List<LedgerEntry> pending = entries.stream().filter(e -> e.sequence() > checkpoint).toList();
+                persister.persistNow(pending);
+                journal.reset();
+                if (!entries.isEmpty()) {
+                    lastSequences.merge(partition, entries.get(entries.size() - 1).sequence(), Math::max);
+                }
+                log.info("Replayed {} of {} ledger journal entries from {}", pending.size(), entries.size(), file);
+            }
+        }
+        return lastSequences;
+    }
+
+    private static long toCents(BigDecimal amount) {
+        try {
+            return amount.setScale(2, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new InvalidTransactionException("Amount must have at most 2 decimal places");
+        }
+    }
+
+    private static final class Account {
+        private volatile long balanceCents;
+
+        private Account(long balanceCents) {
+            this.balanceCents = balanceCents;
+        }
+    }
+
+    /**
+     * One writer thread, its command ring, journal and inbox of credits forwarded by other partitions.
+     */
+    private final class Partition implements Runnable {
+        private final int index;
+        private final LedgerCommandRing ring = new LedgerCommandRing(ringSize);
+        private final Queue<long[]> forwardedCredits = new ConcurrentLinkedQueue<>();
+        private final LedgerJournal journal;
+        private final Thread thread;
+        private long sequence;
+        private volatile boolean parked;
+        private boolean failed;
+
+        private final List<LedgerEntry> accepted = new ArrayList<>();
+        /**
+         * Balance changes of the current batch to this partition's accounts, applied after the fsync.
+         */
+        private final Map<Long, Long> stagedCents = new HashMap<>();
+        /**
+         * Credits of the current batch to other partitions' accounts ({@code walletId, cents}), forwarded after
+         * the fsync.
+         */
+        private final List<long[]> stagedForwards = new ArrayList<>();
+        private final List<CompletableFuture<LedgerEntry>> waiting = new ArrayList<>();
+        private final List<Object> outcomes = new ArrayList<>();
+
+        private Partition(int index, LedgerJournal journal, long lastSequence) {
+            this.index = index;
+            this.journal = journal;
+            this.sequence = lastSequence;
+            this.thread = new Thread(this, "ledger-writer-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        private void wake() {
+            if (parked) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        @Override
+        public void run() {
+            int idle = 0;
+            while (true) {
+                boolean worked = applyForwardedCredits();
+                int handled = 0;
+                LedgerCommandRing.Command command;
+                while (handled < batchSize && (command = ring.peek()) != null) {
+                    handle(command);
+                    ring.release();
+                    handled++;
+                }
+                if (handled > 0) {
+                    commitBatch();
+                }
+                if (worked || handled > 0) {
+                    idle = 0;
+                    continue;
+                }
+                if (!running && ring.isEmpty() && forwardedCredits.isEmpty()) {
+                    return;
+                }
+                if (++idle < IDLE_SPINS) {
+                    Thread.onSpinWait();
+                } else {
+                    parked = true;
+                    if (ring.peek() == null && forwardedCredits.isEmpty()) {
+                        LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    }
+                    parked = false;
+                }
+            }
+        }
+
+        private void handle(LedgerCommandRing.Command command) {
+            waiting.add(command.result);
+            if (failed) {
+                outcomes.add(new WalletBusyException("Ledger engine partition is unavailable"));
+                return;
+            }
+            try {
+                outcomes.add(apply(command));
+            } catch (RuntimeException e) {
+                outcomes.add(e);
+            }
+        }
+
+        private LedgerEntry apply(LedgerCommandRing.Command command) {
+            switch (command.type) {
+                case LOAD -> {
+                    account(command.toWalletId);
+                    return null;
+                }
+                case TRANSFER -> {
+                    if (partitionOf(command.toWalletId) == index) {
+                        account(command.toWalletId);
+                    }
+                    debit(command.fromWalletId, command.amountCents);
+                    credit(command.toWalletId, command.amountCents);
+                    return journal(LedgerEntry.Kind.TRANSFER, command);
+                }
+                case MERCHANT_PAYMENT -> {
+                    debit(command.fromWalletId, command.amountCents);
+                    return journal(LedgerEntry.Kind.MERCHANT_PAYMENT, command);
+                }
+                case TOPUP -> {
+                    credit(command.toWalletId, command.amountCents);
+                    return journal(LedgerEntry.Kind.TOPUP, command);
+                }
+                default -> throw new IllegalStateException("Unknown ledger command " + command.type);
+            }
+        }
+
+        private void debit(long walletId, long cents) {
+            Account account = account(walletId);
+            long staged = stagedCents.getOrDefault(walletId, 0L);
+            if (account.balanceCents + staged < cents) {
+                throw new InsufficientBalanceException("Insufficient balance");
+            }
+            stagedCents.put(walletId, staged - cents);
+        }
+
+        private void credit(long walletId, long cents) {
+            if (partitionOf(walletId) == index) {
+                account(walletId);
+                stagedCents.merge(walletId, cents, Long::sum);
+            } else {
+                stagedForwards.add(new long[]{walletId, cents});
+            }
+        }
+
+        /**
+         * Applies the staged balance changes of a durable batch and forwards its cross-partition credits.
+         */
+        private void applyStaged() {
+            stagedCents.forEach((walletId, cents) -> {
+                Account account = accounts.get(walletId);
+                account.balanceCents = account.balanceCents + cents;
+            });
+            for (long[] credit : stagedForwards) {
+                Partition owner = partitions[partitionOf(credit[0])];
+                owner.forwardedCredits.add(credit);
+                owner.wake();
+            }
+        }
+
+        private boolean applyForwardedCredits() {
+            boolean applied = false;
+            long[] credit;
+            while ((credit = forwardedCredits.poll()) != null) {
+                Account account = accounts.get(credit[0]);
+                if (account == null) {
+                    // Callers load receivers before submitting, so this only happens after a failed load.
+                    log.error("Dropping in-memory credit for unloaded wallet {}", credit[0]);
+                } else {
+                    account.balanceCents = account.balanceCents + credit[1];
+                }
+                applied = true;
+            }
+            return applied;
+        }
+
+        /**
+         * Returns the loaded account, loading it from the database on first use.
+         */
+        private Account account(long walletId) {
+            Account account = accounts.get(walletId);
+            if (account != null) {
+                return account;
+            }
+            Wallet wallet = walletRepository.findById(walletId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Wallet", "id", walletId));
+            if (wallet.isSharded()) {
+                throw new InvalidTransactionException("Sharded wallets are not supported by the ledger engine");
+            }
+            account = new Account(toCents(wallet.getBalance()));
+            accounts.put(walletId, account);
+            return account;
+        }
+
+        private LedgerEntry journal(LedgerEntry.Kind kind, LedgerCommandRing.Command command) {
+            LedgerEntry entry = new LedgerEntry(++sequence, index, kind, command.transactionId,
+                    command.referenceNumber, command.fromWalletId, command.toWalletId, command.merchantId,
+                    command.amountCents, System.currentTimeMillis(), command.description);
+            journal.append(entry);
+            accepted.add(entry);
+            return entry;
+        }
+
+        /**
+         * Group commit: one fsync for the whole batch, then apply its balance changes, answer callers and hand
+         * entries to the persister. When the fsync fails the staged changes are discarded, so memory never runs
+         * ahead of the journal.
+         */
+        private void commitBatch() {
+            try {
+                journal.flush();
+                applyStaged();
+            } catch (IOException e) {
+                log.error("Ledger journal {} failed, halting partition {}", journal.file(), index, e);
+                failed = true;
+                for (int i = 0; i < outcomes.size(); i++) {
+                    outcomes.set(i, new WalletBusyException("Ledger engine partition is unavailable", e));
+                }
+                accepted.clear();
+            }
+            stagedCents.clear();
+            stagedForwards.clear();
+            for (int i = 0; i < waiting.size(); i++) {
+                Object outcome = outcomes.get(i);
+                if (outcome instanceof RuntimeException e) {
+                    waiting.get(i).completeExceptionally(e);
+                } else {
+                    waiting.get(i).complete((LedgerEntry) outcome);
+                }
+            }
+            if (!accepted.isEmpty()) {
+                persister.enqueue(accepted);
+            }
+            accepted.clear();
+            waiting.clear();
+            outcomes.clear();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.wallet.digital_wallet.service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * One money movement accepted by the {@link LedgerEngine}, as journaled and persisted.
+ *
+ * <p>Amounts are whole cents. Wallet and merchant IDs are {@code 0} when not applicable
+ * (e.g. {@code toWalletId} of a merchant payment).
+ *
+ * @param sequence per-partition journal sequence (starts at 1)
+ * @param partition engine partition that accepted the movement
+ * @param kind movement kind
+ * @param transactionId client-visible transaction ID (null for top-ups)
+ * @param referenceNumber client-visible reference number (null for top-ups)
+ * @param fromWalletId debited wallet
+ * @param toWalletId credited wallet
+ * @param merchantId paid merchant
+ * @param amountCents amount in cents
+ * @param createdAtMillis acceptance time (epoch millis)
+ * @param description optional narration
+ */
+public record LedgerEntry(long sequence,
+                          int partition,
+                          Kind kind,
+                          String transactionId,
+                          String referenceNumber,
+                          long fromWalletId,
+                          long toWalletId,
+                          long merchantId,
+                          long amountCents,
+                          long createdAtMillis,
+                          String description) {
+
+    public enum Kind {
+        TRANSFER,
+        MERCHANT_PAYMENT,
+        TOPUP
+    }
+
+    public BigDecimal amount() {
+        return BigDecimal.valueOf(amountCents, 2);
+    }
+
+    public LocalDateTime createdAt() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(createdAtMillis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,198 @@
+package com.wallet.digital_wallet.service;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of one {@link LedgerEngine} partition.
+ *
+ * <p>Documentation requirements:
+ * <ul>
+ *   <li>Record layout: {@code [int length][payload][int crc32(payload)]}</li>
+ *   <li>Records are buffered by {@link #append} and written plus fsynced once per {@link #flush}</li>
+ *   <li>{@link #readAll} stops at the first torn or corrupt record and cuts the file there</li>
+ * </ul>
+ *
+ * <p>Only the partition writer thread may call {@link #append} and {@link #flush}.
+ */
+final class LedgerJournal implements AutoCloseable {
+    private static final int MAX_STRING_BYTES = 1024;
+
+    private final Path file;
+    private final FileChannel channel;
+    private ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+
+    LedgerJournal(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.channel.position(channel.size());
+    }
+
+    /**
+     * Reads every intact record. A torn tail left by a crash is truncated away.
+     *
+     * @return records in append order
+     */
+    List<LedgerEntry> readAll(int partition) throws IOException {
+        ByteBuffer data = ByteBuffer.allocate((int) channel.size());
+        channel.read(data, 0);
+        data.flip();
+
+        List<LedgerEntry> entries = new ArrayList<>();
+        int validEnd = 0;
+        CRC32 crc = new CRC32();
+        try {
+            while (data.remaining() >= Integer.BYTES) {
+                int length = data.getInt();
+                if (length <= 0 || length + Integer.BYTES > data.remaining()) {
+                    break;
+                }
+                ByteBuffer payload = data.slice(data.position(), length);
+                data.position(data.position() + length);
+                crc.reset();
+                crc.update(payload.duplicate());
+                if ((int) crc.getValue() != data.getInt()) {
+                    break;
+                }
+                entries.add(decode(payload, partition));
+                validEnd = data.position();
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            // Torn record: everything up to validEnd is intact.
+        }
+        if (validEnd < channel.size()) {
+            channel.truncate(validEnd);
+        }
+        channel.position(validEnd);
+        return entries;
+    }
+
+    /**
+     * Buffers one record; nothing reaches the file until {@link #flush}.
+     */
+    void append(LedgerEntry entry) {
+        byte[] txnId = bytes(entry.transactionId());
+        byte[] ref = bytes(entry.referenceNumber());
+        byte[] desc = bytes(entry.description());
+        int payloadLength = Long.BYTES + 1 + 5 * Long.BYTES + 3 * Short.BYTES
+                + len(txnId) + len(ref) + len(desc);
+        ensureCapacity(payloadLength + 2 * Integer.BYTES);
+
+        buffer.putInt(payloadLength);
+        int start = buffer.position();
+        buffer.putLong(entry.sequence());
+        buffer.put((byte) entry.kind().ordinal());
+        buffer.putLong(entry.fromWalletId());
+        buffer.putLong(entry.toWalletId());
+        buffer.putLong(entry.merchantId());
+        buffer.putLong(entry.amountCents());
+        buffer.putLong(entry.createdAtMillis());
+        putString(txnId);
+        putString(ref);
+        putString(desc);
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), start, payloadLength);
+        buffer.putInt((int) crc.getValue());
+    }
+
+    /**
+     * Writes buffered records and forces them to disk with a single fsync.
+     */
+    void flush() throws IOException {
+        if (buffer.position() == 0) {
+            return;
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+        channel.force(false);
+    }
+
+    /**
+     * Discards all records. Only safe once every record is persisted to the database.
+     */
+    void reset() throws IOException {
+        channel.truncate(0);
+        channel.position(0);
+        channel.force(true);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    Path file() {
+        return file;
+    }
+
+    private static LedgerEntry decode(ByteBuffer payload, int partition) {
+        long sequence = payload.getLong();
+        LedgerEntry.Kind kind = LedgerEntry.Kind.values()[payload.get()];
+        long from = payload.getLong();
+        long to = payload.getLong();
+        long merchant = payload.getLong();
+        long amount = payload.getLong();
+        long createdAt = payload.getLong();
+        return new LedgerEntry(sequence, partition, kind, getString(payload), getString(payload),
+                from, to, merchant, amount, createdAt, getString(payload));
+    }
+
+    private void ensureCapacity(int needed) {
+        if (buffer.remaining() < needed) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + needed));
+            buffer.flip();
+            bigger.put(buffer);
+            buffer = bigger;
+        }
+    }
+
+    private void putString(byte[] value) {
+        if (value == null) {
+            buffer.putShort((short) -1);
+            return;
+        }
+        buffer.putShort((short) value.length);
+        buffer.put(value);
+    }
+
+    private static String getString(ByteBuffer payload) {
+        short length = payload.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        payload.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(String value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+        if (encoded.length <= MAX_STRING_BYTES) {
+            return encoded;
+        }
+        // Truncate on a character boundary so the journal never stores half a code point.
+        String cut = value.substring(0, Math.min(value.length(), MAX_STRING_BYTES / 4));
+        return cut.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int len(byte[] value) {
+        return value == null ? 0 : value.length;
+    }
+}
@@ -0,0 +1,144 @@
+package com.wallet.digital_wallet.service;
+
+import com.wallet.digital_wallet.dto.request.MerchantPaymentRequest;
+import com.wallet.digital_wallet.dto.request.TransferRequest;
+import com.wallet.digital_wallet.entity.Merchant;
+import com.wallet.digital_wallet.entity.Transaction;
+import com.wallet.digital_wallet.entity.User;
+import com.wallet.digital_wallet.entity.Wallet;
+import com.wallet.digital_wallet.enums.TransactionStatus;
+import com.wallet.digital_wallet.enums.TransactionType;
+import com.wallet.digital_wallet.enums.UserStatus;
+import com.wallet.digital_wallet.exception.InsufficientBalanceException;
+import com.wallet.digital_wallet.exception.InvalidTransactionException;
+import com.wallet.digital_wallet.exception.ResourceNotFoundException;
+import com.wallet.digital_wallet.repository.WalletOwnerView;
+import com.wallet.digital_wallet.repository.WalletRepository;
+import com.wallet.digital_wallet.util.IdGenerator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.function.Supplier;
+
+/**
+ * Money-movement path backed by the in-memory {@link LedgerEngine}.
+ *
+ * <p>Documentation requirements:
+ * <ul>
+ *   <li>Lookups and PIN checks run on the request thread; only the balance change goes through the engine</li>
+ *   <li>The daily spend is counted before the engine runs the movement and taken back if it is rejected</li>
+ *   <li>The returned transaction is journaled but persisted asynchronously, so its database {@code id} is null</li>
+ * </ul>
+ *
+ * <p>Selected with {@code wallet.money-path=engine}; see {@link TransactionService}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LedgerMoneyMovementService {
+    private final WalletRepository walletRepository;
+    private final MerchantService merchantService;
+    private final LedgerEngine ledgerEngine;
+    private final IdGenerator idGenerator;
+    private final DailySpendTracker dailySpendTracker;
+    private final PaymentSessionService paymentSessionService;
+
+    /**
+     * Executes a peer-to-peer transfer through the ledger engine.
+     *
+     * @param request transfer request
+     * @return accepted transaction (wallets carry only ID and owner username)
+     */
+    public Transaction transfer(TransferRequest request) {
+        WalletOwnerView from = walletRepository.findOwnerByWalletId(request.getFromWalletId())
+                .orElseThrow(() -> new ResourceNotFoundException("Wallet", "id", request.getFromWalletId()));
+        WalletOwnerView to = walletRepository.findOwnerByUsername(request.getToUsername())
+                .orElseThrow(() -> new ResourceNotFoundException("User", "username", request.getToUsername()));
+
+        if (from.getWalletId().equals(to.getWalletId())) {
+            throw new InvalidTransactionException("Cannot transfer to self");
+        }
+        if (to.getUserStatus() != null && to.getUserStatus() != UserStatus.ACTIVE) {
+            throw new InvalidTransactionException("Receiver account is not active");
+        }
+
+        String code = idGenerator.nextCode();
+        LedgerEntry entry = authorized(from, request.getPin(), request.getPaymentToken(), request.getAmount(),
+                () -> ledgerEngine.transfer(from.getWalletId(), to.getWalletId(), request.getAmount(),
+                        "TXN" + code, "REF" + code, request.getDescription()));
+        log.info("Transfer accepted: {}", entry.transactionId());
+        return Transaction.builder()
+                .transactionId(entry.transactionId())
+                .referenceNumber(entry.referenceNumber())
+                .fromWallet(walletRef(from))
+                .toWallet(walletRef(to))
+                .amount(entry.amount())
+                .type(TransactionType.PEER_TRANSFER)
+                .status(TransactionStatus.COMPLETED)
+                .description(entry.description())
+                .createdAt(entry.createdAt())
+                .build();
+    }
+
+    /**
+     * Executes a merchant payment through the ledger engine.
+     *
+     * @param request merchant payment request
+     * @return accepted transaction (wallet carries only ID and owner username)
+     */
+    public Transaction payMerchant(MerchantPaymentRequest request) {
+        WalletOwnerView from = walletRepository.findOwnerByWalletId(request.getFromWalletId())
+                .orElseThrow(() -> new ResourceNotFoundException("Wallet", "id", request.getFromWalletId()));
+        Merchant merchant = merchantService.getMerchantByCode(request.getMerchantCode());
+
+        String code = idGenerator.nextCode();
+        LedgerEntry entry = authorized(from, request.getPin(), request.getPaymentToken(), request.getAmount(),
+                () -> ledgerEngine.payMerchant(from.getWalletId(), merchant.getId(), request.getAmount(),
+                        "TXN" + code, "REF" + code, request.getDescription()));
+        log.info("Merchant payment accepted: {}", entry.transactionId());
+        return Transaction.builder()
+                .transactionId(entry.transactionId())
+                .referenceNumber(entry.referenceNumber())
+                .fromWallet(walletRef(from))
+                .merchant(merchant)
+                .amount(entry.amount())
+                .type(TransactionType.MERCHANT_PAYMENT)
+                .status(TransactionStatus.COMPLETED)
+                .description(entry.description())
+                .createdAt(entry.createdAt())
+                .build();
+    }
+
+    /**
+     * Verifies the PIN or charges the payment session, then runs the counted movement.
+     */
+    private LedgerEntry authorized(WalletOwnerView from, String pin, String paymentToken, BigDecimal amount,
+                                   Supplier<LedgerEntry> movement) {
+        return paymentSessionService.authorized(from.getWalletId(), from.getPinHash(), pin, paymentToken, amount,
+                () -> counted(from, amount, movement));
+    }
+
+    /**
+     * Counts the amount against the payer's daily limit (in its own database transaction) before the engine
+     * runs the movement, and takes it back if the engine rejects it. A {@code WalletBusyException} keeps the
+     * count because a timed-out movement may still be applied.
+     */
+    private LedgerEntry counted(WalletOwnerView from, BigDecimal amount, Supplier<LedgerEntry> movement) {
+        dailySpendTracker.record(from.getWalletId(), from.getDailyLimit(), amount);
+        try {
+            return movement.get();
+        } catch (InsufficientBalanceException | InvalidTransactionException | ResourceNotFoundException e) {
+            dailySpendTracker.release(from.getWalletId(), amount);
+            throw e;
+        }
+    }
+
+    private static Wallet walletRef(WalletOwnerView view) {
+        return Wallet.builder()
+                .id(view.getWalletId())
+                .user(User.builder().username(view.getUsername()).build())
+                .build();
+    }
+}
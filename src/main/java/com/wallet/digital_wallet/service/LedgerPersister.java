@@ -0,0 +1,205 @@
+package com.wallet.digital_wallet.service;
+
+import com.wallet.digital_wallet.entity.LedgerEngineCheckpoint;
+import com.wallet.digital_wallet.entity.Merchant;
+import com.wallet.digital_wallet.entity.Transaction;
+import com.wallet.digital_wallet.entity.Wallet;
+import com.wallet.digital_wallet.enums.TransactionStatus;
+import com.wallet.digital_wallet.enums.TransactionType;
+import com.wallet.digital_wallet.repository.LedgerEngineCheckpointRepository;
+import com.wallet.digital_wallet.repository.TransactionJdbcRepository;
+import com.wallet.digital_wallet.repository.WalletJdbcRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes {@link LedgerEngine} movements to the {@code transactions} and {@code wallets} tables.
+ *
+ * <p>Documentation requirements:
+ * <ul>
+ *   <li>One background thread drains the queue and persists up to {@code persist-batch-size} entries per database transaction</li>
+ *   <li>Transaction rows and their ledger legs are batch-inserted; wallet balances get one summed delta per wallet</li>
+ *   <li>The partition checkpoint is written in the same transaction, so replay never applies an entry twice</li>
+ *   <li>A failed batch is retried until it succeeds; entries are never dropped</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+public class LedgerPersister {
+    private static final long RETRY_DELAY_MILLIS = 1000;
+
+    private final TransactionJdbcRepository transactionJdbcRepository;
+    private final WalletJdbcRepository walletJdbcRepository;
+    private final LedgerEngineCheckpointRepository checkpointRepository;
+    private final LedgerPostingService ledgerPostingService;
+    private final TransactionTemplate transactionTemplate;
+    private final WalletSnapshotCache walletSnapshotCache;
+    private final int batchSize;
+    private final BlockingQueue<LedgerEntry> queue = new LinkedBlockingQueue<>();
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public LedgerPersister(TransactionJdbcRepository transactionJdbcRepository,
+                           WalletJdbcRepository walletJdbcRepository,
+                           LedgerEngineCheckpointRepository checkpointRepository,
+                           LedgerPostingService ledgerPostingService,
+                           TransactionTemplate transactionTemplate,
+                           WalletSnapshotCache walletSnapshotCache,
+                           @Value("${wallet.ledger-engine.persist-batch-size:500}") int batchSize,
+                           MeterRegistry meterRegistry) {
+        this.transactionJdbcRepository = transactionJdbcRepository;
+        this.walletJdbcRepository = walletJdbcRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.ledgerPostingService = ledgerPostingService;
+        this.transactionTemplate = transactionTemplate;
+        this.walletSnapshotCache = walletSnapshotCache;
+        this.batchSize = Math.max(batchSize, 1);
+        Gauge.builder("wallet.ledger.persist.backlog", queue, BlockingQueue::size)
+                .description("Ledger engine movements accepted but not yet written to the database")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the last persisted sequence of each partition.
+     */
+    public Map<Integer, Long> loadCheckpoints() {
+        Map<Integer, Long> checkpoints = new HashMap<>();
+        checkpointRepository.findAll().forEach(c -> checkpoints.put(c.getPartitionId(), c.getLastSequence()));
+        return checkpoints;
+    }
+
+    /**
+     * Persists entries synchronously on the calling thread (used for journal replay).
+     */
+    public void persistNow(List<LedgerEntry> entries) {
+        for (int from = 0; from < entries.size(); from += batchSize) {
+            persist(entries.subList(from, Math.min(entries.size(), from + batchSize)));
+        }
+    }
+
+    /**
+     * Queues journaled entries for asynchronous persistence. Entries of one partition must be
+     * enqueued in sequence order.
+     */
+    public void enqueue(List<LedgerEntry> entries) {
+        queue.addAll(entries);
+    }
+
+    synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "ledger-persister");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the background thread after the queue is drained.
+     */
+    synchronized void stop() throws InterruptedException {
+        running = false;
+        if (thread != null) {
+            thread.join();
+            thread = null;
+        }
+    }
+
+    private void run() {
+        List<LedgerEntry> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                LedgerEntry first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                persistWithRetry(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void persistWithRetry(List<LedgerEntry> batch) throws InterruptedException {
+        while (true) {
+            try {
+                persist(batch);
+                return;
+            } catch (RuntimeException e) {
+                log.error("Failed to persist {} ledger entries, retrying: {}", batch.size(), e.getMessage());
+                Thread.sleep(RETRY_DELAY_MILLIS);
+            }
+        }
+    }
+
+    private void persist(List<LedgerEntry> batch) {
+        List<Transaction> rows = new ArrayList<>(batch.size());
+        List<Map.Entry<Long, BigDecimal>> topUps = new ArrayList<>();
+        Map<Long, BigDecimal> deltas = new HashMap<>();
+        Map<Integer, Long> checkpoints = new HashMap<>();
+        for (LedgerEntry entry : batch) {
+            if (entry.fromWalletId() != 0) {
+                deltas.merge(entry.fromWalletId(), entry.amount().negate(), BigDecimal::add);
+            }
+            if (entry.toWalletId() != 0) {
+                deltas.merge(entry.toWalletId(), entry.amount(), BigDecimal::add);
+            }
+            if (entry.kind() != LedgerEntry.Kind.TOPUP) {
+                rows.add(toTransaction(entry));
+            } else {
+                topUps.add(Map.entry(entry.toWalletId(), entry.amount()));
+            }
+            checkpoints.merge(entry.partition(), entry.sequence(), Math::max);
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            transactionJdbcRepository.batchInsert(rows);
+            walletJdbcRepository.applyBalanceDeltas(deltas);
+            deltas.keySet().forEach(walletSnapshotCache::evict);
+            ledgerPostingService.postAll(rows);
+            ledgerPostingService.postTopUps(topUps);
+            LocalDateTime now = LocalDateTime.now();
+            checkpoints.forEach((partition, sequence) -> checkpointRepository.save(LedgerEngineCheckpoint.builder()
+                    .partitionId(partition)
+                    .lastSequence(sequence)
+                    .updatedAt(now)
+                    .build()));
+        });
+    }
+
+    private static Transaction toTransaction(LedgerEntry entry) {
+        boolean transfer = entry.kind() == LedgerEntry.Kind.TRANSFER;
+        return Transaction.builder()
+                .transactionId(entry.transactionId())
+                .referenceNumber(entry.referenceNumber())
+                .fromWallet(Wallet.builder().id(entry.fromWalletId()).build())
+                .toWallet(transfer ? Wallet.builder().id(entry.toWalletId()).build() : null)
+                .merchant(transfer ? null : Merchant.builder().id(entry.merchantId()).build())
+                .amount(entry.amount())
+                .type(transfer ? TransactionType.PEER_TRANSFER : TransactionType.MERCHANT_PAYMENT)
+                .status(TransactionStatus.COMPLETED)
+                .description(entry.description())
+                .createdAt(entry.createdAt())
+                .build();
+    }
+}
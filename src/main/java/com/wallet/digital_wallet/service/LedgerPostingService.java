@@ -0,0 +1,267 @@
+package com.wallet.digital_wallet.service;
+
+import com.wallet.digital_wallet.entity.LedgerPosting;
+import com.wallet.digital_wallet.entity.Transaction;
+import com.wallet.digital_wallet.entity.WalletBalanceCheckpoint;
+import com.wallet.digital_wallet.enums.EntryDirection;
+import com.wallet.digital_wallet.enums.LedgerAccountType;
+import com.wallet.digital_wallet.enums.TransactionType;
+import com.wallet.digital_wallet.repository.LedgerPostingJdbcRepository;
+import com.wallet.digital_wallet.repository.LedgerPostingRepository;
+import com.wallet.digital_wallet.repository.WalletBalanceCheckpointRepository;
+import com.wallet.digital_wallet.repository.WalletEntryCount;
+import com.wallet.digital_wallet.util.IdGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service that keeps the double-entry ledger ({@code ledger_entries}) and per-wallet balance checkpoints.
+ *
+ * <p>Documentation requirements:
+ * <ul>
+ *   <li>Every completed movement posts one DEBIT and one CREDIT leg inside the database transaction that
+ *       moves the balances (one JDBC batch per transaction, also for batches)</li>
+ *   <li>A wallet's ledger balance at time {@code t} is its latest checkpoint covering no more than {@code t}
+ *       plus the legs created from that checkpoint until {@code t}; {@code Wallet.balance} is a cache of it</li>
+ *   <li>A background job appends a checkpoint for every wallet with {@code checkpoint-every} new legs.
+ *       Checkpoints stop {@code settle-lag-ms} in the past so legs of transactions still in flight are
+ *       never skipped</li>
+ *   <li>Each job run only counts the legs created since the previous run's cutoff and adds them to per-wallet
+ *       pending counts (one entry per wallet with legs since its last checkpoint). After a restart counting
+ *       resumes from the latest checkpoint cutoff, so legs pending before the restart only delay a
+ *       wallet's next checkpoint</li>
+ *   <li>{@link #balanceOf} is reported next to every reconciliation discrepancy</li>
+ *   <li>Wallets funded before the ledger existed get an opening checkpoint of their balance on startup</li>
+ * </ul>
+ *
+ * <p>Disabled with {@code wallet.ledger.enabled=false}.
+ */
+@Service
+@Slf4j
+public class LedgerPostingService {
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final LedgerPostingJdbcRepository postingJdbcRepository;
+    private final LedgerPostingRepository postingRepository;
+    private final WalletBalanceCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final IdGenerator idGenerator;
+    private final boolean enabled;
+    private final long checkpointEvery;
+    private final long settleLagMillis;
+
+    /**
+     * Legs per wallet counted since its last checkpoint; guarded by {@code this}.
+     */
+    private final Map<Long, Long> pendingLegs = new HashMap<>();
+
+    /**
+     * Cutoff of the previous checkpoint run, null until the first run; guarded by {@code this}.
+     */
+    private LocalDateTime countedUntil;
+
+    public LedgerPostingService(LedgerPostingJdbcRepository postingJdbcRepository,
+                                LedgerPostingRepository postingRepository,
+                                WalletBalanceCheckpointRepository checkpointRepository,
+                                TransactionTemplate transactionTemplate,
+                                IdGenerator idGenerator,
+                                @Value("${wallet.ledger.enabled:true}") boolean enabled,
+                                @Value("${wallet.ledger.checkpoint-every:1000}") long checkpointEvery,
+                                @Value("${wallet.ledger.settle-lag-ms:60000}") long settleLagMillis) {
+        this.postingJdbcRepository = postingJdbcRepository;
+        this.postingRepository = postingRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.idGenerator = idGenerator;
+        this.enabled = enabled;
+        this.checkpointEvery = Math.max(checkpointEvery, 1);
+        this.settleLagMillis = Math.max(settleLagMillis, 0);
+    }
+
+    /**
+     * Posts the legs of completed transfers and merchant payments. Must run in their database transaction.
+     *
+     * @param txns completed transactions
+     */
+    public void postAll(List<Transaction> txns) {
+        if (!enabled || txns.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<LedgerPosting> postings = new ArrayList<>(txns.size() * 2);
+        for (Transaction txn : txns) {
+            postings.add(leg(txn, LedgerAccountType.WALLET, txn.getFromWallet().getId(), EntryDirection.DEBIT, now));
+            if (txn.getType() == TransactionType.PEER_TRANSFER) {
+                postings.add(leg(txn, LedgerAccountType.WALLET, txn.getToWallet().getId(), EntryDirection.CREDIT, now));
+            } else {
+                postings.add(leg(txn, LedgerAccountType.MERCHANT, txn.getMerchant().getId(), EntryDirection.CREDIT, now));
+            }
+        }
+        postingJdbcRepository.batchInsert(postings);
+    }
+
+    /**
+     * Posts the legs of one completed transfer or merchant payment.
+     *
+     * @param txn completed transaction
+     */
+    public void post(Transaction txn) {
+        postAll(List.of(txn));
+    }
+
+    /**
+     * Posts wallet top-ups (funding to wallet). Must run in the database transaction that credits the wallets.
+     *
+     * @param amounts wallet ID to top-up amount, one top-up per entry
+     */
+    public void postTopUps(List<Map.Entry<Long, BigDecimal>> amounts) {
+        if (!enabled || amounts.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<LedgerPosting> postings = new ArrayList<>(amounts.size() * 2);
+        for (Map.Entry<Long, BigDecimal> topUp : amounts) {
+            String reference = "TOP" + idGenerator.nextCode();
+            postings.add(leg(reference, TransactionType.WALLET_LOAD, LedgerAccountType.FUNDING, null,
+                    EntryDirection.DEBIT, topUp.getValue(), now));
+            postings.add(leg(reference, TransactionType.WALLET_LOAD, LedgerAccountType.WALLET, topUp.getKey(),
+                    EntryDirection.CREDIT, topUp.getValue(), now));
+        }
+        postingJdbcRepository.batchInsert(postings);
+    }
+
+    /**
+     * Posts one wallet top-up.
+     *
+     * @param walletId credited wallet
+     * @param amount top-up amount
+     */
+    public void postTopUp(Long walletId, BigDecimal amount) {
+        postTopUps(List.of(Map.entry(walletId, amount)));
+    }
+
+    /**
+     * Rebuilds a wallet balance from the ledger as of {@code at}.
+     *
+     * @param walletId wallet ID
+     * @param at point in time (exclusive)
+     * @return ledger balance
+     */
+    public BigDecimal balanceAt(Long walletId, LocalDateTime at) {
+        WalletBalanceCheckpoint checkpoint = checkpointRepository
+                .findFirstByWalletIdAndCoveredUntilLessThanEqualOrderByCoveredUntilDesc(walletId, at)
+                .orElse(null);
+        BigDecimal base = checkpoint != null ? checkpoint.getBalance() : BigDecimal.ZERO;
+        LocalDateTime from = checkpoint != null ? checkpoint.getCoveredUntil() : BEGINNING;
+        return base.add(postingRepository.sumWalletBetween(walletId, from, at));
+    }
+
+    /**
+     * Rebuilds the current wallet balance from the ledger.
+     *
+     * @param walletId wallet ID
+     * @return ledger balance
+     */
+    public BigDecimal balanceOf(Long walletId) {
+        // Legs are stamped before commit, so look slightly ahead to include anything already committed.
+        return balanceAt(walletId, LocalDateTime.now().plusMinutes(1));
+    }
+
+    /**
+     * Inserts opening checkpoints for wallets that predate the ledger.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void openPreexistingWallets() {
+        if (!enabled) {
+            return;
+        }
+        int opened = checkpointRepository.insertOpeningCheckpoints(LocalDateTime.now());
+        if (opened > 0) {
+            log.info("Opened ledger checkpoints for {} wallets", opened);
+        }
+    }
+
+    /**
+     * Appends a checkpoint for every wallet with at least {@code checkpoint-every} legs since its last one.
+     */
+    @Scheduled(fixedDelayString = "${wallet.ledger.checkpoint-interval-ms:60000}")
+    public synchronized void checkpoint() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusNanos(settleLagMillis * 1_000_000);
+        LocalDateTime since = countedUntil != null
+                ? countedUntil
+                : checkpointRepository.findLatestCheckpointCutoff().orElse(BEGINNING);
+        if (!cutoff.isAfter(since)) {
+            return;
+        }
+        for (WalletEntryCount wallet : postingRepository.countWalletLegsBetween(since, cutoff)) {
+            pendingLegs.merge(wallet.getWalletId(), wallet.getEntryCount(), Long::sum);
+        }
+        countedUntil = cutoff;
+
+        List<Long> due = pendingLegs.entrySet().stream()
+                .filter(pending -> pending.getValue() >= checkpointEvery)
+                .map(Map.Entry::getKey)
+                .toList();
+        int checkpointed = 0;
+        for (Long walletId : due) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> checkpoint(walletId, cutoff));
+                pendingLegs.remove(walletId);
+                checkpointed++;
+            } catch (RuntimeException e) {
+                log.warn("Checkpoint of wallet {} failed: {}", walletId, e.getMessage());
+            }
+        }
+        if (checkpointed > 0) {
+            log.info("Checkpointed {} wallet balances up to {}", checkpointed, cutoff);
+        }
+    }
+
+    private void checkpoint(Long walletId, LocalDateTime cutoff) {
+        WalletBalanceCheckpoint previous = checkpointRepository
+                .findFirstByWalletIdAndCoveredUntilLessThanEqualOrderByCoveredUntilDesc(walletId, cutoff)
+                .orElse(null);
+        LocalDateTime from = previous != null ? previous.getCoveredUntil() : BEGINNING;
+        BigDecimal base = previous != null ? previous.getBalance() : BigDecimal.ZERO;
+        checkpointRepository.save(WalletBalanceCheckpoint.builder()
+                .walletId(walletId)
+                .coveredUntil(cutoff)
+                .balance(base.add(postingRepository.sumWalletBetween(walletId, from, cutoff)))
+                .entryCount(postingRepository.countWalletBetween(walletId, from, cutoff))
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    private static LedgerPosting leg(Transaction txn, LedgerAccountType accountType, Long accountId,
+                                     EntryDirection direction, LocalDateTime now) {
+        return leg(txn.getReferenceNumber(), txn.getType(), accountType, accountId, direction, txn.getAmount(), now);
+    }
+
+    private static LedgerPosting leg(String referenceNumber, TransactionType type, LedgerAccountType accountType,
+                                     Long accountId, EntryDirection direction, BigDecimal amount, LocalDateTime now) {
+        return LedgerPosting.builder()
+                .referenceNumber(referenceNumber)
+                .transactionType(type)
+                .accountType(accountType)
+                .accountId(accountId)
+                .direction(direction)
+                .amount(amount)
+                .createdAt(now)
+                .build();
+    }
+}
@@ -0,0 +1,202 @@
+package com.wallet.digital_wallet.service;
+
+import com.wallet.digital_wallet.entity.Merchant;
+import com.wallet.digital_wallet.repository.MerchantRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * In-memory directory of merchants by code and by ID, so payments and merchant reads need no merchant query.
+ *
+ * <p>Documentation requirements:
+ * <ul>
+ *   <li>Filled lazily on lookup and, with {@code wallet.merchant-directory.preload}, with up to {@code size}
+ *       merchants at startup; LRU-bounded by {@code size} per key</li>
+ *   <li>Unknown codes are remembered as misses for {@code negative-ttl-seconds}, so payments to a bad code do not
+ *       query the database each time</li>
+ *   <li>{@code MerchantService} refreshes a merchant after its create or update commits; entries also expire after
+ *       {@code ttl-seconds} so changes made on other instances are picked up</li>
+ *   <li>Every refresh bumps an invalidation generation (striped by code and by ID); a load is cached only if its
+ *       generation did not move while it ran, so a lookup racing an update never re-caches the old merchant and
+ *       a miss racing a create is not remembered</li>
+ *   <li>Lookups return copies; the cached merchants are never handed out or attached to a persistence context</li>
+ *   <li>Metrics: {@code wallet.merchant.directory} counters tagged {@code result=hit|miss|negative-hit}</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+public class MerchantDirectory {
+    private static final int GENERATION_STRIPES = 256;
+
+    private final MerchantRepository merchantRepository;
+    private final int capacity;
+    private final long ttlMillis;
+    private final long negativeTtlMillis;
+    private final boolean preload;
+    private final Map<String, Entry> byCode;
+    private final Map<Long, Entry> byId;
+
+    /**
+     * Refreshes per code and ID stripe, so a load can tell whether a refresh happened while it ran.
+     * Guarded by {@code byCode}, like both maps.
+     */
+    private final long[] generations = new long[GENERATION_STRIPES];
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter negativeHits;
+
+    public MerchantDirectory(MerchantRepository merchantRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${wallet.merchant-directory.size:10000}") int size,
+                             @Value("${wallet.merchant-directory.ttl-seconds:600}") long ttlSeconds,
+                             @Value("${wallet.merchant-directory.negative-ttl-seconds:30}") long negativeTtlSeconds,
+                             @Value("${wallet.merchant-directory.preload:true}") boolean preload) {
+        this.merchantRepository = merchantRepository;
+        this.capacity = Math.max(size, 1);
+        this.ttlMillis = Math.max(ttlSeconds, 1) * 1000;
+        this.negativeTtlMillis = Math.max(negativeTtlSeconds, 0) * 1000;
+        this.preload = preload;
+        this.byCode = lruMap(capacity);
+        this.byId = lruMap(capacity);
+        this.hits = resultCounter("hit", meterRegistry);
+        this.misses = resultCounter("miss", meterRegistry);
+        this.negativeHits = resultCounter("negative-hit", meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        if (!preload) {
+            return;
+        }
+        List<Merchant> merchants = merchantRepository.findAll(PageRequest.of(0, capacity)).getContent();
+        merchants.forEach(this::refresh);
+        log.info("Merchant directory preloaded with {} merchants", merchants.size());
+    }
+
+    /**
+     * Finds a merchant by merchant code.
+     *
+     * @param merchantCode merchant code
+     * @return copy of the merchant, or empty if no merchant has the code
+     */
+    public Optional<Merchant> findByCode(String merchantCode) {
+        return lookup(byCode, merchantCode, () -> merchantRepository.findByMerchantCode(merchantCode));
+    }
+
+    /**
+     * Finds a merchant by ID.
+     *
+     * @param id merchant ID
+     * @return copy of the merchant, or empty if it does not exist
+     */
+    public Optional<Merchant> findById(Long id) {
+        return lookup(byId, id, () -> merchantRepository.findById(id));
+    }
+
+    /**
+     * Replaces the cached state of a merchant (and clears a cached miss for its code).
+     *
+     * @param merchant committed merchant
+     */
+    public void refresh(Merchant merchant) {
+        synchronized (byCode) {
+            generations[stripe(merchant.getId())]++;
+            generations[stripe(merchant.getMerchantCode())]++;
+            store(merchant);
+        }
+    }
+
+    private <K> Optional<Merchant> lookup(Map<K, Entry> entries, K key, Supplier<Optional<Merchant>> loader) {
+        if (key == null) {
+            return Optional.empty();
+        }
+        long now = System.currentTimeMillis();
+        Entry cached;
+        long generation;
+        synchronized (byCode) {
+            cached = entries.get(key);
+            generation = generations[stripe(key)];
+        }
+        if (cached != null && cached.expiresAt() > now) {
+            if (cached.merchant() == null) {
+                negativeHits.increment();
+                return Optional.empty();
+            }
+            hits.increment();
+            return Optional.of(copy(cached.merchant()));
+        }
+        misses.increment();
+        Optional<Merchant> loaded = loader.get();
+        synchronized (byCode) {
+            if (generations[stripe(key)] == generation) {
+                if (loaded.isPresent()) {
+                    store(loaded.get());
+                } else if (negativeTtlMillis > 0) {
+                    entries.put(key, new Entry(null, now + negativeTtlMillis));
+                }
+            }
+        }
+        return loaded.map(MerchantDirectory::copy);
+    }
+
+    /**
+     * Caches a merchant under its ID and code. Caller holds the {@code byCode} lock.
+     */
+    private void store(Merchant merchant) {
+        Entry entry = new Entry(copy(merchant), System.currentTimeMillis() + ttlMillis);
+        // Merchant codes are never changed after creation, so the code entry is simply overwritten.
+        byId.put(merchant.getId(), entry);
+        byCode.put(merchant.getMerchantCode(), entry);
+    }
+
+    private static int stripe(Object key) {
+        return (key.hashCode() & 0x7fffffff) % GENERATION_STRIPES;
+    }
+
+    private static Merchant copy(Merchant merchant) {
+        return Merchant.builder()
+                .id(merchant.getId())
+                .merchantCode(merchant.getMerchantCode())
+                .merchantName(merchant.getMerchantName())
+                .email(merchant.getEmail())
+                .category(merchant.getCategory())
+                .status(merchant.getStatus())
+                .createdAt(merchant.getCreatedAt())
+                .updatedAt(merchant.getUpdatedAt())
+                .build();
+    }
+
+    private static <K> Map<K, Entry> lruMap(int capacity) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    private static Counter resultCounter(String result, MeterRegistry meterRegistry) {
+        return Counter.builder("wallet.merchant.directory")
+                .description("Merchant lookups by result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Cached merchant, or a cached miss when {@code merchant} is null.
+     */
+    private record Entry(Merchant merchant, long expiresAt) {
+    }
+}
@@ -6,8 +6,11 @@ import com.wallet.digital_wallet.entity.Transaction;
 import com.wallet.digital_wallet.enums.MerchantCategory;
 import com.wallet.digital_wallet.exception.DuplicateResourceException;
 import com.wallet.digital_wallet.exception.ResourceNotFoundException;
+import com.wallet.digital_wallet.repository.CollectionVersionView;
 import com.wallet.digital_wallet.repository.MerchantRepository;
 import com.wallet.digital_wallet.repository.TransactionRepository;
+import com.wallet.digital_wallet.util.IdGenerator;
+import com.wallet.digital_wallet.util.TransactionCallbacks;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -16,7 +19,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.UUID;
 
 /**
  * Service responsible for merchant registration and lookup.
@@ -25,6 +27,8 @@ import java.util.UUID;
  * <ul>
  *   <li>Merchant codes are generated server-side and must be unique</li>
  *   <li>Supports category filtering and merchant transaction history</li>
+ *   <li>Lookups by ID and code are served by the {@link MerchantDirectory}; creates and updates refresh it
+ *       after commit</li>
  * </ul>
  */
 @Service
@@ -33,6 +37,8 @@ import java.util.UUID;
 public class MerchantService {
     private final MerchantRepository merchantRepository;
     private final TransactionRepository transactionRepository;
+    private final IdGenerator idGenerator;
+    private final MerchantDirectory merchantDirectory;
 
     /**
      * Creates a merchant.
@@ -47,7 +53,7 @@ public class MerchantService {
         }
 
         Merchant merchant = Merchant.builder()
-                .merchantCode("MER" + UUID.randomUUID().toString().substring(0, 8).toUpperCase())
+                .merchantCode("MER" + idGenerator.nextCode())
                 .merchantName(request.getMerchantName())
                 .email(request.getEmail())
                 .category(request.getCategory())
@@ -55,6 +61,7 @@ public class MerchantService {
                 .build();
 
         merchant = merchantRepository.save(merchant);
+        refreshAfterCommit(merchant);
         log.info("Merchant created with code: {}", merchant.getMerchantCode());
         return merchant;
     }
@@ -66,7 +73,7 @@ public class MerchantService {
      * @return merchant
      */
     public Merchant getMerchantById(Long id) {
-        return merchantRepository.findById(id)
+        return merchantDirectory.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Merchant", "id", id));
     }
 
@@ -77,7 +84,7 @@ public class MerchantService {
      * @return merchant
      */
     public Merchant getMerchantByCode(String code) {
-        return merchantRepository.findByMerchantCode(code)
+        return merchantDirectory.findByCode(code)
                 .orElseThrow(() -> new ResourceNotFoundException("Merchant", "code", code));
     }
 
@@ -95,16 +102,32 @@ public class MerchantService {
         return merchantRepository.findAll(pageable);
     }
 
+    /**
+     * Returns the version of merchant listings: one aggregate query instead of loading a page.
+     *
+     * @return merchant count and latest change
+     */
+    public CollectionVersionView getMerchantsVersion() {
+        return merchantRepository.findCollectionVersion();
+    }
+
     /**
      * Updates merchant details by ID.
      */
     @Transactional
     public Merchant updateMerchant(Long id, CreateMerchantRequest request) {
-        Merchant merchant = getMerchantById(id);
+        Merchant merchant = merchantRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Merchant", "id", id));
         merchant.setMerchantName(request.getMerchantName());
         merchant.setEmail(request.getEmail());
         merchant.setCategory(request.getCategory());
-        return merchantRepository.save(merchant);
+        merchant = merchantRepository.save(merchant);
+        refreshAfterCommit(merchant);
+        return merchant;
+    }
+
+    private void refreshAfterCommit(Merchant merchant) {
+        TransactionCallbacks.afterCommit(() -> merchantDirectory.refresh(merchant));
     }
 
     /**
@@ -0,0 +1,254 @@
+package com.wallet.digital_wallet.service;
+
+import com.wallet.digital_wallet.enums.UserStatus;
+import com.wallet.digital_wallet.exception.InsufficientBalanceException;
+import com.wallet.digital_wallet.exception.InvalidTransactionException;
+import com.wallet.digital_wallet.exception.ResourceNotFoundException;
+import com.wallet.digital_wallet.repository.WalletOwnerView;
+import com.wallet.digital_wallet.repository.WalletRepository;
+import com.wallet.digital_wallet.util.IdGenerator;
+import com.wallet.digital_wallet.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Service that issues PIN-verified payment sessions and authorizes debits with either a PIN or a session token.
+ *
+ * <p>Documentation requirements:
+ * <ul>
+ *   <li>{@link #issue} runs BCrypt once and returns a token signed like {@link JwtUtil} login tokens, scoped to
+ *       one wallet and valid for {@code wallet.payment-session.ttl-seconds}</li>
+ *   <li>Money paths accept the token in place of the PIN; checking it is an HMAC verification and a map
+ *       lookup instead of a BCrypt hash</li>
+ *   <li>Each session has an amount and a payment-count budget, charged atomically when a debit is authorized
+ *       and given back when the debit is definitely rejected (insufficient balance, daily limit, ...)</li>
+ *   <li>Sessions live in memory of the issuing instance: a restart, {@code UserService.deactivateUser} or
+ *       expiry ends them, after which the token is rejected and the client falls back to the PIN</li>
+ * </ul>
+ */
+@Service
+@Slf4j
+public class PaymentSessionService {
+    private final WalletRepository walletRepository;
+    private final JwtUtil jwtUtil;
+    private final PasswordEncoder passwordEncoder;
+    private final IdGenerator idGenerator;
+    private final long ttlMillis;
+    private final BigDecimal maxAmount;
+    private final int maxPayments;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+
+    public PaymentSessionService(WalletRepository walletRepository,
+                                 JwtUtil jwtUtil,
+                                 PasswordEncoder passwordEncoder,
+                                 IdGenerator idGenerator,
+                                 @Value("${wallet.payment-session.ttl-seconds:300}") long ttlSeconds,
+                                 @Value("${wallet.payment-session.max-amount:1000}") BigDecimal maxAmount,
+                                 @Value("${wallet.payment-session.max-payments:20}") int maxPayments) {
+        this.walletRepository = walletRepository;
+        this.jwtUtil = jwtUtil;
+        this.passwordEncoder = passwordEncoder;
+        this.idGenerator = idGenerator;
+        this.ttlMillis = Math.max(ttlSeconds, 1) * 1000;
+        this.maxAmount = maxAmount;
+        this.maxPayments = Math.max(maxPayments, 1);
+    }
+
+    /**
+     * Verifies the wallet owner's PIN and opens a payment session.
+     *
+     * @param walletId wallet the session may debit
+     * @param pin owner PIN
+     * @param requestedAmount total amount the session may debit (capped by {@code max-amount}); null for the cap
+     * @param requestedPayments number of debits the session may authorize (capped by {@code max-payments});
+     *                          null for the cap
+     * @return the session with its token
+     * @throws ResourceNotFoundException if the wallet does not exist
+     * @throws InvalidTransactionException if the PIN is wrong or the owner is not active
+     */
+    public PaymentSession issue(Long walletId, String pin, BigDecimal requestedAmount, Integer requestedPayments) {
+        WalletOwnerView owner = walletRepository.findOwnerByWalletId(walletId)
+                .orElseThrow(() -> new ResourceNotFoundException("Wallet", "id", walletId));
+        if (owner.getUserStatus() != null && owner.getUserStatus() != UserStatus.ACTIVE) {
+            throw new InvalidTransactionException("User is not active");
+        }
+        if (!passwordEncoder.matches(pin, owner.getPinHash())) {
+            throw new InvalidTransactionException("Invalid PIN");
+        }
+
+        BigDecimal amount = requestedAmount != null ? requestedAmount.min(maxAmount) : maxAmount;
+        int payments = requestedPayments != null ? Math.min(requestedPayments, maxPayments) : maxPayments;
+        long expiresAt = System.currentTimeMillis() + ttlMillis;
+        String sessionId = "PS" + idGenerator.nextCode();
+        sessions.put(sessionId, new Session(owner.getUsername(), walletId, expiresAt, amount, payments));
+
+        String token = jwtUtil.generatePaymentToken(sessionId, walletId, new Date(expiresAt));
+        log.info("Payment session {} opened for wallet {}", sessionId, walletId);
+        return new PaymentSession(token, walletId, amount, payments,
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(expiresAt), ZoneId.systemDefault()));
+    }
+
+    /**
+     * Authorizes a debit with the payment token when one is given, otherwise with the PIN, then runs the
+     * movement. The session budget is given back if the movement is definitely rejected.
+     *
+     * @param walletId debited wallet
+     * @param pinHash owner PIN hash
+     * @param pin PIN from the request (may be null when a token is given)
+     * @param paymentToken payment token from the request (may be null)
+     * @param amount debit amount
+     * @param movement the debit itself
+     * @return the movement result
+     * @throws InvalidTransactionException if neither credential is valid or the session budget is exhausted
+     */
+    public <T> T authorized(Long walletId, String pinHash, String pin, String paymentToken, BigDecimal amount,
+                            Supplier<T> movement) {
+        boolean charged = authorize(walletId, pinHash, pin, paymentToken, amount);
+        if (!charged) {
+            return movement.get();
+        }
+        try {
+            return movement.get();
+        } catch (InsufficientBalanceException | InvalidTransactionException | ResourceNotFoundException e) {
+            refund(paymentToken, amount);
+            throw e;
+        }
+    }
+
+    /**
+     * Authorizes a debit with the payment token when one is given, otherwise with the PIN.
+     *
+     * @return true if a session budget was charged (see {@link #refund})
+     * @throws InvalidTransactionException if neither credential is valid or the session budget is exhausted
+     */
+    public boolean authorize(Long walletId, String pinHash, String pin, String paymentToken, BigDecimal amount) {
+        if (paymentToken != null && !paymentToken.isBlank()) {
+            charge(paymentToken, walletId, amount);
+            return true;
+        }
+        if (pin == null || pin.isBlank()) {
+            throw new InvalidTransactionException("PIN or payment token is required");
+        }
+        if (!passwordEncoder.matches(pin, pinHash)) {
+            throw new InvalidTransactionException("Invalid PIN");
+        }
+        return false;
+    }
+
+    /**
+     * Charges one payment of {@code amount} to the session of a payment token.
+     *
+     * @param paymentToken payment token
+     * @param walletId debited wallet; must be the wallet the token is scoped to
+     * @param amount debit amount
+     * @throws InvalidTransactionException if the token is invalid, expired, revoked, for another wallet,
+     *                                     or its budget is exhausted
+     */
+    public void charge(String paymentToken, Long walletId, BigDecimal amount) {
+        Session session = session(paymentToken);
+        if (session == null || !session.walletId.equals(walletId)) {
+            throw new InvalidTransactionException("Invalid payment token");
+        }
+        if (!session.charge(amount)) {
+            throw new InvalidTransactionException("Payment session budget exceeded");
+        }
+    }
+
+    /**
+     * Gives back one payment of {@code amount} charged by {@link #charge}. No-op for unknown sessions.
+     *
+     * @param paymentToken payment token
+     * @param amount charged amount
+     */
+    public void refund(String paymentToken, BigDecimal amount) {
+        Session session = session(paymentToken);
+        if (session != null) {
+            session.refund(amount);
+        }
+    }
+
+    /**
+     * Ends all payment sessions of a user.
+     *
+     * @param username wallet owner username
+     */
+    public void revokeUser(String username) {
+        if (sessions.values().removeIf(session -> session.username.equals(username))) {
+            log.info("Payment sessions of {} revoked", username);
+        }
+    }
+
+    /**
+     * Drops expired sessions.
+     */
+    @Scheduled(fixedDelayString = "${wallet.payment-session.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        sessions.values().removeIf(session -> session.expiresAt <= now);
+    }
+
+    /**
+     * Returns the live session of a token, or null if the token is invalid, expired or revoked.
+     */
+    private Session session(String paymentToken) {
+        Claims claims;
+        try {
+            claims = jwtUtil.parsePaymentToken(paymentToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+        Session session = sessions.get(claims.getSubject());
+        return session != null && session.expiresAt > System.currentTimeMillis() ? session : null;
+    }
+
+    /**
+     * An issued payment session as returned to the client.
+     */
+    public record PaymentSession(String token, Long walletId, BigDecimal maxAmount, int maxPayments,
+                                 LocalDateTime expiresAt) {
+    }
+
+    private static final class Session {
+        private final String username;
+        private final Long walletId;
+        private final long expiresAt;
+        private BigDecimal remainingAmount;
+        private int remainingPayments;
+
+        private Session(String username, Long walletId, long expiresAt, BigDecimal amount, int payments) {
+            this.username = username;
+            this.walletId = walletId;
+            this.expiresAt = expiresAt;
+            this.remainingAmount = amount;
+            this.remainingPayments = payments;
+        }
+
+        private synchronized boolean charge(BigDecimal amount) {
+            if (remainingPayments <= 0 || remainingAmount.compareTo(amount) < 0) {
+                return false;
+            }
+            remainingPayments--;
+            remainingAmount = remainingAmount.subtract(amount);
+            return true;
+        }
+
+        private synchronized void refund(BigDecimal amount) {
+            remainingPayments++;
+            remainingAmount = remainingAmount.add(amount);
+        }
+    }
+}
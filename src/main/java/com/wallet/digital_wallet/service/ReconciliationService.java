@@ -0,0 +1,295 @@
+package com.wallet.digital_wallet.service;
+
+import com.wallet.digital_wallet.entity.ReconciliationDiscrepancy;
+import com.wallet.digital_wallet.entity.ReconciliationRun;
+import com.wallet.digital_wallet.enums.ReconciliationStatus;
+import com.wallet.digital_wallet.exception.InvalidTransactionException;
+import com.wallet.digital_wallet.exception.ResourceNotFoundException;
+import com.wallet.digital_wallet.exception.WalletBusyException;
+import com.wallet.digital_wallet.repository.ReconciliationDiscrepancyRepository;
+import com.wallet.digital_wallet.repository.ReconciliationJdbcRepository;
+import com.wallet.digital_wallet.repository.ReconciliationRunRepository;
+import com.wallet.digital_wallet.repository.WalletBalanceCheck;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service that reconciles every stored wallet balance against the net of its movements.
+ *
+ * <p>Documentation requirements:
+ * <ul>
+ *   <li>Expected balance = opening checkpoint balance + completed incoming transfers - completed outgoing
+ *       transfers and merchant payments + top-ups, counting only movements after the opening checkpoint. Top-ups
+ *       have no {@code transactions} row, so they are read from the WALLET_LOAD ledger legs</li>
+ *   <li>Wallets funded before the ledger existed get their opening checkpoint on startup; without the ledger
+ *       ({@code wallet.ledger.enabled=false}) neither top-ups nor opening balances are recorded, so runs are
+ *       refused</li>
+ *   <li>The wallet ID space is split by a fork/join pool of {@code parallelism} workers into ranges of
+ *       {@code chunk-size} IDs; each range is one short read-only statement streamed through a cursor</li>
+ *   <li>Memory is bounded by one range (only its discrepancies are buffered), whatever the table sizes</li>
+ *   <li>No row locks are taken; movements committed while a run is in progress are simply seen or not
+ *       seen per range, and each range is internally consistent</li>
+ *   <li>Discrepancies are written to {@code reconciliation_discrepancies} with the wallet's ledger balance
+ *       ({@link LedgerPostingService#balanceOf}); run totals to {@code reconciliation_runs}</li>
+ *   <li>Metrics: {@code wallet.reconciliation.wallets.scanned} and {@code wallet.reconciliation.discrepancies}
+ *       (counters, for throughput), {@code wallet.reconciliation.progress} (0..1) and
+ *       {@code wallet.reconciliation.duration}</li>
+ * </ul>
+ *
+ * <p>Runs are started from the admin API or by {@code wallet.reconciliation.cron}; one run at a time per instance.
+ */
+@Service
+@Slf4j
+public class ReconciliationService {
+    private final ReconciliationJdbcRepository reconciliationJdbcRepository;
+    private final ReconciliationRunRepository runRepository;
+    private final ReconciliationDiscrepancyRepository discrepancyRepository;
+    private final LedgerPostingService ledgerPostingService;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean ledgerEnabled;
+    private final int parallelism;
+    private final long chunkSize;
+    private final Counter scannedCounter;
+    private final Counter discrepancyCounter;
+    private final Timer durationTimer;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong idsTotal = new AtomicLong();
+    private final AtomicLong idsDone = new AtomicLong();
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "reconciliation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ReconciliationService(ReconciliationJdbcRepository reconciliationJdbcRepository,
+                                 ReconciliationRunRepository runRepository,
+                                 ReconciliationDiscrepancyRepository discrepancyRepository,
+                                 LedgerPostingService ledgerPostingService,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${wallet.ledger.enabled:true}") boolean ledgerEnabled,
+                                 @Value("${wallet.reconciliation.parallelism:4}") int parallelism,
+                                 @Value("${wallet.reconciliation.chunk-size:50000}") long chunkSize) {
+        this.reconciliationJdbcRepository = reconciliationJdbcRepository;
+        this.runRepository = runRepository;
+        this.discrepancyRepository = discrepancyRepository;
+        this.ledgerPostingService = ledgerPostingService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.ledgerEnabled = ledgerEnabled;
+        this.parallelism = Math.max(parallelism, 1);
+        this.chunkSize = Math.max(chunkSize, 1);
+        this.scannedCounter = Counter.builder("wallet.reconciliation.wallets.scanned")
+                .description("Wallets checked by the reconciliation job")
+                .register(meterRegistry);
+        this.discrepancyCounter = Counter.builder("wallet.reconciliation.discrepancies")
+                .description("Wallets whose balance did not match their movements")
+                .register(meterRegistry);
+        this.durationTimer = Timer.builder("wallet.reconciliation.duration")
+                .description("Duration of reconciliation runs")
+                .register(meterRegistry);
+        Gauge.builder("wallet.reconciliation.progress", this, ReconciliationService::progress)
+                .description("Share of the wallet ID range reconciled by the current or last run")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts a run in the background.
+     *
+     * @return the new run (RUNNING)
+     * @throws InvalidTransactionException if the ledger is disabled
+     * @throws WalletBusyException if a run is already in progress
+     */
+    public ReconciliationRun start() {
+        if (!ledgerEnabled) {
+            throw new InvalidTransactionException("Reconciliation needs the ledger (wallet.ledger.enabled=true)");
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new WalletBusyException("A reconciliation run is already in progress");
+        }
+        try {
+            ReconciliationRun run = runRepository.save(ReconciliationRun.builder()
+                    .status(ReconciliationStatus.RUNNING)
+                    .startedAt(LocalDateTime.now())
+                    .build());
+            coordinator.execute(() -> {
+                try {
+                    execute(run);
+                } finally {
+                    running.set(false);
+                }
+            });
+            return run;
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+    }
+
+    /**
+     * Starts a run on {@code wallet.reconciliation.cron} (disabled by default), unless one is in progress.
+     */
+    @Scheduled(cron = "${wallet.reconciliation.cron:-}")
+    public void scheduledRun() {
+        if (!ledgerEnabled) {
+            log.warn("Scheduled reconciliation skipped: the ledger is disabled");
+            return;
+        }
+        if (running.get()) {
+            log.info("Scheduled reconciliation skipped: a run is already in progress");
+            return;
+        }
+        start();
+    }
+
+    public ReconciliationRun getRun(Long runId) {
+        return runRepository.findById(runId)
+                .orElseThrow(() -> new ResourceNotFoundException("ReconciliationRun", "id", runId));
+    }
+
+    public ReconciliationRun getLatestRun() {
+        return runRepository.findFirstByOrderByStartedAtDesc()
+                .orElseThrow(() -> new ResourceNotFoundException("ReconciliationRun", "latest", "none"));
+    }
+
+    /**
+     * Returns the discrepancies of a run, ordered by wallet ID.
+     *
+     * @param runId run ID
+     * @param pageable pagination
+     * @return page of discrepancies
+     */
+    public Page<ReconciliationDiscrepancy> getDiscrepancies(Long runId, Pageable pageable) {
+        getRun(runId);
+        return discrepancyRepository.findByRunIdOrderByWalletIdAsc(runId, pageable);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+    }
+
+    /**
+     * Runs the reconciliation synchronously and stores its outcome on {@code run}.
+     */
+    void execute(ReconciliationRun run) {
+        long started = System.nanoTime();
+        AtomicLong scanned = new AtomicLong();
+        AtomicLong discrepancies = new AtomicLong();
+        idsDone.set(0);
+        idsTotal.set(0);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            long[] range = reconciliationJdbcRepository.walletIdRange();
+            if (range != null) {
+                idsTotal.set(range[1] + 1 - range[0]);
+                pool.invoke(new RangeTask(run.getId(), range[0], range[1] + 1, scanned, discrepancies));
+            }
+            run.setStatus(ReconciliationStatus.COMPLETED);
+        } catch (RuntimeException e) {
+            log.error("Reconciliation run {} failed: {}", run.getId(), e.getMessage(), e);
+            run.setStatus(ReconciliationStatus.FAILED);
+            run.setError(e.getMessage() != null && e.getMessage().length() > 1000
+                    ? e.getMessage().substring(0, 1000) : e.getMessage());
+        } finally {
+            pool.shutdownNow();
+        }
+        run.setWalletsScanned(scanned.get());
+        run.setDiscrepancyCount(discrepancies.get());
+        run.setFinishedAt(LocalDateTime.now());
+        runRepository.save(run);
+        long elapsed = System.nanoTime() - started;
+        durationTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("Reconciliation run {} {}: {} wallets, {} discrepancies in {} ms", run.getId(), run.getStatus(),
+                scanned.get(), discrepancies.get(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    private double progress() {
+        long total = idsTotal.get();
+        return total == 0 ? 0 : Math.min(1.0, (double) idsDone.get() / total);
+    }
+
+    private void reconcileRange(Long runId, long fromId, long toId, AtomicLong scanned, AtomicLong discrepancies) {
+        List<ReconciliationDiscrepancy> found = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        long[] count = new long[1];
+        readOnlyTransactionTemplate.executeWithoutResult(status -> reconciliationJdbcRepository.scan(fromId, toId,
+                (WalletBalanceCheck check) -> {
+                    count[0]++;
+                    if (!check.matches()) {
+                        found.add(ReconciliationDiscrepancy.builder()
+                                .runId(runId)
+                                .walletId(check.walletId())
+                                .balance(check.balance())
+                                .expectedBalance(check.expected())
+                                .difference(check.balance().subtract(check.expected()))
+                                .detectedAt(now)
+                                .build());
+                    }
+                }));
+        if (!found.isEmpty()) {
+            readOnlyTransactionTemplate.executeWithoutResult(status -> found.forEach(discrepancy ->
+                    discrepancy.setLedgerBalance(ledgerPostingService.balanceOf(discrepancy.getWalletId()))));
+            transactionTemplate.executeWithoutResult(status -> reconciliationJdbcRepository.insertDiscrepancies(found));
+        }
+        scanned.addAndGet(count[0]);
+        discrepancies.addAndGet(found.size());
+        scannedCounter.increment(count[0]);
+        discrepancyCounter.increment(found.size());
+        idsDone.addAndGet(toId - fromId);
+    }
+
+    /**
+     * Splits a wallet ID range in halves until it is at most {@code chunkSize} IDs wide, then reconciles it.
+     */
+    private final class RangeTask extends RecursiveAction {
+        private final Long runId;
+        private final long fromId;
+        private final long toId;
+        private final AtomicLong scanned;
+        private final AtomicLong discrepancies;
+
+        private RangeTask(Long runId, long fromId, long toId, AtomicLong scanned, AtomicLong discrepancies) {
+            this.runId = runId;
+            this.fromId = fromId;
+            this.toId = toId;
+            this.scanned = scanned;
+            this.discrepancies = discrepancies;
+        }
+
+        @Override
+        protected void compute() {
+            if (toId - fromId <= chunkSize) {
+                reconcileRange(runId, fromId, toId, scanned, discrepancies);
+                return;
+            }
+            long middle = fromId + (toId - fromId) / 2;
+            invokeAll(new RangeTask(runId, fromId, middle, scanned, discrepancies),
+                    new RangeTask(runId, middle, toId, scanned, discrepancies));
+        }
+    }
+}
@@ -0,0 +1,409 @@
+package com.wallet.digital_wallet.service;
+
+import com.wallet.digital_wallet.dto.request.MerchantPaymentRequest;
+import com.wallet.digital_wallet.dto.request.TransferRequest;
+import com.wallet.digital_wallet.entity.Transaction;
+import com.wallet.digital_wallet.entity.Wallet;
+import com.wallet.digital_wallet.enums.TransactionStatus;
+import com.wallet.digital_wallet.enums.UserStatus;
+import com.wallet.digital_wallet.exception.InsufficientBalanceException;
+import com.wallet.digital_wallet.exception.InvalidTransactionException;
+import com.wallet.digital_wallet.exception.ResourceNotFoundException;
+import com.wallet.digital_wallet.exception.WalletBusyException;
+import com.wallet.digital_wallet.repository.TransactionRepository;
+import com.wallet.digital_wallet.util.IdGenerator;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service that accepts transfers and merchant payments immediately and settles them in the background.
+ *
+ * <p>Documentation requirements:
+ * <ul>
+ *   <li>Acceptance runs the lookups, PIN (or payment token) check and a (non-authoritative) balance check, then stores a
+ *       {@link TransactionStatus#PENDING} row and returns it</li>
+ *   <li>Pending rows are settled by {@code lanes} worker threads; the lane is chosen by sender wallet, so one
+ *       wallet's movements settle in acceptance order</li>
+ *   <li>Settlement moves balances and sets COMPLETED, or sets FAILED with a {@code failureReason}, under the
+ *       usual wallet locks, retries and single database transaction; the daily limit is enforced here</li>
+ *   <li>Only rejections (and unexpected errors) set FAILED. Busy wallets and transient database errors, including
+ *       a failure to store the FAILED status, retry the same row in its lane with exponential backoff (from
+ *       {@code retry-backoff-ms} up to {@value #MAX_RETRY_BACKOFF_MS} ms), which keeps the lane's order; a row
+ *       still retrying at shutdown stays PENDING and is re-queued on next start</li>
+ *   <li>Pending rows left over from a previous run are re-queued on startup</li>
+ *   <li>A payment session token is charged on acceptance; only rejections at acceptance give the charge back,
+ *       a later settlement failure keeps it</li>
+ *   <li>{@link #awaitSettlement} lets callers subscribe to the final state of a reference number; a subscriber that
+ *       gives up (e.g. the row settles on another instance and the SSE stream times out) calls
+ *       {@link #cancelAwait}, and the last one to leave drops the reference's entry</li>
+ * </ul>
+ *
+ * <p>Enabled with {@code wallet.async-settlement.enabled=true}; clients opt in per request with
+ * {@code Prefer: respond-async}. Not used while the {@link LedgerEngine} is running.
+ */
+@Service
+@Slf4j
+public class SettlementService {
+    private static final long MAX_RETRY_BACKOFF_MS = 5_000;
+
+    private final TransactionRepository transactionRepository;
+    private final BatchTransactionService batchTransactionService;
+    private final WalletService walletService;
+    private final WalletLockManager walletLockManager;
+    private final TransactionRetryExecutor retryExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionJournal transactionJournal;
+    private final LedgerEngine ledgerEngine;
+    private final IdGenerator idGenerator;
+    private final DailySpendTracker dailySpendTracker;
+    private final LedgerPostingService ledgerPostingService;
+    private final boolean enabled;
+    private final long retryBackoffMillis;
+    private final List<BlockingQueue<Long>> lanes = new ArrayList<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private final Map<String, Subscription> subscriptions = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+    private volatile boolean accepting;
+
+    public SettlementService(TransactionRepository transactionRepository,
+                             BatchTransactionService batchTransactionService,
+                             WalletService walletService,
+                             WalletLockManager walletLockManager,
+                             TransactionRetryExecutor retryExecutor,
+                             TransactionTemplate transactionTemplate,
+                             TransactionJournal transactionJournal,
+                             LedgerEngine ledgerEngine,
+                             IdGenerator idGenerator,
+                             DailySpendTracker dailySpendTracker,
+                             LedgerPostingService ledgerPostingService,
+                             MeterRegistry meterRegistry,
+                             @Value("${wallet.async-settlement.enabled:false}") boolean enabled,
+                             @Value("${wallet.async-settlement.lanes:8}") int laneCount,
+                             @Value("${wallet.async-settlement.lane-capacity:10000}") int laneCapacity,
+                             @Value("${wallet.async-settlement.retry-backoff-ms:100}") long retryBackoffMillis) {
+        this.transactionRepository = transactionRepository;
+        this.batchTransactionService = batchTransactionService;
+        this.walletService = walletService;
+        this.walletLockManager = walletLockManager;
+        this.retryExecutor = retryExecutor;
+        this.transactionTemplate = transactionTemplate;
+        this.transactionJournal = transactionJournal;
+        this.ledgerEngine = ledgerEngine;
+        this.idGenerator = idGenerator;
+        this.dailySpendTracker = dailySpendTracker;
+        this.ledgerPostingService = ledgerPostingService;
+        this.enabled = enabled;
+        this.retryBackoffMillis = Math.max(retryBackoffMillis, 1);
+        for (int i = 0; i < Math.max(laneCount, 1); i++) {
+            lanes.add(new LinkedBlockingQueue<>(Math.max(laneCapacity, 1)));
+        }
+        meterRegistry.gauge("wallet.settlement.backlog", lanes, queues -> queues.stream().mapToInt(BlockingQueue::size).sum());
+    }
+
+    /**
+     * Returns true if requests can currently be accepted for asynchronous settlement.
+     */
+    public boolean isAvailable() {
+        return accepting && !ledgerEngine.isRunning();
+    }
+
+    /**
+     * Re-queues pending rows from a previous run and starts the lane workers.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() throws InterruptedException {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < lanes.size(); i++) {
+            BlockingQueue<Long> lane = lanes.get(i);
+            Thread worker = new Thread(() -> work(lane), "settlement-lane-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        // Older pending rows go first so each wallet keeps its acceptance order.
+        List<Transaction> pending = transactionRepository.findByStatusOrderByIdAsc(TransactionStatus.PENDING);
+        for (Transaction txn : pending) {
+            laneFor(txn.getFromWallet().getId()).put(txn.getId());
+        }
+        accepting = true;
+        log.info("Async settlement started with {} lanes ({} pending transactions re-queued)", lanes.size(), pending.size());
+    }
+
+    /**
+     * Stops the workers after their current settlement. Queued rows stay PENDING and are re-queued on next start.
+     */
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        accepting = false;
+        running = false;
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        workers.clear();
+    }
+
+    /**
+     * Validates a transfer and stores it as PENDING.
+     *
+     * @param request transfer request
+     * @return pending transaction
+     */
+    public Transaction acceptTransfer(TransferRequest request) {
+        return accept(BatchItem.of(0, request));
+    }
+
+    /**
+     * Validates a merchant payment and stores it as PENDING.
+     *
+     * @param request merchant payment request
+     * @return pending transaction
+     */
+    public Transaction acceptMerchantPayment(MerchantPaymentRequest request) {
+        return accept(BatchItem.of(0, request));
+    }
+
+    /**
+     * Returns a future completed with the transaction once it is no longer PENDING. Callers that stop waiting
+     * before it completes must pass it to {@link #cancelAwait}.
+     *
+     * @param referenceNumber transaction reference number
+     * @return settlement future of this caller (already completed if the transaction is settled)
+     */
+    public CompletableFuture<Transaction> awaitSettlement(String referenceNumber) {
+        Subscription subscription = subscriptions.compute(referenceNumber, (ref, existing) -> {
+            Subscription joined = existing != null ? existing : new Subscription();
+            joined.waiters++;
+            return joined;
+        });
+        CompletableFuture<Transaction> settled = subscription.settled.thenApply(txn -> txn);
+        // Registered before reading, so a settlement committed in between is either seen here or signalled.
+        Transaction current = transactionRepository.findByReferenceNumber(referenceNumber).orElse(null);
+        if (current == null) {
+            cancelAwait(referenceNumber, settled);
+            throw new ResourceNotFoundException("Transaction", "reference", referenceNumber);
+        }
+        if (current.getStatus() != TransactionStatus.PENDING) {
+            subscriptions.remove(referenceNumber, subscription);
+            subscription.settled.complete(current);
+        }
+        return settled;
+    }
+
+    /**
+     * Stops waiting for a settlement; the reference's entry is dropped once no caller waits for it any more.
+     * Does nothing if the future already completed (or was cancelled before).
+     *
+     * @param referenceNumber transaction reference number
+     * @param settled future returned by {@link #awaitSettlement}
+     */
+    public void cancelAwait(String referenceNumber, CompletableFuture<Transaction> settled) {
+        // Unlike cancel(), this only returns true for the call that actually ends the wait.
+        if (settled.completeExceptionally(new CancellationException("Stopped waiting for " + referenceNumber))) {
+            subscriptions.computeIfPresent(referenceNumber, (ref, subscription) ->
+                    --subscription.waiters == 0 ? null : subscription);
+        }
+    }
+
+    /**
+     * Number of reference numbers with waiting callers.
+     */
+    int subscriptionCount() {
+        return subscriptions.size();
+    }
+
+    private Transaction accept(BatchItem item) {
+        List<BatchItem> single = List.of(item);
+        batchTransactionService.resolve(single);
+        batchTransactionService.authorize(single);
+        if (!item.isPending()) {
+            throw item.getFailure();
+        }
+        // Early rejection only; the balance is checked again under the lock when settling.
+        if (item.getFromWallet().getTotalBalance().compareTo(item.amount()) < 0) {
+            batchTransactionService.refund(item);
+            throw new InsufficientBalanceException("Insufficient balance");
+        }
+
+        String code = idGenerator.nextCode();
+        Transaction txn = transactionRepository.save(Transaction.builder()
+                .transactionId("TXN" + code)
+                .referenceNumber("REF" + code)
+                .fromWallet(item.getFromWallet())
+                .toWallet(item.getToWallet())
+                .merchant(item.getMerchant())
+                .amount(item.amount())
+                .type(item.getType())
+                .status(TransactionStatus.PENDING)
+                .description(item.description())
+                .build());
+        if (!accepting || !laneFor(item.fromWalletId()).offer(txn.getId())) {
+            markFailed(txn.getId(), "Settlement queue is full");
+            batchTransactionService.refund(item);
+            throw new WalletBusyException("Too many pending transactions, please retry");
+        }
+        log.info("Transaction accepted for settlement: {}", txn.getReferenceNumber());
+        return txn;
+    }
+
+    private void work(BlockingQueue<Long> lane) {
+        while (running) {
+            try {
+                Long id = lane.poll(100, TimeUnit.MILLISECONDS);
+                if (id != null) {
+                    settle(id);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Settlement worker error: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Settles one row, retrying with backoff until it is no longer PENDING or the service stops. Rejections are
+     * stored as FAILED by {@link #trySettle}, so whatever it throws (busy wallets, transient database errors, a
+     * failure to store the FAILED status) leaves the row PENDING and is worth another attempt.
+     */
+    void settle(Long id) throws InterruptedException {
+        long backoff = retryBackoffMillis;
+        while (true) {
+            try {
+                trySettle(id);
+                return;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    throw e;
+                }
+                log.warn("Settlement of transaction {} will be retried in {} ms: {}", id, backoff, e.getMessage());
+                Thread.sleep(backoff);
+                backoff = Math.min(backoff * 2, MAX_RETRY_BACKOFF_MS);
+            }
+        }
+    }
+
+    private void trySettle(Long id) {
+        Transaction accepted = transactionRepository.findById(id).orElse(null);
+        if (accepted == null || accepted.getStatus() != TransactionStatus.PENDING) {
+            return;
+        }
+        Long fromWalletId = accepted.getFromWallet().getId();
+        Long toWalletId = accepted.getToWallet() != null ? accepted.getToWallet().getId() : null;
+        List<Long> lockedWallets = toWalletId != null ? List.of(fromWalletId, toWalletId) : List.of(fromWalletId);
+
+        Transaction settled;
+        try {
+            settled = retryExecutor.execute("settle", () -> walletLockManager.withLocks(lockedWallets,
+                    () -> transactionTemplate.execute(status -> applySettlement(id, fromWalletId, toWalletId))));
+        } catch (RuntimeException e) {
+            if (isTransient(e)) {
+                throw e;
+            }
+            log.warn("Settlement of transaction {} failed: {}", accepted.getReferenceNumber(), e.getMessage());
+            // If this throws, the row is still PENDING and the caller retries the whole settlement.
+            settled = markFailed(id, e.getMessage());
+        }
+        if (settled.getStatus() == TransactionStatus.COMPLETED) {
+            transactionJournal.appendCommitted(List.of(settled));
+        }
+        Subscription subscription = subscriptions.remove(settled.getReferenceNumber());
+        if (subscription != null) {
+            subscription.settled.complete(settled);
+        }
+    }
+
+    private Transaction applySettlement(Long id, Long fromWalletId, Long toWalletId) {
+        Transaction txn = transactionRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Transaction", "id", id));
+        if (txn.getStatus() != TransactionStatus.PENDING) {
+            return txn;
+        }
+        Wallet to = toWalletId != null ? walletService.getWalletById(toWalletId) : null;
+        try {
+            if (to != null && to.getUser() != null && to.getUser().getStatus() != null
+                    && to.getUser().getStatus() != UserStatus.ACTIVE) {
+                // The receiver may have been deactivated since the transfer was accepted.
+                throw new InvalidTransactionException("Receiver account is not active");
+            }
+            Wallet from = walletService.getWalletById(fromWalletId);
+            dailySpendTracker.record(fromWalletId, from.getDailyLimit(), txn.getAmount());
+            try {
+                walletService.debit(from, txn.getAmount());
+            } catch (InsufficientBalanceException e) {
+                dailySpendTracker.release(fromWalletId, txn.getAmount());
+                throw e;
+            }
+        } catch (InsufficientBalanceException | InvalidTransactionException | ResourceNotFoundException e) {
+            // Nothing was debited: both debit paths check the balance before they change anything.
+            txn.setStatus(TransactionStatus.FAILED);
+            txn.setFailureReason(e.getMessage());
+            return transactionRepository.save(txn);
+        }
+        if (to != null) {
+            walletService.credit(to, txn.getAmount());
+        }
+        txn.setStatus(TransactionStatus.COMPLETED);
+        ledgerPostingService.post(txn);
+        return transactionRepository.save(txn);
+    }
+
+    private Transaction markFailed(Long id, String reason) {
+        return transactionTemplate.execute(status -> {
+            Transaction txn = transactionRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Transaction", "id", id));
+            if (txn.getStatus() == TransactionStatus.PENDING) {
+                txn.setStatus(TransactionStatus.FAILED);
+                txn.setFailureReason(reason);
+            }
+            return transactionRepository.save(txn);
+        });
+    }
+
+    private BlockingQueue<Long> laneFor(Long walletId) {
+        return lanes.get(Math.floorMod(walletId.hashCode(), lanes.size()));
+    }
+
+    /**
+     * Returns true for failures worth retrying: busy wallets (lock timeout or exhausted retries), lost races
+     * and database errors that may go away on their own.
+     */
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof WalletBusyException
+                || e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof CannotCreateTransactionException
+                || TransactionRetryExecutor.isRetryable(e);
+    }
+
+    /**
+     * Callers waiting for one reference number; {@code waiters} is only changed inside map compute calls.
+     */
+    private static final class Subscription {
+        private final CompletableFuture<Transaction> settled = new CompletableFuture<>();
+        private int waiters;
+    }
+}
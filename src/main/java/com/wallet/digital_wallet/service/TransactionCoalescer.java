@@ -0,0 +1,197 @@
+package com.wallet.digital_wallet.service;
+
+import com.wallet.digital_wallet.entity.Transaction;
+import com.wallet.digital_wallet.enums.BatchMode;
+import com.wallet.digital_wallet.enums.TransactionStatus;
+import com.wallet.digital_wallet.exception.InvalidTransactionException;
+import com.wallet.digital_wallet.exception.WalletBusyException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Commit coalescing for single transfers and merchant payments.
+ *
+ * <p>Documentation requirements:
+ * <ul>
+ *   <li>Lookups and the PIN check run on the caller thread, exactly like the uncoalesced path</li>
+ *   <li>Authorized items are queued; a dispatcher collects them for {@code window-us} or until
+ *       {@code max-batch} items arrived, whichever comes first</li>
+ *   <li>Each collected batch is applied by {@link BatchTransactionService} in BEST_EFFORT mode: one lock
+ *       acquisition, one database transaction, one commit</li>
+ *   <li>Items are validated one by one inside that transaction, so a failing item does not affect the others</li>
+ *   <li>Every caller gets its own transaction or its own exception back; the REST contract is unchanged</li>
+ * </ul>
+ *
+ * <p>Enabled with {@code wallet.coalescing.enabled=true}; not used with {@code wallet.money-path=engine},
+ * which already batches in its writer threads.
+ */
+@Component
+@Slf4j
+public class TransactionCoalescer {
+    private final BatchTransactionService batchTransactionService;
+    private final boolean enabled;
+    private final long windowNanos;
+    private final int maxBatch;
+    private final int dispatcherCount;
+    private final BlockingQueue<Pending> queue;
+    private final DistributionSummary batchSize;
+
+    private volatile boolean running;
+    private final List<Thread> dispatchers = new ArrayList<>();
+
+    public TransactionCoalescer(BatchTransactionService batchTransactionService,
+                                @Value("${wallet.coalescing.enabled:false}") boolean enabled,
+                                @Value("${wallet.coalescing.window-us:300}") long windowMicros,
+                                @Value("${wallet.coalescing.max-batch:64}") int maxBatch,
+                                @Value("${wallet.coalescing.dispatchers:2}") int dispatcherCount,
+                                @Value("${wallet.coalescing.queue-capacity:10000}") int queueCapacity,
+                                MeterRegistry meterRegistry) {
+        this.batchTransactionService = batchTransactionService;
+        this.enabled = enabled;
+        this.windowNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(windowMicros, 0));
+        this.maxBatch = Math.max(maxBatch, 1);
+        this.dispatcherCount = Math.max(dispatcherCount, 1);
+        this.queue = new ArrayBlockingQueue<>(Math.max(queueCapacity, 1));
+        this.batchSize = DistributionSummary.builder("wallet.coalescer.batch.size")
+                .description("Money movements committed together by one coalesced database transaction")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts the dispatcher threads (no-op when disabled).
+     */
+    @PostConstruct
+    public synchronized void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < dispatcherCount; i++) {
+            Thread thread = new Thread(this::dispatchLoop, "transaction-coalescer-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            dispatchers.add(thread);
+        }
+        log.info("Transaction coalescing enabled: window {}us, max batch {}, {} dispatchers",
+                TimeUnit.NANOSECONDS.toMicros(windowNanos), maxBatch, dispatcherCount);
+    }
+
+    /**
+     * Stops the dispatchers after every queued item was applied.
+     */
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        running = false;
+        for (Thread thread : dispatchers) {
+            thread.join();
+        }
+        dispatchers.clear();
+    }
+
+    /**
+     * Resolves and authorizes one item, then waits for it to be committed with whatever else
+     * arrived in the same window.
+     *
+     * @param item single transfer or merchant payment
+     * @return created transaction record
+     * @throws WalletBusyException if the coalescer is not running or its queue is full
+     */
+    public Transaction execute(BatchItem item) {
+        List<BatchItem> single = List.of(item);
+        batchTransactionService.resolve(single);
+        batchTransactionService.authorize(single);
+
+        if (item.isPending()) {
+            Pending pending = new Pending(item, new CompletableFuture<>());
+            if (!running || !queue.offer(pending)) {
+                throw new WalletBusyException("Transaction queue is full, please retry");
+            }
+            // A dispatcher may have exited between the running check and the offer.
+            if (!running && queue.remove(pending)) {
+                throw new WalletBusyException("Transaction queue is shutting down, please retry");
+            }
+            pending.done.join();
+        }
+        return outcome(item);
+    }
+
+    private static Transaction outcome(BatchItem item) {
+        if (item.getStatus() == TransactionStatus.COMPLETED) {
+            return item.getTransaction();
+        }
+        if (item.getFailure() != null) {
+            throw item.getFailure();
+        }
+        throw new InvalidTransactionException(item.getError() != null ? item.getError() : "Transaction was not applied");
+    }
+
+    private void dispatchLoop() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatch) {
+                    long remaining = deadline - System.nanoTime();
+                    Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Apply what was already taken (and anything still queued) before giving up.
+                do {
+                    if (!batch.isEmpty()) {
+                        dispatch(batch);
+                        batch.clear();
+                    }
+                } while (queue.drainTo(batch, maxBatch) > 0);
+                Thread.currentThread().interrupt();
+                return;
+            }
+            dispatch(batch);
+            batch.clear();
+        }
+    }
+
+    private void dispatch(List<Pending> batch) {
+        List<BatchItem> items = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            items.add(pending.item);
+        }
+        try {
+            batchTransactionService.apply(items, BatchMode.BEST_EFFORT);
+            batchSize.record(items.size());
+        } catch (RuntimeException e) {
+            // Lock timeout or exhausted retries: the shared transaction rolled back for everyone.
+            log.warn("Coalesced batch of {} items failed: {}", items.size(), e.getMessage());
+            items.forEach(item -> item.fail(e));
+        } finally {
+            batch.forEach(pending -> pending.done.complete(null));
+        }
+    }
+
+    private record Pending(BatchItem item, CompletableFuture<Void> done) {
+    }
+}
@@ -0,0 +1,410 @@
+package com.wallet.digital_wallet.service;
+
+import com.wallet.digital_wallet.entity.Transaction;
+import com.wallet.digital_wallet.exception.WalletBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Local append-only journal of completed money movements.
+ *
+ * <p>Documentation requirements:
+ * <ul>
+ *   <li>Records use the fixed {@link JournalRecord} layout and are written into memory-mapped segment files</li>
+ *   <li>A segment holds {@code segment-size-mb} worth of records; a new file is mapped when it fills up</li>
+ *   <li>Group commit: one flusher thread forces all records written since the last flush with a single msync,
+ *       then releases every appender waiting on them</li>
+ *   <li>Appenders wait at most {@code flush-timeout-ms}; if a flush fails (e.g. an I/O error in msync) the
+ *       flusher stops, every waiting and later append fails with {@link IllegalStateException} and
+ *       {@code wallet.journal.failures} counts them; {@link #appendCommitted} logs such a failure instead, for
+ *       callers whose movement is already committed</li>
+ *   <li>Segments are at most 2047 MB ({@code segment-size-mb}), the limit of one memory mapping</li>
+ *   <li>On startup the last segment is scanned to find the tail (first empty, torn or out-of-sequence slot)</li>
+ *   <li>{@link #replay} streams durable records from any sequence onwards</li>
+ * </ul>
+ *
+ * <p>Enabled with {@code wallet.journal.enabled=true}; otherwise {@link #append} is a no-op.
+ */
+@Component
+@Slf4j
+public class TransactionJournal {
+    private static final Pattern SEGMENT_FILE = Pattern.compile("segment-(\\d{20})\\.journal");
+    private static final int MAX_SEGMENT_SIZE_MB = 2047;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final long groupCommitWindowNanos;
+    private final long flushTimeoutMillis;
+    private final Timer flushTimer;
+    private final DistributionSummary groupSize;
+    private final Counter failures;
+
+    /**
+     * Segments keyed by the sequence of their first record.
+     */
+    private final NavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final Object durableMonitor = new Object();
+
+    private Segment current;
+    private volatile long written;
+    private volatile long durable;
+    private volatile boolean closed = true;
+    /**
+     * Set when a flush failed; the journal accepts no more records after that.
+     */
+    private volatile Throwable failure;
+    private Thread flusher;
+
+    public TransactionJournal(@Value("${wallet.journal.enabled:false}") boolean enabled,
+                              @Value("${wallet.journal.dir:./data/journal}") String directory,
+                              @Value("${wallet.journal.segment-size-mb:64}") int segmentSizeMb,
+                              @Value("${wallet.journal.group-commit-window-us:200}") long groupCommitWindowMicros,
+                              @Value("${wallet.journal.flush-timeout-ms:5000}") long flushTimeoutMillis,
+                              MeterRegistry meterRegistry) {
+        if (segmentSizeMb < 1 || segmentSizeMb > MAX_SEGMENT_SIZE_MB) {
+            throw new IllegalArgumentException(
+                    "wallet.journal.segment-size-mb must be between 1 and " + MAX_SEGMENT_SIZE_MB + ": " + segmentSizeMb);
+        }
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.recordsPerSegment = (int) ((long) segmentSizeMb * 1024 * 1024 / JournalRecord.SIZE);
+        this.groupCommitWindowNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(groupCommitWindowMicros, 0));
+        this.flushTimeoutMillis = Math.max(flushTimeoutMillis, 1);
+        this.flushTimer = Timer.builder("wallet.journal.flush")
+                .description("Time spent forcing journal records to disk")
+                .register(meterRegistry);
+        this.groupSize = DistributionSummary.builder("wallet.journal.group.size")
+                .description("Records made durable by one journal flush")
+                .register(meterRegistry);
+        this.failures = Counter.builder("wallet.journal.failures")
+                .description("Appends that failed because the journal could not be flushed in time")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Maps existing segments, finds the tail and starts the flusher thread.
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(f -> SEGMENT_FILE.matcher(f.getFileName().toString()).matches()).sorted().toList();
+        }
+        for (Path file : files) {
+            Matcher matcher = SEGMENT_FILE.matcher(file.getFileName().toString());
+            matcher.matches();
+            long base = Long.parseLong(matcher.group(1));
+            segments.put(base, Segment.map(file, base, recordsPerSegment));
+        }
+        if (segments.isEmpty()) {
+            current = newSegment(1);
+            written = 0;
+        } else {
+            current = segments.lastEntry().getValue();
+            written = current.base - 1 + current.scanTail();
+        }
+        durable = written;
+        closed = false;
+        flusher = new Thread(this::flushLoop, "transaction-journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("Transaction journal opened at {} (last sequence {})", directory, written);
+    }
+
+    /**
+     * Stops the flusher after a final flush.
+     */
+    @PreDestroy
+    public void close() throws InterruptedException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        synchronized (durableMonitor) {
+            durableMonitor.notifyAll();
+        }
+        flusher.join();
+        segments.values().forEach(Segment::close);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Appends a completed transaction and waits until it is durable.
+     *
+     * @param txn completed transaction
+     * @return journal sequence, or {@code -1} if the journal is disabled
+     * @throws WalletBusyException if interrupted while waiting for the flush
+     * @throws IllegalStateException if the journal failed or did not flush within {@code flush-timeout-ms}
+     */
+    public long append(Transaction txn) {
+        return appendAll(List.of(txn));
+    }
+
+    /**
+     * Appends several completed transactions and waits once until all of them are durable.
+     *
+     * @param txns completed transactions, in order
+     * @return sequence of the last record, or {@code -1} if the journal is disabled or {@code txns} is empty
+     * @throws IllegalStateException if the journal failed or did not flush within {@code flush-timeout-ms}
+     */
+    public long appendAll(List<Transaction> txns) {
+        if (!enabled || txns.isEmpty()) {
+            return -1;
+        }
+        long sequence;
+        appendLock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Transaction journal is closed");
+            }
+            if (failure != null) {
+                failures.increment();
+                throw new IllegalStateException("Transaction journal failed", failure);
+            }
+            sequence = written;
+            for (Transaction txn : txns) {
+                sequence++;
+                if (sequence - current.base >= recordsPerSegment) {
+                    current = newSegment(sequence);
+                }
+                JournalRecord.of(sequence, txn).encode(current.buffer, current.offsetOf(sequence));
+            }
+            written = sequence;
+        } finally {
+            appendLock.unlock();
+        }
+        awaitDurable(sequence);
+        return sequence;
+    }
+
+    /**
+     * Appends transactions whose database transaction already committed. A journal failure is logged rather than
+     * thrown, so it never turns a committed movement into an error response (which a client would retry).
+     *
+     * @param txns committed transactions, in order
+     */
+    public void appendCommitted(List<Transaction> txns) {
+        try {
+            appendAll(txns);
+        } catch (RuntimeException e) {
+            log.error("Committed transactions {} were not journaled: {}",
+                    txns.stream().map(Transaction::getTransactionId).toList(), e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the highest sequence that is durable on disk.
+     */
+    public long lastSequence() {
+        return durable;
+    }
+
+    /**
+     * Streams durable records with {@code sequence >= fromSequence} in order.
+     *
+     * @param fromSequence first sequence to return (1 for the whole journal)
+     * @param consumer record consumer
+     * @return number of records replayed
+     */
+    public long replay(long fromSequence, Consumer<JournalRecord> consumer) {
+        long last = durable;
+        long count = 0;
+        long sequence = Math.max(fromSequence, 1);
+        while (sequence <= last) {
+            Map.Entry<Long, Segment> entry = segments.floorEntry(sequence);
+            if (entry == null) {
+                // Older segments were removed; skip to the first available one.
+                Long first = segments.ceilingKey(sequence);
+                if (first == null) {
+                    break;
+                }
+                sequence = first;
+                continue;
+            }
+            Segment segment = entry.getValue();
+            long segmentEnd = Math.min(last, segment.base + recordsPerSegment - 1);
+            for (; sequence <= segmentEnd; sequence++) {
+                JournalRecord record = JournalRecord.decode(segment.buffer, segment.offsetOf(sequence), sequence);
+                if (record == null) {
+                    throw new IllegalStateException("Transaction journal is corrupt at sequence " + sequence);
+                }
+                consumer.accept(record);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void awaitDurable(long sequence) {
+        long deadline = System.currentTimeMillis() + flushTimeoutMillis;
+        synchronized (durableMonitor) {
+            durableMonitor.notifyAll();
+            while (durable < sequence) {
+                if (failure != null) {
+                    failures.increment();
+                    throw new IllegalStateException("Transaction journal failed", failure);
+                }
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    failures.increment();
+                    throw new IllegalStateException("Transaction journal did not flush sequence " + sequence
+                            + " within " + flushTimeoutMillis + " ms");
+                }
+                try {
+                    durableMonitor.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new WalletBusyException("Interrupted while waiting for the transaction journal", e);
+                }
+            }
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            synchronized (durableMonitor) {
+                while (written == durable && !closed) {
+                    try {
+                        durableMonitor.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+            if (written == durable && closed) {
+                return;
+            }
+            if (groupCommitWindowNanos > 0 && !closed) {
+                // Let concurrent appenders join this flush.
+                LockSupport.parkNanos(groupCommitWindowNanos);
+            }
+            long from = durable + 1;
+            long target = written;
+            try {
+                flushTimer.record(() -> force(from, target));
+            } catch (RuntimeException | Error e) {
+                log.error("Transaction journal flush of sequences {}..{} failed; the journal is stopped", from, target, e);
+                synchronized (durableMonitor) {
+                    failure = e;
+                    durableMonitor.notifyAll();
+                }
+                return;
+            }
+            groupSize.record(target - from + 1);
+            synchronized (durableMonitor) {
+                durable = target;
+                durableMonitor.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Forces the byte ranges of records {@code from..to}, one call per touched segment.
+     */
+    void force(long from, long to) {
+        long sequence = from;
+        while (sequence <= to) {
+            Segment segment = segments.floorEntry(sequence).getValue();
+            long end = Math.min(to, segment.base + recordsPerSegment - 1);
+            int offset = segment.offsetOf(sequence);
+            segment.buffer.force(offset, (int) (end - sequence + 1) * JournalRecord.SIZE);
+            sequence = end + 1;
+        }
+    }
+
+    private Segment newSegment(long base) {
+        Path file = directory.resolve(String.format("segment-%020d.journal", base));
+        Segment segment = Segment.map(file, base, recordsPerSegment);
+        segments.put(base, segment);
+        log.info("Transaction journal rolled to {}", file.getFileName());
+        return segment;
+    }
+
+    /**
+     * One memory-mapped, preallocated segment file.
+     */
+    private static final class Segment {
+        private final long base;
+        private final int capacity;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+
+        private Segment(long base, int capacity, FileChannel channel, MappedByteBuffer buffer) {
+            this.base = base;
+            this.capacity = capacity;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment map(Path file, long base, int capacity) {
+            try {
+                FileChannel channel = FileChannel.open(file,
+                        StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacity * JournalRecord.SIZE);
+                return new Segment(base, capacity, channel, buffer);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot map journal segment " + file, e);
+            }
+        }
+
+        int offsetOf(long sequence) {
+            return (int) (sequence - base) * JournalRecord.SIZE;
+        }
+
+        /**
+         * Returns the number of intact records at the start of the segment.
+         */
+        int scanTail() {
+            int count = 0;
+            while (count < capacity && JournalRecord.decode(buffer, count * JournalRecord.SIZE, base + count) != null) {
+                count++;
+            }
+            return count;
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Failed to close journal segment: {}", e.getMessage());
+            }
+        }
+    }
+}
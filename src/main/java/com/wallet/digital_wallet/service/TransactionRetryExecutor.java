@@ -0,0 +1,122 @@
+package com.wallet.digital_wallet.service;
+
+import com.wallet.digital_wallet.exception.WalletBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.StaleStateException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Re-runs a whole unit of work when it loses a race against a concurrent writer.
+ *
+ * <p>Documentation requirements:
+ * <ul>
+ *   <li>Retries optimistic lock failures ({@code @Version} conflicts on {@code Wallet})</li>
+ *   <li>Retries Postgres serialization failures (40001) and detected deadlocks (40P01)</li>
+ *   <li>Waits a random delay between 0 and a capped exponential bound before each retry</li>
+ *   <li>Gives up after {@code wallet.retry.max-attempts} with {@link WalletBusyException}</li>
+ *   <li>Exports {@code wallet.retry.attempts} and {@code wallet.retry.exhausted} counters per operation</li>
+ * </ul>
+ *
+ * <p>The unit of work must open its own transaction so each attempt starts from fresh state.
+ */
+@Component
+@Slf4j
+public class TransactionRetryExecutor {
+    private static final Set<String> RETRYABLE_SQL_STATES = Set.of("40001", "40P01");
+
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final MeterRegistry meterRegistry;
+
+    public TransactionRetryExecutor(@Value("${wallet.retry.max-attempts:5}") int maxAttempts,
+                                    @Value("${wallet.retry.base-delay-ms:5}") long baseDelayMillis,
+                                    @Value("${wallet.retry.max-delay-ms:200}") long maxDelayMillis,
+                                    MeterRegistry meterRegistry) {
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("wallet.retry.max-attempts must be greater than 0");
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMillis = Math.max(baseDelayMillis, 1);
+        this.maxDelayMillis = Math.max(maxDelayMillis, this.baseDelayMillis);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Runs the work, retrying it on concurrency conflicts.
+     *
+     * @param operation operation name used for metrics and logs
+     * @param work unit of work (must be safe to run more than once)
+     * @return work result
+     * @throws WalletBusyException if every attempt hit a concurrency conflict
+     */
+    public <T> T execute(String operation, Supplier<T> work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return work.get();
+            } catch (RuntimeException e) {
+                if (!isRetryable(e)) {
+                    throw e;
+                }
+                if (attempt >= maxAttempts) {
+                    counter("wallet.retry.exhausted", operation).increment();
+                    log.warn("Giving up on {} after {} attempts: {}", operation, attempt, e.getMessage());
+                    throw new WalletBusyException("Wallet was updated concurrently, please retry", e);
+                }
+                counter("wallet.retry.attempts", operation).increment();
+                log.debug("Retrying {} after concurrency conflict (attempt {})", operation, attempt);
+                pause(backoffMillis(attempt));
+            }
+        }
+    }
+
+    /**
+     * Returns a random delay in {@code [0, min(maxDelay, baseDelay * 2^(attempt-1))]}.
+     */
+    long backoffMillis(int attempt) {
+        long bound = baseDelayMillis << Math.min(attempt - 1, 20);
+        return ThreadLocalRandom.current().nextLong(Math.min(bound, maxDelayMillis) + 1);
+    }
+
+    /**
+     * Returns true if the exception (or any cause) signals a lost concurrency race.
+     */
+    static boolean isRetryable(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof ConcurrencyFailureException
+                    || t instanceof OptimisticLockException
+                    || t instanceof StaleStateException) {
+                return true;
+            }
+            if (t instanceof SQLException sql && RETRYABLE_SQL_STATES.contains(sql.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Counter counter(String name, String operation) {
+        return Counter.builder(name)
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    private void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WalletBusyException("Interrupted while retrying wallet update", e);
+        }
+    }
+}
@@ -7,22 +7,24 @@ import com.wallet.digital_wallet.entity.Transaction;
 import com.wallet.digital_wallet.entity.Wallet;
 import com.wallet.digital_wallet.enums.TransactionStatus;
 import com.wallet.digital_wallet.enums.TransactionType;
-import com.wallet.digital_wallet.exception.InsufficientBalanceException;
 import com.wallet.digital_wallet.exception.InvalidTransactionException;
 import com.wallet.digital_wallet.exception.ResourceNotFoundException;
 import com.wallet.digital_wallet.repository.TransactionRepository;
+import com.wallet.digital_wallet.util.IdGenerator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 
 /**
  * Service responsible for business transaction flows: transfers and merchant payments.
@@ -33,6 +35,16 @@ import java.util.UUID;
  *   <li>Ensures sufficient balance before debiting</li>
  *   <li>Uses {@link TransactionStatus#SUCCESS} / FAILED (simplified)</li>
  *   <li>Transactional boundary ensures atomic balance updates</li>
+ *   <li>Money movements run under {@link WalletLockManager} locks to avoid lost updates</li>
+ *   <li>Wallet version conflicts and database deadlocks are retried by {@link TransactionRetryExecutor}</li>
+ *   <li>{@code wallet.money-path} selects the JPA entity path (default), {@link JdbcMoneyMovementService}
+ *       or the in-memory {@link LedgerEngine} via {@link LedgerMoneyMovementService}</li>
+ *   <li>Completed movements post their double-entry legs through {@link LedgerPostingService} in the same
+ *       database transaction</li>
+ *   <li>Completed movements are appended to the {@link TransactionJournal} before the call returns; a journal
+ *       failure is logged and does not fail the committed movement</li>
+ *   <li>With {@code wallet.coalescing.enabled=true} (jpa/jdbc paths), concurrent requests are committed
+ *       together by the {@link TransactionCoalescer}</li>
  * </ul>
  */
 @Service
@@ -40,9 +52,24 @@ import java.util.UUID;
 public class TransactionService {
     private final TransactionRepository transactionRepository;
     private final WalletService walletService;
-    private final UserService userService;
     private final MerchantService merchantService;
-    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    private final WalletLockManager walletLockManager;
+    private final WalletShardService walletShardService;
+    private final TransactionRetryExecutor retryExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcMoneyMovementService jdbcMoneyMovementService;
+    private final LedgerMoneyMovementService ledgerMoneyMovementService;
+    private final TransactionJournal transactionJournal;
+    private final TransactionCoalescer transactionCoalescer;
+    private final IdGenerator idGenerator;
+    private final DailySpendTracker dailySpendTracker;
+    private final LedgerPostingService ledgerPostingService;
+    private final MeterRegistry meterRegistry;
+    private final PaymentSessionService paymentSessionService;
+    private final UserWalletResolver userWalletResolver;
+
+    @Value("${wallet.money-path:jpa}")
+    private String moneyPath;
 
     /**
      * Executes a peer-to-peer transfer from one wallet to another user (by username).
@@ -50,38 +77,66 @@ public class TransactionService {
      * Business rules:
      * <ul>
      *   <li>Sender wallet must exist</li>
-     *   <li>Receiver user must exist and have a wallet</li>
-     *   <li>Sender must provide correct PIN</li>
+     *   <li>Receiver user must exist, be active and have a wallet ({@link UserWalletResolver})</li>
+     *   <li>Sender must provide correct PIN, or a payment session token with budget left ({@link PaymentSessionService})</li>
      *   <li>Sender must have sufficient balance</li>
      *   <li>Cannot transfer to self</li>
-     *   <li>Amount must not exceed sender dailyLimit (simplified rule)</li>
+     *   <li>Sender's spend today plus amount must not exceed its dailyLimit ({@link DailySpendTracker})</li>
      * </ul>
      *
+     * <p>The PIN (or payment token) is verified before any wallet lock is taken. Balances are then re-read and
+     * updated while both wallet locks are held, inside a single database transaction. That transaction is
+     * re-run by {@link TransactionRetryExecutor} if it loses an optimistic lock race.
+     *
      * @param request transfer request
      * @return created transaction record
      */
-    @Transactional
     public Transaction transfer(TransferRequest request) {
+        return movementTimer("transfer").record(() -> switch (movementPath()) {
+            case "coalesced" -> transactionCoalescer.execute(BatchItem.of(0, request));
+            case "jdbc" -> journaled(jdbcMoneyMovementService.transfer(request));
+            case "engine" -> journaled(ledgerMoneyMovementService.transfer(request));
+            default -> journaled(transferWithEntities(request));
+        });
+    }
+
+    private Transaction transferWithEntities(TransferRequest request) {
         Wallet fromWallet = walletService.getWalletById(request.getFromWalletId());
-        Wallet toWallet = userService.getUserByUsername(request.getToUsername()).getWallet();
+        // The receiver wallet is only loaded (by ID) once it is locked, in applyTransfer.
+        UserWalletResolver.ResolvedWallet receiver = userWalletResolver.resolve(request.getToUsername());
 
-        if (!passwordEncoder.matches(request.getPin(), fromWallet.getUser().getPinHash())) {
-            throw new InvalidTransactionException("Invalid PIN");
-        }
-        if (fromWallet.getId().equals(toWallet.getId())) {
+        if (fromWallet.getId().equals(receiver.walletId())) {
             throw new InvalidTransactionException("Cannot transfer to self");
         }
-        if (!fromWallet.hasSufficientBalance(request.getAmount())) {
-            throw new InsufficientBalanceException("Insufficient balance");
+        if (!receiver.isActive()) {
+            throw new InvalidTransactionException("Receiver account is not active");
         }
 
+        Long fromWalletId = fromWallet.getId();
+        Long toWalletId = receiver.walletId();
+        // Credits to sharded receivers touch only a random shard row, so the receiver is not locked.
+        List<Long> lockedWallets = walletShardService.isSharded(toWalletId)
+                ? List.of(fromWalletId)
+                : List.of(fromWalletId, toWalletId);
+        return paymentSessionService.authorized(fromWalletId, fromWallet.getUser().getPinHash(), request.getPin(),
+                request.getPaymentToken(), request.getAmount(),
+                () -> retryExecutor.execute("transfer", () -> walletLockManager.withLocks(lockedWallets,
+                        () -> transactionTemplate.execute(status -> applyTransfer(request, fromWalletId, toWalletId)))));
+    }
+
+    private Transaction applyTransfer(TransferRequest request, Long fromWalletId, Long toWalletId) {
+        Wallet fromWallet = walletService.getWalletById(fromWalletId);
+        Wallet toWallet = walletService.getWalletById(toWalletId);
+
         // Update balances
-        fromWallet.debit(request.getAmount());
-        toWallet.credit(request.getAmount());
+        dailySpendTracker.record(fromWalletId, fromWallet.getDailyLimit(), request.getAmount());
+        walletService.debit(fromWallet, request.getAmount());
+        walletService.credit(toWallet, request.getAmount());
 
+        String code = idGenerator.nextCode();
         Transaction txn = Transaction.builder()
-                .transactionId("TXN" + UUID.randomUUID().toString().substring(0, 10).toUpperCase())
-                .referenceNumber("REF" + UUID.randomUUID().toString().substring(0, 10).toUpperCase())
+                .transactionId("TXN" + code)
+                .referenceNumber("REF" + code)
                 .fromWallet(fromWallet)
                 .toWallet(toWallet)
                 .amount(request.getAmount())
@@ -91,6 +146,7 @@ public class TransactionService {
                 .build();
 
         txn = transactionRepository.save(txn);
+        ledgerPostingService.post(txn);
         log.info("Transfer completed: {}", txn.getTransactionId());
         return txn;
     }
@@ -102,31 +158,46 @@ public class TransactionService {
      * <ul>
      *   <li>Wallet must exist</li>
      *   <li>Merchant must exist</li>
-     *   <li>PIN must match wallet owner</li>
+     *   <li>PIN must match wallet owner, or a payment session token with budget left must be given</li>
      *   <li>Sufficient funds required</li>
-     *   <li>Amount must not exceed dailyLimit (simplified rule)</li>
+     *   <li>Payer's spend today plus amount must not exceed its dailyLimit ({@link DailySpendTracker})</li>
      * </ul>
      *
+     * <p>Like {@link #transfer}, the PIN is verified before the payer wallet lock is taken.
+     *
      * @param request merchant payment request
      * @return created transaction record
      */
-    @Transactional
     public Transaction payMerchant(MerchantPaymentRequest request) {
+        return movementTimer("payMerchant").record(() -> switch (movementPath()) {
+            case "coalesced" -> transactionCoalescer.execute(BatchItem.of(0, request));
+            case "jdbc" -> journaled(jdbcMoneyMovementService.payMerchant(request));
+            case "engine" -> journaled(ledgerMoneyMovementService.payMerchant(request));
+            default -> journaled(payMerchantWithEntities(request));
+        });
+    }
+
+    private Transaction payMerchantWithEntities(MerchantPaymentRequest request) {
         Wallet fromWallet = walletService.getWalletById(request.getFromWalletId());
         Merchant merchant = merchantService.getMerchantByCode(request.getMerchantCode());
 
-        if (!passwordEncoder.matches(request.getPin(), fromWallet.getUser().getPinHash())) {
-            throw new InvalidTransactionException("Invalid PIN");
-        }
-        if (!fromWallet.hasSufficientBalance(request.getAmount())) {
-            throw new InsufficientBalanceException("Insufficient balance");
-        }
+        Long fromWalletId = fromWallet.getId();
+        return paymentSessionService.authorized(fromWalletId, fromWallet.getUser().getPinHash(), request.getPin(),
+                request.getPaymentToken(), request.getAmount(),
+                () -> retryExecutor.execute("payMerchant", () -> walletLockManager.withLocks(List.of(fromWalletId),
+                        () -> transactionTemplate.execute(status -> applyMerchantPayment(request, fromWalletId, merchant)))));
+    }
+
+    private Transaction applyMerchantPayment(MerchantPaymentRequest request, Long fromWalletId, Merchant merchant) {
+        Wallet fromWallet = walletService.getWalletById(fromWalletId);
 
-        fromWallet.debit(request.getAmount());
+        dailySpendTracker.record(fromWalletId, fromWallet.getDailyLimit(), request.getAmount());
+        walletService.debit(fromWallet, request.getAmount());
 
+        String code = idGenerator.nextCode();
         Transaction txn = Transaction.builder()
-                .transactionId("TXN" + UUID.randomUUID().toString().substring(0, 10).toUpperCase())
-                .referenceNumber("REF" + UUID.randomUUID().toString().substring(0, 10).toUpperCase())
+                .transactionId("TXN" + code)
+                .referenceNumber("REF" + code)
                 .fromWallet(fromWallet)
                 .merchant(merchant)
                 .amount(request.getAmount())
@@ -136,10 +207,45 @@ public class TransactionService {
                 .build();
 
         txn = transactionRepository.save(txn);
+        ledgerPostingService.post(txn);
         log.info("Merchant payment completed: {}", txn.getTransactionId());
         return txn;
     }
 
+    /**
+     * Appends a completed movement to the {@link TransactionJournal} (no-op when disabled).
+     */
+    private Transaction journaled(Transaction txn) {
+        transactionJournal.appendCommitted(List.of(txn));
+        return txn;
+    }
+
+    /**
+     * Returns the normalized money path: {@code jpa}, {@code jdbc} or {@code engine}.
+     */
+    private String moneyPath() {
+        String path = moneyPath == null ? "jpa" : moneyPath.toLowerCase();
+        return path.equals("jdbc") || path.equals("engine") ? path : "jpa";
+    }
+
+    /**
+     * Returns the path a single movement takes: {@code coalesced} when coalescing is enabled
+     * (except with the engine), otherwise the money path.
+     */
+    private String movementPath() {
+        String path = moneyPath();
+        return transactionCoalescer.isEnabled() && !path.equals("engine") ? "coalesced" : path;
+    }
+
+    private Timer movementTimer(String operation) {
+        return Timer.builder("wallet.money.movement")
+                .description("End-to-end latency of money movements per persistence path")
+                .tag("operation", operation)
+                .tag("path", movementPath())
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
     /**
      * Returns a transaction by database ID.
      *
@@ -9,6 +9,9 @@ import com.wallet.digital_wallet.exception.DuplicateResourceException;
 import com.wallet.digital_wallet.exception.ResourceNotFoundException;
 import com.wallet.digital_wallet.repository.UserRepository;
 import com.wallet.digital_wallet.repository.WalletRepository;
+import com.wallet.digital_wallet.security.PinHasher;
+import com.wallet.digital_wallet.security.PrincipalCache;
+import com.wallet.digital_wallet.util.IdGenerator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -18,13 +21,11 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.List;
-import java.util.UUID;
 
 /**
  * Service responsible for user lifecycle operations.
@@ -42,7 +43,11 @@ import java.util.UUID;
 public class UserService implements UserDetailsService {
     private final UserRepository userRepository;
     private final WalletRepository walletRepository;
-    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    private final IdGenerator idGenerator;
+    private final PaymentSessionService paymentSessionService;
+    private final PinHasher pinHasher;
+    private final PrincipalCache principalCache;
+    private final UserWalletResolver userWalletResolver;
 
     /**
      * Registers a new user and auto-creates a wallet.
@@ -67,7 +72,7 @@ public class UserService implements UserDetailsService {
                 .email(request.getEmail())
                 .fullName(request.getFullName())
                 .phoneNumber(request.getPhoneNumber())
-                .pinHash(passwordEncoder.encode(request.getPin()))
+                .pinHash(pinHasher.encode(request.getPin()))
                 .status(UserStatus.ACTIVE)
                 .build();
 
@@ -76,13 +81,14 @@ public class UserService implements UserDetailsService {
         // Create wallet and attach bi-directionally (User.wallet mappedBy Wallet.user)
         Wallet wallet = Wallet.builder()
                 .userId(user.getId())
-                .walletNumber("WAL" + UUID.randomUUID().toString().substring(0, 10).toUpperCase())
+                .walletNumber("WAL" + idGenerator.nextCode())
                 .balance(BigDecimal.ZERO)
                 .dailyLimit(new BigDecimal("10000"))
                 .build();
 
         wallet = walletRepository.save(wallet);
         user.setWallet(wallet);
+        userWalletResolver.invalidate(user.getUsername());
         log.info("User created with ID: {}", user.getId());
         return user;
     }
@@ -129,12 +135,13 @@ public class UserService implements UserDetailsService {
                 throw new DuplicateResourceException("Email already exists");
             }
             user.setEmail(request.getEmail());
+            userWalletResolver.invalidate(user.getUsername());
         }
         return userRepository.save(user);
     }
 
     /**
-     * Soft-deactivates a user account.
+     * Soft-deactivates a user account, invalidating its login tokens and payment sessions.
      *
      * @param id user ID
      */
@@ -142,10 +149,32 @@ public class UserService implements UserDetailsService {
     public void deactivateUser(Long id) {
         User user = getUserById(id);
         user.setStatus(UserStatus.INACTIVE);
+        user.setAuthEpoch(user.getAuthEpoch() + 1);
         userRepository.save(user);
+        principalCache.invalidate(user.getUsername());
+        userWalletResolver.invalidate(user.getUsername());
+        paymentSessionService.revokeUser(user.getUsername());
         log.info("User deactivated with ID: {}", id);
     }
 
+    /**
+     * Changes a user's role and invalidates its login tokens, so the new role applies from the next login.
+     *
+     * @param id user ID
+     * @param role new role (e.g. USER, ADMIN)
+     * @return updated user
+     */
+    @Transactional
+    public User changeRole(Long id, String role) {
+        User user = getUserById(id);
+        user.setRole(role.trim().toUpperCase());
+        user.setAuthEpoch(user.getAuthEpoch() + 1);
+        user = userRepository.save(user);
+        principalCache.invalidate(user.getUsername());
+        log.info("Role of user {} changed to {}", id, user.getRole());
+        return user;
+    }
+
     /**
      * Returns all users (paginated).
      *
@@ -177,13 +206,13 @@ public class UserService implements UserDetailsService {
     public String authenticateForLogin(String usernameOrEmail, String rawPin) {
         User user = getUserByUsernameOrEmail(usernameOrEmail);
 
-        if (user.getPinHash() != null && passwordEncoder.matches(rawPin, user.getPinHash())) {
+        if (user.getPinHash() != null && pinHasher.matches(rawPin, user.getPinHash())) {
             return user.getUsername();
         }
 
         // Backward compatibility: migrate legacy plain-text PIN records on successful login.
         if (user.getPinHash() != null && user.getPinHash().equals(rawPin)) {
-            user.setPinHash(passwordEncoder.encode(rawPin));
+            user.setPinHash(pinHasher.encode(rawPin));
             userRepository.save(user);
             return user.getUsername();
         }
@@ -191,6 +220,20 @@ public class UserService implements UserDetailsService {
         throw new BadCredentialsException("Invalid username or PIN");
     }
 
+    /**
+     * Replaces the user's PIN hash in the background if it was made with another BCrypt cost than the current one.
+     * Call only after {@code rawPin} was verified.
+     *
+     * @param username authenticated username
+     * @param rawPin verified PIN
+     */
+    public void rehashPinIfNeeded(String username, String rawPin) {
+        userRepository.findByUsername(username)
+                .filter(user -> pinHasher.needsRehash(user.getPinHash()))
+                .ifPresent(user -> pinHasher.rehashInBackground(rawPin,
+                        newHash -> userRepository.updatePinHash(user.getId(), user.getPinHash(), newHash)));
+    }
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         User user = userRepository.findByUsername(username)
@@ -0,0 +1,131 @@
+package com.wallet.digital_wallet.service;
+
+import com.wallet.digital_wallet.enums.UserStatus;
+import com.wallet.digital_wallet.exception.ResourceNotFoundException;
+import com.wallet.digital_wallet.repository.UserWalletView;
+import com.wallet.digital_wallet.repository.WalletRepository;
+import com.wallet.digital_wallet.util.TransactionCallbacks;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Resolves usernames to {@code (userId, walletId, status)} for transfer receivers, without loading entities.
+ *
+ * <p>Documentation requirements:
+ * <ul>
+ *   <li>A miss is one narrow query ({@link UserWalletView}); results are LRU-bounded by
+ *       {@code wallet.user-wallet-resolver.size} and reloaded after {@code ttl-seconds}</li>
+ *   <li>Unknown usernames are not cached</li>
+ *   <li>{@code UserService} evicts a user when it is created, deactivated or its email changes (again after
+ *       commit); other instances pick the change up within {@code ttl-seconds}</li>
+ *   <li>Every eviction bumps an invalidation generation (striped by username); a load is cached only if its
+ *       generation did not move while it ran, so a lookup racing a deactivation never re-caches the old status</li>
+ *   <li>The receiver {@code Wallet} itself is loaded by ID only once it is locked and updated</li>
+ *   <li>Metrics: {@code wallet.user.wallet.resolver} counters tagged {@code result=hit|miss}</li>
+ * </ul>
+ */
+@Component
+public class UserWalletResolver {
+    private static final int GENERATION_STRIPES = 256;
+
+    private final WalletRepository walletRepository;
+    private final long ttlMillis;
+    private final Map<String, ResolvedWallet> cache;
+    /**
+     * Evictions per username stripe, so a load can tell whether an eviction happened while it ran.
+     */
+    private final long[] generations = new long[GENERATION_STRIPES];
+    private final Counter hits;
+    private final Counter misses;
+
+    public UserWalletResolver(WalletRepository walletRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${wallet.user-wallet-resolver.size:50000}") int size,
+                              @Value("${wallet.user-wallet-resolver.ttl-seconds:60}") long ttlSeconds) {
+        this.walletRepository = walletRepository;
+        this.ttlMillis = Math.max(ttlSeconds, 1) * 1000;
+        int capacity = Math.max(size, 1);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ResolvedWallet> eldest) {
+                return size() > capacity;
+            }
+        };
+        this.hits = Counter.builder("wallet.user.wallet.resolver")
+                .description("Receiver lookups served from the cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("wallet.user.wallet.resolver")
+                .description("Receiver lookups loaded from the database")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Resolves a username to its user and wallet.
+     *
+     * @param username username
+     * @return resolved user and wallet IDs with the user status
+     * @throws ResourceNotFoundException if no user with a wallet has the username
+     */
+    public ResolvedWallet resolve(String username) {
+        long now = System.currentTimeMillis();
+        ResolvedWallet cached;
+        long generation;
+        synchronized (cache) {
+            cached = cache.get(username);
+            generation = generations[stripe(username)];
+        }
+        if (cached != null && cached.loadedAt() + ttlMillis > now) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        UserWalletView view = walletRepository.findUserWalletByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "username", username));
+        ResolvedWallet loaded = new ResolvedWallet(view.getUserId(), view.getWalletId(), view.getStatus(), now);
+        synchronized (cache) {
+            if (generations[stripe(username)] == generation) {
+                cache.put(username, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Drops a username now and, when called in a database transaction, again after it commits. Both evictions
+     * bump the username's generation, so a load that read the row before the commit is not cached.
+     *
+     * @param username username
+     */
+    public void invalidate(String username) {
+        evict(username);
+        TransactionCallbacks.afterCommit(() -> evict(username));
+    }
+
+    private void evict(String username) {
+        synchronized (cache) {
+            generations[stripe(username)]++;
+            cache.remove(username);
+        }
+    }
+
+    private static int stripe(String username) {
+        return (username.hashCode() & 0x7fffffff) % GENERATION_STRIPES;
+    }
+
+    /**
+     * User and wallet IDs of a username.
+     */
+    public record ResolvedWallet(Long userId, Long walletId, UserStatus status, long loadedAt) {
+
+        public boolean isActive() {
+            return status == null || status == UserStatus.ACTIVE;
+        }
+    }
+}
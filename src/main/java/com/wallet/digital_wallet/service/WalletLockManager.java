@@ -0,0 +1,117 @@
+package com.wallet.digital_wallet.service;
+
+import com.wallet.digital_wallet.exception.WalletBusyException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * In-process lock manager that serializes money movements touching the same wallet.
+ *
+ * <p>Documentation requirements:
+ * <ul>
+ *   <li>Locks are striped: wallet IDs hash onto a fixed, power-of-two array of {@link ReentrantLock}s</li>
+ *   <li>Stripes are always taken in ascending stripe order, so A→B and B→A transfers cannot deadlock</li>
+ *   <li>Acquisition waits at most {@code wallet.locks.timeout-ms} and then fails with {@link WalletBusyException}</li>
+ *   <li>Wait time is recorded in the {@code wallet.lock.wait} timer, tagged by outcome</li>
+ * </ul>
+ *
+ * <p>Locks only cover this node; they do not replace database-level consistency checks.
+ * Callers must not nest {@link #withLocks} calls.
+ */
+@Component
+@Slf4j
+public class WalletLockManager {
+    private final ReentrantLock[] stripes;
+    private final int mask;
+    private final long timeoutNanos;
+    private final Timer acquiredTimer;
+    private final Timer timedOutTimer;
+
+    public WalletLockManager(@Value("${wallet.locks.stripes:1024}") int stripeCount,
+                             @Value("${wallet.locks.timeout-ms:2000}") long timeoutMillis,
+                             MeterRegistry meterRegistry) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("wallet.locks.stripes must be greater than 0");
+        }
+        int size = Integer.highestOneBit(stripeCount - 1) << 1;
+        this.stripes = new ReentrantLock[Math.max(size, 1)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = stripes.length - 1;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        this.acquiredTimer = Timer.builder("wallet.lock.wait")
+                .description("Time spent waiting for wallet locks")
+                .tag("outcome", "acquired")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.timedOutTimer = Timer.builder("wallet.lock.wait")
+                .description("Time spent waiting for wallet locks")
+                .tag("outcome", "timeout")
+                .register(meterRegistry);
+        log.info("Wallet lock manager initialised with {} stripes and {} ms timeout", stripes.length, timeoutMillis);
+    }
+
+    /**
+     * Runs the action while holding the locks of every given wallet.
+     *
+     * @param walletIds wallets touched by the action (duplicates and nulls are ignored)
+     * @param action work to run under the locks
+     * @return action result
+     * @throws WalletBusyException if the locks cannot be acquired within the timeout
+     */
+    public <T> T withLocks(Collection<Long> walletIds, Supplier<T> action) {
+        int[] order = stripeOrder(walletIds);
+        int held = 0;
+        long start = System.nanoTime();
+        try {
+            long deadline = start + timeoutNanos;
+            for (int index : order) {
+                if (!stripes[index].tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    timedOutTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    throw new WalletBusyException("Wallet is busy, please retry");
+                }
+                held++;
+            }
+            acquiredTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return action.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WalletBusyException("Interrupted while waiting for wallet lock", e);
+        } finally {
+            for (int i = held - 1; i >= 0; i--) {
+                stripes[order[i]].unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns the distinct stripe indexes for the wallets in ascending order.
+     */
+    int[] stripeOrder(Collection<Long> walletIds) {
+        return walletIds.stream()
+                .filter(Objects::nonNull)
+                .mapToInt(this::stripeOf)
+                .distinct()
+                .sorted()
+                .toArray();
+    }
+
+    int stripeOf(long walletId) {
+        long h = walletId * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    int stripeCount() {
+        return stripes.length;
+    }
+}
@@ -2,14 +2,18 @@ package com.wallet.digital_wallet.service;
 
 import com.wallet.digital_wallet.dto.request.AddMoneyRequest;
 import com.wallet.digital_wallet.entity.Wallet;
+import com.wallet.digital_wallet.exception.InsufficientBalanceException;
 import com.wallet.digital_wallet.exception.ResourceNotFoundException;
 import com.wallet.digital_wallet.repository.WalletRepository;
+import com.wallet.digital_wallet.repository.WalletSnapshotView;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.util.Optional;
 
 /**
  * Service responsible for wallet operations: lookup, balance operations, and daily limits.
@@ -18,18 +22,41 @@ import java.math.BigDecimal;
  * <ul>
  *   <li>Uses {@link BigDecimal} for money</li>
  *   <li>Validates amounts are positive</li>
+ *   <li>Balance updates are protected by the wallet {@code @Version} and retried on conflict</li>
+ *   <li>Sharded (hot) wallets are credited/debited through {@link WalletShardService}</li>
+ *   <li>With {@code wallet.money-path=engine}, top-ups and balance reads go through {@link LedgerEngine}</li>
+ *   <li>Wallet and balance reads are served from the {@link WalletSnapshotCache}; every balance or limit change
+ *       made here is written through to it after commit</li>
  * </ul>
  */
 @Service
 @RequiredArgsConstructor @Slf4j
 public class WalletService {
     private final WalletRepository walletRepository;
+    private final TransactionRetryExecutor retryExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final WalletShardService walletShardService;
+    private final LedgerEngine ledgerEngine;
+    private final LedgerPostingService ledgerPostingService;
+    private final WalletSnapshotCache walletSnapshotCache;
 
     public Wallet getWalletById(Long id) {
         return walletRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Wallet", "id", id));
     }
 
+    /**
+     * Returns the snapshot of a wallet shown by wallet reads, from the {@link WalletSnapshotCache} when current.
+     *
+     * @param walletId wallet ID
+     * @return wallet snapshot
+     * @throws ResourceNotFoundException if wallet not found
+     */
+    public WalletSnapshotCache.WalletSnapshot getWalletSnapshot(Long walletId) {
+        return walletSnapshotCache.get(walletId, () -> walletRepository.findSnapshotById(walletId)
+                .orElseThrow(() -> new ResourceNotFoundException("Wallet", "id", walletId)));
+    }
+
     /**
      * Returns a wallet by user ID (wallet.user.id).
      *
@@ -43,34 +70,114 @@ public class WalletService {
     }
 
     /**
-     * Returns wallet balance.
+     * Returns wallet balance. For sharded wallets this is the sum of all shards.
+     *
+     * <p>When the {@link LedgerEngine} is running and has loaded the wallet, its in-memory balance is
+     * returned because the database row may lag behind.
      *
      * @param walletId wallet ID
      * @return current balance
      */
     public BigDecimal getBalance(Long walletId) {
-        Wallet wallet = getWalletById(walletId);
-        return wallet.getBalance();
+        if (ledgerEngine.isRunning()) {
+            Optional<BigDecimal> engineBalance = ledgerEngine.balanceOf(walletId);
+            if (engineBalance.isPresent()) {
+                return engineBalance.get();
+            }
+        }
+        return getWalletSnapshot(walletId).balance();
+    }
+
+    /**
+     * Debits a wallet loaded in the current transaction.
+     *
+     * <p>Unsharded wallets are debited in memory (flushed with a version check); sharded wallets
+     * are swept shard by shard.
+     *
+     * @param wallet managed wallet entity
+     * @param amount amount to subtract
+     * @throws InsufficientBalanceException if the wallet cannot cover the amount
+     */
+    public void debit(Wallet wallet, BigDecimal amount) {
+        if (wallet.isSharded()) {
+            walletShardService.debit(wallet.getId(), amount);
+            walletSnapshotCache.evict(wallet.getId());
+            return;
+        }
+        if (!wallet.hasSufficientBalance(amount)) {
+            throw new InsufficientBalanceException("Insufficient balance");
+        }
+        wallet.debit(amount);
+        walletSnapshotCache.written(wallet);
     }
 
     /**
-     * Adds money (credits) to a wallet and records a WALLET_TOPUP transaction.
+     * Credits a wallet loaded in the current transaction.
+     *
+     * <p>Sharded wallets are credited on a random shard and the wallet row is left untouched.
+     *
+     * @param wallet managed wallet entity
+     * @param amount amount to add
+     */
+    public void credit(Wallet wallet, BigDecimal amount) {
+        if (wallet.isSharded()) {
+            walletShardService.credit(wallet.getId(), wallet.getShardCount(), amount);
+            walletSnapshotCache.evict(wallet.getId());
+            return;
+        }
+        wallet.credit(amount);
+        walletSnapshotCache.written(wallet);
+    }
+
+    /**
+     * Adds money (credits) to a wallet and posts a WALLET_LOAD ledger entry (funding to wallet).
      *
      * <p>Transactional because wallet balance update and transaction creation must be atomic.
+     * The whole transaction is re-run if the wallet version changed underneath it.
+     *
+     * <p>When the {@link LedgerEngine} is running the credit goes through the engine instead and the
+     * returned (detached) wallet carries the engine balance.
      *
      * @param walletId wallet ID
      * @param request add money request
      * @return updated wallet
      */
-    @Transactional
     public Wallet addMoney(Long walletId, AddMoneyRequest request) {
-        Wallet wallet = getWalletById(walletId);
-        wallet.credit(request.getAmount());
-        wallet = walletRepository.save(wallet);
+        if (ledgerEngine.isRunning()) {
+            ledgerEngine.topUp(walletId, request.getAmount());
+            Wallet wallet = getWalletById(walletId);
+            ledgerEngine.balanceOf(walletId).ifPresent(wallet::setBalance);
+            log.info("Added {} to wallet ID: {} via ledger engine", request.getAmount(), walletId);
+            return wallet;
+        }
+        Wallet wallet = retryExecutor.execute("addMoney", () -> transactionTemplate.execute(status -> {
+            Wallet current = getWalletById(walletId);
+            credit(current, request.getAmount());
+            ledgerPostingService.postTopUp(walletId, request.getAmount());
+            if (current.isSharded()) {
+                // The credit went to a shard row (or, after a concurrent demote, to the wallet row by SQL):
+                // the entity itself is unchanged, so there is nothing to save.
+                refreshTotalBalance(current);
+                return current;
+            }
+            return walletRepository.save(current);
+        }));
         log.info("Added {} to wallet ID: {}", request.getAmount(), walletId);
         return wallet;
     }
 
+    /**
+     * Makes {@link Wallet#getTotalBalance()} of a sharded wallet entity return the committed-to-be total of the
+     * current transaction, by folding the freshly queried total into the read-only {@code shardBalance} formula
+     * field (the mapped {@code balance} column is left untouched, so no update is issued).
+     */
+    private void refreshTotalBalance(Wallet wallet) {
+        WalletSnapshotView view = walletRepository.findSnapshotById(wallet.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("Wallet", "id", wallet.getId()));
+        BigDecimal total = WalletSnapshotCache.WalletSnapshot.of(view, 0L).balance();
+        wallet.setShardBalance(total.subtract(wallet.getBalance()));
+    }
+
     /**
      * Updates wallet daily limit.
      *
@@ -86,6 +193,7 @@ public class WalletService {
         Wallet wallet = getWalletById(walletId);
         wallet.setDailyLimit(limit);
         wallet = walletRepository.save(wallet);
+        walletSnapshotCache.written(wallet);
         log.info("Set daily limit to {} for wallet {}", limit, walletId);
         return wallet;
     }
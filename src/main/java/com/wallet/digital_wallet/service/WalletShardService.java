@@ -0,0 +1,280 @@
+package com.wallet.digital_wallet.service;
+
+import com.wallet.digital_wallet.entity.Wallet;
+import com.wallet.digital_wallet.entity.WalletBalanceShard;
+import com.wallet.digital_wallet.exception.InsufficientBalanceException;
+import com.wallet.digital_wallet.exception.InvalidTransactionException;
+import com.wallet.digital_wallet.exception.ResourceNotFoundException;
+import com.wallet.digital_wallet.exception.WalletBusyException;
+import com.wallet.digital_wallet.repository.WalletBalanceShardRepository;
+import com.wallet.digital_wallet.repository.WalletRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * Service responsible for hot-wallet balance sharding.
+ *
+ * <p>Documentation requirements:
+ * <ul>
+ *   <li>A sharded wallet keeps its balance in {@code shardCount} {@link WalletBalanceShard} rows</li>
+ *   <li>Credits go to a random shard with a single increment statement (no wallet row update). If the shard is
+ *       gone (re-promoted to fewer shards or demoted concurrently) the current {@code shard_count} is re-read
+ *       and the credit goes to a valid shard, or to the wallet row only while it is unsharded</li>
+ *   <li>Debits lock all shards in index order and sweep them until the amount is covered; a wallet without
+ *       shard rows was demoted or re-split concurrently, and the transaction is retried</li>
+ *   <li>Promote, demote and rebalance run under the wallet lock and bump the wallet version; rebalance also
+ *       folds any wallet-row balance into the shards</li>
+ * </ul>
+ *
+ * <p>Must be called inside an existing transaction for {@link #credit} and {@link #debit}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WalletShardService {
+    private static final int MAX_SHARDS = 64;
+    private static final int MAX_CREDIT_ATTEMPTS = 3;
+
+    private final WalletRepository walletRepository;
+    private final WalletBalanceShardRepository shardRepository;
+    private final WalletLockManager walletLockManager;
+    private final TransactionRetryExecutor retryExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final LedgerEngine ledgerEngine;
+    private final WalletSnapshotCache walletSnapshotCache;
+
+    /**
+     * Node-local view of sharded wallet IDs. Only used as a hint to skip in-process receiver
+     * locks; the {@code shardCount} loaded inside the transaction is authoritative.
+     */
+    private final Set<Long> shardedWalletIds = ConcurrentHashMap.newKeySet();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadShardedWallets() {
+        shardedWalletIds.addAll(walletRepository.findShardedWalletIds());
+        log.info("Loaded {} sharded wallets", shardedWalletIds.size());
+    }
+
+    /**
+     * Returns true if this node believes the wallet is sharded.
+     *
+     * @param walletId wallet ID
+     * @return sharding hint
+     */
+    public boolean isSharded(Long walletId) {
+        return shardedWalletIds.contains(walletId);
+    }
+
+    /**
+     * Credits a random shard of a sharded wallet.
+     *
+     * <p>If the shard no longer exists, the wallet's current shard count is re-read and the credit retried on
+     * a valid shard; a wallet that was demoted in the meantime is credited on its row (guarded by
+     * {@code shard_count = 0}, so a concurrent promote cannot strand the amount there).
+     *
+     * @param walletId wallet ID
+     * @param shardCount shard count seen by the caller
+     * @param amount amount to add
+     * @throws WalletBusyException if the wallet kept being re-sharded
+     */
+    public void credit(Long walletId, int shardCount, BigDecimal amount) {
+        int count = shardCount;
+        for (int attempt = 0; attempt < MAX_CREDIT_ATTEMPTS; attempt++) {
+            if (count > 0) {
+                if (shardRepository.credit(walletId, ThreadLocalRandom.current().nextInt(count), amount) == 1) {
+                    return;
+                }
+            } else if (walletRepository.creditIfUnsharded(walletId, amount) == 1) {
+                walletSnapshotCache.evict(walletId);
+                return;
+            }
+            count = walletRepository.findShardCountById(walletId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Wallet", "id", walletId));
+        }
+        throw new WalletBusyException("Wallet " + walletId + " is being re-sharded, please retry");
+    }
+
+    /**
+     * Debits a sharded wallet by sweeping its shards in index order.
+     *
+     * @param walletId wallet ID
+     * @param amount amount to subtract
+     * @throws InsufficientBalanceException if all shards together do not cover the amount
+     * @throws ConcurrencyFailureException if the wallet has no shards any more (retried by the caller's
+     *         {@link TransactionRetryExecutor})
+     */
+    public void debit(Long walletId, BigDecimal amount) {
+        if (!tryDebit(walletId, amount)) {
+            throw new ConcurrencyFailureException("Wallet " + walletId + " was re-sharded concurrently");
+        }
+    }
+
+    /**
+     * Debits a wallet's shards, if it has any.
+     *
+     * @param walletId wallet ID
+     * @param amount amount to subtract
+     * @return {@code false} if the wallet has no shard rows (it is not, or no longer, sharded)
+     * @throws InsufficientBalanceException if all shards together do not cover the amount
+     */
+    public boolean tryDebit(Long walletId, BigDecimal amount) {
+        List<WalletBalanceShard> shards = shardRepository.lockByWalletId(walletId);
+        if (shards.isEmpty()) {
+            return false;
+        }
+        BigDecimal available = shards.stream()
+                .map(WalletBalanceShard::getBalance)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        if (available.compareTo(amount) < 0) {
+            throw new InsufficientBalanceException("Insufficient balance");
+        }
+
+        BigDecimal remaining = amount;
+        for (WalletBalanceShard shard : shards) {
+            if (remaining.signum() == 0) {
+                break;
+            }
+            BigDecimal taken = shard.getBalance().min(remaining);
+            shard.setBalance(shard.getBalance().subtract(taken));
+            remaining = remaining.subtract(taken);
+        }
+        shardRepository.saveAll(shards);
+        return true;
+    }
+
+    /**
+     * Returns the shard balances of a wallet in index order.
+     *
+     * @param walletId wallet ID
+     * @return shards (empty if the wallet is not sharded)
+     */
+    public List<WalletBalanceShard> getShards(Long walletId) {
+        return shardRepository.findByWalletIdOrderByShardIndexAsc(walletId);
+    }
+
+    /**
+     * Splits a wallet's balance across {@code shardCount} shards. Re-splits if already sharded.
+     *
+     * @param walletId wallet ID
+     * @param shardCount number of shards (2..64)
+     * @return updated wallet
+     */
+    public Wallet promote(Long walletId, int shardCount) {
+        if (shardCount < 2 || shardCount > MAX_SHARDS) {
+            throw new IllegalArgumentException("shardCount must be between 2 and " + MAX_SHARDS);
+        }
+        if (ledgerEngine.isRunning()) {
+            throw new InvalidTransactionException("Wallet sharding is not available while the ledger engine owns balances");
+        }
+        Wallet wallet = underWalletLock("promoteWallet", walletId, current -> {
+            BigDecimal total = collect(current);
+            shardRepository.saveAll(split(walletId, total, shardCount));
+            current.setBalance(BigDecimal.ZERO);
+            current.setShardCount(shardCount);
+        });
+        shardedWalletIds.add(walletId);
+        log.info("Wallet {} promoted to {} shards", walletId, shardCount);
+        return wallet;
+    }
+
+    /**
+     * Folds all shards back into the wallet row.
+     *
+     * @param walletId wallet ID
+     * @return updated wallet
+     */
+    public Wallet demote(Long walletId) {
+        Wallet wallet = underWalletLock("demoteWallet", walletId, current -> {
+            current.setBalance(collect(current));
+            current.setShardCount(0);
+        });
+        shardedWalletIds.remove(walletId);
+        log.info("Wallet {} demoted to a single balance row", walletId);
+        return wallet;
+    }
+
+    /**
+     * Spreads a sharded wallet's balance evenly across its shards, including anything left on the wallet row.
+     *
+     * @param walletId wallet ID
+     * @return updated wallet
+     */
+    public Wallet rebalance(Long walletId) {
+        Wallet wallet = underWalletLock("rebalanceWallet", walletId, current -> {
+            if (!current.isSharded()) {
+                throw new IllegalArgumentException("Wallet is not sharded");
+            }
+            List<WalletBalanceShard> shards = shardRepository.lockByWalletId(walletId);
+            BigDecimal total = shards.stream()
+                    .map(WalletBalanceShard::getBalance)
+                    .reduce(current.getBalance(), BigDecimal::add);
+            List<WalletBalanceShard> target = split(walletId, total, shards.size());
+            for (int i = 0; i < shards.size(); i++) {
+                shards.get(i).setBalance(target.get(i).getBalance());
+            }
+            shardRepository.saveAll(shards);
+            current.setBalance(BigDecimal.ZERO);
+        });
+        log.info("Wallet {} shards rebalanced", walletId);
+        return wallet;
+    }
+
+    /**
+     * Locks and deletes all shards, returning wallet row balance plus the removed shard balances.
+     */
+    private BigDecimal collect(Wallet wallet) {
+        BigDecimal total = wallet.getBalance();
+        if (wallet.isSharded()) {
+            for (WalletBalanceShard shard : shardRepository.lockByWalletId(wallet.getId())) {
+                total = total.add(shard.getBalance());
+            }
+            shardRepository.deleteByWalletId(wallet.getId());
+        }
+        return total;
+    }
+
+    /**
+     * Builds shards holding {@code total / count} each; the rounding remainder goes to shard 0.
+     */
+    private static List<WalletBalanceShard> split(Long walletId, BigDecimal total, int count) {
+        BigDecimal share = total.divide(BigDecimal.valueOf(count), 2, RoundingMode.DOWN);
+        BigDecimal remainder = total.subtract(share.multiply(BigDecimal.valueOf(count)));
+        List<WalletBalanceShard> shards = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            shards.add(WalletBalanceShard.builder()
+                    .walletId(walletId)
+                    .shardIndex(i)
+                    .balance(i == 0 ? share.add(remainder) : share)
+                    .build());
+        }
+        return shards;
+    }
+
+    private Wallet underWalletLock(String operation, Long walletId, Consumer<Wallet> change) {
+        return retryExecutor.execute(operation, () -> walletLockManager.withLocks(List.of(walletId),
+                () -> transactionTemplate.execute(status -> {
+                    Wallet wallet = walletRepository.findById(walletId)
+                            .orElseThrow(() -> new ResourceNotFoundException("Wallet", "id", walletId));
+                    change.accept(wallet);
+                    // Touch the wallet row so the version moves even when only shards changed.
+                    wallet.setUpdatedAt(LocalDateTime.now());
+                    walletSnapshotCache.written(wallet);
+                    return walletRepository.saveAndFlush(wallet);
+                })));
+    }
+}
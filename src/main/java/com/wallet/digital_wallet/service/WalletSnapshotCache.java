@@ -0,0 +1,273 @@
+package com.wallet.digital_wallet.service;
+
+import com.wallet.digital_wallet.entity.Wallet;
+import com.wallet.digital_wallet.repository.WalletSnapshotView;
+import com.wallet.digital_wallet.util.TransactionCallbacks;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-process cache of wallet snapshots (ID, number, balance, daily limit, version) for wallet reads.
+ *
+ * <p>Documentation requirements:
+ * <ul>
+ *   <li>Every write to a wallet row calls {@link #written} (entity writes) or {@link #evict} (SQL writes) inside
+ *       its transaction; from then until the transaction ends the wallet is read from the database</li>
+ *   <li>After commit an entity write is written through as the new snapshot; SQL writes and rollbacks drop the
+ *       entry, and the next read reloads it</li>
+ *   <li>A snapshot loaded while a write to the same wallet finished is not stored, and a snapshot never
+ *       replaces one with a higher version, so a read never returns a value older than the last write
+ *       committed on this node</li>
+ *   <li>Sharded wallets are not cached (their balance is spread over shard rows)</li>
+ *   <li>Entries are LRU-bounded by {@code wallet.snapshot-cache.size}; {@code enabled=false} reads through</li>
+ *   <li>State is split into up to {@code 64} segments by wallet ID, each with its own lock, LRU order (an equal
+ *       share of the size), open writes and write stamp, so reads and writes of different wallets rarely
+ *       contend</li>
+ *   <li>Metrics: {@code wallet.snapshot.cache} counters tagged {@code result=hit|miss|bypass},
+ *       {@code wallet.snapshot.cache.stale} (loads dropped as older than the cache),
+ *       {@code wallet.snapshot.cache.age} (age of served snapshots) and {@code wallet.snapshot.cache.size}</li>
+ * </ul>
+ */
+@Component
+public class WalletSnapshotCache {
+    private static final int SEGMENTS = 64;
+
+    private final boolean enabled;
+    private final Segment[] segments;
+    private final Object transactionKey = new Object();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter bypasses;
+    private final Counter staleLoads;
+    private final Timer age;
+
+    public WalletSnapshotCache(MeterRegistry meterRegistry,
+                               @Value("${wallet.snapshot-cache.enabled:true}") boolean enabled,
+                               @Value("${wallet.snapshot-cache.size:50000}") int size) {
+        this.enabled = enabled;
+        int capacity = Math.max(size, 1);
+        int segmentCount = Math.min(SEGMENTS, Integer.highestOneBit(capacity));
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(capacity / segmentCount + (i < capacity % segmentCount ? 1 : 0));
+        }
+        this.hits = resultCounter("hit", "Wallet reads served from the snapshot cache", meterRegistry);
+        this.misses = resultCounter("miss", "Wallet reads loaded from the database", meterRegistry);
+        this.bypasses = resultCounter("bypass", "Wallet reads sent to the database because a write was open",
+                meterRegistry);
+        this.staleLoads = Counter.builder("wallet.snapshot.cache.stale")
+                .description("Loaded snapshots not cached because a newer write had finished")
+                .register(meterRegistry);
+        this.age = Timer.builder("wallet.snapshot.cache.age")
+                .description("Time since a served snapshot was loaded or written")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("wallet.snapshot.cache.size", this, WalletSnapshotCache::size)
+                .description("Cached wallet snapshots")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the snapshot of a wallet, from the cache unless a write to it is in progress.
+     *
+     * @param walletId wallet ID
+     * @param loader loads the wallet from the database (throws if it does not exist)
+     * @return current snapshot
+     */
+    public WalletSnapshot get(Long walletId, Supplier<WalletSnapshotView> loader) {
+        if (!enabled) {
+            return WalletSnapshot.of(loader.get(), System.currentTimeMillis());
+        }
+        Segment segment = segment(walletId);
+        long stamp;
+        boolean writeOpen;
+        WalletSnapshot cached;
+        synchronized (segment) {
+            writeOpen = segment.writers.containsKey(walletId);
+            cached = writeOpen ? null : segment.snapshots.get(walletId);
+            stamp = segment.writeStamp;
+        }
+        if (cached != null) {
+            hits.increment();
+            age.record(System.currentTimeMillis() - cached.cachedAt(), TimeUnit.MILLISECONDS);
+            return cached;
+        }
+        if (writeOpen) {
+            bypasses.increment();
+            return WalletSnapshot.of(loader.get(), System.currentTimeMillis());
+        }
+        misses.increment();
+        WalletSnapshotView view = loader.get();
+        WalletSnapshot loaded = WalletSnapshot.of(view, System.currentTimeMillis());
+        if (view.getShardCount() == null || view.getShardCount() == 0) {
+            synchronized (segment) {
+                if (segment.writers.containsKey(walletId) || segment.writeStamp != stamp) {
+                    staleLoads.increment();
+                } else {
+                    store(segment, loaded);
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Registers a change to a managed wallet entity in the current transaction; its state is written through
+     * as the new snapshot after commit.
+     *
+     * @param wallet managed wallet entity
+     */
+    public void written(Wallet wallet) {
+        track(wallet.getId(), wallet);
+    }
+
+    /**
+     * Registers a write to a wallet row that bypassed the entity; the snapshot is dropped when the current
+     * transaction ends.
+     *
+     * @param walletId wallet ID
+     */
+    public void evict(Long walletId) {
+        track(walletId, null);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.snapshots.size();
+            }
+        }
+        return size;
+    }
+
+    private void track(Long walletId, Wallet wallet) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            begin(walletId);
+            finish(walletId, wallet, true);
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Map<Long, Wallet> written = (Map<Long, Wallet>) TransactionSynchronizationManager.getResource(transactionKey);
+        if (written == null) {
+            Map<Long, Wallet> transactionWrites = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(transactionKey, transactionWrites);
+            TransactionCallbacks.afterCompletion(committed -> {
+                TransactionSynchronizationManager.unbindResourceIfPossible(transactionKey);
+                transactionWrites.forEach((id, entity) -> finish(id, entity, committed));
+            });
+            written = transactionWrites;
+        }
+        if (!written.containsKey(walletId)) {
+            begin(walletId);
+            written.put(walletId, wallet);
+        } else if (written.get(walletId) != null) {
+            // An SQL write earlier in the transaction makes the entity state unreliable: keep the eviction.
+            written.put(walletId, wallet);
+        }
+    }
+
+    private void begin(Long walletId) {
+        Segment segment = segment(walletId);
+        synchronized (segment) {
+            segment.writers.merge(walletId, 1, Integer::sum);
+        }
+    }
+
+    private void finish(Long walletId, Wallet wallet, boolean committed) {
+        Segment segment = segment(walletId);
+        synchronized (segment) {
+            segment.writers.computeIfPresent(walletId, (id, count) -> count > 1 ? count - 1 : null);
+            segment.writeStamp++;
+            if (committed && wallet != null && !wallet.isSharded()) {
+                store(segment, WalletSnapshot.of(wallet, System.currentTimeMillis()));
+            } else {
+                segment.snapshots.remove(walletId);
+            }
+        }
+    }
+
+    /**
+     * Caller holds the segment's lock.
+     */
+    private void store(Segment segment, WalletSnapshot snapshot) {
+        WalletSnapshot cached = segment.snapshots.get(snapshot.id());
+        if (cached != null && cached.version() != null && snapshot.version() != null
+                && cached.version() > snapshot.version()) {
+            staleLoads.increment();
+            return;
+        }
+        segment.snapshots.put(snapshot.id(), snapshot);
+    }
+
+    private Segment segment(Long walletId) {
+        return segments[(int) (walletId ^ (walletId >>> 32)) & (segments.length - 1)];
+    }
+
+    private static Counter resultCounter(String result, String description, MeterRegistry meterRegistry) {
+        return Counter.builder("wallet.snapshot.cache")
+                .description(description)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Cache state of the wallet IDs mapped to one segment; guarded by the segment's monitor.
+     */
+    private static final class Segment {
+        private final Map<Long, WalletSnapshot> snapshots;
+        /**
+         * Open write transactions per wallet.
+         */
+        private final Map<Long, Integer> writers = new HashMap<>();
+        /**
+         * Finished writes in this segment, so a load can tell whether a write finished while it ran.
+         */
+        private long writeStamp;
+
+        private Segment(int capacity) {
+            this.snapshots = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, WalletSnapshot> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+    }
+
+    /**
+     * Wallet fields returned by wallet reads, as of {@code version}.
+     */
+    public record WalletSnapshot(Long id, String walletNumber, BigDecimal balance, BigDecimal dailyLimit,
+                                 Long version, long cachedAt) {
+
+        static WalletSnapshot of(WalletSnapshotView view, long cachedAt) {
+            boolean sharded = view.getShardCount() != null && view.getShardCount() > 0;
+            BigDecimal balance = sharded && view.getShardBalance() != null
+                    ? view.getBalance().add(view.getShardBalance())
+                    : view.getBalance();
+            return new WalletSnapshot(view.getId(), view.getWalletNumber(), balance, view.getDailyLimit(),
+                    view.getVersion(), cachedAt);
+        }
+
+        static WalletSnapshot of(Wallet wallet, long cachedAt) {
+            return new WalletSnapshot(wallet.getId(), wallet.getWalletNumber(), wallet.getTotalBalance(),
+                    wallet.getDailyLimit(), wallet.getVersion(), cachedAt);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.wallet.digital_wallet.util;
+
+import org.springframework.http.CacheControl;
+
+import java.util.Objects;
+
+/**
+ * Strong ETags for GET responses, derived from what the representation depends on (IDs, versions,
+ * {@code updatedAt}, balances) instead of from the serialized body.
+ *
+ * <p>Controllers compute the tag before building the body and return early when
+ * {@code WebRequest.checkNotModified(tag)} answers 304, so an unchanged resource costs neither mapping nor
+ * serialization.
+ */
+public final class ETags {
+
+    /**
+     * Lets clients (and only clients, not shared caches) store responses but revalidate them on every use.
+     */
+    public static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private ETags() {
+    }
+
+    /**
+     * Builds a strong ETag for a resource kind from the values its representation depends on.
+     *
+     * @param kind resource kind (e.g. {@code wallet})
+     * @param parts values the representation depends on; any change must change at least one of them
+     * @return quoted ETag
+     */
+    public static String of(String kind, Object... parts) {
+        long hash = 0xcbf29ce484222325L;
+        for (Object part : parts) {
+            String value = Objects.toString(part);
+            for (int i = 0; i < value.length(); i++) {
+                hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+            }
+            hash = (hash ^ '|') * 0x100000001b3L;
+        }
+        return "\"" + kind + "-" + Long.toHexString(hash) + "\"";
+    }
+}
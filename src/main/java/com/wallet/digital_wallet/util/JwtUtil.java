@@ -1,6 +1,9 @@
 package com.wallet.digital_wallet.util;
 
+import com.wallet.digital_wallet.security.PrincipalCache;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.stereotype.Component;
@@ -17,6 +20,19 @@ public class JwtUtil {
 
     private static final String SECRET_KEY = "replace-this-with-at-least-32-byte-secret-key-12345";
     private static final SecretKey SIGNING_KEY = Keys.hmacShaKeyFor(SECRET_KEY.getBytes(StandardCharsets.UTF_8));
+    /**
+     * Parsers are immutable and thread-safe, so one is built for all calls.
+     */
+    private static final JwtParser PARSER = Jwts.parser().verifyWith(SIGNING_KEY).build();
+
+    /**
+     * Value of the {@code typ} claim of payment session tokens, which are never accepted as login tokens.
+     */
+    public static final String PAYMENT_TOKEN_TYPE = "payment";
+    public static final String WALLET_ID_CLAIM = "wid";
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ROLE_CLAIM = "role";
+    public static final String EPOCH_CLAIM = "epoch";
 
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -31,8 +47,19 @@ public class JwtUtil {
         return claimsResolver.apply(claims);
     }
 
+    /**
+     * Verifies a token (signature and expiry) and returns its claims.
+     *
+     * @param token compact token
+     * @return verified claims
+     * @throws JwtException if the token is invalid or expired
+     */
+    public Claims parseClaims(String token) {
+        return extractAllClaims(token);
+    }
+
     private Claims extractAllClaims(String token) {
-        return Jwts.parser().verifyWith(SIGNING_KEY).build().parseSignedClaims(token).getPayload();
+        return PARSER.parseSignedClaims(token).getPayload();
     }
 
     private Boolean isTokenExpired(String token) {
@@ -44,6 +71,20 @@ public class JwtUtil {
         return createToken(claims, username);
     }
 
+    /**
+     * Generates a login token carrying the user ID, role and revocation epoch (see {@code PrincipalCache}).
+     *
+     * @param state authentication state of the user
+     * @return compact signed token
+     */
+    public String generateToken(PrincipalCache.AuthState state) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(USER_ID_CLAIM, state.userId());
+        claims.put(ROLE_CLAIM, state.role());
+        claims.put(EPOCH_CLAIM, state.epoch());
+        return createToken(claims, state.username());
+    }
+
     private String createToken(Map<String, Object> claims, String subject) {
         return Jwts.builder()
                 .claims(claims)
@@ -55,7 +96,42 @@ public class JwtUtil {
     }
 
     public Boolean validateToken(String token, String username) {
-        final String extractedUsername = extractUsername(token);
-        return (extractedUsername.equals(username) && !isTokenExpired(token));
+        final Claims claims = extractAllClaims(token);
+        return claims.getSubject().equals(username)
+                && !PAYMENT_TOKEN_TYPE.equals(claims.get("typ"))
+                && !claims.getExpiration().before(new Date());
+    }
+
+    /**
+     * Signs a payment session token: subject is the session ID, {@code wid} the wallet it may debit.
+     *
+     * @param sessionId payment session ID
+     * @param walletId wallet the session is scoped to
+     * @param expiresAt expiry
+     * @return compact signed token
+     */
+    public String generatePaymentToken(String sessionId, Long walletId, Date expiresAt) {
+        return Jwts.builder()
+                .claims(Map.of("typ", PAYMENT_TOKEN_TYPE, WALLET_ID_CLAIM, walletId))
+                .subject(sessionId)
+                .issuedAt(new Date(System.currentTimeMillis()))
+                .expiration(expiresAt)
+                .signWith(SIGNING_KEY)
+                .compact();
+    }
+
+    /**
+     * Verifies a payment session token (signature and expiry) and returns its claims.
+     *
+     * @param token compact token
+     * @return verified claims
+     * @throws JwtException if the token is invalid, expired or not a payment token
+     */
+    public Claims parsePaymentToken(String token) {
+        Claims claims = extractAllClaims(token);
+        if (!PAYMENT_TOKEN_TYPE.equals(claims.get("typ"))) {
+            throw new JwtException("Not a payment token");
+        }
+        return claims;
     }
 }
@@ -0,0 +1,117 @@
+package com.wallet.digital_wallet.config;
+
+import com.wallet.digital_wallet.entity.Merchant;
+import com.wallet.digital_wallet.entity.User;
+import com.wallet.digital_wallet.enums.MerchantCategory;
+import com.wallet.digital_wallet.repository.MerchantRepository;
+import com.wallet.digital_wallet.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Counts JDBC statements for repeated reads with the {@code l2cache} profile, on an in-memory H2 database.
+ *
+ * <p>Every repository call runs in its own transaction (and persistence context), as in production requests.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:l2cache;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("l2cache")
+@Import(SecondLevelCacheConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheConfigTest {
+
+    @Autowired
+    private MerchantRepository merchantRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        merchantRepository.deleteAll();
+        userRepository.deleteAll();
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void repeatedMerchantReadsAreServedWithoutQueries() {
+        Merchant saved = merchantRepository.save(merchant("MERL2C0001", "Corner Shop"));
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+
+        merchantRepository.findByMerchantCode("MERL2C0001").orElseThrow();
+        merchantRepository.findByCategory(MerchantCategory.values()[0], PageRequest.of(0, 10));
+        long firstRead = statistics.getPrepareStatementCount();
+        assertEquals(2, firstRead);
+
+        for (int i = 0; i < 3; i++) {
+            merchantRepository.findByMerchantCode("MERL2C0001").orElseThrow();
+            merchantRepository.findByCategory(MerchantCategory.values()[0], PageRequest.of(0, 10));
+            merchantRepository.findById(saved.getId()).orElseThrow();
+        }
+        assertEquals(firstRead, statistics.getPrepareStatementCount());
+        assertEquals(6, statistics.getQueryCacheHitCount());
+        assertEquals(3, statistics.getSecondLevelCacheHitCount());
+
+        // A write through Hibernate invalidates cached query results for the table.
+        Merchant renamed = merchantRepository.findById(saved.getId()).orElseThrow();
+        renamed.setMerchantName("Corner Shop & Cafe");
+        merchantRepository.save(renamed);
+        assertEquals("Corner Shop & Cafe",
+                merchantRepository.findByMerchantCode("MERL2C0001").orElseThrow().getMerchantName());
+    }
+
+    @Test
+    void repeatedUserLookupsSkipTheUserQuery() {
+        userRepository.save(User.builder().username("l2cache").email("l2cache@example.com")
+                .fullName("L2 Cache").pinHash("hash").build());
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+
+        userRepository.findByUsername("l2cache").orElseThrow();
+        long firstRead = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        userRepository.findByUsername("l2cache").orElseThrow();
+        long repeatedRead = statistics.getPrepareStatementCount();
+
+        // Only the (never cached) wallet of the user is still loaded.
+        assertEquals(2, firstRead);
+        assertEquals(1, repeatedRead);
+        assertEquals(1, statistics.getQueryCacheHitCount());
+    }
+
+    private static Merchant merchant(String code, String name) {
+        return Merchant.builder()
+                .merchantCode(code)
+                .merchantName(name)
+                .email(code.toLowerCase() + "@example.com")
+                .category(MerchantCategory.values()[0])
+                .build();
+    }
+}
@@ -6,17 +6,23 @@ import com.wallet.digital_wallet.dto.response.WalletResponse;
 import com.wallet.digital_wallet.entity.Wallet;
 import com.wallet.digital_wallet.mapper.WalletMapper;
 import com.wallet.digital_wallet.service.WalletService;
+import com.wallet.digital_wallet.service.WalletSnapshotCache;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.math.BigDecimal;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -63,4 +69,39 @@ class WalletControllerTest {
         assertEquals(new BigDecimal("25000"), response.getBody().getData().getDailyLimit());
         verify(walletService).setDailyLimit(7L, new BigDecimal("25000"));
     }
+
+    @Test
+    void getWallet_answersMatchingIfNoneMatchWith304UntilTheWalletChanges() {
+        WalletSnapshotCache.WalletSnapshot snapshot = new WalletSnapshotCache.WalletSnapshot(
+                7L, "WALTEST", new BigDecimal("100.00"), new BigDecimal("25000"), 3L, 0L);
+        when(walletService.getWalletSnapshot(7L)).thenReturn(snapshot);
+
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        ResponseEntity<ApiResponse<WalletResponse>> response = walletController.getWallet(7L, get(null, first));
+        String etag = first.getHeader("ETag");
+        assertNotNull(response);
+        assertNotNull(etag);
+
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        assertNull(walletController.getWallet(7L, get(etag, second)));
+        assertEquals(304, second.getStatus());
+        verify(walletMapper).toResponse(snapshot);
+
+        // A shard credit changes the balance but not the version: the tag must still change.
+        WalletSnapshotCache.WalletSnapshot credited = new WalletSnapshotCache.WalletSnapshot(
+                7L, "WALTEST", new BigDecimal("150.00"), new BigDecimal("25000"), 3L, 0L);
+        when(walletService.getWalletSnapshot(7L)).thenReturn(credited);
+        MockHttpServletResponse third = new MockHttpServletResponse();
+        assertNotNull(walletController.getWallet(7L, get(etag, third)));
+        assertEquals(200, third.getStatus());
+        assertNotEquals(etag, third.getHeader("ETag"));
+    }
+
+    private static ServletWebRequest get(String ifNoneMatch, MockHttpServletResponse response) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/wallets/7");
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        return new ServletWebRequest(request, response);
+    }
 }
@@ -0,0 +1,70 @@
+package com.wallet.digital_wallet.security;
+
+import com.wallet.digital_wallet.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.function.ToIntFunction;
+
+/**
+ * Per-request token verification cost of the request filter, before and after {@link JwtValidator}.
+ *
+ * <p>"parser per call, 3 parses" is what the filter used to do ({@code extractUsername}, then
+ * {@code validateToken} parsing twice more, each building a new parser); "prebuilt parser, 1 parse" is a cache
+ * miss of {@link JwtValidator}; "verified-claims cache" is a hit.
+ *
+ * <p>Run with {@code mvn test -Dtest=JwtValidationBenchmarkTest -Dbenchmark.auth=true}. Skipped otherwise.
+ */
+@EnabledIfSystemProperty(named = "benchmark.auth", matches = "true")
+class JwtValidationBenchmarkTest {
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 200_000;
+    private static final SecretKey KEY = Keys.hmacShaKeyFor(
+            "benchmark-secret-key-of-at-least-32-bytes".getBytes(StandardCharsets.UTF_8));
+
+    @Test
+    void perRequestTokenVerification() {
+        JwtUtil jwtUtil = new JwtUtil();
+        JwtValidator validator = new JwtValidator(jwtUtil, new SimpleMeterRegistry(), 10_000);
+        String token = jwtUtil.generateToken("alice");
+        String legacyToken = Jwts.builder()
+                .subject("alice")
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 3_600_000))
+                .signWith(KEY)
+                .compact();
+
+        report("parser per call, 3 parses", legacyToken, t -> {
+            String username = legacyParse(t).getSubject();
+            boolean valid = legacyParse(t).getSubject().equals(username)
+                    && !legacyParse(t).getExpiration().before(new Date());
+            return valid ? username.length() : 0;
+        });
+        report("prebuilt parser, 1 parse", token, t -> jwtUtil.parseClaims(t).getSubject().length());
+        report("verified-claims cache", token, t -> validator.validate(t).getSubject().length());
+    }
+
+    private static Claims legacyParse(String token) {
+        return Jwts.parser().verifyWith(KEY).build().parseSignedClaims(token).getPayload();
+    }
+
+    private static void report(String label, String token, ToIntFunction<String> verify) {
+        int sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += verify.applyAsInt(token);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += verify.applyAsInt(token);
+        }
+        long nanosPerOp = (System.nanoTime() - start) / ITERATIONS;
+        System.out.printf("%-28s %,8d ns/request (sink %d)%n", label, nanosPerOp, sink);
+    }
+}
@@ -0,0 +1,36 @@
+package com.wallet.digital_wallet.security;
+
+import com.wallet.digital_wallet.util.JwtUtil;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JwtValidatorTest {
+
+    private final JwtUtil jwtUtil = new JwtUtil();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final JwtValidator validator = new JwtValidator(jwtUtil, meterRegistry, 2);
+
+    @Test
+    void verifiedTokensAreServedFromTheCacheAndForgedOnesAlwaysRejected() {
+        String token = jwtUtil.generateToken("alice");
+        assertSame(validator.validate(token), validator.validate(token));
+        assertEquals("alice", validator.validate(token).getSubject());
+        assertEquals(2.0, meterRegistry.get("wallet.auth.token.cache").tag("result", "hit").counter().count());
+        assertEquals(1.0, meterRegistry.get("wallet.auth.token.cache").tag("result", "miss").counter().count());
+
+        String forged = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+        assertThrows(JwtException.class, () -> validator.validate(forged));
+        assertThrows(JwtException.class, () -> validator.validate(forged));
+
+        String expired = jwtUtil.generatePaymentToken("PS1", 1L, new Date(System.currentTimeMillis() - 1000));
+        assertThrows(JwtException.class, () -> validator.validate(expired));
+        assertEquals(4.0, meterRegistry.get("wallet.auth.token.cache").tag("result", "miss").counter().count());
+    }
+}
@@ -0,0 +1,57 @@
+package com.wallet.digital_wallet.security;
+
+import com.wallet.digital_wallet.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LoginThrottlerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void rejectsUsernamesAndAddressesOverTheirFailureLimits() {
+        LoginThrottler throttler = new LoginThrottler(meterRegistry, true, 300, 3, 5, 1024, false, 250, 2000);
+        for (int i = 0; i < 3; i++) {
+            throttler.check("alice", "10.0.0.1");
+            throttler.recordFailure("alice", "10.0.0.1");
+        }
+        assertThrows(TooManyRequestsException.class, () -> throttler.check("alice", "10.0.0.2"));
+        assertDoesNotThrow(() -> throttler.check("bob", "10.0.0.2"));
+
+        throttler.recordFailure("carol", "10.0.0.1");
+        throttler.recordFailure("dave", "10.0.0.1");
+        assertThrows(TooManyRequestsException.class, () -> throttler.check("erin", "10.0.0.1"));
+        assertDoesNotThrow(() -> throttler.check("erin", "10.0.0.3"));
+
+        assertEquals(5.0, meterRegistry.get("wallet.login.failures").counter().count());
+        assertEquals(1.0, meterRegistry.get("wallet.login.throttle.rejected").tag("key", "user").counter().count());
+        assertEquals(1.0, meterRegistry.get("wallet.login.throttle.rejected").tag("key", "ip").counter().count());
+    }
+
+    @Test
+    void floodOfDistinctUsernamesNeitherLocksOutOthersNorEvictsKeysOverTheLimit() {
+        LoginThrottler throttler = new LoginThrottler(meterRegistry, true, 300, 3, 50, 64, false, 250, 2000);
+        for (int i = 0; i < 3; i++) {
+            throttler.recordFailure("alice", null);
+        }
+        for (int i = 0; i < 100_000; i++) {
+            throttler.recordFailure("user" + i, null);
+        }
+
+        assertDoesNotThrow(() -> throttler.check("bob", "10.0.0.1"));
+        assertThrows(TooManyRequestsException.class, () -> throttler.check("alice", "10.0.0.1"));
+    }
+
+    @Test
+    void progressiveDelayDoublesFromHalfOfTheLimit() {
+        LoginThrottler throttler = new LoginThrottler(meterRegistry, true, 300, 10, 50, 1024, true, 100, 1000);
+        assertEquals(0, throttler.delayMillis(-1));
+        assertEquals(100, throttler.delayMillis(0));
+        assertEquals(400, throttler.delayMillis(2));
+        assertEquals(1000, throttler.delayMillis(8));
+    }
+}
@@ -0,0 +1,52 @@
+package com.wallet.digital_wallet.security;
+
+import com.wallet.digital_wallet.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PinHasherTest {
+
+    @Test
+    void changedCostIsDetectedAndRehashedInBackground() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PinHasher hasher = new PinHasher(2, 8, 4, 5000, registry);
+        try {
+            String hash = hasher.encode("1234");
+            assertTrue(hasher.matches("1234", hash));
+            assertFalse(hasher.needsRehash(hash));
+
+            hasher.setStrength(5);
+            assertTrue(hasher.needsRehash(hash));
+            assertFalse(hasher.needsRehash("1234"));
+
+            CompletableFuture<String> stored = new CompletableFuture<>();
+            hasher.rehashInBackground("1234", stored::complete);
+            String rehashed = stored.get(5, TimeUnit.SECONDS);
+            assertTrue(rehashed.startsWith("$2a$05$"));
+            assertTrue(hasher.matches("1234", rehashed));
+            assertEquals(2, registry.get("wallet.pin.hashing.duration").tag("operation", "encode").timer().count());
+        } finally {
+            hasher.shutdown();
+        }
+    }
+
+    @Test
+    void operationsThatCannotFinishInTimeAreShedWith429() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PinHasher hasher = new PinHasher(1, 1, 12, 1, registry);
+        try {
+            assertThrows(TooManyRequestsException.class, () -> hasher.encode("1234"));
+            assertEquals(1, registry.get("wallet.pin.hashing.rejected").counter().count());
+        } finally {
+            hasher.shutdown();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.wallet.digital_wallet.security;
+
+import com.wallet.digital_wallet.enums.UserStatus;
+import com.wallet.digital_wallet.repository.UserAuthView;
+import com.wallet.digital_wallet.repository.UserRepository;
+import com.wallet.digital_wallet.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.DisabledException;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PrincipalCacheTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    @Test
+    void cachesStateUntilInvalidatedAndTokensCarryIt() {
+        PrincipalCache cache = new PrincipalCache(userRepository, new SimpleMeterRegistry(), 10, 60);
+        UserAuthView active = view(UserStatus.ACTIVE, 0L);
+        UserAuthView deactivated = view(UserStatus.INACTIVE, 1L);
+        when(userRepository.findAuthByUsername("alice"))
+                .thenReturn(Optional.of(active))
+                .thenReturn(Optional.of(deactivated));
+
+        PrincipalCache.AuthState state = cache.requireActive("alice");
+        cache.get("alice");
+        cache.get("alice");
+        verify(userRepository, times(1)).findAuthByUsername("alice");
+
+        Claims claims = new JwtUtil().parseClaims(new JwtUtil().generateToken(state));
+        assertEquals("alice", claims.getSubject());
+        assertEquals(7L, claims.get(JwtUtil.USER_ID_CLAIM, Number.class).longValue());
+        assertEquals("ADMIN", claims.get(JwtUtil.ROLE_CLAIM));
+        assertEquals(0L, claims.get(JwtUtil.EPOCH_CLAIM, Number.class).longValue());
+
+        cache.invalidate("alice");
+        assertEquals(1L, cache.get("alice").epoch());
+        assertThrows(DisabledException.class, () -> cache.requireActive("alice"));
+        verify(userRepository, times(2)).findAuthByUsername("alice");
+    }
+
+    @Test
+    void loadRacingAnInvalidationIsNotCached() {
+        PrincipalCache cache = new PrincipalCache(userRepository, new SimpleMeterRegistry(), 10, 60);
+        UserAuthView active = view(UserStatus.ACTIVE, 0L);
+        UserAuthView deactivated = view(UserStatus.INACTIVE, 1L);
+        // The first load reads the row before the deactivation commits; the commit evicts while it is running.
+        when(userRepository.findAuthByUsername("alice"))
+                .thenAnswer(invocation -> {
+                    cache.invalidate("alice");
+                    return Optional.of(active);
+                })
+                .thenReturn(Optional.of(deactivated));
+
+        assertEquals(UserStatus.ACTIVE, cache.get("alice").status());
+
+        assertThrows(DisabledException.class, () -> cache.requireActive("alice"));
+        verify(userRepository, times(2)).findAuthByUsername("alice");
+    }
+
+    private static UserAuthView view(UserStatus status, long epoch) {
+        UserAuthView view = mock(UserAuthView.class);
+        when(view.getId()).thenReturn(7L);
+        when(view.getUsername()).thenReturn("alice");
+        when(view.getRole()).thenReturn("admin");
+        when(view.getStatus()).thenReturn(status);
+        when(view.getAuthEpoch()).thenReturn(epoch);
+        return view;
+    }
+}
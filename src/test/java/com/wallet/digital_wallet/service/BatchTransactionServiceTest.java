@@ -0,0 +1,132 @@
+package com.wallet.digital_wallet.service;
+
+import com.wallet.digital_wallet.dto.request.BatchTransactionRequest;
+import com.wallet.digital_wallet.dto.request.TransferRequest;
+import com.wallet.digital_wallet.entity.User;
+import com.wallet.digital_wallet.entity.Wallet;
+import com.wallet.digital_wallet.enums.BatchMode;
+import com.wallet.digital_wallet.enums.TransactionStatus;
+import com.wallet.digital_wallet.enums.UserStatus;
+import com.wallet.digital_wallet.repository.MerchantRepository;
+import com.wallet.digital_wallet.repository.TransactionJdbcRepository;
+import com.wallet.digital_wallet.repository.WalletRepository;
+import com.wallet.digital_wallet.util.IdGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BatchTransactionServiceTest {
+
+    private final WalletRepository walletRepository = mock(WalletRepository.class);
+    private final TransactionJdbcRepository transactionJdbcRepository = mock(TransactionJdbcRepository.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final LedgerEngine ledgerEngine = mock(LedgerEngine.class);
+    private final BCryptPasswordEncoder passwordEncoder = spy(new BCryptPasswordEncoder(4));
+    private BatchTransactionService service;
+
+    private Wallet alice;
+    private Wallet bob;
+
+    @BeforeEach
+    void setUp() {
+        TransactionRetryExecutor retryExecutor = new TransactionRetryExecutor(3, 1, 2, new SimpleMeterRegistry());
+        WalletService walletService = new WalletService(walletRepository, retryExecutor, transactionTemplate,
+                mock(WalletShardService.class), ledgerEngine, mock(LedgerPostingService.class),
+                mock(WalletSnapshotCache.class));
+        service = new BatchTransactionService(walletRepository, mock(MerchantRepository.class), transactionJdbcRepository,
+                walletService, new WalletLockManager(64, 1000, new SimpleMeterRegistry()), retryExecutor,
+                transactionTemplate, ledgerEngine, mock(TransactionJournal.class), passwordEncoder, new IdGenerator(0),
+                mock(DailySpendTracker.class), mock(LedgerPostingService.class), mock(PaymentSessionService.class));
+        ReflectionTestUtils.setField(service, "maxItems", 100);
+
+        alice = wallet(1L, "alice", "100.00", passwordEncoder.encode("1234"));
+        bob = wallet(2L, "bob", "0.00", passwordEncoder.encode("9999"));
+        when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(walletRepository.findAllWithUserByIdIn(anyCollection())).thenReturn(List.of(alice, bob));
+        when(walletRepository.findAllWithUserByUsernameIn(anyCollection())).thenReturn(List.of(bob));
+    }
+
+    @Test
+    void execute_checksPinOncePerWalletAndSkipsFailingItems() {
+        BatchTransactionRequest request = new BatchTransactionRequest();
+        request.setTransfers(List.of(transfer("60.00"), transfer("60.00"), transfer("40.00")));
+
+        List<BatchItem> items = service.execute(request);
+
+        assertEquals(List.of(TransactionStatus.COMPLETED, TransactionStatus.FAILED, TransactionStatus.COMPLETED),
+                items.stream().map(BatchItem::getStatus).toList());
+        assertEquals("Insufficient balance", items.get(1).getError());
+        assertEquals(new BigDecimal("0.00"), alice.getBalance());
+        assertEquals(new BigDecimal("100.00"), bob.getBalance());
+        verify(passwordEncoder, times(1)).matches(eq("1234"), anyString());
+        verify(transactionJdbcRepository).batchInsert(anyList());
+    }
+
+    @Test
+    void execute_atomicModeCancelsEverythingWhenOneItemFails() {
+        BatchTransactionRequest request = new BatchTransactionRequest();
+        request.setMode(BatchMode.ATOMIC);
+        request.setTransfers(List.of(transfer("60.00"), transfer("60.00")));
+
+        List<BatchItem> items = service.execute(request);
+
+        assertEquals(List.of(TransactionStatus.CANCELLED, TransactionStatus.FAILED),
+                items.stream().map(BatchItem::getStatus).toList());
+        verify(transactionJdbcRepository, never()).batchInsert(anyList());
+    }
+
+    @Test
+    void execute_failsTransfersToInactiveReceivers() {
+        bob.getUser().setStatus(UserStatus.INACTIVE);
+        BatchTransactionRequest request = new BatchTransactionRequest();
+        request.setTransfers(List.of(transfer("10.00")));
+
+        List<BatchItem> items = service.execute(request);
+
+        assertEquals(TransactionStatus.FAILED, items.get(0).getStatus());
+        assertEquals("Receiver account is not active", items.get(0).getError());
+        assertEquals(new BigDecimal("100.00"), alice.getBalance());
+        assertEquals(new BigDecimal("0.00"), bob.getBalance());
+        verify(passwordEncoder, never()).matches(anyString(), anyString());
+    }
+
+    private static TransferRequest transfer(String amount) {
+        TransferRequest request = new TransferRequest();
+        request.setFromWalletId(1L);
+        request.setToUsername("bob");
+        request.setAmount(new BigDecimal(amount));
+        request.setPin("1234");
+        return request;
+    }
+
+    private static Wallet wallet(Long id, String username, String balance, String pinHash) {
+        return Wallet.builder()
+                .id(id)
+                .userId(id)
+                .balance(new BigDecimal(balance))
+                .shardCount(0)
+                .user(User.builder().id(id).username(username).pinHash(pinHash).build())
+                .build();
+    }
+}
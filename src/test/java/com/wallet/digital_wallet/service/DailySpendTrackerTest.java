@@ -0,0 +1,84 @@
+package com.wallet.digital_wallet.service;
+
+import com.wallet.digital_wallet.entity.WalletDailySpend;
+import com.wallet.digital_wallet.exception.InvalidTransactionException;
+import com.wallet.digital_wallet.repository.WalletDailySpendRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DailySpendTrackerTest {
+
+    private static final BigDecimal LIMIT = new BigDecimal("100.00");
+
+    private final WalletDailySpendRepository repository = mock(WalletDailySpendRepository.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+
+    @Test
+    void record_rebuildsFromRowAndRejectsInMemoryOnceTheLimitIsReached() {
+        // 23:30 in UTC is already the next day in Asia/Dubai (UTC+4).
+        Clock clock = Clock.fixed(Instant.parse("2026-03-01T23:30:00Z"), ZoneId.of("Asia/Dubai"));
+        LocalDate today = LocalDate.of(2026, 3, 2);
+        DailySpendTracker tracker = tracker(clock);
+        when(repository.findById(1L))
+                .thenReturn(Optional.of(new WalletDailySpend(1L, today, new BigDecimal("70.00"))))
+                .thenReturn(Optional.of(new WalletDailySpend(1L, today, new BigDecimal("90.00"))));
+        when(repository.addIfWithinLimit(1L, today, new BigDecimal("20.00"), LIMIT)).thenReturn(1);
+
+        tracker.record(1L, LIMIT, new BigDecimal("20.00"));
+        assertEquals(new BigDecimal("90.00"), tracker.spentToday(1L));
+
+        assertThrows(InvalidTransactionException.class, () -> tracker.record(1L, LIMIT, new BigDecimal("20.00")));
+        // The rejection was confirmed against the row, without attempting the upsert.
+        verify(repository, times(2)).findById(1L);
+        verify(repository, times(1)).addIfWithinLimit(any(), any(), any(), any());
+    }
+
+    @Test
+    void record_rollsOverLazilyAndHonoursTheDatabaseGuard() {
+        Clock clock = Clock.fixed(Instant.parse("2026-03-02T10:00:00Z"), ZoneOffset.UTC);
+        LocalDate today = LocalDate.of(2026, 3, 2);
+        DailySpendTracker tracker = tracker(clock);
+        when(repository.findById(1L)).thenReturn(
+                Optional.of(new WalletDailySpend(1L, today.minusDays(1), new BigDecimal("95.00"))));
+        when(repository.addIfWithinLimit(1L, today, new BigDecimal("60.00"), LIMIT)).thenReturn(1);
+        when(repository.addIfWithinLimit(1L, today, new BigDecimal("30.00"), LIMIT)).thenReturn(0);
+
+        assertEquals(BigDecimal.ZERO, tracker.spentToday(1L));
+        tracker.record(1L, LIMIT, new BigDecimal("60.00"));
+        // Another instance spent in between: the upsert rejects even though the bucket allows it.
+        assertThrows(InvalidTransactionException.class, () -> tracker.record(1L, LIMIT, new BigDecimal("30.00")));
+        assertEquals(new BigDecimal("60.00"), tracker.spentToday(1L));
+
+        when(repository.subtract(1L, today, new BigDecimal("60.00"))).thenReturn(1);
+        tracker.release(1L, new BigDecimal("60.00"));
+        assertEquals(new BigDecimal("0.00"), tracker.spentToday(1L));
+        verify(repository, never()).save(any());
+    }
+
+    private DailySpendTracker tracker(Clock clock) {
+        doAnswer(inv -> {
+            inv.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        return new DailySpendTracker(repository, transactionTemplate, clock);
+    }
+}
@@ -0,0 +1,225 @@
+package com.wallet.digital_wallet.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.digital_wallet.dto.request.TransferRequest;
+import com.wallet.digital_wallet.dto.response.TransactionResponse;
+import com.wallet.digital_wallet.entity.IdempotencyRecord;
+import com.wallet.digital_wallet.enums.IdempotencyStatus;
+import com.wallet.digital_wallet.enums.UserStatus;
+import com.wallet.digital_wallet.exception.DuplicateResourceException;
+import com.wallet.digital_wallet.exception.WalletBusyException;
+import com.wallet.digital_wallet.repository.IdempotencyRecordRepository;
+import com.wallet.digital_wallet.security.PrincipalCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdempotencyServiceTest {
+
+    private final IdempotencyRecordRepository repository = mock(IdempotencyRecordRepository.class);
+    private final PrincipalCache principalCache = mock(PrincipalCache.class);
+    private final IdempotencyService service = new IdempotencyService(repository, principalCache,
+            new ObjectMapper().findAndRegisterModules(), 100, 24, 5000);
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @BeforeEach
+    void claimsSucceed() {
+        when(repository.claim(anyString(), anyString(), any(), any())).thenReturn(1);
+    }
+
+    @Test
+    void repeatedKeyReplaysStoredResponse() {
+        when(repository.findById(anyString())).thenReturn(Optional.empty());
+        TransferRequest request = transfer("10.00");
+
+        TransactionResponse first = service.execute("key-1", "transfer", request, TransactionResponse.class, this::move);
+        TransactionResponse second = service.execute("key-1", "transfer", request, TransactionResponse.class, this::move);
+
+        assertEquals(1, executions.get());
+        assertEquals(first.getTransactionId(), second.getTransactionId());
+        assertThrows(DuplicateResourceException.class, () ->
+                service.execute("key-1", "transfer", transfer("99.00"), TransactionResponse.class, this::move));
+    }
+
+    @Test
+    void concurrentDuplicatesWaitForTheFirstExecution() throws Exception {
+        when(repository.findById(anyString())).thenReturn(Optional.empty());
+        TransferRequest request = transfer("10.00");
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<TransactionResponse>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(callers.submit(() -> service.execute("key-2", "transfer", request,
+                        TransactionResponse.class, () -> {
+                            try {
+                                release.await(5, TimeUnit.SECONDS);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                            return move();
+                        })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<TransactionResponse> result : results) {
+                assertEquals("TXN1", result.get(5, TimeUnit.SECONDS).getTransactionId());
+            }
+            assertEquals(1, executions.get());
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void missingKeyAlwaysExecutes() {
+        service.execute(null, "transfer", transfer("10.00"), TransactionResponse.class, this::move);
+        service.execute(" ", "transfer", transfer("10.00"), TransactionResponse.class, this::move);
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void keysAreScopedToTheAuthenticatedUser() {
+        when(repository.findById(anyString())).thenReturn(Optional.empty());
+        TransferRequest request = transfer("10.00");
+
+        authenticate("alice", 1L);
+        TransactionResponse alices = service.execute("key-3", "transfer", request, TransactionResponse.class, this::move);
+        authenticate("bob", 2L);
+        TransactionResponse bobs = service.execute("key-3", "transfer", request, TransactionResponse.class, this::move);
+
+        assertEquals(2, executions.get());
+        assertEquals("TXN1", alices.getTransactionId());
+        assertEquals("TXN2", bobs.getTransactionId());
+    }
+
+    @Test
+    void storedRequestHashDoesNotDependOnThePin() {
+        when(repository.findById(anyString())).thenReturn(Optional.empty());
+        TransferRequest otherPin = transfer("10.00");
+        otherPin.setPin("9876");
+
+        service.execute("key-4", "transfer", transfer("10.00"), TransactionResponse.class, this::move);
+        service.execute("key-5", "transfer", otherPin, TransactionResponse.class, this::move);
+
+        ArgumentCaptor<String> claimed = ArgumentCaptor.forClass(String.class);
+        verify(repository, times(2)).claim(anyString(), claimed.capture(), any(), any());
+        assertEquals(claimed.getAllValues().get(0), claimed.getAllValues().get(1));
+    }
+
+    @Test
+    void keyClaimedOnAnotherNodeReplaysItsResponseOnceCompleted() throws Exception {
+        TransferRequest request = transfer("10.00");
+        String requestHash = claimedHash("key-6", request);
+        String responseBody = new ObjectMapper().writeValueAsString(
+                TransactionResponse.builder().transactionId("TXN-OTHER").build());
+        when(repository.claim(anyString(), anyString(), any(), any())).thenReturn(0);
+        when(repository.findById("transfer:-:key-6"))
+                .thenReturn(Optional.of(record(requestHash, IdempotencyStatus.IN_PROGRESS, null)))
+                .thenReturn(Optional.of(record(requestHash, IdempotencyStatus.COMPLETED, responseBody)));
+
+        TransactionResponse replayed = service.execute("key-6", "transfer", request, TransactionResponse.class,
+                this::move);
+
+        assertEquals("TXN-OTHER", replayed.getTransactionId());
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    void failedExecutionReleasesItsClaimAndHeldKeysTimeOutWithoutExecuting() {
+        IdempotencyService impatient = new IdempotencyService(repository, principalCache,
+                new ObjectMapper().findAndRegisterModules(), 100, 24, 100);
+        TransferRequest request = transfer("10.00");
+        ArgumentCaptor<String> requestHash = ArgumentCaptor.forClass(String.class);
+
+        assertThrows(IllegalStateException.class, () -> impatient.execute("key-7", "transfer", request,
+                TransactionResponse.class, () -> {
+                    throw new IllegalStateException("declined");
+                }));
+        verify(repository).claim(eq("transfer:-:key-7"), requestHash.capture(), any(), any());
+        verify(repository).release("transfer:-:key-7", IdempotencyStatus.IN_PROGRESS);
+
+        when(repository.claim(anyString(), anyString(), any(), any())).thenReturn(0);
+        when(repository.findById("transfer:-:key-7"))
+                .thenReturn(Optional.of(record(requestHash.getValue(), IdempotencyStatus.IN_PROGRESS, null)));
+        assertThrows(WalletBusyException.class, () -> impatient.execute("key-7", "transfer", request,
+                TransactionResponse.class, this::move));
+        assertEquals(0, executions.get());
+        verify(repository, never()).complete(anyString(), anyString(), any(), any());
+    }
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private void authenticate(String username, Long userId) {
+        when(principalCache.get(username))
+                .thenReturn(new PrincipalCache.AuthState(userId, username, "USER", UserStatus.ACTIVE, 0, 0));
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated(username, null, List.of()));
+    }
+
+    /**
+     * Request hash the service claims a key with, taken from a throwaway execution on another instance.
+     */
+    private String claimedHash(String key, TransferRequest request) {
+        IdempotencyRecordRepository probe = mock(IdempotencyRecordRepository.class);
+        when(probe.claim(anyString(), anyString(), any(), any())).thenReturn(1);
+        new IdempotencyService(probe, principalCache, new ObjectMapper().findAndRegisterModules(), 100, 24, 5000)
+                .execute(key, "transfer", request, TransactionResponse.class, TransactionResponse::new);
+        ArgumentCaptor<String> requestHash = ArgumentCaptor.forClass(String.class);
+        verify(probe).claim(anyString(), requestHash.capture(), any(), any());
+        return requestHash.getValue();
+    }
+
+    private static IdempotencyRecord record(String requestHash, IdempotencyStatus status, String responseBody) {
+        LocalDateTime now = LocalDateTime.now();
+        return IdempotencyRecord.builder().key("k").requestHash(requestHash).status(status)
+                .responseBody(responseBody).createdAt(now).expiresAt(now.plusHours(1)).build();
+    }
+
+    private TransactionResponse move() {
+        return TransactionResponse.builder()
+                .transactionId("TXN" + executions.incrementAndGet())
+                .amount(new BigDecimal("10.00"))
+                .build();
+    }
+
+    private static TransferRequest transfer(String amount) {
+        TransferRequest request = new TransferRequest();
+        request.setFromWalletId(1L);
+        request.setToUsername("bob");
+        request.setAmount(new BigDecimal(amount));
+        request.setPin("1234");
+        return request;
+    }
+}
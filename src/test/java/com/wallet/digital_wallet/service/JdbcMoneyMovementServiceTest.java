@@ -0,0 +1,138 @@
+package com.wallet.digital_wallet.service;
+
+import com.wallet.digital_wallet.dto.request.MerchantPaymentRequest;
+import com.wallet.digital_wallet.dto.request.TransferRequest;
+import com.wallet.digital_wallet.entity.Merchant;
+import com.wallet.digital_wallet.entity.Transaction;
+import com.wallet.digital_wallet.entity.WalletBalanceShard;
+import com.wallet.digital_wallet.enums.UserStatus;
+import com.wallet.digital_wallet.exception.InsufficientBalanceException;
+import com.wallet.digital_wallet.exception.ResourceNotFoundException;
+import com.wallet.digital_wallet.repository.TransactionJdbcRepository;
+import com.wallet.digital_wallet.repository.WalletBalanceShardRepository;
+import com.wallet.digital_wallet.repository.WalletOwnerView;
+import com.wallet.digital_wallet.repository.WalletRepository;
+import com.wallet.digital_wallet.util.IdGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JdbcMoneyMovementServiceTest {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("10.00");
+
+    private final WalletRepository walletRepository = mock(WalletRepository.class);
+    private final WalletBalanceShardRepository shardRepository = mock(WalletBalanceShardRepository.class);
+    private final TransactionJdbcRepository transactionJdbcRepository = mock(TransactionJdbcRepository.class);
+    private final MerchantService merchantService = mock(MerchantService.class);
+    private final TransactionRetryExecutor retryExecutor = mock(TransactionRetryExecutor.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final PaymentSessionService paymentSessionService = mock(PaymentSessionService.class);
+    private final WalletSnapshotCache walletSnapshotCache = mock(WalletSnapshotCache.class);
+    private final JdbcMoneyMovementService service = new JdbcMoneyMovementService(walletRepository,
+            transactionJdbcRepository, merchantService,
+            new WalletShardService(walletRepository, shardRepository, mock(WalletLockManager.class), retryExecutor,
+                    transactionTemplate, mock(LedgerEngine.class), walletSnapshotCache),
+            retryExecutor, transactionTemplate, new IdGenerator(0), mock(DailySpendTracker.class),
+            mock(LedgerPostingService.class), paymentSessionService, walletSnapshotCache);
+    private final WalletOwnerView alice = view(1L, "alice");
+    private final WalletOwnerView bob = view(2L, "bob");
+
+    @BeforeEach
+    void runMovementsInline() {
+        when(retryExecutor.execute(anyString(), any())).thenAnswer(inv -> ((Supplier<?>) inv.getArgument(1)).get());
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(inv -> ((TransactionCallback<?>) inv.getArgument(0)).doInTransaction(null));
+        when(paymentSessionService.authorized(any(), any(), any(), any(), any(), any()))
+                .thenAnswer(inv -> ((Supplier<?>) inv.getArgument(5)).get());
+        when(transactionJdbcRepository.insert(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(merchantService.getMerchantByCode("SHOP")).thenReturn(Merchant.builder().merchantCode("SHOP").build());
+    }
+
+    @Test
+    void payMerchant_debitsAnUnshardedWalletWithTheGuardedUpdate() {
+        when(walletRepository.findOwnerByWalletId(1L)).thenReturn(Optional.of(alice));
+        when(walletRepository.debitIfSufficient(1L, AMOUNT)).thenReturn(1);
+
+        Transaction txn = service.payMerchant(payment());
+
+        assertEquals(AMOUNT, txn.getAmount());
+        verify(shardRepository, never()).lockByWalletId(any());
+    }
+
+    @Test
+    void payMerchant_fallsThroughToTheShardsOfAWalletPromotedMeanwhile() {
+        WalletBalanceShard shard = WalletBalanceShard.builder().walletId(1L).shardIndex(0)
+                .balance(new BigDecimal("25.00")).build();
+        when(walletRepository.findOwnerByWalletId(1L)).thenReturn(Optional.of(alice));
+        when(walletRepository.debitIfSufficient(1L, AMOUNT)).thenReturn(0);
+        when(walletRepository.findShardCountById(1L)).thenReturn(Optional.of(1));
+        when(shardRepository.lockByWalletId(1L)).thenReturn(List.of(shard));
+
+        service.payMerchant(payment());
+
+        assertEquals(new BigDecimal("15.00"), shard.getBalance());
+    }
+
+    @Test
+    void payMerchant_withTooLittleBalanceIsRejected() {
+        when(walletRepository.findOwnerByWalletId(1L)).thenReturn(Optional.of(alice));
+        when(walletRepository.debitIfSufficient(1L, AMOUNT)).thenReturn(0);
+        when(walletRepository.findShardCountById(1L)).thenReturn(Optional.of(0));
+
+        assertThrows(InsufficientBalanceException.class, () -> service.payMerchant(payment()));
+        verify(transactionJdbcRepository, never()).insert(any());
+    }
+
+    @Test
+    void transfer_toAWalletThatNoLongerExistsFails() {
+        when(walletRepository.findOwnerByWalletId(1L)).thenReturn(Optional.of(alice));
+        when(walletRepository.findOwnerByUsername("bob")).thenReturn(Optional.of(bob));
+        when(walletRepository.debitIfSufficient(1L, AMOUNT)).thenReturn(1);
+        when(walletRepository.creditIfUnsharded(2L, AMOUNT)).thenReturn(0);
+        when(walletRepository.findShardCountById(2L)).thenReturn(Optional.empty());
+
+        TransferRequest request = new TransferRequest();
+        request.setFromWalletId(1L);
+        request.setToUsername("bob");
+        request.setAmount(AMOUNT);
+        request.setPin("1234");
+
+        assertThrows(ResourceNotFoundException.class, () -> service.transfer(request));
+        verify(transactionJdbcRepository, never()).insert(any());
+    }
+
+    private static MerchantPaymentRequest payment() {
+        MerchantPaymentRequest request = new MerchantPaymentRequest();
+        request.setFromWalletId(1L);
+        request.setMerchantCode("SHOP");
+        request.setAmount(AMOUNT);
+        request.setPin("1234");
+        return request;
+    }
+
+    private static WalletOwnerView view(Long walletId, String username) {
+        WalletOwnerView view = mock(WalletOwnerView.class);
+        when(view.getWalletId()).thenReturn(walletId);
+        when(view.getUsername()).thenReturn(username);
+        when(view.getShardCount()).thenReturn(0);
+        when(view.getDailyLimit()).thenReturn(new BigDecimal("1000.00"));
+        when(view.getUserStatus()).thenReturn(UserStatus.ACTIVE);
+        return view;
+    }
+}
@@ -0,0 +1,141 @@
+package com.wallet.digital_wallet.service;
+
+import com.wallet.digital_wallet.entity.Wallet;
+import com.wallet.digital_wallet.exception.InsufficientBalanceException;
+import com.wallet.digital_wallet.exception.WalletBusyException;
+import com.wallet.digital_wallet.repository.WalletRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LedgerEngineTest {
+
+    @TempDir
+    Path journalDir;
+
+    private final WalletRepository walletRepository = mock(WalletRepository.class);
+    private final LedgerPersister persister = mock(LedgerPersister.class);
+    private LedgerEngine engine;
+
+    @AfterEach
+    void stopEngine() throws Exception {
+        if (engine != null) {
+            engine.stop();
+        }
+    }
+
+    @Test
+    void transfer_movesMoneyAcrossPartitionsWithoutLosingUpdates() throws Exception {
+        startEngine(4);
+        List<Long> walletIds = List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int offset = t;
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < 500; i++) {
+                    long from = walletIds.get((offset + i) % walletIds.size());
+                    long to = walletIds.get((offset + i + 1) % walletIds.size());
+                    engine.transfer(from, to, new BigDecimal("1.25"), "TXN" + offset + "-" + i, "REF" + offset + "-" + i, null);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        engine.stop();
+
+        BigDecimal total = walletIds.stream()
+                .map(id -> engine.balanceOf(id).orElseThrow())
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertEquals(new BigDecimal("8000.00"), total);
+    }
+
+    @Test
+    void transfer_rejectsOverdraftAndLeavesBalancesUntouched() throws Exception {
+        startEngine(2);
+
+        assertThrows(InsufficientBalanceException.class,
+                () -> engine.transfer(1L, 2L, new BigDecimal("1000.01"), "TXN1", "REF1", null));
+
+        LedgerEntry entry = engine.transfer(1L, 2L, new BigDecimal("1000.00"), "TXN2", "REF2", "rent");
+        assertEquals(1, entry.sequence());
+        assertEquals(100_000, entry.amountCents());
+        assertEquals(new BigDecimal("0.00"), engine.balanceOf(1L).orElseThrow());
+    }
+
+    @Test
+    void transfer_leavesBalancesUntouchedWhenTheJournalFsyncFails() throws Exception {
+        List<LedgerJournal> journals = new ArrayList<>();
+        stubWallets();
+        engine = new LedgerEngine(walletRepository, persister, "engine", 2, 64, 32, 5000, journalDir.toString()) {
+            @Override
+            LedgerJournal openJournal(Path file) throws IOException {
+                LedgerJournal journal = super.openJournal(file);
+                journals.add(journal);
+                return journal;
+            }
+        };
+        engine.start();
+        long from = 1L;
+        long to = 2L;
+        while (engine.partitionOf(to) == engine.partitionOf(from)) {
+            to++;
+        }
+        engine.transfer(from, to, new BigDecimal("100.00"), "TXN1", "REF1", null);
+        waitForBalance(to, new BigDecimal("1100.00"));
+
+        // A closed channel makes the next flush of the sender's partition throw.
+        journals.get(engine.partitionOf(from)).close();
+        long receiver = to;
+        assertThrows(WalletBusyException.class,
+                () -> engine.transfer(from, receiver, new BigDecimal("50.00"), "TXN2", "REF2", null));
+
+        assertEquals(new BigDecimal("900.00"), engine.balanceOf(from).orElseThrow());
+        Thread.sleep(50);
+        assertEquals(new BigDecimal("1100.00"), engine.balanceOf(to).orElseThrow());
+    }
+
+    private void waitForBalance(long walletId, BigDecimal expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!expected.equals(engine.balanceOf(walletId).orElse(null)) && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, engine.balanceOf(walletId).orElseThrow());
+    }
+
+    private void startEngine(int partitions) throws Exception {
+        stubWallets();
+        engine = new LedgerEngine(walletRepository, persister, "engine", partitions, 64, 32, 5000, journalDir.toString());
+        engine.start();
+    }
+
+    private void stubWallets() {
+        when(persister.loadCheckpoints()).thenReturn(Map.of());
+        when(walletRepository.findById(anyLong())).thenAnswer(invocation -> Optional.of(Wallet.builder()
+                .id(invocation.getArgument(0))
+                .balance(new BigDecimal("1000.00"))
+                .shardCount(0)
+                .build()));
+    }
+}
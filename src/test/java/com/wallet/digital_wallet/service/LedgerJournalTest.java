@@ -0,0 +1,62 @@
+package com.wallet.digital_wallet.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LedgerJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readAll_returnsFlushedRecordsInOrder() throws Exception {
+        Path file = dir.resolve("ledger-p0.journal");
+        try (LedgerJournal journal = new LedgerJournal(file)) {
+            journal.append(entry(1, "first"));
+            journal.append(entry(2, null));
+            journal.flush();
+        }
+
+        try (LedgerJournal journal = new LedgerJournal(file)) {
+            List<LedgerEntry> entries = journal.readAll(0);
+            assertEquals(2, entries.size());
+            assertEquals(entry(1, "first"), entries.get(0));
+            assertNull(entries.get(1).description());
+        }
+    }
+
+    @Test
+    void readAll_dropsTornTailAndKeepsAppending() throws Exception {
+        Path file = dir.resolve("ledger-p0.journal");
+        try (LedgerJournal journal = new LedgerJournal(file)) {
+            journal.append(entry(1, "kept"));
+            journal.flush();
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 60, 1, 2, 3}));
+        }
+
+        try (LedgerJournal journal = new LedgerJournal(file)) {
+            assertEquals(1, journal.readAll(0).size());
+            journal.append(entry(2, "after"));
+            journal.flush();
+        }
+        try (LedgerJournal journal = new LedgerJournal(file)) {
+            assertEquals(List.of(entry(1, "kept"), entry(2, "after")), journal.readAll(0));
+        }
+    }
+
+    private static LedgerEntry entry(long sequence, String description) {
+        return new LedgerEntry(sequence, 0, LedgerEntry.Kind.TRANSFER, "TXN" + sequence, "REF" + sequence,
+                10, 20, 0, 1250, 1_700_000_000_000L, description);
+    }
+}
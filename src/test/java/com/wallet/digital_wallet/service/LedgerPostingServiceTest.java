@@ -0,0 +1,151 @@
+package com.wallet.digital_wallet.service;
+
+import com.wallet.digital_wallet.entity.LedgerPosting;
+import com.wallet.digital_wallet.entity.Merchant;
+import com.wallet.digital_wallet.entity.Transaction;
+import com.wallet.digital_wallet.entity.Wallet;
+import com.wallet.digital_wallet.entity.WalletBalanceCheckpoint;
+import com.wallet.digital_wallet.enums.EntryDirection;
+import com.wallet.digital_wallet.enums.LedgerAccountType;
+import com.wallet.digital_wallet.enums.TransactionType;
+import com.wallet.digital_wallet.repository.LedgerPostingJdbcRepository;
+import com.wallet.digital_wallet.repository.LedgerPostingRepository;
+import com.wallet.digital_wallet.repository.WalletBalanceCheckpointRepository;
+import com.wallet.digital_wallet.repository.WalletEntryCount;
+import com.wallet.digital_wallet.util.IdGenerator;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LedgerPostingServiceTest {
+
+    private final LedgerPostingJdbcRepository postingJdbcRepository = mock(LedgerPostingJdbcRepository.class);
+    private final LedgerPostingRepository postingRepository = mock(LedgerPostingRepository.class);
+    private final WalletBalanceCheckpointRepository checkpointRepository = mock(WalletBalanceCheckpointRepository.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final LedgerPostingService service = new LedgerPostingService(postingJdbcRepository, postingRepository,
+            checkpointRepository, transactionTemplate, new IdGenerator(0), true, 1000, 60000);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void postAll_writesBalancedDebitAndCreditLegsInOneBatch() {
+        Transaction transfer = Transaction.builder()
+                .referenceNumber("REF1")
+                .fromWallet(Wallet.builder().id(1L).build())
+                .toWallet(Wallet.builder().id(2L).build())
+                .amount(new BigDecimal("40.00"))
+                .type(TransactionType.PEER_TRANSFER)
+                .build();
+        Transaction payment = Transaction.builder()
+                .referenceNumber("REF2")
+                .fromWallet(Wallet.builder().id(1L).build())
+                .merchant(Merchant.builder().id(7L).build())
+                .amount(new BigDecimal("5.00"))
+                .type(TransactionType.MERCHANT_PAYMENT)
+                .build();
+
+        service.postAll(List.of(transfer, payment));
+        service.postTopUp(2L, new BigDecimal("10.00"));
+
+        ArgumentCaptor<List<LedgerPosting>> batches = ArgumentCaptor.forClass(List.class);
+        verify(postingJdbcRepository, times(2)).batchInsert(batches.capture());
+        List<LedgerPosting> legs = batches.getAllValues().get(0);
+        assertEquals(4, legs.size());
+        assertLeg(legs.get(0), "REF1", LedgerAccountType.WALLET, 1L, EntryDirection.DEBIT);
+        assertLeg(legs.get(1), "REF1", LedgerAccountType.WALLET, 2L, EntryDirection.CREDIT);
+        assertLeg(legs.get(2), "REF2", LedgerAccountType.WALLET, 1L, EntryDirection.DEBIT);
+        assertLeg(legs.get(3), "REF2", LedgerAccountType.MERCHANT, 7L, EntryDirection.CREDIT);
+
+        List<LedgerPosting> topUp = batches.getAllValues().get(1);
+        assertEquals(LedgerAccountType.FUNDING, topUp.get(0).getAccountType());
+        assertNull(topUp.get(0).getAccountId());
+        assertEquals(topUp.get(0).getReferenceNumber(), topUp.get(1).getReferenceNumber());
+        assertTrue(topUp.get(1).getReferenceNumber().startsWith("TOP"));
+        assertLeg(topUp.get(1), topUp.get(1).getReferenceNumber(), LedgerAccountType.WALLET, 2L, EntryDirection.CREDIT);
+    }
+
+    @Test
+    void balanceAt_replaysOnlyLegsAfterTheNearestCheckpoint() {
+        LocalDateTime coveredUntil = LocalDateTime.of(2026, 3, 1, 12, 0);
+        LocalDateTime at = coveredUntil.plusHours(1);
+        when(checkpointRepository.findFirstByWalletIdAndCoveredUntilLessThanEqualOrderByCoveredUntilDesc(1L, at))
+                .thenReturn(Optional.of(WalletBalanceCheckpoint.builder()
+                        .walletId(1L).coveredUntil(coveredUntil).balance(new BigDecimal("100.00")).build()));
+        when(postingRepository.sumWalletBetween(eq(1L), eq(coveredUntil), eq(at))).thenReturn(new BigDecimal("-25.00"));
+
+        assertEquals(new BigDecimal("75.00"), service.balanceAt(1L, at));
+        verify(postingRepository).sumWalletBetween(eq(1L), eq(coveredUntil), any());
+    }
+
+    @Test
+    void checkpoint_countsOnlyLegsSinceThePreviousRunAndCarriesPendingCounts() {
+        LocalDateTime lastCutoff = LocalDateTime.of(2026, 3, 1, 12, 0);
+        when(checkpointRepository.findLatestCheckpointCutoff()).thenReturn(Optional.of(lastCutoff));
+        when(postingRepository.sumWalletBetween(any(), any(), any())).thenReturn(BigDecimal.ZERO);
+        doAnswer(inv -> {
+            Consumer<TransactionStatus> action = inv.getArgument(0);
+            action.accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(postingRepository.countWalletLegsBetween(any(), any()))
+                .thenReturn(List.of(legs(1L, 600), legs(2L, 1000)))
+                .thenReturn(List.of(legs(1L, 400)))
+                .thenReturn(List.of(legs(2L, 10)));
+
+        service.checkpoint();
+        service.checkpoint();
+        service.checkpoint();
+
+        ArgumentCaptor<LocalDateTime> from = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> to = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(postingRepository, times(3)).countWalletLegsBetween(from.capture(), to.capture());
+        assertEquals(lastCutoff, from.getAllValues().get(0));
+        assertEquals(to.getAllValues().get(0), from.getAllValues().get(1));
+        assertEquals(to.getAllValues().get(1), from.getAllValues().get(2));
+        verify(checkpointRepository, times(1)).findLatestCheckpointCutoff();
+
+        ArgumentCaptor<WalletBalanceCheckpoint> saved = ArgumentCaptor.forClass(WalletBalanceCheckpoint.class);
+        verify(checkpointRepository, times(2)).save(saved.capture());
+        assertEquals(List.of(2L, 1L), saved.getAllValues().stream().map(WalletBalanceCheckpoint::getWalletId).toList());
+    }
+
+    private static WalletEntryCount legs(Long walletId, long count) {
+        return new WalletEntryCount() {
+            @Override
+            public Long getWalletId() {
+                return walletId;
+            }
+
+            @Override
+            public Long getEntryCount() {
+                return count;
+            }
+        };
+    }
+
+    private static void assertLeg(LedgerPosting leg, String reference, LedgerAccountType accountType, Long accountId,
+                                  EntryDirection direction) {
+        assertEquals(reference, leg.getReferenceNumber());
+        assertEquals(accountType, leg.getAccountType());
+        assertEquals(accountId, leg.getAccountId());
+        assertEquals(direction, leg.getDirection());
+    }
+}
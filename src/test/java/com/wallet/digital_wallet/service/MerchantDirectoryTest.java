@@ -0,0 +1,69 @@
+package com.wallet.digital_wallet.service;
+
+import com.wallet.digital_wallet.entity.Merchant;
+import com.wallet.digital_wallet.repository.MerchantRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MerchantDirectoryTest {
+
+    private final MerchantRepository merchantRepository = mock(MerchantRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MerchantDirectory directory = new MerchantDirectory(merchantRepository, meterRegistry, 100, 600, 30, false);
+
+    @Test
+    void cachesMerchantsByCodeAndIdAndRemembersUnknownCodes() {
+        Merchant coffee = Merchant.builder().id(5L).merchantCode("MERCOFFEE").merchantName("Coffee").email("c@x").build();
+        when(merchantRepository.findByMerchantCode("MERCOFFEE")).thenReturn(Optional.of(coffee));
+        when(merchantRepository.findByMerchantCode("MERNONE")).thenReturn(Optional.empty());
+
+        Merchant first = directory.findByCode("MERCOFFEE").orElseThrow();
+        Merchant second = directory.findByCode("MERCOFFEE").orElseThrow();
+        assertNotSame(first, second);
+        assertEquals("Coffee", directory.findById(5L).orElseThrow().getMerchantName());
+        verify(merchantRepository, times(1)).findByMerchantCode("MERCOFFEE");
+
+        assertTrue(directory.findByCode("MERNONE").isEmpty());
+        assertTrue(directory.findByCode("MERNONE").isEmpty());
+        verify(merchantRepository, times(1)).findByMerchantCode("MERNONE");
+
+        directory.refresh(Merchant.builder().id(5L).merchantCode("MERCOFFEE").merchantName("Coffee Bar").email("c@x").build());
+        assertEquals("Coffee Bar", directory.findByCode("MERCOFFEE").orElseThrow().getMerchantName());
+        assertEquals(1.0, meterRegistry.get("wallet.merchant.directory").tag("result", "negative-hit").counter().count());
+        assertEquals(2.0, meterRegistry.get("wallet.merchant.directory").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void loadRacingAnUpdateDoesNotCacheTheOldMerchant() {
+        Merchant before = Merchant.builder().id(6L).merchantCode("MERTEA").merchantName("Tea").email("t@x").build();
+        Merchant after = Merchant.builder().id(6L).merchantCode("MERTEA").merchantName("Tea House").email("t@x").build();
+        // The update commits (and refreshes the directory) after the lookup read the old row.
+        when(merchantRepository.findByMerchantCode("MERTEA")).thenAnswer(inv -> {
+            directory.refresh(after);
+            return Optional.of(before);
+        });
+        when(merchantRepository.findByMerchantCode("MERNEW")).thenAnswer(inv -> {
+            directory.refresh(Merchant.builder().id(7L).merchantCode("MERNEW").merchantName("New").email("n@x").build());
+            return Optional.empty();
+        });
+
+        assertEquals("Tea", directory.findByCode("MERTEA").orElseThrow().getMerchantName());
+        assertEquals("Tea House", directory.findByCode("MERTEA").orElseThrow().getMerchantName());
+        assertEquals("Tea House", directory.findById(6L).orElseThrow().getMerchantName());
+
+        assertTrue(directory.findByCode("MERNEW").isEmpty());
+        assertEquals("New", directory.findByCode("MERNEW").orElseThrow().getMerchantName());
+        verify(merchantRepository, times(1)).findByMerchantCode("MERTEA");
+        verify(merchantRepository, times(1)).findByMerchantCode("MERNEW");
+    }
+}
@@ -0,0 +1,82 @@
+package com.wallet.digital_wallet.service;
+
+import com.wallet.digital_wallet.enums.UserStatus;
+import com.wallet.digital_wallet.exception.InsufficientBalanceException;
+import com.wallet.digital_wallet.exception.InvalidTransactionException;
+import com.wallet.digital_wallet.repository.WalletOwnerView;
+import com.wallet.digital_wallet.repository.WalletRepository;
+import com.wallet.digital_wallet.util.IdGenerator;
+import com.wallet.digital_wallet.util.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PaymentSessionServiceTest {
+
+    private final WalletRepository walletRepository = mock(WalletRepository.class);
+    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+    private final JwtUtil jwtUtil = new JwtUtil();
+    private PaymentSessionService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new PaymentSessionService(walletRepository, jwtUtil, passwordEncoder, new IdGenerator(0),
+                300, new BigDecimal("500"), 3);
+        WalletOwnerView owner = mock(WalletOwnerView.class);
+        when(owner.getWalletId()).thenReturn(1L);
+        when(owner.getUsername()).thenReturn("alice");
+        when(owner.getPinHash()).thenReturn(passwordEncoder.encode("1234"));
+        when(owner.getUserStatus()).thenReturn(UserStatus.ACTIVE);
+        when(walletRepository.findOwnerByWalletId(1L)).thenReturn(Optional.of(owner));
+    }
+
+    @Test
+    void token_replacesPinWithinItsBudgetAndGetsRejectedPaymentsBack() {
+        PaymentSessionService.PaymentSession session = service.issue(1L, "1234", new BigDecimal("100"), null);
+        assertEquals(new BigDecimal("100"), session.maxAmount());
+        assertEquals(3, session.maxPayments());
+        assertFalse(jwtUtil.validateToken(session.token(), "alice"));
+
+        assertTrue(service.authorize(1L, null, null, session.token(), new BigDecimal("60")));
+        assertThrows(InvalidTransactionException.class,
+                () -> service.authorize(1L, null, null, session.token(), new BigDecimal("50")));
+        assertThrows(InvalidTransactionException.class,
+                () -> service.authorize(2L, null, null, session.token(), BigDecimal.ONE));
+
+        // A definite rejection gives the charge back, so the 40 left can still be spent.
+        assertThrows(InsufficientBalanceException.class, () -> service.authorized(1L, null, null, session.token(),
+                new BigDecimal("40"), () -> {
+                    throw new InsufficientBalanceException("Insufficient balance");
+                }));
+        assertEquals("ok", service.authorized(1L, null, null, session.token(), new BigDecimal("40"), () -> "ok"));
+        assertThrows(InvalidTransactionException.class,
+                () -> service.authorize(1L, null, null, session.token(), BigDecimal.ONE));
+    }
+
+    @Test
+    void revokedOrForgedTokensAreRejectedAndPinStillWorks() {
+        PaymentSessionService.PaymentSession session = service.issue(1L, "1234", null, null);
+        assertEquals(new BigDecimal("500"), session.maxAmount());
+
+        service.revokeUser("alice");
+        assertThrows(InvalidTransactionException.class,
+                () -> service.authorize(1L, null, null, session.token(), BigDecimal.ONE));
+        assertThrows(InvalidTransactionException.class,
+                () -> service.authorize(1L, null, null, jwtUtil.generateToken("alice"), BigDecimal.ONE));
+        assertThrows(InvalidTransactionException.class, () -> service.issue(1L, "0000", null, null));
+
+        String pinHash = passwordEncoder.encode("1234");
+        assertFalse(service.authorize(1L, pinHash, "1234", null, BigDecimal.ONE));
+        assertThrows(InvalidTransactionException.class, () -> service.authorize(1L, pinHash, null, null, BigDecimal.ONE));
+    }
+}
@@ -0,0 +1,93 @@
+package com.wallet.digital_wallet.service;
+
+import com.wallet.digital_wallet.entity.ReconciliationDiscrepancy;
+import com.wallet.digital_wallet.entity.ReconciliationRun;
+import com.wallet.digital_wallet.enums.ReconciliationStatus;
+import com.wallet.digital_wallet.exception.InvalidTransactionException;
+import com.wallet.digital_wallet.repository.ReconciliationDiscrepancyRepository;
+import com.wallet.digital_wallet.repository.ReconciliationJdbcRepository;
+import com.wallet.digital_wallet.repository.ReconciliationRunRepository;
+import com.wallet.digital_wallet.repository.WalletBalanceCheck;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReconciliationServiceTest {
+
+    private final ReconciliationJdbcRepository jdbcRepository = mock(ReconciliationJdbcRepository.class);
+    private final ReconciliationRunRepository runRepository = mock(ReconciliationRunRepository.class);
+    private final LedgerPostingService ledgerPostingService = mock(LedgerPostingService.class);
+
+    @Test
+    void execute_scansEveryIdRangeOnceAndRecordsMismatches() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ReconciliationService service = new ReconciliationService(jdbcRepository, runRepository,
+                mock(ReconciliationDiscrepancyRepository.class), ledgerPostingService, transactionManager, meterRegistry, true, 3, 4);
+
+        // Wallet IDs 1..10; wallets 3 and 8 are off by one.
+        when(jdbcRepository.walletIdRange()).thenReturn(new long[]{1, 10});
+        List<Long> scannedIds = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(inv -> {
+            long from = inv.getArgument(0);
+            long to = inv.getArgument(1);
+            Consumer<WalletBalanceCheck> consumer = inv.getArgument(2);
+            for (long id = from; id < to; id++) {
+                scannedIds.add(id);
+                BigDecimal expected = new BigDecimal("10.00");
+                consumer.accept(new WalletBalanceCheck(id, id == 3 || id == 8 ? expected.add(BigDecimal.ONE) : expected, expected));
+            }
+            return null;
+        }).when(jdbcRepository).scan(anyLong(), anyLong(), any());
+        List<ReconciliationDiscrepancy> recorded = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(inv -> recorded.addAll(inv.getArgument(0))).when(jdbcRepository).insertDiscrepancies(any());
+        when(ledgerPostingService.balanceOf(anyLong())).thenReturn(new BigDecimal("10.00"));
+
+        ReconciliationRun run = ReconciliationRun.builder()
+                .id(5L).status(ReconciliationStatus.RUNNING).startedAt(LocalDateTime.now()).build();
+        service.execute(run);
+
+        assertEquals(ReconciliationStatus.COMPLETED, run.getStatus());
+        assertEquals(10L, run.getWalletsScanned());
+        assertEquals(2L, run.getDiscrepancyCount());
+        assertEquals(10, scannedIds.stream().distinct().count());
+        assertEquals(10, scannedIds.size());
+        assertEquals(List.of(3L, 8L), recorded.stream().map(ReconciliationDiscrepancy::getWalletId).sorted().toList());
+        assertEquals(BigDecimal.ONE, recorded.get(0).getDifference().stripTrailingZeros());
+        assertEquals(new BigDecimal("10.00"), recorded.get(0).getLedgerBalance());
+        assertEquals(1.0, meterRegistry.get("wallet.reconciliation.progress").gauge().value());
+        assertEquals(10.0, meterRegistry.get("wallet.reconciliation.wallets.scanned").counter().count());
+        verify(runRepository, times(1)).save(run);
+    }
+
+    @Test
+    void start_isRefusedWithoutTheLedger() {
+        ReconciliationService service = new ReconciliationService(jdbcRepository, runRepository,
+                mock(ReconciliationDiscrepancyRepository.class), ledgerPostingService, mock(PlatformTransactionManager.class),
+                new SimpleMeterRegistry(), false, 3, 4);
+
+        assertThrows(InvalidTransactionException.class, service::start);
+        service.scheduledRun();
+        verify(runRepository, never()).save(any());
+    }
+}
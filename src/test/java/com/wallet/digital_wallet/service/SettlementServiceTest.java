@@ -0,0 +1,186 @@
+package com.wallet.digital_wallet.service;
+
+import com.wallet.digital_wallet.entity.Transaction;
+import com.wallet.digital_wallet.entity.User;
+import com.wallet.digital_wallet.entity.Wallet;
+import com.wallet.digital_wallet.enums.TransactionStatus;
+import com.wallet.digital_wallet.enums.TransactionType;
+import com.wallet.digital_wallet.repository.TransactionRepository;
+import com.wallet.digital_wallet.repository.WalletRepository;
+import com.wallet.digital_wallet.util.IdGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SettlementServiceTest {
+
+    private final TransactionRepository transactionRepository = mock(TransactionRepository.class);
+    private final WalletRepository walletRepository = mock(WalletRepository.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final TransactionJournal transactionJournal = mock(TransactionJournal.class);
+    private SettlementService service;
+
+    private Wallet alice;
+    private Wallet bob;
+
+    @BeforeEach
+    void setUp() {
+        TransactionRetryExecutor retryExecutor = new TransactionRetryExecutor(3, 1, 2, new SimpleMeterRegistry());
+        LedgerEngine ledgerEngine = mock(LedgerEngine.class);
+        WalletService walletService = new WalletService(walletRepository, retryExecutor, transactionTemplate,
+                mock(WalletShardService.class), ledgerEngine, mock(LedgerPostingService.class),
+                mock(WalletSnapshotCache.class));
+        service = new SettlementService(transactionRepository, mock(BatchTransactionService.class), walletService,
+                new WalletLockManager(64, 1000, new SimpleMeterRegistry()), retryExecutor, transactionTemplate,
+                transactionJournal, ledgerEngine, new IdGenerator(0), mock(DailySpendTracker.class),
+                mock(LedgerPostingService.class), new SimpleMeterRegistry(),
+                true, 2, 10, 1);
+
+        alice = wallet(1L, "alice", "100.00");
+        bob = wallet(2L, "bob", "0.00");
+        when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(walletRepository.findById(1L)).thenReturn(Optional.of(alice));
+        when(walletRepository.findById(2L)).thenReturn(Optional.of(bob));
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    @Test
+    void settle_movesBalancesAndNotifiesSubscribers() throws Exception {
+        Transaction txn = pending(10L, "REF1", "40.00");
+        CompletableFuture<Transaction> settled = service.awaitSettlement("REF1");
+        assertFalse(settled.isDone());
+
+        service.settle(10L);
+
+        assertEquals(TransactionStatus.COMPLETED, txn.getStatus());
+        assertEquals(new BigDecimal("60.00"), alice.getBalance());
+        assertEquals(new BigDecimal("40.00"), bob.getBalance());
+        assertSame(txn, settled.getNow(null));
+        verify(transactionJournal).appendCommitted(List.of(txn));
+    }
+
+    @Test
+    void settle_marksInsufficientBalanceAsFailedWithoutMovingMoney() throws Exception {
+        Transaction txn = pending(11L, "REF2", "150.00");
+
+        service.settle(11L);
+
+        assertEquals(TransactionStatus.FAILED, txn.getStatus());
+        assertEquals("Insufficient balance", txn.getFailureReason());
+        assertEquals(new BigDecimal("100.00"), alice.getBalance());
+        assertEquals(new BigDecimal("0.00"), bob.getBalance());
+        verify(transactionJournal, never()).appendCommitted(any());
+        assertTrue(service.awaitSettlement("REF2").isDone());
+    }
+
+    @Test
+    void settle_retriesTransientFailuresInsteadOfFailingTheTransaction() throws Exception {
+        Transaction txn = pending(12L, "REF3", "40.00");
+        when(transactionRepository.findById(12L))
+                .thenThrow(new QueryTimeoutException("statement timeout"))
+                .thenReturn(Optional.of(txn));
+
+        service.start();
+        try {
+            service.settle(12L);
+        } finally {
+            service.stop();
+        }
+
+        assertEquals(TransactionStatus.COMPLETED, txn.getStatus());
+        assertEquals(new BigDecimal("60.00"), alice.getBalance());
+    }
+
+    @Test
+    void settle_retriesWhenStoringTheFailureFails() throws Exception {
+        Transaction txn = pending(13L, "REF4", "40.00");
+        when(walletRepository.findById(2L)).thenThrow(new IllegalStateException("receiver wallet unreadable"));
+        AtomicInteger transactions = new AtomicInteger();
+        doAnswer(inv -> {
+            if (transactions.incrementAndGet() == 2) {
+                throw new CannotCreateTransactionException("connection refused");
+            }
+            return inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+        }).when(transactionTemplate).execute(any());
+
+        service.start();
+        try {
+            service.settle(13L);
+        } finally {
+            service.stop();
+        }
+
+        assertEquals(4, transactions.get());
+        assertEquals(TransactionStatus.FAILED, txn.getStatus());
+        assertEquals("receiver wallet unreadable", txn.getFailureReason());
+        assertEquals(new BigDecimal("100.00"), alice.getBalance());
+    }
+
+    @Test
+    void cancelAwait_dropsTheSubscriptionWhenTheLastWaiterLeaves() throws Exception {
+        Transaction txn = pending(14L, "REF5", "40.00");
+        CompletableFuture<Transaction> first = service.awaitSettlement("REF5");
+        CompletableFuture<Transaction> second = service.awaitSettlement("REF5");
+
+        service.cancelAwait("REF5", first);
+        service.cancelAwait("REF5", first);
+        assertEquals(1, service.subscriptionCount());
+        service.settle(14L);
+        assertSame(txn, second.getNow(null));
+        assertTrue(first.isCancelled());
+        assertEquals(0, service.subscriptionCount());
+
+        pending(15L, "REF6", "10.00");
+        CompletableFuture<Transaction> abandoned = service.awaitSettlement("REF6");
+        service.cancelAwait("REF6", abandoned);
+        assertEquals(0, service.subscriptionCount());
+    }
+
+    private Transaction pending(Long id, String reference, String amount) {
+        Transaction txn = Transaction.builder()
+                .id(id)
+                .transactionId("TXN" + id)
+                .referenceNumber(reference)
+                .fromWallet(alice)
+                .toWallet(bob)
+                .amount(new BigDecimal(amount))
+                .type(TransactionType.PEER_TRANSFER)
+                .status(TransactionStatus.PENDING)
+                .build();
+        when(transactionRepository.findById(id)).thenReturn(Optional.of(txn));
+        when(transactionRepository.findByReferenceNumber(reference)).thenReturn(Optional.of(txn));
+        return txn;
+    }
+
+    private static Wallet wallet(Long id, String username, String balance) {
+        return Wallet.builder()
+                .id(id)
+                .userId(id)
+                .balance(new BigDecimal(balance))
+                .shardCount(0)
+                .user(User.builder().id(id).username(username).build())
+                .build();
+    }
+}
@@ -0,0 +1,93 @@
+package com.wallet.digital_wallet.service;
+
+import com.wallet.digital_wallet.dto.request.TransferRequest;
+import com.wallet.digital_wallet.entity.Transaction;
+import com.wallet.digital_wallet.enums.BatchMode;
+import com.wallet.digital_wallet.exception.InsufficientBalanceException;
+import com.wallet.digital_wallet.exception.WalletBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class TransactionCoalescerTest {
+
+    private final BatchTransactionService batchTransactionService = mock(BatchTransactionService.class);
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    private TransactionCoalescer coalescer;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        coalescer.stop();
+    }
+
+    @Test
+    void concurrentTransfersShareOneBatchAndKeepTheirOwnOutcome() throws Exception {
+        // Long window so all three requests are collected; max-batch 3 dispatches as soon as they are.
+        coalescer = new TransactionCoalescer(batchTransactionService, true, 5_000_000, 3, 1, 100,
+                new SimpleMeterRegistry());
+        coalescer.start();
+        doAnswer(inv -> {
+            List<BatchItem> items = inv.getArgument(0);
+            batchSizes.add(items.size());
+            for (BatchItem item : items) {
+                if (item.amount().compareTo(new BigDecimal("50")) > 0) {
+                    item.fail(new InsufficientBalanceException("Insufficient balance"));
+                } else {
+                    item.complete(Transaction.builder().transactionId("TXN" + item.amount()).build());
+                }
+            }
+            return null;
+        }).when(batchTransactionService).apply(anyList(), eq(BatchMode.BEST_EFFORT));
+
+        ExecutorService callers = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<Transaction>> results = new ArrayList<>();
+            for (String amount : List.of("10", "20", "99")) {
+                results.add(callers.submit(() -> coalescer.execute(BatchItem.of(0, transfer(amount)))));
+            }
+
+            assertEquals("TXN10", results.get(0).get(5, TimeUnit.SECONDS).getTransactionId());
+            assertEquals("TXN20", results.get(1).get(5, TimeUnit.SECONDS).getTransactionId());
+            Exception failure = assertThrows(Exception.class, () -> results.get(2).get(5, TimeUnit.SECONDS));
+            assertTrue(failure.getCause() instanceof InsufficientBalanceException);
+            assertEquals(List.of(3), batchSizes);
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void rejectsWhenNotRunning() {
+        coalescer = new TransactionCoalescer(batchTransactionService, false, 300, 64, 1, 100,
+                new SimpleMeterRegistry());
+        coalescer.start();
+
+        assertThrows(WalletBusyException.class, () -> coalescer.execute(BatchItem.of(0, transfer("10"))));
+    }
+
+    private static TransferRequest transfer(String amount) {
+        TransferRequest request = new TransferRequest();
+        request.setFromWalletId(1L);
+        request.setToUsername("bob");
+        request.setAmount(new BigDecimal(amount));
+        request.setPin("1234");
+        return request;
+    }
+}
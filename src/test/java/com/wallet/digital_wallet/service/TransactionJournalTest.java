@@ -0,0 +1,136 @@
+package com.wallet.digital_wallet.service;
+
+import com.wallet.digital_wallet.entity.Transaction;
+import com.wallet.digital_wallet.entity.Wallet;
+import com.wallet.digital_wallet.enums.TransactionStatus;
+import com.wallet.digital_wallet.enums.TransactionType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransactionJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void append_groupsConcurrentRecordsAndRollsSegments() throws Exception {
+        TransactionJournal journal = open();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    journal.append(transfer("TXN" + i));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(16_000, journal.lastSequence());
+        // 1 MB segments hold 8192 records, so 16000 records span two files.
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(2, files.count());
+        }
+        long flushes = meterRegistry.get("wallet.journal.flush").timer().count();
+        assertTrue(flushes < 16_000, "expected group commit, got " + flushes + " flushes");
+        journal.close();
+    }
+
+    @Test
+    void open_findsTailAndReplaysFromOffset() throws Exception {
+        TransactionJournal journal = open();
+        for (int i = 1; i <= 5; i++) {
+            journal.append(transfer("TXN" + i));
+        }
+        journal.close();
+
+        // Simulate a torn write in slot 6.
+        Path segment = dir.resolve(String.format("segment-%020d.journal", 1));
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 1, 0}), 5L * JournalRecord.SIZE);
+        }
+
+        TransactionJournal reopened = open();
+        assertEquals(5, reopened.lastSequence());
+        assertEquals(6, reopened.append(transfer("TXN6")));
+
+        List<JournalRecord> replayed = new ArrayList<>();
+        assertEquals(3, reopened.replay(4, replayed::add));
+        assertEquals(List.of("TXN4", "TXN5", "TXN6"), replayed.stream().map(JournalRecord::transactionId).toList());
+        assertEquals(new BigDecimal("12.50"), replayed.get(0).amount());
+        assertEquals(TransactionType.PEER_TRANSFER, replayed.get(0).type());
+        reopened.close();
+    }
+
+    @Test
+    void append_failsInsteadOfHangingOnceAFlushFailed() throws Exception {
+        TransactionJournal journal = new TransactionJournal(true, dir.toString(), 1, 100, 60_000, meterRegistry) {
+            @Override
+            void force(long from, long to) {
+                throw new UncheckedIOException(new IOException("disk gone"));
+            }
+        };
+        journal.open();
+
+        assertThrows(IllegalStateException.class, () -> journal.append(transfer("TXN1")));
+        assertThrows(IllegalStateException.class, () -> journal.append(transfer("TXN2")));
+        journal.appendCommitted(List.of(transfer("TXN3")));
+        assertEquals(0, journal.lastSequence());
+        assertEquals(3.0, meterRegistry.get("wallet.journal.failures").counter().count());
+        journal.close();
+    }
+
+    @Test
+    void constructor_rejectsSegmentsLargerThanOneMapping() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new TransactionJournal(true, dir.toString(), 2048, 100, 5000, meterRegistry));
+        assertThrows(IllegalArgumentException.class,
+                () -> new TransactionJournal(true, dir.toString(), 0, 100, 5000, meterRegistry));
+    }
+
+    private TransactionJournal open() throws Exception {
+        TransactionJournal journal = new TransactionJournal(true, dir.toString(), 1, 100, 5000, meterRegistry);
+        journal.open();
+        return journal;
+    }
+
+    private static Transaction transfer(String transactionId) {
+        return Transaction.builder()
+                .transactionId(transactionId)
+                .referenceNumber("REF" + transactionId.substring(3))
+                .fromWallet(Wallet.builder().id(1L).build())
+                .toWallet(Wallet.builder().id(2L).build())
+                .amount(new BigDecimal("12.50"))
+                .type(TransactionType.PEER_TRANSFER)
+                .status(TransactionStatus.COMPLETED)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
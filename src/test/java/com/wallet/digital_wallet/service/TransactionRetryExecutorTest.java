@@ -0,0 +1,81 @@
+package com.wallet.digital_wallet.service;
+
+import com.wallet.digital_wallet.exception.InsufficientBalanceException;
+import com.wallet.digital_wallet.exception.WalletBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransactionRetryExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TransactionRetryExecutor executor = new TransactionRetryExecutor(3, 1, 2, meterRegistry);
+
+    @Test
+    void execute_retriesOptimisticLockFailureUntilSuccess() {
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = executor.execute("transfer", () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException("Wallet", 1L);
+            }
+            return "done";
+        });
+
+        assertEquals("done", result);
+        assertEquals(3, calls.get());
+        assertEquals(2.0, meterRegistry.get("wallet.retry.attempts").tag("operation", "transfer").counter().count());
+    }
+
+    @Test
+    void execute_givesUpAfterMaxAttempts() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(WalletBusyException.class, () -> executor.execute("payMerchant", () -> {
+            calls.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException("Wallet", 1L);
+        }));
+
+        assertEquals(3, calls.get());
+        assertEquals(1.0, meterRegistry.get("wallet.retry.exhausted").tag("operation", "payMerchant").counter().count());
+    }
+
+    @Test
+    void execute_doesNotRetryBusinessErrors() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(InsufficientBalanceException.class, () -> executor.execute("transfer", () -> {
+            calls.incrementAndGet();
+            throw new InsufficientBalanceException("Insufficient balance");
+        }));
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void isRetryable_detectsPostgresSerializationAndDeadlockStates() {
+        assertTrue(TransactionRetryExecutor.isRetryable(
+                new DataAccessResourceFailureException("tx", new SQLException("serialize", "40001"))));
+        assertTrue(TransactionRetryExecutor.isRetryable(
+                new DataAccessResourceFailureException("tx", new SQLException("deadlock", "40P01"))));
+        assertFalse(TransactionRetryExecutor.isRetryable(
+                new DataAccessResourceFailureException("tx", new SQLException("unique", "23505"))));
+    }
+
+    @Test
+    void backoffMillis_isCappedAtMaxDelay() {
+        for (int attempt = 1; attempt < 40; attempt++) {
+            long delay = executor.backoffMillis(attempt);
+            assertTrue(delay >= 0 && delay <= 2);
+        }
+    }
+}
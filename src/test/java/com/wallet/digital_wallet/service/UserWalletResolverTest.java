@@ -0,0 +1,66 @@
+package com.wallet.digital_wallet.service;
+
+import com.wallet.digital_wallet.enums.UserStatus;
+import com.wallet.digital_wallet.exception.ResourceNotFoundException;
+import com.wallet.digital_wallet.repository.UserWalletView;
+import com.wallet.digital_wallet.repository.WalletRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserWalletResolverTest {
+
+    private final WalletRepository walletRepository = mock(WalletRepository.class);
+    private final UserWalletResolver resolver = new UserWalletResolver(walletRepository, new SimpleMeterRegistry(), 10, 60);
+
+    @Test
+    void cachesResolvedReceiversUntilInvalidated() {
+        UserWalletView active = view(UserStatus.ACTIVE);
+        UserWalletView inactive = view(UserStatus.INACTIVE);
+        when(walletRepository.findUserWalletByUsername("bob")).thenReturn(Optional.of(active))
+                .thenReturn(Optional.of(inactive));
+
+        assertEquals(20L, resolver.resolve("bob").walletId());
+        assertTrue(resolver.resolve("bob").isActive());
+        verify(walletRepository, times(1)).findUserWalletByUsername("bob");
+
+        resolver.invalidate("bob");
+        assertFalse(resolver.resolve("bob").isActive());
+        assertThrows(ResourceNotFoundException.class, () -> resolver.resolve("nobody"));
+    }
+
+    @Test
+    void loadRacingAnInvalidationIsNotCached() {
+        UserWalletView active = view(UserStatus.ACTIVE);
+        UserWalletView inactive = view(UserStatus.INACTIVE);
+        when(walletRepository.findUserWalletByUsername("bob"))
+                .thenAnswer(invocation -> {
+                    // the deactivating transaction commits after this read saw the old row
+                    resolver.invalidate("bob");
+                    return Optional.of(active);
+                })
+                .thenReturn(Optional.of(inactive));
+
+        assertTrue(resolver.resolve("bob").isActive());
+        assertFalse(resolver.resolve("bob").isActive());
+        verify(walletRepository, times(2)).findUserWalletByUsername("bob");
+    }
+
+    private static UserWalletView view(UserStatus status) {
+        UserWalletView view = mock(UserWalletView.class);
+        when(view.getUserId()).thenReturn(2L);
+        when(view.getWalletId()).thenReturn(20L);
+        when(view.getStatus()).thenReturn(status);
+        return view;
+    }
+}
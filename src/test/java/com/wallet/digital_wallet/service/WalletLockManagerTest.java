@@ -0,0 +1,97 @@
+package com.wallet.digital_wallet.service;
+
+import com.wallet.digital_wallet.exception.WalletBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WalletLockManagerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void stripeOrder_isAscendingAndDistinctRegardlessOfArgumentOrder() {
+        WalletLockManager manager = new WalletLockManager(64, 100, meterRegistry);
+
+        int[] forward = manager.stripeOrder(List.of(1L, 2L, 3L));
+        int[] backward = manager.stripeOrder(List.of(3L, 2L, 1L, 2L));
+
+        assertArrayEquals(forward, backward);
+        for (int i = 1; i < forward.length; i++) {
+            assertTrue(forward[i - 1] < forward[i]);
+        }
+        assertEquals(64, manager.stripeCount());
+    }
+
+    @Test
+    void withLocks_opposingTransfersDoNotDeadlock() throws Exception {
+        WalletLockManager manager = new WalletLockManager(1024, 5000, meterRegistry);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        long[] balances = {1_000_000, 1_000_000};
+
+        Runnable aToB = () -> {
+            for (int i = 0; i < 10_000; i++) {
+                manager.withLocks(List.of(1L, 2L), () -> {
+                    balances[0]--;
+                    balances[1]++;
+                    return null;
+                });
+            }
+        };
+        Runnable bToA = () -> {
+            for (int i = 0; i < 10_000; i++) {
+                manager.withLocks(List.of(2L, 1L), () -> {
+                    balances[1] -= 2;
+                    balances[0] += 2;
+                    return null;
+                });
+            }
+        };
+
+        Future<?> first = pool.submit(aToB);
+        Future<?> second = pool.submit(bToA);
+        first.get(30, TimeUnit.SECONDS);
+        second.get(30, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        assertEquals(1_010_000, balances[0]);
+        assertEquals(990_000, balances[1]);
+        assertEquals(20_000, meterRegistry.get("wallet.lock.wait").tag("outcome", "acquired").timer().count());
+    }
+
+    @Test
+    void withLocks_throwsWalletBusyWhenTimeoutElapses() throws Exception {
+        WalletLockManager manager = new WalletLockManager(16, 50, meterRegistry);
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Thread holder = new Thread(() -> manager.withLocks(List.of(7L), () -> {
+            held.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        holder.start();
+        held.await();
+
+        assertThrows(WalletBusyException.class, () -> manager.withLocks(List.of(7L), () -> null));
+
+        release.countDown();
+        holder.join();
+        assertEquals(1, meterRegistry.get("wallet.lock.wait").tag("outcome", "timeout").timer().count());
+    }
+}
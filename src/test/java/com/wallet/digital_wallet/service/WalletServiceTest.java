@@ -1,19 +1,28 @@
 package com.wallet.digital_wallet.service;
 
+import com.wallet.digital_wallet.dto.request.AddMoneyRequest;
 import com.wallet.digital_wallet.entity.Wallet;
 import com.wallet.digital_wallet.repository.WalletRepository;
+import com.wallet.digital_wallet.repository.WalletSnapshotView;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -23,6 +32,24 @@ class WalletServiceTest {
     @Mock
     private WalletRepository walletRepository;
 
+    @Mock
+    private WalletSnapshotCache walletSnapshotCache;
+
+    @Mock
+    private TransactionRetryExecutor retryExecutor;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private WalletShardService walletShardService;
+
+    @Mock
+    private LedgerEngine ledgerEngine;
+
+    @Mock
+    private LedgerPostingService ledgerPostingService;
+
     @InjectMocks
     private WalletService walletService;
 
@@ -50,4 +77,36 @@ class WalletServiceTest {
         assertThrows(IllegalArgumentException.class, () -> walletService.setDailyLimit(10L, BigDecimal.ZERO));
         assertThrows(IllegalArgumentException.class, () -> walletService.setDailyLimit(10L, null));
     }
+
+    @Test
+    void addMoney_toShardedWalletSkipsTheSaveAndReturnsTheNewTotal() {
+        Wallet wallet = Wallet.builder()
+                .id(10L)
+                .userId(99L)
+                .balance(new BigDecimal("5.00"))
+                .shardCount(4)
+                .shardBalance(new BigDecimal("20.00"))
+                .walletNumber("WAL123")
+                .build();
+        WalletSnapshotView afterCredit = mock(WalletSnapshotView.class);
+        when(afterCredit.getBalance()).thenReturn(new BigDecimal("5.00"));
+        when(afterCredit.getShardBalance()).thenReturn(new BigDecimal("30.00"));
+        when(afterCredit.getShardCount()).thenReturn(4);
+
+        when(retryExecutor.execute(anyString(), any())).thenAnswer(invocation ->
+                invocation.<Supplier<?>>getArgument(1).get());
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(walletRepository.findById(10L)).thenReturn(Optional.of(wallet));
+        when(walletRepository.findSnapshotById(10L)).thenReturn(Optional.of(afterCredit));
+
+        AddMoneyRequest request = new AddMoneyRequest();
+        request.setAmount(new BigDecimal("10.00"));
+        Wallet result = walletService.addMoney(10L, request);
+
+        assertEquals(new BigDecimal("35.00"), result.getTotalBalance());
+        verify(walletShardService).credit(10L, 4, new BigDecimal("10.00"));
+        verify(walletRepository, never()).save(any(Wallet.class));
+        verify(walletRepository, times(1)).findById(10L);
+    }
 }
@@ -0,0 +1,169 @@
+package com.wallet.digital_wallet.service;
+
+import com.wallet.digital_wallet.entity.Wallet;
+import com.wallet.digital_wallet.entity.WalletBalanceShard;
+import com.wallet.digital_wallet.exception.InsufficientBalanceException;
+import com.wallet.digital_wallet.exception.ResourceNotFoundException;
+import com.wallet.digital_wallet.repository.WalletBalanceShardRepository;
+import com.wallet.digital_wallet.repository.WalletRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WalletShardServiceTest {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("5.00");
+
+    private final WalletRepository walletRepository = mock(WalletRepository.class);
+    private final WalletBalanceShardRepository shardRepository = mock(WalletBalanceShardRepository.class);
+    private final WalletLockManager walletLockManager = mock(WalletLockManager.class);
+    private final TransactionRetryExecutor retryExecutor = mock(TransactionRetryExecutor.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final WalletSnapshotCache walletSnapshotCache = mock(WalletSnapshotCache.class);
+    private final WalletShardService service = new WalletShardService(walletRepository, shardRepository,
+            walletLockManager, retryExecutor, transactionTemplate, mock(LedgerEngine.class), walletSnapshotCache);
+    private final List<WalletBalanceShard> saved = new ArrayList<>();
+
+    @BeforeEach
+    void runWalletLockedWorkInline() {
+        when(retryExecutor.execute(anyString(), any())).thenAnswer(inv -> ((Supplier<?>) inv.getArgument(1)).get());
+        when(walletLockManager.withLocks(any(), any())).thenAnswer(inv -> ((Supplier<?>) inv.getArgument(1)).get());
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(inv -> ((TransactionCallback<?>) inv.getArgument(0)).doInTransaction(null));
+        when(walletRepository.saveAndFlush(any(Wallet.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(shardRepository.saveAll(any())).thenAnswer(inv -> {
+            saved.addAll(inv.getArgument(0));
+            return inv.getArgument(0);
+        });
+    }
+
+    @Test
+    void credit_retriesOnAValidShardWhenTheSeenShardIsGone() {
+        when(shardRepository.credit(eq(1L), anyInt(), eq(AMOUNT))).thenReturn(0).thenReturn(1);
+        when(walletRepository.findShardCountById(1L)).thenReturn(Optional.of(2));
+
+        service.credit(1L, 8, AMOUNT);
+
+        ArgumentCaptor<Integer> shardIndex = ArgumentCaptor.forClass(Integer.class);
+        verify(shardRepository, times(2)).credit(eq(1L), shardIndex.capture(), eq(AMOUNT));
+        assertTrue(shardIndex.getAllValues().get(1) < 2);
+        verify(walletRepository, never()).creditIfUnsharded(any(), any());
+        verify(walletRepository, never()).credit(any(), any());
+    }
+
+    @Test
+    void credit_afterADemoteGoesToTheUnshardedWalletRow() {
+        when(shardRepository.credit(eq(1L), anyInt(), eq(AMOUNT))).thenReturn(0);
+        when(walletRepository.findShardCountById(1L)).thenReturn(Optional.of(0));
+        when(walletRepository.creditIfUnsharded(1L, AMOUNT)).thenReturn(1);
+
+        service.credit(1L, 4, AMOUNT);
+
+        verify(walletRepository).creditIfUnsharded(1L, AMOUNT);
+        verify(walletSnapshotCache).evict(1L);
+    }
+
+    @Test
+    void credit_ofAMissingWalletFails() {
+        when(shardRepository.credit(eq(1L), anyInt(), eq(AMOUNT))).thenReturn(0);
+        when(walletRepository.findShardCountById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> service.credit(1L, 4, AMOUNT));
+    }
+
+    @Test
+    void debit_sweepsShardsInIndexOrderAndChecksTheirTotal() {
+        List<WalletBalanceShard> shards = List.of(shard(0, "5.00"), shard(1, "10.00"), shard(2, "20.00"));
+        when(shardRepository.lockByWalletId(1L)).thenReturn(shards);
+
+        service.debit(1L, new BigDecimal("12.00"));
+
+        assertEquals(List.of(new BigDecimal("0.00"), new BigDecimal("3.00"), new BigDecimal("20.00")),
+                shards.stream().map(WalletBalanceShard::getBalance).toList());
+        assertThrows(InsufficientBalanceException.class, () -> service.debit(1L, new BigDecimal("23.01")));
+    }
+
+    @Test
+    void debit_ofAWalletWithoutShardsIsRetried() {
+        when(shardRepository.lockByWalletId(1L)).thenReturn(List.of());
+
+        assertFalse(service.tryDebit(1L, AMOUNT));
+        assertThrows(ConcurrencyFailureException.class, () -> service.debit(1L, AMOUNT));
+    }
+
+    @Test
+    void promote_splitsTheBalanceWithTheRemainderOnShardZero() {
+        Wallet wallet = wallet(0, "10.00");
+        when(walletRepository.findById(1L)).thenReturn(Optional.of(wallet));
+
+        service.promote(1L, 3);
+
+        assertEquals(List.of(new BigDecimal("3.34"), new BigDecimal("3.33"), new BigDecimal("3.33")),
+                saved.stream().map(WalletBalanceShard::getBalance).toList());
+        assertEquals(0, BigDecimal.ZERO.compareTo(wallet.getBalance()));
+        assertEquals(3, wallet.getShardCount());
+        assertTrue(service.isSharded(1L));
+    }
+
+    @Test
+    void demote_foldsShardsIntoTheWalletRow() {
+        Wallet wallet = wallet(2, "1.00");
+        when(walletRepository.findById(1L)).thenReturn(Optional.of(wallet));
+        when(shardRepository.lockByWalletId(1L)).thenReturn(List.of(shard(0, "4.00"), shard(1, "5.00")));
+
+        service.demote(1L);
+
+        assertEquals(new BigDecimal("10.00"), wallet.getBalance());
+        assertEquals(0, wallet.getShardCount());
+        verify(shardRepository).deleteByWalletId(1L);
+    }
+
+    @Test
+    void rebalance_foldsTheWalletRowBalanceIntoTheShards() {
+        Wallet wallet = wallet(2, "3.00");
+        when(walletRepository.findById(1L)).thenReturn(Optional.of(wallet));
+        when(shardRepository.lockByWalletId(1L)).thenReturn(List.of(shard(0, "1.00"), shard(1, "6.00")));
+
+        service.rebalance(1L);
+
+        assertEquals(List.of(new BigDecimal("5.00"), new BigDecimal("5.00")),
+                saved.stream().map(WalletBalanceShard::getBalance).toList());
+        assertEquals(0, BigDecimal.ZERO.compareTo(wallet.getBalance()));
+    }
+
+    private static Wallet wallet(int shardCount, String balance) {
+        return Wallet.builder()
+                .id(1L)
+                .walletNumber("WAL1")
+                .balance(new BigDecimal(balance))
+                .shardCount(shardCount)
+                .build();
+    }
+
+    private static WalletBalanceShard shard(int index, String balance) {
+        return WalletBalanceShard.builder().walletId(1L).shardIndex(index).balance(new BigDecimal(balance)).build();
+    }
+}
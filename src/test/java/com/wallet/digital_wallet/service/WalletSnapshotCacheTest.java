@@ -0,0 +1,90 @@
+package com.wallet.digital_wallet.service;
+
+import com.wallet.digital_wallet.entity.Wallet;
+import com.wallet.digital_wallet.repository.WalletSnapshotView;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WalletSnapshotCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final WalletSnapshotCache cache = new WalletSnapshotCache(meterRegistry, true, 100);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void entityWritesAreWrittenThroughAfterCommitAndReadsBypassOpenWrites() {
+        Supplier<WalletSnapshotView> loader = loader(1L, "100.00", 1L);
+        assertEquals(new BigDecimal("100.00"), cache.get(1L, loader).balance());
+        assertEquals(new BigDecimal("100.00"), cache.get(1L, loader).balance());
+        assertEquals(1, loads.get());
+
+        Wallet wallet = Wallet.builder().id(1L).walletNumber("W1").balance(new BigDecimal("100.00"))
+                .dailyLimit(new BigDecimal("10000")).version(1L).build();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            wallet.debit(new BigDecimal("30.00"));
+            cache.written(wallet);
+            wallet.setVersion(2L);
+            assertEquals(new BigDecimal("100.00"), cache.get(1L, loader).balance());
+            assertEquals(2, loads.get());
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        WalletSnapshotCache.WalletSnapshot snapshot = cache.get(1L, loader);
+        assertEquals(new BigDecimal("70.00"), snapshot.balance());
+        assertEquals(2L, snapshot.version());
+        assertEquals(2, loads.get());
+        assertEquals(1.0, meterRegistry.get("wallet.snapshot.cache").tag("result", "bypass").counter().count());
+    }
+
+    @Test
+    void loadsRacingAWriteAreNotCached() {
+        Supplier<WalletSnapshotView> racing = () -> {
+            cache.evict(2L);
+            return loader(2L, "50.00", 1L).get();
+        };
+        cache.get(2L, racing);
+        assertEquals(0, cache.size());
+        assertEquals(1.0, meterRegistry.get("wallet.snapshot.cache.stale").counter().count());
+
+        cache.get(2L, loader(2L, "40.00", 2L));
+        assertEquals(new BigDecimal("40.00"), cache.get(2L, loader(2L, "0.00", 0L)).balance());
+    }
+
+    @Test
+    void segmentsShareTheSizeBound() {
+        for (long id = 1; id <= 1000; id++) {
+            cache.get(id, loader(id, "1.00", 1L));
+        }
+        assertEquals(100, cache.size());
+        cache.get(1000L, loader(1000L, "0.00", 0L));
+        assertEquals(1000, loads.get());
+    }
+
+    private Supplier<WalletSnapshotView> loader(long id, String balance, long version) {
+        return () -> {
+            loads.incrementAndGet();
+            WalletSnapshotView view = mock(WalletSnapshotView.class);
+            when(view.getId()).thenReturn(id);
+            when(view.getWalletNumber()).thenReturn("W1");
+            when(view.getBalance()).thenReturn(new BigDecimal(balance));
+            when(view.getShardCount()).thenReturn(0);
+            when(view.getDailyLimit()).thenReturn(new BigDecimal("10000"));
+            when(view.getVersion()).thenReturn(version);
+            return view;
+        };
+    }
+}